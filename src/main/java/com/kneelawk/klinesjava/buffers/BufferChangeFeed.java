@@ -0,0 +1,275 @@
+package com.kneelawk.klinesjava.buffers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BufferChangeFeed - Records the changes made to a buffer and delivers them to listeners in order when flushed.
+ * <p>
+ * Events are stored in primitive arrays that are reused between flushes, so recording events does not allocate once
+ * the arrays have grown to fit a typical batch. Consecutive overwrites of touching chunks are merged into a single
+ * event.
+ */
+public class BufferChangeFeed {
+    private static final byte EVENT_SET = 0;
+    private static final byte EVENT_INSERT = 1;
+    private static final byte EVENT_REMOVE = 2;
+    private static final byte EVENT_CLEAR = 3;
+
+    private final List<BufferChangeListener> listeners = new ArrayList<>();
+    private byte[] types = new byte[16];
+    private long[] offsets = new long[16];
+    private long[] lengths = new long[16];
+    private int eventCount = 0;
+    private int firstMergeableEvent = 0;
+    private int flushEnd = 0;
+    private boolean flushing = false;
+
+    /**
+     * Adds a listener to receive the events delivered by {@link #flush()}.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(BufferChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener so it no longer receives events.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeListener(BufferChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the number of events waiting to be delivered.
+     *
+     * @return the number of events waiting to be delivered.
+     */
+    public int getPendingEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Delivers every recorded event to every listener in the order they were recorded, then forgets them.
+     * <p>
+     * Events recorded by listeners during delivery are kept for the next flush. A listener calling {@link #discard()}
+     * stops delivery of the events that have not been delivered yet. If a listener throws, the events of this flush
+     * are still forgotten.
+     *
+     * @throws IllegalStateException if this feed is already being flushed.
+     */
+    public void flush() {
+        if (flushing) {
+            throw new IllegalStateException("Cannot flush a feed while it is being flushed");
+        }
+
+        flushing = true;
+        flushEnd = eventCount;
+        firstMergeableEvent = flushEnd;
+
+        try {
+            deliver();
+        } finally {
+            // events recorded by listeners during delivery belong to the next flush
+            int remaining = eventCount - flushEnd;
+            System.arraycopy(types, flushEnd, types, 0, remaining);
+            System.arraycopy(offsets, flushEnd, offsets, 0, remaining);
+            System.arraycopy(lengths, flushEnd, lengths, 0, remaining);
+            eventCount = remaining;
+            firstMergeableEvent = 0;
+            flushEnd = 0;
+            flushing = false;
+        }
+    }
+
+    private void deliver() {
+        // flushEnd drops to zero if a listener discards the events
+        for (int i = 0; i < flushEnd; i++) {
+            byte type = types[i];
+            long offset = offsets[i];
+            long length = lengths[i];
+
+            for (int l = 0; l < listeners.size() && i < flushEnd; l++) {
+                BufferChangeListener listener = listeners.get(l);
+                switch (type) {
+                    case EVENT_SET:
+                        listener.onSet(offset, length);
+                        break;
+                    case EVENT_INSERT:
+                        listener.onInsert(offset, length);
+                        break;
+                    case EVENT_REMOVE:
+                        listener.onRemove(offset, length);
+                        break;
+                    default:
+                        listener.onClear();
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets every recorded event without delivering them. When called by a listener during {@link #flush()}, the
+     * events of that flush that have not been delivered yet are forgotten too.
+     */
+    public void discard() {
+        eventCount = 0;
+        firstMergeableEvent = 0;
+        flushEnd = 0;
+    }
+
+    /**
+     * Records that a chunk has been overwritten.
+     *
+     * @param offset the position of the first changed unit.
+     * @param length the number of changed units.
+     */
+    public void recordSet(long offset, long length) {
+        if (length <= 0) {
+            return;
+        }
+
+        // merge with the previous overwrite if the two touch
+        if (eventCount > firstMergeableEvent && types[eventCount - 1] == EVENT_SET) {
+            long lastOffset = offsets[eventCount - 1];
+            long lastEnd = lastOffset + lengths[eventCount - 1];
+            if (offset <= lastEnd && offset + length >= lastOffset) {
+                long start = Math.min(offset, lastOffset);
+                offsets[eventCount - 1] = start;
+                lengths[eventCount - 1] = Math.max(offset + length, lastEnd) - start;
+                return;
+            }
+        }
+
+        record(EVENT_SET, offset, length);
+    }
+
+    /**
+     * Records that a chunk has been inserted.
+     *
+     * @param offset the position the chunk was inserted at.
+     * @param length the number of units inserted.
+     */
+    public void recordInsert(long offset, long length) {
+        if (length > 0) {
+            record(EVENT_INSERT, offset, length);
+        }
+    }
+
+    /**
+     * Records that a chunk has been removed.
+     *
+     * @param offset the position of the first removed unit.
+     * @param length the number of units removed.
+     */
+    public void recordRemove(long offset, long length) {
+        if (length > 0) {
+            record(EVENT_REMOVE, offset, length);
+        }
+    }
+
+    /**
+     * Records that the buffer has been cleared.
+     * <p>
+     * Events recorded before this one are still delivered so listeners always see every change in order.
+     */
+    public void recordClear() {
+        record(EVENT_CLEAR, 0, 0);
+    }
+
+    /**
+     * Records the events for a chunk of a buffer being replaced by a chunk of a possibly different length, using the
+     * same rules as the buffers' replace operations. Sets, inserts, fills and replaces can all be described this way.
+     *
+     * @param offset      the position of the chunk that was replaced.
+     * @param chunkLength the length of the chunk that was replaced.
+     * @param length      the length of the chunk that replaced it.
+     * @param oldSize     the size of the buffer before it was modified.
+     */
+    public void recordReplace(long offset, long chunkLength, long length, long oldSize) {
+        if (offset >= oldSize) {
+            // everything between the old end and the end of the new chunk is new
+            recordInsert(oldSize, offset + length - oldSize);
+            return;
+        }
+
+        long replacedLength = Math.min(chunkLength, oldSize - offset);
+
+        recordSet(offset, Math.min(replacedLength, length));
+
+        if (length > replacedLength) {
+            recordInsert(offset + replacedLength, length - replacedLength);
+        } else {
+            recordRemove(offset + length, replacedLength - length);
+        }
+    }
+
+    /**
+     * Records the events for a chunk being removed from a buffer, using the same rules as the buffers' remove
+     * operations.
+     *
+     * @param offset      the position of the chunk that was removed.
+     * @param chunkLength the length of the chunk that was removed.
+     * @param oldSize     the size of the buffer before it was modified.
+     */
+    public void recordRemove(long offset, long chunkLength, long oldSize) {
+        if (offset < oldSize) {
+            recordRemove(offset, Math.min(chunkLength, oldSize - offset));
+        }
+    }
+
+    /**
+     * Records the events for a chunk being swap-removed from a buffer.
+     *
+     * @param offset      the position of the chunk that was removed.
+     * @param chunkLength the length of the chunk that was removed.
+     * @param source      the position returned by the swap-remove.
+     * @param oldSize     the size of the buffer before it was modified.
+     */
+    public void recordSwapRemove(long offset, long chunkLength, long source, long oldSize) {
+        if (offset >= oldSize) {
+            return;
+        }
+
+        if (source < oldSize) {
+            // the hole was overwritten by the relocated data and the end of the buffer was cut off
+            recordSet(offset, oldSize - source);
+            recordRemove(oldSize - chunkLength, chunkLength);
+        } else {
+            recordRemove(offset, Math.min(chunkLength, oldSize - offset));
+        }
+    }
+
+    /**
+     * Records the events for a buffer being resized.
+     *
+     * @param oldSize the size of the buffer before it was resized.
+     * @param newSize the size of the buffer after it was resized.
+     */
+    public void recordResize(long oldSize, long newSize) {
+        if (newSize > oldSize) {
+            recordInsert(oldSize, newSize - oldSize);
+        } else {
+            recordRemove(newSize, oldSize - newSize);
+        }
+    }
+
+    private void record(byte type, long offset, long length) {
+        if (eventCount == types.length) {
+            int newLength = types.length * 2;
+            types = Arrays.copyOf(types, newLength);
+            offsets = Arrays.copyOf(offsets, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+
+        types[eventCount] = type;
+        offsets[eventCount] = offset;
+        lengths[eventCount] = length;
+        eventCount++;
+    }
+}
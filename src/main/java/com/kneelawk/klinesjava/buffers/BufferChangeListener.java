@@ -0,0 +1,38 @@
+package com.kneelawk.klinesjava.buffers;
+
+/**
+ * BufferChangeListener - Receives the changes made to a buffer, see {@link BufferChangeFeed}.
+ * <p>
+ * Positions and lengths are in the units of the buffer being observed, bytes for data buffers and elements for object
+ * buffers. Each event is relative to the buffer as it was after all the events before it were applied.
+ */
+public interface BufferChangeListener {
+    /**
+     * Called when a chunk of a buffer has been overwritten. The size of the buffer did not change.
+     *
+     * @param offset the position of the first changed unit.
+     * @param length the number of changed units.
+     */
+    void onSet(long offset, long length);
+
+    /**
+     * Called when a chunk has been inserted into a buffer, moving everything at and after offset back by length.
+     *
+     * @param offset the position the chunk was inserted at.
+     * @param length the number of units inserted.
+     */
+    void onInsert(long offset, long length);
+
+    /**
+     * Called when a chunk has been removed from a buffer, moving everything after it forward by length.
+     *
+     * @param offset the position of the first removed unit.
+     * @param length the number of units removed.
+     */
+    void onRemove(long offset, long length);
+
+    /**
+     * Called when a buffer has been cleared.
+     */
+    void onClear();
+}
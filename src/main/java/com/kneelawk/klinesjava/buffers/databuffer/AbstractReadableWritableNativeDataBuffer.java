@@ -1,5 +1,7 @@
 package com.kneelawk.klinesjava.buffers.databuffer;
 
+import com.kneelawk.klinesjava.buffers.ElementShifts;
+
 public abstract class AbstractReadableWritableNativeDataBuffer implements ReadableWritableNativeDataBuffer {
 
     /**
@@ -280,6 +282,46 @@ public abstract class AbstractReadableWritableNativeDataBuffer implements Readab
         officialSize = length;
     }
 
+    /**
+     * Fills a chunk of data within this buffer with a repeating pattern.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     * Both offset and length must be multiples of the size of the pattern.
+     *
+     * @param offset       the position in bytes of the chunk to fill.
+     * @param length       the length in bytes of the chunk to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern. This can be at most
+     *                     {@link ElementShifts#ELEMENT_SHIFT_INT}.
+     */
+    @Override
+    public void fill(long offset, long length, int pattern, int elementShift) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be less than zero");
+        }
+
+        if (elementShift < ElementShifts.ELEMENT_SHIFT_BYTE || elementShift > ElementShifts.ELEMENT_SHIFT_INT) {
+            throw new IllegalArgumentException("ElementShift must be between 0 and 2");
+        }
+
+        long patternMask = (1L << elementShift) - 1;
+        if ((offset & patternMask) != 0 || (length & patternMask) != 0) {
+            throw new IllegalArgumentException("Offset and length must be multiples of the pattern size");
+        }
+
+        ensureCapacity(offset + length);
+
+        fillData(offset, length, pattern, elementShift);
+
+        if (offset + length > officialSize) {
+            officialSize = offset + length;
+        }
+    }
+
     /**
      * Appends empty space to the end of this buffer.
      *
@@ -369,6 +411,51 @@ public abstract class AbstractReadableWritableNativeDataBuffer implements Readab
         }
     }
 
+    /**
+     * Removes a chunk of data from this buffer by moving the data at the end of this buffer into the hole left by the
+     * removed chunk.
+     * <p>
+     * Unlike {@link #remove(long, long)}, this does not preserve the order of the data in this buffer, but it only ever
+     * moves at most chunkLength bytes, no matter how large this buffer is.
+     *
+     * @param offset      position in bytes of the chunk of data to be removed.
+     * @param chunkLength the length in bytes of the chunk of data to be removed.
+     * @return the position in bytes the relocated data was moved from. Every byte that was at or after this position
+     * before the removal is now at offset + (its old position - this position). If nothing was relocated, this is the
+     * old size of this buffer.
+     */
+    @Override
+    public long swapRemove(long offset, long chunkLength) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        if (chunkLength < 0) {
+            throw new IllegalArgumentException("ChunkLength cannot be less than zero");
+        }
+
+        long oldSize = officialSize;
+
+        if (offset >= oldSize) {
+            return oldSize;
+        }
+
+        if (offset + chunkLength >= oldSize) {
+            officialSize = offset;
+            return oldSize;
+        }
+
+        // if the hole is close to the end, only the data after the hole needs to move
+        long movedLength = Math.min(chunkLength, oldSize - (offset + chunkLength));
+        long source = oldSize - movedLength;
+
+        copyChunk(source, offset, movedLength);
+
+        officialSize -= chunkLength;
+
+        return source;
+    }
+
     /**
      * Removes everything at and after offset from this buffer, resizing as necessary.
      *
@@ -433,6 +520,18 @@ public abstract class AbstractReadableWritableNativeDataBuffer implements Readab
      */
     protected abstract void putData(long offset, long length, long address);
 
+    /**
+     * Fills a chunk of data within this buffer with a repeating pattern.
+     * <p>
+     * The offset and length have already been checked to be multiples of the pattern size.
+     *
+     * @param offset       the position in bytes of the first byte within this buffer to fill.
+     * @param length       the length in bytes of the chunk of data to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern.
+     */
+    protected abstract void fillData(long offset, long length, int pattern, int elementShift);
+
     /**
      * Makes sure the underlying implementation can handle data puts and gets up to capacity.
      *
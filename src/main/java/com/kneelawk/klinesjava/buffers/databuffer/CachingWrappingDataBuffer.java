@@ -6,20 +6,81 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.*;
 
+import static com.kneelawk.klinesjava.buffers.ElementShifts.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
 /**
  * CachingWrappingDataBuffer - This buffer is used to cache data written to another buffer. Everything written to this
  * buffer is both written to an internal buffer and to the wrapped buffer. The internal buffer holds the written data so
  * that read operations can be performed.
+ * <p>
+ * When compare-before-upload is enabled, data being set is first compared against the cached copy and only the parts
+ * that actually changed are written to the wrapped buffer. This is useful when the wrapped buffer lives on the GPU and
+ * large ranges are re-set while only a few values in them change.
  */
 public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Closeable {
+    /**
+     * Changed runs separated by fewer unchanged bytes than this are written to the wrapped buffer as a single run,
+     * because many tiny writes cost more than writing a few unchanged bytes.
+     */
+    private static final long COMPARE_MERGE_GAP = 64;
+
     private WritableDataBuffer wrapped;
     private DirectDataBuffer cache;
+    private boolean compareBeforeUpload = false;
+    private long comparedBytes = 0;
+    private long suppressedBytes = 0;
 
     public CachingWrappingDataBuffer(WritableDataBuffer wrapped) {
         this.wrapped = wrapped;
         cache = new DirectDataBuffer();
     }
 
+    /**
+     * Gets whether data being set is compared against the cached copy before being written to the wrapped buffer.
+     *
+     * @return whether compare-before-upload is enabled.
+     */
+    public boolean isCompareBeforeUpload() {
+        return compareBeforeUpload;
+    }
+
+    /**
+     * Sets whether data being set is compared against the cached copy before being written to the wrapped buffer, so
+     * that only the parts that actually changed are written to it.
+     *
+     * @param compareBeforeUpload whether compare-before-upload should be enabled.
+     */
+    public void setCompareBeforeUpload(boolean compareBeforeUpload) {
+        this.compareBeforeUpload = compareBeforeUpload;
+    }
+
+    /**
+     * Gets the number of bytes passed to set operations while compare-before-upload was enabled.
+     *
+     * @return the number of bytes that have been compared since the statistics were last reset.
+     */
+    public long getComparedBytes() {
+        return comparedBytes;
+    }
+
+    /**
+     * Gets the number of bytes that were not written to the wrapped buffer because they had not changed.
+     *
+     * @return the number of bytes that have been suppressed since the statistics were last reset.
+     */
+    public long getSuppressedBytes() {
+        return suppressedBytes;
+    }
+
+    /**
+     * Resets the compare-before-upload statistics.
+     */
+    public void resetStatistics() {
+        comparedBytes = 0;
+        suppressedBytes = 0;
+    }
+
     /**
      * Reads a chunk of data starting at offset into the buffer.
      *
@@ -54,8 +115,18 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, Buffer buffer, int elementShift) {
-        cache.set(offset, buffer, elementShift);
-        wrapped.set(offset, buffer, elementShift);
+        if (compareBeforeUpload) {
+            // the cache would reject heap buffers anyway, but only after they had been read through a bogus address
+            if (!buffer.isDirect()) {
+                throw new IllegalArgumentException("This buffer only supports direct java nio buffers");
+            }
+
+            setCompared(offset, ((long) buffer.remaining()) << ((long) elementShift), memAddress(buffer));
+            cache.set(offset, buffer, elementShift);
+        } else {
+            cache.set(offset, buffer, elementShift);
+            wrapped.set(offset, buffer, elementShift);
+        }
     }
 
     /**
@@ -68,8 +139,13 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, CustomBuffer<?> buffer) {
-        cache.set(offset, buffer);
-        wrapped.set(offset, buffer);
+        if (compareBeforeUpload) {
+            setCompared(offset, ((long) buffer.remaining()) * ((long) buffer.sizeof()), memAddress(buffer));
+            cache.set(offset, buffer);
+        } else {
+            cache.set(offset, buffer);
+            wrapped.set(offset, buffer);
+        }
     }
 
     /**
@@ -304,6 +380,22 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
         wrapped.remove(offset, chunkLength);
     }
 
+    /**
+     * Removes a chunk of data from this buffer by moving the data at the end of this buffer into the hole left by the
+     * removed chunk.
+     *
+     * @param offset      position in bytes of the chunk of data to be removed.
+     * @param chunkLength the length in bytes of the chunk of data to be removed.
+     * @return the position in bytes the relocated data was moved from. Every byte that was at or after this position
+     * before the removal is now at offset + (its old position - this position). If nothing was relocated, this is the
+     * old size of this buffer.
+     */
+    @Override
+    public long swapRemove(long offset, long chunkLength) {
+        wrapped.swapRemove(offset, chunkLength);
+        return cache.swapRemove(offset, chunkLength);
+    }
+
     /**
      * Removes everything at and after offset from this buffer, resizing as necessary.
      *
@@ -504,8 +596,7 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, ByteBuffer buffer) {
-        cache.set(offset, buffer);
-        wrapped.set(offset, buffer);
+        set(offset, buffer, ELEMENT_SHIFT_BYTE);
     }
 
     /**
@@ -518,6 +609,15 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, byte value) {
+        if (isComparable(offset, 1)) {
+            comparedBytes += 1;
+
+            if (cache.readByte(offset) == value) {
+                suppressedBytes += 1;
+                return;
+            }
+        }
+
         cache.set(offset, value);
         wrapped.set(offset, value);
     }
@@ -532,8 +632,7 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, ShortBuffer buffer) {
-        cache.set(offset, buffer);
-        wrapped.set(offset, buffer);
+        set(offset, buffer, ELEMENT_SHIFT_SHORT);
     }
 
     /**
@@ -546,6 +645,15 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, short value) {
+        if (isComparable(offset, 2)) {
+            comparedBytes += 2;
+
+            if (cache.readShort(offset) == value) {
+                suppressedBytes += 2;
+                return;
+            }
+        }
+
         cache.set(offset, value);
         wrapped.set(offset, value);
     }
@@ -560,8 +668,7 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, IntBuffer buffer) {
-        cache.set(offset, buffer);
-        wrapped.set(offset, buffer);
+        set(offset, buffer, ELEMENT_SHIFT_INT);
     }
 
     /**
@@ -574,6 +681,15 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, int value) {
+        if (isComparable(offset, 4)) {
+            comparedBytes += 4;
+
+            if (cache.readInt(offset) == value) {
+                suppressedBytes += 4;
+                return;
+            }
+        }
+
         cache.set(offset, value);
         wrapped.set(offset, value);
     }
@@ -588,8 +704,7 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, LongBuffer buffer) {
-        cache.set(offset, buffer);
-        wrapped.set(offset, buffer);
+        set(offset, buffer, ELEMENT_SHIFT_LONG);
     }
 
     /**
@@ -602,6 +717,15 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, long value) {
+        if (isComparable(offset, 8)) {
+            comparedBytes += 8;
+
+            if (cache.readLong(offset) == value) {
+                suppressedBytes += 8;
+                return;
+            }
+        }
+
         cache.set(offset, value);
         wrapped.set(offset, value);
     }
@@ -616,8 +740,7 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, FloatBuffer buffer) {
-        cache.set(offset, buffer);
-        wrapped.set(offset, buffer);
+        set(offset, buffer, ELEMENT_SHIFT_FLOAT);
     }
 
     /**
@@ -630,6 +753,15 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, float value) {
+        if (isComparable(offset, 4)) {
+            comparedBytes += 4;
+
+            if (Float.floatToRawIntBits(cache.readFloat(offset)) == Float.floatToRawIntBits(value)) {
+                suppressedBytes += 4;
+                return;
+            }
+        }
+
         cache.set(offset, value);
         wrapped.set(offset, value);
     }
@@ -644,8 +776,7 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, DoubleBuffer buffer) {
-        cache.set(offset, buffer);
-        wrapped.set(offset, buffer);
+        set(offset, buffer, ELEMENT_SHIFT_DOUBLE);
     }
 
     /**
@@ -658,6 +789,15 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
      */
     @Override
     public void set(long offset, double value) {
+        if (isComparable(offset, 8)) {
+            comparedBytes += 8;
+
+            if (Double.doubleToRawLongBits(cache.readDouble(offset)) == Double.doubleToRawLongBits(value)) {
+                suppressedBytes += 8;
+                return;
+            }
+        }
+
         cache.set(offset, value);
         wrapped.set(offset, value);
     }
@@ -1712,6 +1852,83 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
         wrapped.replaceAll(value);
     }
 
+    /**
+     * Fills a chunk of data within this buffer with a repeating pattern.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     * Both offset and length must be multiples of the size of the pattern.
+     *
+     * @param offset       the position in bytes of the chunk to fill.
+     * @param length       the length in bytes of the chunk to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern.
+     */
+    @Override
+    public void fill(long offset, long length, int pattern, int elementShift) {
+        cache.fill(offset, length, pattern, elementShift);
+        wrapped.fill(offset, length, pattern, elementShift);
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a single repeated byte.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes of the chunk to fill.
+     * @param length the length in bytes of the chunk to fill.
+     * @param value  the byte to fill the chunk with.
+     */
+    @Override
+    public void fill(long offset, long length, byte value) {
+        cache.fill(offset, length, value);
+        wrapped.fill(offset, length, value);
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a single repeated short.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes of the chunk to fill.
+     * @param length the length in bytes of the chunk to fill.
+     * @param value  the short to fill the chunk with.
+     */
+    @Override
+    public void fill(long offset, long length, short value) {
+        cache.fill(offset, length, value);
+        wrapped.fill(offset, length, value);
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a single repeated int.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes of the chunk to fill.
+     * @param length the length in bytes of the chunk to fill.
+     * @param value  the int to fill the chunk with.
+     */
+    @Override
+    public void fill(long offset, long length, int value) {
+        cache.fill(offset, length, value);
+        wrapped.fill(offset, length, value);
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a single repeated float.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes of the chunk to fill.
+     * @param length the length in bytes of the chunk to fill.
+     * @param value  the float to fill the chunk with.
+     */
+    @Override
+    public void fill(long offset, long length, float value) {
+        cache.fill(offset, length, value);
+        wrapped.fill(offset, length, value);
+    }
+
     /**
      * Closes this BufferObject and releases its underlying buffers.
      * If the BufferObject is already closed then invoking this
@@ -1721,4 +1938,91 @@ public class CachingWrappingDataBuffer implements ReadableWritableDataBuffer, Cl
     public void close() {
         cache.close();
     }
+
+    private boolean isComparable(long offset, long length) {
+        return compareBeforeUpload && offset >= 0 && offset + length <= cache.getSize();
+    }
+
+    /**
+     * Writes only the parts of the new data that differ from the cached copy to the wrapped buffer. This must be called
+     * before the new data is written to the cache.
+     */
+    private void setCompared(long offset, long length, long address) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        long cacheAddress = cache.address() + offset;
+        long comparableLength = Math.max(0, Math.min(length, cache.getSize() - offset));
+
+        long runStart = -1;
+        long runEnd = -1;
+        long forwarded = 0;
+
+        // compare a word at a time, the tail is compared a byte at a time
+        long position = 0;
+        while (position < comparableLength) {
+            long step;
+            boolean changed;
+            if (comparableLength - position >= 8) {
+                step = 8;
+                changed = memGetLong(address + position) != memGetLong(cacheAddress + position);
+            } else {
+                step = 1;
+                changed = memGetByte(address + position) != memGetByte(cacheAddress + position);
+            }
+
+            if (changed) {
+                if (runStart >= 0 && position - runEnd < COMPARE_MERGE_GAP) {
+                    runEnd = position + step;
+                } else {
+                    if (runStart >= 0) {
+                        forward(offset + runStart, runEnd - runStart, address + runStart);
+                        forwarded += runEnd - runStart;
+                    }
+
+                    runStart = position;
+                    runEnd = position + step;
+                }
+            }
+
+            position += step;
+        }
+
+        // anything past the end of the cache has nothing to be compared against
+        if (comparableLength < length) {
+            if (runStart >= 0 && comparableLength - runEnd < COMPARE_MERGE_GAP) {
+                runEnd = length;
+            } else {
+                if (runStart >= 0) {
+                    forward(offset + runStart, runEnd - runStart, address + runStart);
+                    forwarded += runEnd - runStart;
+                }
+
+                runStart = comparableLength;
+                runEnd = length;
+            }
+        }
+
+        if (runStart >= 0) {
+            forward(offset + runStart, runEnd - runStart, address + runStart);
+            forwarded += runEnd - runStart;
+        }
+
+        comparedBytes += length;
+        suppressedBytes += length - forwarded;
+    }
+
+    private void forward(long offset, long length, long address) {
+        if (wrapped instanceof WritableNativeDataBuffer) {
+            ((WritableNativeDataBuffer) wrapped).setNative(offset, length, address);
+        } else {
+            long position = 0;
+            while (position < length) {
+                int chunkLength = (int) Math.min(length - position, Integer.MAX_VALUE);
+                wrapped.set(offset + position, memByteBuffer(address + position, chunkLength));
+                position += chunkLength;
+            }
+        }
+    }
 }
@@ -3,16 +3,26 @@ package com.kneelawk.klinesjava.buffers.databuffer;
 import org.lwjgl.system.Pointer;
 
 import java.io.Closeable;
+import java.util.concurrent.ForkJoinPool;
 
+import static com.kneelawk.klinesjava.buffers.ElementShifts.ELEMENT_SHIFT_BYTE;
+import static com.kneelawk.klinesjava.buffers.ElementShifts.ELEMENT_SHIFT_SHORT;
 import static org.lwjgl.system.MemoryUtil.*;
 
 public class DirectDataBuffer extends AbstractReadableWritableNativeDataBuffer implements Pointer, Closeable {
+    /**
+     * The default size in bytes above which chunks are moved using multiple threads.
+     */
+    public static final long DEFAULT_PARALLEL_MOVE_THRESHOLD = 64 * 1024 * 1024;
+
     private long initialAllocation;
     private long initialTmpAllocation;
     private long backing;
     private long tmpBacking;
     private long backingSize;
     private long tmpSize;
+    private long parallelMoveThreshold = DEFAULT_PARALLEL_MOVE_THRESHOLD;
+    private ParallelMemoryMover mover = new ParallelMemoryMover(ForkJoinPool.commonPool());
 
     public DirectDataBuffer() {
         this(1024);
@@ -41,6 +51,41 @@ public class DirectDataBuffer extends AbstractReadableWritableNativeDataBuffer i
         return backing;
     }
 
+    /**
+     * Gets the size in bytes above which chunks are moved using multiple threads.
+     *
+     * @return the size in bytes above which chunks are moved using multiple threads.
+     */
+    public long getParallelMoveThreshold() {
+        return parallelMoveThreshold;
+    }
+
+    /**
+     * Sets the size in bytes above which chunks are moved using multiple threads.
+     * <p>
+     * Chunks this large are moved in place by the threads of the parallel move pool instead of being copied through
+     * the tmp buffer.
+     *
+     * @param parallelMoveThreshold the size in bytes above which chunks are moved using multiple threads, or
+     *                              Long.MAX_VALUE to always move chunks on the calling thread.
+     */
+    public void setParallelMoveThreshold(long parallelMoveThreshold) {
+        if (parallelMoveThreshold < 0) {
+            throw new IllegalArgumentException("ParallelMoveThreshold cannot be less than zero");
+        }
+
+        this.parallelMoveThreshold = parallelMoveThreshold;
+    }
+
+    /**
+     * Sets the pool whose threads are used to move large chunks. This is the common pool by default.
+     *
+     * @param pool the pool whose threads are used to move large chunks.
+     */
+    public void setParallelMovePool(ForkJoinPool pool) {
+        mover = new ParallelMemoryMover(pool);
+    }
+
     /**
      * Closes this BufferObject and releases its underlying buffers.
      * If the BufferObject is already closed then invoking this
@@ -101,6 +146,45 @@ public class DirectDataBuffer extends AbstractReadableWritableNativeDataBuffer i
         memCopy(address, backing + offset, length);
     }
 
+    /**
+     * Fills a chunk of data within this buffer with a repeating pattern.
+     * <p>
+     * The offset and length have already been checked to be multiples of the pattern size.
+     *
+     * @param offset       the position in bytes of the first byte within this buffer to fill.
+     * @param length       the length in bytes of the chunk of data to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern.
+     */
+    @Override
+    protected void fillData(long offset, long length, int pattern, int elementShift) {
+        if (length == 0) {
+            return;
+        }
+
+        long address = backing + offset;
+
+        // patterns made of a single repeated byte can just be memset
+        if (isSingleBytePattern(pattern, elementShift)) {
+            memSet(address, pattern & 0xFF, length);
+            return;
+        }
+
+        // write the pattern once and then keep doubling the filled region
+        if (elementShift == ELEMENT_SHIFT_SHORT) {
+            memPutShort(address, (short) pattern);
+        } else {
+            memPutInt(address, pattern);
+        }
+
+        long filled = 1L << elementShift;
+        while (filled < length) {
+            long copyLength = Math.min(filled, length - filled);
+            memCopy(address, address + filled, copyLength);
+            filled += copyLength;
+        }
+    }
+
     /**
      * Makes sure the underlying implementation can handle data puts and gets up to capacity.
      *
@@ -119,7 +203,7 @@ public class DirectDataBuffer extends AbstractReadableWritableNativeDataBuffer i
         long newBacking = nmemAlloc(newBackingSize);
 
         // copy the data from the old backing buffer to the new backing buffer
-        memCopy(backing, newBacking, officialSize);
+        copy(backing, newBacking, officialSize);
 
         // remember the old backing so we can free it
         long oldBacking = backing;
@@ -154,11 +238,11 @@ public class DirectDataBuffer extends AbstractReadableWritableNativeDataBuffer i
             long newBacking = nmemAlloc(newBackingSize);
 
             // copy everything from the old backing
-            memCopy(backing, newBacking, officialSize);
+            copy(backing, newBacking, officialSize);
 
             if (chunkLength > 0) {
                 // copy the chunk
-                memCopy(backing + sourceOffset, newBacking + destOffset, chunkLength);
+                copy(backing + sourceOffset, newBacking + destOffset, chunkLength);
             }
 
             // remember the old backing so we can free it
@@ -170,6 +254,9 @@ public class DirectDataBuffer extends AbstractReadableWritableNativeDataBuffer i
 
             // we don't need the old backing anymore
             nmemFree(oldBacking);
+        } else if (chunkLength >= parallelMoveThreshold) {
+            // large chunks are moved in place by multiple threads in an order that is safe for overlapping chunks
+            mover.move(backing + sourceOffset, backing + destOffset, chunkLength);
         } else if (chunkLength > 0) {
             // make sure tmpBacking is large enough
             ensureTmpBacking(chunkLength);
@@ -183,6 +270,14 @@ public class DirectDataBuffer extends AbstractReadableWritableNativeDataBuffer i
         }
     }
 
+    private void copy(long source, long dest, long length) {
+        if (length >= parallelMoveThreshold) {
+            mover.move(source, dest, length);
+        } else {
+            memCopy(source, dest, length);
+        }
+    }
+
     private void ensureTmpBacking(long atLeast) {
         if (tmpSize < atLeast) {
             long newTempSize = calculateNewSize(tmpSize, atLeast);
@@ -193,6 +288,17 @@ public class DirectDataBuffer extends AbstractReadableWritableNativeDataBuffer i
         }
     }
 
+    private static boolean isSingleBytePattern(int pattern, int elementShift) {
+        switch (elementShift) {
+            case ELEMENT_SHIFT_BYTE:
+                return true;
+            case ELEMENT_SHIFT_SHORT:
+                return ((pattern ^ (pattern >>> 8)) & 0xFF) == 0;
+            default:
+                return pattern == (pattern & 0xFF) * 0x01010101;
+        }
+    }
+
     private long calculateNewSize(long size, long atLeast) {
         while (size < atLeast) {
             size <<= 1;
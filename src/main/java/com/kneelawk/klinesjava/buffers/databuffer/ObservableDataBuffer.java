@@ -0,0 +1,483 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+import com.kneelawk.klinesjava.buffers.BufferChangeFeed;
+import com.kneelawk.klinesjava.buffers.BufferChangeListener;
+import org.lwjgl.system.CustomBuffer;
+
+import java.nio.Buffer;
+
+/**
+ * ObservableDataBuffer - This buffer forwards everything written to it to the wrapped buffer and records what changed
+ * in a {@link BufferChangeFeed}, in bytes. Listeners receive the recorded changes in order when {@link #flush()} is
+ * called.
+ */
+public class ObservableDataBuffer implements WritableDataBuffer {
+    private final WritableDataBuffer wrapped;
+    private final BufferChangeFeed feed = new BufferChangeFeed();
+
+    public ObservableDataBuffer(WritableDataBuffer wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    /**
+     * Gets the buffer this buffer forwards everything to.
+     *
+     * @return the wrapped buffer.
+     */
+    public WritableDataBuffer getWrapped() {
+        return wrapped;
+    }
+
+    /**
+     * Gets the feed this buffer records its changes in.
+     *
+     * @return the feed this buffer records its changes in.
+     */
+    public BufferChangeFeed getChangeFeed() {
+        return feed;
+    }
+
+    /**
+     * Adds a listener to receive this buffer's changes when they are flushed.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(BufferChangeListener listener) {
+        feed.addListener(listener);
+    }
+
+    /**
+     * Removes a listener so it no longer receives this buffer's changes.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeListener(BufferChangeListener listener) {
+        feed.removeListener(listener);
+    }
+
+    /**
+     * Delivers every change recorded since the last flush to the listeners, in order.
+     */
+    public void flush() {
+        feed.flush();
+    }
+
+    /**
+     * Sets a chunk of data within this buffer to the contents of the specified buffer.
+     * <p>
+     * This will increase the size of this buffer if the chunk of data being set extends beyond the current end of this buffer.
+     *
+     * @param offset       the position in bytes within this buffer to place the start of the new data.
+     * @param buffer       the chunk of new data to put into this buffer.
+     * @param elementShift the power of two that is the size of each element in the chunk of data.
+     */
+    @Override
+    public void set(long offset, Buffer buffer, int elementShift) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) << ((long) elementShift);
+
+        wrapped.set(offset, buffer, elementShift);
+        feed.recordReplace(offset, length, length, oldSize);
+    }
+
+    /**
+     * Sets a chunk of data within this buffer to the contents of the specified buffer.
+     * <p>
+     * This will increase the size of this buffer if the chunk of data being set extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes within this buffer to place the start of the new data.
+     * @param buffer the chunk of new data to put into this buffer.
+     */
+    @Override
+    public void set(long offset, CustomBuffer<?> buffer) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) * ((long) buffer.sizeof());
+
+        wrapped.set(offset, buffer);
+        feed.recordReplace(offset, length, length, oldSize);
+    }
+
+    /**
+     * Appends a chunk of data to the end of this buffer.
+     *
+     * @param buffer       the chunk of data to append to the end of this buffer.
+     * @param elementShift the power of two that is the size of each element in the chunk of data.
+     */
+    @Override
+    public void append(Buffer buffer, int elementShift) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) << ((long) elementShift);
+
+        wrapped.append(buffer, elementShift);
+        feed.recordInsert(oldSize, length);
+    }
+
+    /**
+     * Appends a chunk of data to the end of this buffer.
+     *
+     * @param buffer the chunk of data to append to the end of this buffer.
+     */
+    @Override
+    public void append(CustomBuffer<?> buffer) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) * ((long) buffer.sizeof());
+
+        wrapped.append(buffer);
+        feed.recordInsert(oldSize, length);
+    }
+
+    /**
+     * Appends empty space to the end of this buffer.
+     *
+     * @param length the length in bytes of the empty space to append.
+     */
+    @Override
+    public void appendBlank(long length) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.appendBlank(length);
+        feed.recordInsert(oldSize, length);
+    }
+
+    /**
+     * Inserts a chunk of data at the beginning of this buffer, moving everything in the buffer to the end of where the
+     * new chunk of data will be located.
+     *
+     * @param buffer       the chunk of data to prepend at the beginning of this buffer.
+     * @param elementShift the power of two that is the size of each element in the chunk of data.
+     */
+    @Override
+    public void prepend(Buffer buffer, int elementShift) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) << ((long) elementShift);
+
+        wrapped.prepend(buffer, elementShift);
+        feed.recordInsert(0, length);
+    }
+
+    /**
+     * Inserts a chunk of data at the beginning of this buffer, moving everything in the buffer to the end of where the
+     * new chunk of data will be located.
+     *
+     * @param buffer the chunk of data to prepend at the beginning of this buffer.
+     */
+    @Override
+    public void prepend(CustomBuffer<?> buffer) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) * ((long) buffer.sizeof());
+
+        wrapped.prepend(buffer);
+        feed.recordInsert(0, length);
+    }
+
+    /**
+     * Inserts empty space at the beginning of this buffer, moving everything in the buffer to the end of where the
+     * empty space will be located.
+     *
+     * @param length the length in bytes of the empty space to prepend at the beginning of this buffer.
+     */
+    @Override
+    public void prependBlank(long length) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.prependBlank(length);
+        feed.recordInsert(0, length);
+    }
+
+    /**
+     * Inserts a chunk of data into this buffer at offset, moving the data currently after offset to the end of the
+     * space where the new chunk of data will be located.
+     *
+     * @param offset       the position in bytes to insert the chunk of data at.
+     * @param buffer       the chunk of data to insert.
+     * @param elementShift the power of two that is the size of each element in the chunk of data.
+     */
+    @Override
+    public void insert(long offset, Buffer buffer, int elementShift) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) << ((long) elementShift);
+
+        wrapped.insert(offset, buffer, elementShift);
+        feed.recordReplace(offset, 0, length, oldSize);
+    }
+
+    /**
+     * Inserts a chunk of data into this buffer at offset, moving the data currently after offset to the end of the
+     * space where the new chunk of data will be inserted.
+     *
+     * @param offset the position in bytes to insert the chunk of data at.
+     * @param buffer the chunk of data to insert.
+     */
+    @Override
+    public void insert(long offset, CustomBuffer<?> buffer) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) * ((long) buffer.sizeof());
+
+        wrapped.insert(offset, buffer);
+        feed.recordReplace(offset, 0, length, oldSize);
+    }
+
+    /**
+     * Inserts empty space into this buffer at offset, moving the data currently after offset to the end of the new
+     * empty space.
+     *
+     * @param offset the position in bytes to insert the empty space at.
+     * @param length the length of the empty space to insert.
+     */
+    @Override
+    public void insertBlank(long offset, long length) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.insertBlank(offset, length);
+        feed.recordReplace(offset, 0, length, oldSize);
+    }
+
+    /**
+     * Replaces a chunk of data in this buffer with a new chunk of data, moving the data currently after the old chunk
+     * of data to the end of the space where the new chunk of data will be located.
+     *
+     * @param offset       the position in bytes of the chunk to be replaced.
+     * @param chunkLength  the length in bytes of the chunk to be replaced.
+     * @param buffer       the new chunk of data to replace the old one.
+     * @param elementShift the power of two that is the size of each element in the new chunk of data.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, Buffer buffer, int elementShift) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) << ((long) elementShift);
+
+        wrapped.replace(offset, chunkLength, buffer, elementShift);
+        feed.recordReplace(offset, chunkLength, length, oldSize);
+    }
+
+    /**
+     * Replaces a chunk of data in this buffer with a new chunk of data, moving the data currently after the old chunk
+     * of data to the end of the space where the new chunk of data will be located.
+     *
+     * @param offset      the position in bytes of the chunk to be replaced.
+     * @param chunkLength the length in bytes of the chunk to be replaced.
+     * @param buffer      the new chunk of data to replace the old one.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, CustomBuffer<?> buffer) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) * ((long) buffer.sizeof());
+
+        wrapped.replace(offset, chunkLength, buffer);
+        feed.recordReplace(offset, chunkLength, length, oldSize);
+    }
+
+    /**
+     * Replaces everything after offset with a new chunk of data, resizing this buffer so that it ends at the end of the
+     * new chunk of data.
+     *
+     * @param offset       the index in bytes of the first byte to replace at and after.
+     * @param buffer       the new chunk of data to replace the old one.
+     * @param elementShift the power of two that is the size of each element in the new chunk of data.
+     */
+    @Override
+    public void replaceAfter(long offset, Buffer buffer, int elementShift) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) << ((long) elementShift);
+
+        wrapped.replaceAfter(offset, buffer, elementShift);
+        feed.recordReplace(offset, oldSize - offset, length, oldSize);
+    }
+
+    /**
+     * Replaces everything after offset with a new chunk of data, resizing this buffer so that it ends at the end of the
+     * new chunk of data.
+     *
+     * @param offset the index in bytes of the first byte to replace at and after.
+     * @param buffer the new chunk of data to replace the old one.
+     */
+    @Override
+    public void replaceAfter(long offset, CustomBuffer<?> buffer) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) * ((long) buffer.sizeof());
+
+        wrapped.replaceAfter(offset, buffer);
+        feed.recordReplace(offset, oldSize - offset, length, oldSize);
+    }
+
+    /**
+     * Replaces everything before cutoff with a new chunk of data, moving the data after the old chunk of data to the end
+     * of the space where the new chunk of data will be located.
+     *
+     * @param cutoff       the position in bytes to replace everything before.
+     * @param buffer       the new chunk of data to replace the old one.
+     * @param elementShift the power of two that is the size of each element in the new chunk of data.
+     */
+    @Override
+    public void replaceBefore(long cutoff, Buffer buffer, int elementShift) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) << ((long) elementShift);
+
+        wrapped.replaceBefore(cutoff, buffer, elementShift);
+        feed.recordReplace(0, cutoff, length, oldSize);
+    }
+
+    /**
+     * Replaces everything before cutoff with a new chunk of data, moving the data after the old chunk of data to the end
+     * of the space where the new chunk of data will be located.
+     *
+     * @param cutoff the position in bytes to replace everything before.
+     * @param buffer the new chunk of data to replace the old one.
+     */
+    @Override
+    public void replaceBefore(long cutoff, CustomBuffer<?> buffer) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) * ((long) buffer.sizeof());
+
+        wrapped.replaceBefore(cutoff, buffer);
+        feed.recordReplace(0, cutoff, length, oldSize);
+    }
+
+    /**
+     * Replaces everything in this buffer with a new chunk of data, resizing this buffer to match that of the new chunk
+     * of data.
+     *
+     * @param buffer       the new chunk of data to replace everything in this buffer with.
+     * @param elementShift the power of two that is the size of each element in the new chunk of data.
+     */
+    @Override
+    public void replaceAll(Buffer buffer, int elementShift) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) << ((long) elementShift);
+
+        wrapped.replaceAll(buffer, elementShift);
+        feed.recordReplace(0, oldSize, length, oldSize);
+    }
+
+    /**
+     * Replaces everything in this buffer with a new chunk of data, resizing this buffer to match that of the new chunk
+     * of data.
+     *
+     * @param buffer the new chunk of data to replace everything in this buffer with.
+     */
+    @Override
+    public void replaceAll(CustomBuffer<?> buffer) {
+        long oldSize = wrapped.getSize();
+        long length = ((long) buffer.remaining()) * ((long) buffer.sizeof());
+
+        wrapped.replaceAll(buffer);
+        feed.recordReplace(0, oldSize, length, oldSize);
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a repeating pattern.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     * Both offset and length must be multiples of the size of the pattern.
+     *
+     * @param offset       the position in bytes of the chunk to fill.
+     * @param length       the length in bytes of the chunk to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern.
+     */
+    @Override
+    public void fill(long offset, long length, int pattern, int elementShift) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.fill(offset, length, pattern, elementShift);
+        feed.recordReplace(offset, length, length, oldSize);
+    }
+
+    /**
+     * Removes a chunk of data from this buffer, moving the data at the end of the removed chunk to where the removed
+     * chunk began.
+     *
+     * @param offset      position in bytes of the chunk of data to be removed.
+     * @param chunkLength the length in bytes of the chunk of data to be removed.
+     */
+    @Override
+    public void remove(long offset, long chunkLength) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.remove(offset, chunkLength);
+        feed.recordRemove(offset, chunkLength, oldSize);
+    }
+
+    /**
+     * Removes a chunk of data from this buffer by moving the data at the end of this buffer into the hole left by the
+     * removed chunk.
+     *
+     * @param offset      position in bytes of the chunk of data to be removed.
+     * @param chunkLength the length in bytes of the chunk of data to be removed.
+     * @return the position in bytes the relocated data was moved from. Every byte that was at or after this position
+     * before the removal is now at offset + (its old position - this position). If nothing was relocated, this is the
+     * old size of this buffer.
+     */
+    @Override
+    public long swapRemove(long offset, long chunkLength) {
+        long oldSize = wrapped.getSize();
+
+        long source = wrapped.swapRemove(offset, chunkLength);
+        feed.recordSwapRemove(offset, chunkLength, source, oldSize);
+        return source;
+    }
+
+    /**
+     * Removes everything at and after offset from this buffer, resizing as necessary.
+     *
+     * @param offset the position in bytes of the first byte to remove at and after.
+     */
+    @Override
+    public void removeAfter(long offset) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.removeAfter(offset);
+        feed.recordRemove(offset, oldSize - offset, oldSize);
+    }
+
+    /**
+     * Removes everything before cutoff from this buffer, resizing as necessary.
+     *
+     * @param cutoff the position in bytes to remove everything before.
+     */
+    @Override
+    public void removeBefore(long cutoff) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.removeBefore(cutoff);
+        feed.recordRemove(0, cutoff, oldSize);
+    }
+
+    /**
+     * Clears this buffer.
+     * <p>
+     * Some implementations may simply implement this by setting their official size to 0.
+     */
+    @Override
+    public void clear() {
+        wrapped.clear();
+        feed.recordClear();
+    }
+
+    /**
+     * Resizes this buffer object.
+     * <p>
+     * This only changes the official size of this buffer. Any effects on any underlying buffers are implementation specific.
+     *
+     * @param size the new size of this buffer object.
+     */
+    @Override
+    public void setSize(long size) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.setSize(size);
+        feed.recordResize(oldSize, size);
+    }
+
+    /**
+     * Gets the current size of this buffer object.
+     * <p>
+     * This is simply the official size of this buffer, not the size of any underlying buffers this buffer might use.
+     *
+     * @return the current size of this buffer object.
+     */
+    @Override
+    public long getSize() {
+        return wrapped.getSize();
+    }
+}
@@ -0,0 +1,174 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.libc.LibCString.nmemmove;
+
+/**
+ * ParallelMemoryMover - Moves large chunks of native memory using all the threads of a ForkJoinPool.
+ * <p>
+ * Moves are split into blocks and the blocks are ordered so that overlapping moves are safe without copying the whole
+ * chunk to a temporary buffer first:
+ * <ul>
+ * <li>When the source and destination do not overlap, every block is copied at the same time.</li>
+ * <li>When they are far apart, the move is done in waves as wide as the distance moved. The blocks within a wave never
+ * read anything another block in the same wave writes, and the waves are ordered like memmove.</li>
+ * <li>When they are close together, the chunk is split into one large block per task. The few bytes at the edge of each
+ * block that its neighbour would overwrite are saved first, then every block moves itself at the same time.</li>
+ * </ul>
+ */
+class ParallelMemoryMover {
+    /**
+     * The default size in bytes of the blocks moves are split into.
+     */
+    static final long DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final long blockSize;
+
+    ParallelMemoryMover(ForkJoinPool pool) {
+        this(pool, DEFAULT_BLOCK_SIZE);
+    }
+
+    ParallelMemoryMover(ForkJoinPool pool, long blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("BlockSize must be greater than zero");
+        }
+
+        this.pool = pool;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Copies length bytes from source to dest. The two regions may overlap.
+     *
+     * @param source the address of the first byte to copy from.
+     * @param dest   the address of the first byte to copy to.
+     * @param length the number of bytes to copy.
+     */
+    void move(long source, long dest, long length) {
+        long distance = Math.abs(dest - source);
+
+        if (length == 0 || distance == 0) {
+            return;
+        }
+
+        int parallelism = pool.getParallelism();
+
+        if (distance >= length) {
+            copyDisjoint(source, dest, length);
+        } else if (distance >= blockSize * parallelism) {
+            moveInWaves(source, dest, length, distance);
+        } else {
+            int blockCount = (int) Math.min(parallelism, length / Math.max(distance, blockSize));
+
+            if (blockCount < 2) {
+                nmemmove(dest, source, length);
+            } else {
+                moveWithHalos(source, dest, length, distance, blockCount);
+            }
+        }
+    }
+
+    private void copyDisjoint(long source, long dest, long length) {
+        long blockCount = (length + blockSize - 1) / blockSize;
+
+        forEachBlock(blockCount, block -> {
+            long start = block * blockSize;
+            memCopy(source + start, dest + start, Math.min(blockSize, length - start));
+        });
+    }
+
+    private void moveInWaves(long source, long dest, long length, long distance) {
+        // the blocks of a wave only write to where the previous wave read from
+        long waveBlockSize = Math.min(blockSize, distance);
+
+        if (dest > source) {
+            // move the end first, like memmove does
+            for (long waveEnd = length; waveEnd > 0; waveEnd -= distance) {
+                long waveStart = Math.max(0, waveEnd - distance);
+                copyWave(source, dest, waveStart, waveEnd - waveStart, waveBlockSize);
+            }
+        } else {
+            for (long waveStart = 0; waveStart < length; waveStart += distance) {
+                copyWave(source, dest, waveStart, Math.min(distance, length - waveStart), waveBlockSize);
+            }
+        }
+    }
+
+    private void copyWave(long source, long dest, long waveStart, long waveLength, long waveBlockSize) {
+        long blockCount = (waveLength + waveBlockSize - 1) / waveBlockSize;
+
+        forEachBlock(blockCount, block -> {
+            long start = waveStart + block * waveBlockSize;
+            memCopy(source + start, dest + start, Math.min(waveBlockSize, waveStart + waveLength - start));
+        });
+    }
+
+    private void moveWithHalos(long source, long dest, long length, long distance, int blockCount) {
+        boolean forward = dest > source;
+        long halos = nmemAlloc(blockCount * distance);
+
+        try {
+            // save the part of each block's source that the neighbouring block overwrites
+            for (int block = 0; block < blockCount; block++) {
+                long start = length * block / blockCount;
+                long end = length * (block + 1) / blockCount;
+                long haloStart = forward ? start : end - distance;
+                memCopy(source + haloStart, halos + block * distance, distance);
+            }
+
+            forEachBlock(blockCount, block -> {
+                long start = length * block / blockCount;
+                long end = length * (block + 1) / blockCount;
+                long halo = halos + block * distance;
+
+                if (forward) {
+                    // the body is moved first because the halo lands on top of where it is read from
+                    nmemmove(dest + start + distance, source + start + distance, end - start - distance);
+                    memCopy(halo, dest + start, distance);
+                } else {
+                    nmemmove(dest + start, source + start, end - start - distance);
+                    memCopy(halo, dest + end - distance, distance);
+                }
+            });
+        } finally {
+            nmemFree(halos);
+        }
+    }
+
+    private void forEachBlock(long blockCount, LongConsumer action) {
+        if (blockCount == 1) {
+            action.accept(0);
+        } else {
+            pool.invoke(new BlockAction(0, blockCount, action));
+        }
+    }
+
+    private static class BlockAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long start;
+        private final long end;
+        private final LongConsumer action;
+
+        private BlockAction(long start, long end, LongConsumer action) {
+            this.start = start;
+            this.end = end;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                action.accept(start);
+            } else {
+                long middle = (start + end) >>> 1;
+                invokeAll(new BlockAction(start, middle, action), new BlockAction(middle, end, action));
+            }
+        }
+    }
+}
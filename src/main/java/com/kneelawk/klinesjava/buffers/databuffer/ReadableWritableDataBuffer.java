@@ -1,4 +1,18 @@
 package com.kneelawk.klinesjava.buffers.databuffer;
 
 public interface ReadableWritableDataBuffer extends ReadableDataBuffer, WritableDataBuffer {
+
+    /**
+     * Creates a live window onto a chunk of this buffer.
+     * <p>
+     * Offsets within the slice are translated into offsets within this buffer and reads and writes go straight through
+     * to this buffer without copying anything. The slice has a fixed size and cannot be structurally modified.
+     *
+     * @param offset the position in bytes within this buffer where the slice starts.
+     * @param length the length in bytes of the slice.
+     * @return a live window onto the specified chunk of this buffer.
+     */
+    default ReadableWritableDataBuffer slice(long offset, long length) {
+        return new SliceDataBuffer(this, offset, length);
+    }
 }
@@ -0,0 +1,397 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+import org.lwjgl.system.CustomBuffer;
+
+import java.nio.Buffer;
+
+/**
+ * SliceDataBuffer - This buffer is a live window onto a chunk of another buffer. Reads and writes are translated into
+ * the parent buffer's coordinates and go straight through to it, nothing is copied. A slice has a fixed size so it
+ * cannot be structurally modified, only read from and written to within its bounds.
+ */
+public class SliceDataBuffer implements ReadableWritableDataBuffer {
+    private final ReadableWritableDataBuffer parent;
+    private final long sliceOffset;
+    private final long sliceLength;
+
+    public SliceDataBuffer(ReadableWritableDataBuffer parent, long offset, long length) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be less than zero");
+        }
+
+        if (offset + length > parent.getSize()) {
+            throw new IndexOutOfBoundsException(
+                    "offset + length > size (" + offset + " + " + length + " > " + parent.getSize() + ")");
+        }
+
+        this.parent = parent;
+        this.sliceOffset = offset;
+        this.sliceLength = length;
+    }
+
+    /**
+     * Gets the buffer this slice is a window onto.
+     *
+     * @return the buffer this slice is a window onto.
+     */
+    public ReadableWritableDataBuffer getParent() {
+        return parent;
+    }
+
+    /**
+     * Gets the position in bytes within the parent buffer where this slice starts.
+     *
+     * @return the position in bytes within the parent buffer where this slice starts.
+     */
+    public long getOffset() {
+        return sliceOffset;
+    }
+
+    /**
+     * Creates a slice of this slice.
+     * <p>
+     * The new slice is a window directly onto this slice's parent, so slicing a slice does not add any indirection.
+     *
+     * @param offset the position in bytes within this slice where the new slice starts.
+     * @param length the length in bytes of the new slice.
+     * @return a live window onto the specified chunk of this slice.
+     */
+    @Override
+    public ReadableWritableDataBuffer slice(long offset, long length) {
+        checkBounds(offset, length);
+        return new SliceDataBuffer(parent, sliceOffset + offset, length);
+    }
+
+    /**
+     * Reads a chunk of data starting at offset into the buffer.
+     *
+     * @param offset       the position in bytes to start reading at.
+     * @param buffer       the buffer to read the chunk of data into.
+     * @param elementShift the power of two that is the size of each element in the buffer.
+     */
+    @Override
+    public void readTo(long offset, Buffer buffer, int elementShift) {
+        checkBounds(offset, ((long) buffer.remaining()) << ((long) elementShift));
+        parent.readTo(sliceOffset + offset, buffer, elementShift);
+    }
+
+    /**
+     * Reads a chunk of data starting at offset into the buffer.
+     *
+     * @param offset the position in bytes to start reading at.
+     * @param buffer the buffer to read the chunk of data into.
+     */
+    @Override
+    public void readTo(long offset, CustomBuffer<?> buffer) {
+        checkBounds(offset, ((long) buffer.remaining()) * ((long) buffer.sizeof()));
+        parent.readTo(sliceOffset + offset, buffer);
+    }
+
+    /**
+     * Sets a chunk of data within this slice to the contents of the specified buffer.
+     * <p>
+     * Unlike most buffers, a slice cannot grow, so the chunk of data being set must fit within this slice.
+     *
+     * @param offset       the position in bytes within this buffer to place the start of the new data.
+     * @param buffer       the chunk of new data to put into this buffer.
+     * @param elementShift the power of two that is the size of each element in the chunk of data.
+     */
+    @Override
+    public void set(long offset, Buffer buffer, int elementShift) {
+        checkBounds(offset, ((long) buffer.remaining()) << ((long) elementShift));
+        parent.set(sliceOffset + offset, buffer, elementShift);
+    }
+
+    /**
+     * Sets a chunk of data within this slice to the contents of the specified buffer.
+     * <p>
+     * Unlike most buffers, a slice cannot grow, so the chunk of data being set must fit within this slice.
+     *
+     * @param offset the position in bytes within this buffer to place the start of the new data.
+     * @param buffer the chunk of new data to put into this buffer.
+     */
+    @Override
+    public void set(long offset, CustomBuffer<?> buffer) {
+        checkBounds(offset, ((long) buffer.remaining()) * ((long) buffer.sizeof()));
+        parent.set(sliceOffset + offset, buffer);
+    }
+
+    /**
+     * Fills a chunk of data within this slice with a repeating pattern.
+     * <p>
+     * Unlike most buffers, a slice cannot grow, so the chunk being filled must fit within this slice.
+     *
+     * @param offset       the position in bytes of the chunk to fill.
+     * @param length       the length in bytes of the chunk to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern.
+     */
+    @Override
+    public void fill(long offset, long length, int pattern, int elementShift) {
+        checkBounds(offset, length);
+        parent.fill(sliceOffset + offset, length, pattern, elementShift);
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void append(Buffer buffer, int elementShift) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void append(CustomBuffer<?> buffer) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void appendBlank(long length) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void prepend(Buffer buffer, int elementShift) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void prepend(CustomBuffer<?> buffer) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void prependBlank(long length) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void insert(long offset, Buffer buffer, int elementShift) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void insert(long offset, CustomBuffer<?> buffer) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void insertBlank(long offset, long length) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, Buffer buffer, int elementShift) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, CustomBuffer<?> buffer) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void replaceAfter(long offset, Buffer buffer, int elementShift) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void replaceAfter(long offset, CustomBuffer<?> buffer) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void replaceBefore(long cutoff, Buffer buffer, int elementShift) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void replaceBefore(long cutoff, CustomBuffer<?> buffer) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void replaceAll(Buffer buffer, int elementShift) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void replaceAll(CustomBuffer<?> buffer) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void remove(long offset, long chunkLength) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public long swapRemove(long offset, long chunkLength) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void removeAfter(long offset) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void removeBefore(long cutoff) {
+        throw structuralModification();
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void clear() {
+        throw structuralModification();
+    }
+
+    /**
+     * Gets the length in bytes of this slice.
+     *
+     * @return the length in bytes of this slice.
+     */
+    @Override
+    public long getSize() {
+        return sliceLength;
+    }
+
+    /**
+     * Slices cannot be structurally modified.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void setSize(long size) {
+        throw structuralModification();
+    }
+
+    private void checkBounds(long offset, long length) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be less than zero");
+        }
+
+        if (offset + length > sliceLength) {
+            throw new IndexOutOfBoundsException(
+                    "offset + length > size (" + offset + " + " + length + " > " + sliceLength + ")");
+        }
+    }
+
+    private static UnsupportedOperationException structuralModification() {
+        return new UnsupportedOperationException("Slices cannot be structurally modified");
+    }
+}
@@ -1305,6 +1305,72 @@ public interface WritableDataBuffer extends BufferObject {
         }
     }
 
+    /**
+     * Fills a chunk of data within this buffer with a repeating pattern.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     * Both offset and length must be multiples of the size of the pattern.
+     *
+     * @param offset       the position in bytes of the chunk to fill.
+     * @param length       the length in bytes of the chunk to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern. This can be at most
+     *                     {@link com.kneelawk.klinesjava.buffers.ElementShifts#ELEMENT_SHIFT_INT}.
+     */
+    void fill(long offset, long length, int pattern, int elementShift);
+
+    /**
+     * Fills a chunk of data within this buffer with a single repeated byte.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes of the chunk to fill.
+     * @param length the length in bytes of the chunk to fill.
+     * @param value  the byte to fill the chunk with.
+     */
+    default void fill(long offset, long length, byte value) {
+        fill(offset, length, value & 0xFF, ELEMENT_SHIFT_BYTE);
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a single repeated short.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes of the chunk to fill.
+     * @param length the length in bytes of the chunk to fill.
+     * @param value  the short to fill the chunk with.
+     */
+    default void fill(long offset, long length, short value) {
+        fill(offset, length, value & 0xFFFF, ELEMENT_SHIFT_SHORT);
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a single repeated int.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes of the chunk to fill.
+     * @param length the length in bytes of the chunk to fill.
+     * @param value  the int to fill the chunk with.
+     */
+    default void fill(long offset, long length, int value) {
+        fill(offset, length, value, ELEMENT_SHIFT_INT);
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a single repeated float.
+     * <p>
+     * This will increase the size of this buffer if the chunk being filled extends beyond the current end of this buffer.
+     *
+     * @param offset the position in bytes of the chunk to fill.
+     * @param length the length in bytes of the chunk to fill.
+     * @param value  the float to fill the chunk with.
+     */
+    default void fill(long offset, long length, float value) {
+        fill(offset, length, Float.floatToRawIntBits(value), ELEMENT_SHIFT_FLOAT);
+    }
+
     /**
      * Removes a chunk of data from this buffer, moving the data at the end of the removed chunk to where the removed
      * chunk began.
@@ -1314,6 +1380,21 @@ public interface WritableDataBuffer extends BufferObject {
      */
     void remove(long offset, long chunkLength);
 
+    /**
+     * Removes a chunk of data from this buffer by moving the data at the end of this buffer into the hole left by the
+     * removed chunk.
+     * <p>
+     * Unlike {@link #remove(long, long)}, this does not preserve the order of the data in this buffer, but it only ever
+     * moves at most chunkLength bytes, no matter how large this buffer is.
+     *
+     * @param offset      position in bytes of the chunk of data to be removed.
+     * @param chunkLength the length in bytes of the chunk of data to be removed.
+     * @return the position in bytes the relocated data was moved from. Every byte that was at or after this position
+     * before the removal is now at offset + (its old position - this position). If nothing was relocated, this is the
+     * old size of this buffer.
+     */
+    long swapRemove(long offset, long chunkLength);
+
     /**
      * Removes everything at and after offset from this buffer, resizing as necessary.
      *
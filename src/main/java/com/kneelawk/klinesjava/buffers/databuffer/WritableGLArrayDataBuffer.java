@@ -5,13 +5,38 @@ import org.lwjgl.system.MemoryStack;
 import java.io.Closeable;
 import java.nio.IntBuffer;
 
+import static com.kneelawk.klinesjava.buffers.ElementShifts.ELEMENT_SHIFT_BYTE;
+import static com.kneelawk.klinesjava.buffers.ElementShifts.ELEMENT_SHIFT_SHORT;
 import static org.lwjgl.opengl.GL15C.*;
 import static org.lwjgl.opengl.GL43C.glInvalidateBufferData;
 import static org.lwjgl.opengl.GL45C.*;
 import static org.lwjgl.system.MemoryStack.stackPush;
 
+/**
+ * WritableGLArrayDataBuffer - This buffer stores its data in a single OpenGL buffer.
+ * <p>
+ * This buffer keeps track of how often it is modified. Call {@link #endFrame()} once per frame so it can pick the
+ * storage that suits how it is being used: buffers that are modified every frame are moved to streaming storage and
+ * back once they calm down, and buffers that have not been modified for a while are promoted to immutable storage,
+ * which lets the driver place them in the fastest memory. Immutable storage is created with GL_DYNAMIC_STORAGE_BIT, so
+ * a promoted buffer is still updated in place and keeps its storage until it has to grow.
+ * <p>
+ * Changing the storage keeps the OpenGL buffer name, with one exception: immutable storage cannot be resized, so
+ * growing a promoted buffer beyond its capacity moves its data to a new buffer with a new name. Anything referencing
+ * {@link #getId()}, such as a vertex array, must be updated when {@link #endFrame()} reports that the name has changed.
+ */
 public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer implements GLArrayDataBuffer,
         Closeable {
+    /**
+     * The default number of consecutive frames without modification before a buffer is promoted to immutable storage.
+     */
+    public static final int DEFAULT_PROMOTION_FRAMES = 60;
+
+    /**
+     * The default number of consecutive frames with modifications before a buffer is moved to streaming storage.
+     */
+    public static final int DEFAULT_STREAM_FRAMES = 30;
+
     private long initialCapacity;
     private long initialTmpCapacity;
     private int backing;
@@ -19,6 +44,14 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
     private long backingSize;
     private long tmpSize;
 
+    private StorageMode storageMode = StorageMode.DYNAMIC;
+    private int promotionFrames = DEFAULT_PROMOTION_FRAMES;
+    private int streamFrames = DEFAULT_STREAM_FRAMES;
+    private int quietFrames = 0;
+    private int busyFrames = 0;
+    private boolean modifiedThisFrame = false;
+    private boolean idChanged = false;
+
     public WritableGLArrayDataBuffer() {
         this(1024);
     }
@@ -55,10 +88,100 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
         return backing;
     }
 
+    /**
+     * Gets the kind of storage currently backing this buffer.
+     *
+     * @return the kind of storage currently backing this buffer.
+     */
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * Gets the number of consecutive frames without modification before this buffer is promoted to immutable storage.
+     *
+     * @return the number of consecutive frames without modification before this buffer is promoted.
+     */
+    public int getPromotionFrames() {
+        return promotionFrames;
+    }
+
+    /**
+     * Sets the number of consecutive frames without modification before this buffer is promoted to immutable storage.
+     *
+     * @param promotionFrames the number of quiet frames before promotion, or zero to never promote this buffer.
+     */
+    public void setPromotionFrames(int promotionFrames) {
+        if (promotionFrames < 0) {
+            throw new IllegalArgumentException("PromotionFrames cannot be less than zero");
+        }
+
+        this.promotionFrames = promotionFrames;
+    }
+
+    /**
+     * Gets the number of consecutive frames with modifications before this buffer is moved to streaming storage.
+     *
+     * @return the number of consecutive frames with modifications before this buffer is moved to streaming storage.
+     */
+    public int getStreamFrames() {
+        return streamFrames;
+    }
+
+    /**
+     * Sets the number of consecutive frames with modifications before this buffer is moved to streaming storage.
+     *
+     * @param streamFrames the number of busy frames before streaming, or zero to never use streaming storage.
+     */
+    public void setStreamFrames(int streamFrames) {
+        if (streamFrames < 0) {
+            throw new IllegalArgumentException("StreamFrames cannot be less than zero");
+        }
+
+        this.streamFrames = streamFrames;
+    }
+
+    /**
+     * Marks the end of a frame, letting this buffer move to storage that better suits how it has been used.
+     *
+     * @return whether this buffer's OpenGL buffer name has changed since the last call to this method.
+     */
+    public boolean endFrame() {
+        if (modifiedThisFrame) {
+            quietFrames = 0;
+            busyFrames++;
+
+            if (storageMode == StorageMode.DYNAMIC && streamFrames > 0 && busyFrames >= streamFrames) {
+                respecifyMutable(StorageMode.STREAM);
+            }
+        } else {
+            busyFrames = 0;
+            quietFrames++;
+
+            if (storageMode != StorageMode.IMMUTABLE && promotionFrames > 0 && quietFrames >= promotionFrames &&
+                    officialSize > 0) {
+                promote();
+            } else if (storageMode == StorageMode.STREAM && quietFrames >= streamFrames) {
+                respecifyMutable(StorageMode.DYNAMIC);
+            }
+        }
+
+        modifiedThisFrame = false;
+
+        boolean changed = idChanged;
+        idChanged = false;
+        return changed;
+    }
+
     /**
      * Resizes the underlying buffer to better suit the buffer's official size.
      */
     public void compact() {
+        if (storageMode == StorageMode.IMMUTABLE) {
+            // immutable storage cannot be resized without giving this buffer a new name
+            return;
+        }
+
         // shrink backing
         ensureTmpBacking(officialSize);
 
@@ -66,7 +189,7 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
 
         long newBackingSize = calculateNewSize(initialCapacity, officialSize);
         glInvalidateBufferData(backing);
-        glNamedBufferData(backing, newBackingSize, GL_DYNAMIC_DRAW);
+        glNamedBufferData(backing, newBackingSize, storageMode.usage);
         backingSize = newBackingSize;
 
         glCopyNamedBufferSubData(tmpBacking, backing, 0, 0, officialSize);
@@ -86,9 +209,26 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
      */
     @Override
     protected void putData(long offset, long length, long address) {
+        markModified();
         nglNamedBufferSubData(backing, offset, length, address);
     }
 
+    /**
+     * Fills a chunk of data within this buffer with a repeating pattern.
+     * <p>
+     * This is done entirely on the GPU using glClearNamedBufferSubData, so the pattern is never uploaded more than once.
+     *
+     * @param offset       the position in bytes of the first byte within this buffer to fill.
+     * @param length       the length in bytes of the chunk of data to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern.
+     */
+    @Override
+    protected void fillData(long offset, long length, int pattern, int elementShift) {
+        markModified();
+        clearBufferData(backing, offset, length, pattern, elementShift);
+    }
+
     /**
      * Makes sure the underlying implementation can handle data puts and gets up to capacity.
      *
@@ -97,6 +237,13 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
     @Override
     protected void ensureCapacity(long capacity) {
         if (capacity > backingSize) {
+            markModified();
+
+            if (storageMode == StorageMode.IMMUTABLE) {
+                moveToMutableBacking(calculateNewSize(backingSize, capacity));
+                return;
+            }
+
             // allocate new tmp buffer if needed
             ensureTmpBacking(officialSize);
 
@@ -104,7 +251,7 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
 
             long newBackingSize = calculateNewSize(backingSize, capacity);
             glInvalidateBufferData(backing);
-            glNamedBufferData(backing, newBackingSize, GL_DYNAMIC_DRAW);
+            glNamedBufferData(backing, newBackingSize, storageMode.usage);
             backingSize = newBackingSize;
 
             glCopyNamedBufferSubData(tmpBacking, backing, 0, 0, officialSize);
@@ -124,8 +271,15 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
      */
     @Override
     protected void copyChunk(long sourceOffset, long destOffset, long chunkLength) {
+        markModified();
+
         long chunkEnd = destOffset + chunkLength;
 
+        if (chunkEnd > backingSize && storageMode == StorageMode.IMMUTABLE) {
+            // the data moves to a new buffer first, then the chunk is copied within it like any other
+            moveToMutableBacking(calculateNewSize(backingSize, chunkEnd));
+        }
+
         // allocate a new backing if needed, otherwise just copy the chunk to the tmp buffer and back again
         if (chunkEnd > backingSize) {
             // allocate new temp buffer if needed
@@ -135,7 +289,7 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
 
             long newBackingSize = calculateNewSize(backingSize, chunkEnd);
             glInvalidateBufferData(backing);
-            glNamedBufferData(backing, newBackingSize, GL_DYNAMIC_DRAW);
+            glNamedBufferData(backing, newBackingSize, storageMode.usage);
             backingSize = newBackingSize;
 
             glCopyNamedBufferSubData(tmpBacking, backing, 0, 0, officialSize);
@@ -166,6 +320,97 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
         }
     }
 
+    /**
+     * Fills a chunk of an OpenGL buffer with a repeating pattern using glClearNamedBufferSubData.
+     *
+     * @param buffer       the name of the OpenGL buffer to fill.
+     * @param offset       the position in bytes of the chunk to fill. Must be a multiple of the pattern size.
+     * @param length       the length in bytes of the chunk to fill. Must be a multiple of the pattern size.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern.
+     */
+    static void clearBufferData(int buffer, long offset, long length, int pattern, int elementShift) {
+        if (length == 0) {
+            return;
+        }
+
+        try (MemoryStack stack = stackPush()) {
+            switch (elementShift) {
+                case ELEMENT_SHIFT_BYTE:
+                    glClearNamedBufferSubData(buffer, GL_R8UI, offset, length, GL_RED_INTEGER, GL_UNSIGNED_BYTE,
+                            stack.bytes((byte) pattern));
+                    break;
+                case ELEMENT_SHIFT_SHORT:
+                    glClearNamedBufferSubData(buffer, GL_R16UI, offset, length, GL_RED_INTEGER, GL_UNSIGNED_SHORT,
+                            stack.shorts((short) pattern));
+                    break;
+                default:
+                    glClearNamedBufferSubData(buffer, GL_R32UI, offset, length, GL_RED_INTEGER, GL_UNSIGNED_INT,
+                            stack.ints(pattern));
+                    break;
+            }
+        }
+    }
+
+    private void markModified() {
+        modifiedThisFrame = true;
+    }
+
+    private void promote() {
+        // replacing the data store discards its contents, so they are kept in the tmp buffer meanwhile
+        ensureTmpBacking(officialSize);
+
+        glCopyNamedBufferSubData(backing, tmpBacking, 0, 0, officialSize);
+
+        // a mutable buffer's data store can be replaced by immutable storage without changing its name
+        glInvalidateBufferData(backing);
+        glNamedBufferStorage(backing, backingSize, GL_DYNAMIC_STORAGE_BIT);
+        storageMode = StorageMode.IMMUTABLE;
+
+        glCopyNamedBufferSubData(tmpBacking, backing, 0, 0, officialSize);
+
+        // the tmp buffer is not needed until this buffer is modified again
+        if (tmpSize > initialTmpCapacity) {
+            glInvalidateBufferData(tmpBacking);
+            glNamedBufferData(tmpBacking, initialTmpCapacity, GL_DYNAMIC_COPY);
+            tmpSize = initialTmpCapacity;
+        }
+    }
+
+    /**
+     * Moves the data of an immutable buffer that has to grow to a new mutable buffer. This is the only time this
+     * buffer's name changes.
+     */
+    private void moveToMutableBacking(long newBackingSize) {
+        int newBacking = glCreateBuffers();
+        glNamedBufferData(newBacking, newBackingSize, GL_DYNAMIC_DRAW);
+        glCopyNamedBufferSubData(backing, newBacking, 0, 0, officialSize);
+
+        replaceBacking(newBacking, newBackingSize);
+        storageMode = StorageMode.DYNAMIC;
+        busyFrames = 0;
+    }
+
+    private void respecifyMutable(StorageMode newMode) {
+        // respecifying a buffer's data store discards its contents, so they are kept in the tmp buffer meanwhile
+        ensureTmpBacking(officialSize);
+
+        glCopyNamedBufferSubData(backing, tmpBacking, 0, 0, officialSize);
+
+        glInvalidateBufferData(backing);
+        glNamedBufferData(backing, backingSize, newMode.usage);
+        storageMode = newMode;
+
+        glCopyNamedBufferSubData(tmpBacking, backing, 0, 0, officialSize);
+    }
+
+    private void replaceBacking(int newBacking, long newBackingSize) {
+        glDeleteBuffers(backing);
+        backing = newBacking;
+        backingSize = newBackingSize;
+        idChanged = true;
+    }
+
     private void ensureTmpBacking(long atLeast) {
         if (tmpSize < atLeast) {
             long newTmpSize = calculateNewSize(tmpSize, atLeast);
@@ -186,4 +431,29 @@ public class WritableGLArrayDataBuffer extends AbstractWritableNativeDataBuffer
         }
         return size;
     }
+
+    /**
+     * The kinds of storage that can back a WritableGLArrayDataBuffer.
+     */
+    public enum StorageMode {
+        /**
+         * Mutable storage created with GL_DYNAMIC_DRAW. This is what every buffer starts with.
+         */
+        DYNAMIC(GL_DYNAMIC_DRAW),
+        /**
+         * Mutable storage created with GL_STREAM_DRAW, used for buffers that are modified every frame.
+         */
+        STREAM(GL_STREAM_DRAW),
+        /**
+         * Immutable storage created with glNamedBufferStorage and GL_DYNAMIC_STORAGE_BIT, used for buffers that are no
+         * longer being modified often. It can still be updated in place, but it cannot grow.
+         */
+        IMMUTABLE(0);
+
+        private final int usage;
+
+        StorageMode(int usage) {
+            this.usage = usage;
+        }
+    }
 }
@@ -0,0 +1,348 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+import org.lwjgl.system.MemoryStack;
+
+import java.io.Closeable;
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL15C.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15C.GL_DYNAMIC_COPY;
+import static org.lwjgl.opengl.GL43C.glInvalidateBufferData;
+import static org.lwjgl.opengl.GL44C.GL_DYNAMIC_STORAGE_BIT;
+import static org.lwjgl.opengl.GL45C.*;
+import static org.lwjgl.system.MemoryStack.stackPush;
+
+/**
+ * WritableSegmentedGLArrayDataBuffer - This buffer stores its data in a list of fixed-size OpenGL buffers called
+ * segments instead of one large OpenGL buffer. Growing this buffer only ever allocates new segments, so data that has
+ * already been uploaded is never reallocated or copied just because the buffer got bigger.
+ * <p>
+ * Segment boundaries are at multiples of the segment size. When this buffer holds fixed-size elements, the segment size
+ * should be a multiple of the element size so that no element straddles two segments, see
+ * {@link #alignedSegmentSize(long, long)}.
+ */
+public class WritableSegmentedGLArrayDataBuffer extends AbstractWritableNativeDataBuffer implements Closeable {
+    /**
+     * The default size in bytes of each segment.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private final long segmentSize;
+    private long initialTmpCapacity;
+    private int[] segments = new int[4];
+    private int segmentCount = 0;
+    private int tmpBacking;
+    private long tmpSize;
+    private boolean closed = false;
+
+    public WritableSegmentedGLArrayDataBuffer() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    public WritableSegmentedGLArrayDataBuffer(long segmentSize) {
+        this(segmentSize, Math.min(segmentSize, 1024));
+    }
+
+    public WritableSegmentedGLArrayDataBuffer(long segmentSize, long initialTmpCapacity) {
+        if (segmentSize <= 0 || (segmentSize & 3) != 0) {
+            throw new IllegalArgumentException("SegmentSize must be a positive multiple of 4");
+        }
+
+        if (initialTmpCapacity <= 0) {
+            throw new IllegalArgumentException("InitialTmpCapacity must be greater than zero");
+        }
+
+        this.segmentSize = segmentSize;
+        this.initialTmpCapacity = initialTmpCapacity;
+
+        tmpBacking = glCreateBuffers();
+        glNamedBufferData(tmpBacking, initialTmpCapacity, GL_DYNAMIC_COPY);
+        tmpSize = initialTmpCapacity;
+    }
+
+    /**
+     * Calculates a segment size close to targetSize that is a multiple of elementSize and can be used with this buffer.
+     *
+     * @param elementSize the size in bytes of the elements that will be stored in this buffer.
+     * @param targetSize  the desired size in bytes of each segment.
+     * @return the largest usable segment size that is no larger than targetSize and is a multiple of elementSize, or the
+     * smallest usable one if targetSize is too small.
+     */
+    public static long alignedSegmentSize(long elementSize, long targetSize) {
+        if (elementSize <= 0) {
+            throw new IllegalArgumentException("ElementSize must be greater than zero");
+        }
+
+        // segments must be multiples of 4 so fill patterns never straddle segments
+        long unit = elementSize;
+        while ((unit & 3) != 0) {
+            unit += elementSize;
+        }
+
+        return Math.max(unit, targetSize - targetSize % unit);
+    }
+
+    /**
+     * Gets the size in bytes of each segment.
+     *
+     * @return the size in bytes of each segment.
+     */
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Gets the number of segments currently allocated by this buffer.
+     * <p>
+     * This can be more than the number of segments that actually hold data. Use {@link #forEachSegment(SegmentConsumer)}
+     * to only visit the segments holding data.
+     *
+     * @return the number of segments currently allocated by this buffer.
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Gets the OpenGL buffer name of a segment.
+     *
+     * @param index the index of the segment.
+     * @return the OpenGL buffer name of the segment.
+     */
+    public int getSegmentId(int index) {
+        if (index < 0 || index >= segmentCount) {
+            throw new IndexOutOfBoundsException("Segment index " + index + " out of bounds for " + segmentCount);
+        }
+
+        return segments[index];
+    }
+
+    /**
+     * Gets the index of the segment that holds the byte at offset.
+     *
+     * @param offset the position in bytes within this buffer.
+     * @return the index of the segment holding that byte.
+     */
+    public int getSegmentIndex(long offset) {
+        return (int) (offset / segmentSize);
+    }
+
+    /**
+     * Calls consumer for every segment holding data in order, along with where that segment starts within this buffer
+     * and how many bytes of data it holds.
+     * <p>
+     * This is meant to be used by drawing code, which binds each segment in turn and draws the elements it holds.
+     *
+     * @param consumer the consumer to receive each segment.
+     */
+    public void forEachSegment(SegmentConsumer consumer) {
+        for (int i = 0; i < segmentCount; i++) {
+            long baseOffset = i * segmentSize;
+            if (baseOffset >= officialSize) {
+                break;
+            }
+
+            consumer.accept(segments[i], baseOffset, Math.min(segmentSize, officialSize - baseOffset));
+        }
+    }
+
+    /**
+     * Releases any segments not needed to hold this buffer's official size and shrinks the tmp buffer to its initial
+     * size.
+     */
+    public void compact() {
+        int neededSegments = (int) ((officialSize + segmentSize - 1) / segmentSize);
+
+        if (neededSegments < segmentCount) {
+            try (MemoryStack stack = stackPush()) {
+                glDeleteBuffers(stack.ints(Arrays.copyOfRange(segments, neededSegments, segmentCount)));
+            }
+
+            Arrays.fill(segments, neededSegments, segmentCount, 0);
+            segmentCount = neededSegments;
+        }
+
+        // shrink tmp backing to its initial size
+        glInvalidateBufferData(tmpBacking);
+        glNamedBufferData(tmpBacking, initialTmpCapacity, GL_DYNAMIC_COPY);
+        tmpSize = initialTmpCapacity;
+    }
+
+    /**
+     * Copies a chunk of data from another buffer.
+     *
+     * @param offset  the position in bytes of the first byte within this buffer to have data copied to it.
+     * @param length  the length in byte of the chunk of data to copy.
+     * @param address the address of the buffer to copy from.
+     */
+    @Override
+    protected void putData(long offset, long length, long address) {
+        long position = 0;
+        while (position < length) {
+            long segmentOffset = (offset + position) % segmentSize;
+            long pieceLength = Math.min(length - position, segmentSize - segmentOffset);
+
+            nglNamedBufferSubData(segments[getSegmentIndex(offset + position)], segmentOffset, pieceLength,
+                    address + position);
+
+            position += pieceLength;
+        }
+    }
+
+    /**
+     * Fills a chunk of data within this buffer with a repeating pattern.
+     * <p>
+     * The offset and length have already been checked to be multiples of the pattern size.
+     *
+     * @param offset       the position in bytes of the first byte within this buffer to fill.
+     * @param length       the length in bytes of the chunk of data to fill.
+     * @param pattern      the pattern to fill the chunk with, stored in the low bytes of this int.
+     * @param elementShift the power of two that is the size of the pattern.
+     */
+    @Override
+    protected void fillData(long offset, long length, int pattern, int elementShift) {
+        long position = 0;
+        while (position < length) {
+            long segmentOffset = (offset + position) % segmentSize;
+            long pieceLength = Math.min(length - position, segmentSize - segmentOffset);
+
+            WritableGLArrayDataBuffer.clearBufferData(segments[getSegmentIndex(offset + position)], segmentOffset,
+                    pieceLength, pattern, elementShift);
+
+            position += pieceLength;
+        }
+    }
+
+    /**
+     * Makes sure the underlying implementation can handle data puts and gets up to capacity.
+     * <p>
+     * This only ever allocates new segments, existing segments are left untouched.
+     *
+     * @param capacity the highest byte that should be accessible.
+     */
+    @Override
+    protected void ensureCapacity(long capacity) {
+        while (segmentCount * segmentSize < capacity) {
+            if (segmentCount == segments.length) {
+                segments = Arrays.copyOf(segments, segments.length * 2);
+            }
+
+            int segment = glCreateBuffers();
+            glNamedBufferStorage(segment, segmentSize, GL_DYNAMIC_STORAGE_BIT);
+            segments[segmentCount++] = segment;
+        }
+    }
+
+    /**
+     * Copies a chunk of data from one place to another within this buffer.
+     * <p>
+     * Note: This method also expands the buffer implementation so that it can handle copying the chunk of data to the
+     * destOffset.
+     *
+     * @param sourceOffset the position in bytes of the first byte to be copied from.
+     * @param destOffset   the position in bytes of the first byte to be copied to.
+     * @param chunkLength  the length in bytes of the chunk of data to be copied.
+     */
+    @Override
+    protected void copyChunk(long sourceOffset, long destOffset, long chunkLength) {
+        ensureCapacity(destOffset + chunkLength);
+
+        if (chunkLength == 0 || sourceOffset == destOffset) {
+            return;
+        }
+
+        // the chunk is copied in pieces that never straddle a segment boundary, ordered like memmove so no piece
+        // overwrites source data that has not been copied yet
+        if (destOffset > sourceOffset) {
+            long end = chunkLength;
+            while (end > 0) {
+                long pieceLength = Math.min(end, Math.min((sourceOffset + end - 1) % segmentSize + 1,
+                        (destOffset + end - 1) % segmentSize + 1));
+
+                copyPiece(sourceOffset + end - pieceLength, destOffset + end - pieceLength, pieceLength);
+
+                end -= pieceLength;
+            }
+        } else {
+            long position = 0;
+            while (position < chunkLength) {
+                long pieceLength = Math.min(chunkLength - position,
+                        Math.min(segmentSize - (sourceOffset + position) % segmentSize,
+                                segmentSize - (destOffset + position) % segmentSize));
+
+                copyPiece(sourceOffset + position, destOffset + position, pieceLength);
+
+                position += pieceLength;
+            }
+        }
+    }
+
+    /**
+     * Closes this BufferObject and releases its underlying buffers.
+     * If the BufferObject is already closed then invoking this
+     * method has no effect.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            try (MemoryStack stack = stackPush()) {
+                int[] toDelete = Arrays.copyOf(segments, segmentCount + 1);
+                toDelete[segmentCount] = tmpBacking;
+                glDeleteBuffers(stack.ints(toDelete));
+            }
+
+            segments = new int[0];
+            segmentCount = 0;
+            tmpBacking = 0;
+            closed = true;
+        }
+    }
+
+    private void copyPiece(long sourceOffset, long destOffset, long pieceLength) {
+        int sourceSegment = segments[getSegmentIndex(sourceOffset)];
+        int destSegment = segments[getSegmentIndex(destOffset)];
+        long sourceSegmentOffset = sourceOffset % segmentSize;
+        long destSegmentOffset = destOffset % segmentSize;
+
+        if (sourceSegment == destSegment && Math.abs(sourceSegmentOffset - destSegmentOffset) < pieceLength) {
+            // OpenGL does not allow overlapping copies within the same buffer
+            ensureTmpBacking(pieceLength);
+
+            glCopyNamedBufferSubData(sourceSegment, tmpBacking, sourceSegmentOffset, 0, pieceLength);
+            glCopyNamedBufferSubData(tmpBacking, destSegment, 0, destSegmentOffset, pieceLength);
+        } else {
+            glCopyNamedBufferSubData(sourceSegment, destSegment, sourceSegmentOffset, destSegmentOffset, pieceLength);
+        }
+    }
+
+    private void ensureTmpBacking(long atLeast) {
+        if (tmpSize < atLeast) {
+            long newTmpSize = tmpSize;
+            while (newTmpSize < atLeast) {
+                newTmpSize <<= 1;
+            }
+
+            // a single piece is never larger than a segment
+            newTmpSize = Math.min(newTmpSize, Math.max(atLeast, segmentSize));
+
+            glInvalidateBufferData(tmpBacking);
+            glNamedBufferData(tmpBacking, newTmpSize, GL_DYNAMIC_COPY);
+            tmpSize = newTmpSize;
+        }
+    }
+
+    /**
+     * Receives the segments of a segmented buffer.
+     */
+    @FunctionalInterface
+    public interface SegmentConsumer {
+        /**
+         * Receives a segment.
+         *
+         * @param id         the OpenGL buffer name of the segment.
+         * @param baseOffset the position in bytes within the segmented buffer where this segment starts.
+         * @param length     the number of bytes of data held by this segment.
+         */
+        void accept(int id, long baseOffset, long length);
+    }
+}
@@ -14,6 +14,7 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
      */
     @Override
     public void set(long offset, Collection<? extends E> elements) {
+        checkElements(elements);
         putElements(offset, elements);
     }
 
@@ -24,8 +25,10 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
      */
     @Override
     public void append(Collection<? extends E> elements) {
+        checkElements(elements);
+        long offset = getSize();
         appendBlank(elements.size());
-        putElements(getSize(), elements);
+        putElements(offset, elements);
     }
 
     /**
@@ -35,6 +38,7 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
      */
     @Override
     public void prepend(Collection<? extends E> elements) {
+        checkElements(elements);
         prependBlank(elements.size());
         putElements(0, elements);
     }
@@ -48,6 +52,7 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
      */
     @Override
     public void insert(long offset, Collection<? extends E> elements) {
+        checkElements(elements);
         insertBlank(offset, elements.size());
         putElements(offset, elements);
     }
@@ -62,6 +67,7 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
      */
     @Override
     public void replace(long offset, long chunkLength, Collection<? extends E> elements) {
+        checkElements(elements);
         if (chunkLength > elements.size()) {
             remove(offset + elements.size(), chunkLength - elements.size());
         } else if (chunkLength < elements.size()) {
@@ -80,6 +86,7 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
      */
     @Override
     public void replaceAfter(long offset, Collection<? extends E> elements) {
+        checkElements(elements);
         long size = getSize();
         if (size > offset + elements.size()) {
             removeAfter(offset + elements.size());
@@ -99,8 +106,9 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
      */
     @Override
     public void replaceBefore(long cutoff, Collection<? extends E> elements) {
+        checkElements(elements);
         if (cutoff > elements.size()) {
-            remove(cutoff, cutoff - elements.size());
+            remove(elements.size(), cutoff - elements.size());
         } else if (cutoff < elements.size()) {
             insertBlank(cutoff, elements.size() - cutoff);
         }
@@ -116,6 +124,7 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
      */
     @Override
     public void replaceAll(Collection<? extends E> elements) {
+        checkElements(elements);
         long size = getSize();
         if (size > elements.size()) {
             removeAfter(elements.size());
@@ -126,6 +135,17 @@ public abstract class AbstractWritableObjectBuffer<E> implements WritableObjectB
         putElements(0, elements);
     }
 
+    /**
+     * Checks that a chunk of elements can be written to this buffer before any room is made for it.
+     * <p>
+     * Buffers that can reject elements part way through {@link #putElements(long, Collection)} should override this to
+     * throw up front instead, so a rejected chunk never leaves blank elements behind. This does nothing by default.
+     *
+     * @param elements the chunk of elements about to be written.
+     */
+    protected void checkElements(Collection<? extends E> elements) {
+    }
+
     /**
      * Sets the values of elements within this buffer.
      *
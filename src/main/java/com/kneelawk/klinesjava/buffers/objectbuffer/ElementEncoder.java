@@ -0,0 +1,50 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ElementEncoder - Encodes elements into fixed-size byte keys and decodes them back.
+ * <p>
+ * Indexing buffers only keep the encoded keys of their elements, so an element is decoded from its key whenever it has
+ * to be written to the element buffer again, such as when the element buffer is compacted.
+ * <p>
+ * Two elements are treated as the same element when their encoded bytes are the same, so an encoder must write every
+ * byte of the key and must write the same bytes for elements that are equal. JOML's equals methods compare components
+ * by {@link Float#floatToIntBits(float)}, so writing every component as a float matches them except for NaNs: every
+ * NaN is equal to every other NaN under floatToIntBits, but NaNs with different bit patterns encode to different bytes.
+ * -0.0 and 0.0 are different under both. Encoders that need every NaN to be the same element should write
+ * floatToIntBits of each component instead.
+ *
+ * @param <E> the type of element this encoder encodes.
+ */
+public interface ElementEncoder<E> {
+    /**
+     * Gets the size in bytes of every encoded element.
+     *
+     * @return the size in bytes of every encoded element.
+     */
+    int getEncodedSize();
+
+    /**
+     * Writes the key of a single element at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the key to.
+     * @param position the position within the buffer to write the key at.
+     * @param element  the element to encode.
+     */
+    void encode(ByteBuffer buffer, int position, E element);
+
+    /**
+     * Creates an element from the key written at a specific position.
+     * <p>
+     * The decoded element must encode to the same key again. The buffer's position and limit should be the same after
+     * this method as they were before.
+     *
+     * @param buffer   the buffer to read the key from.
+     * @param position the position within the buffer to read the key at.
+     * @return the decoded element.
+     */
+    E decode(ByteBuffer buffer, int position);
+}
@@ -0,0 +1,87 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import com.kneelawk.klinesjava.buffers.ElementShifts;
+
+import static org.lwjgl.opengl.GL11C.*;
+
+/**
+ * IndexType - The unsigned integer types an index buffer can store its indices as.
+ * <p>
+ * The largest value of each type, with every bit set, is never used as an index. It marks blank indices instead, and
+ * is the index OpenGL uses to restart primitives when GL_PRIMITIVE_RESTART_FIXED_INDEX is enabled.
+ */
+public enum IndexType {
+    UNSIGNED_BYTE(GL_UNSIGNED_BYTE, ElementShifts.ELEMENT_SHIFT_BYTE),
+    UNSIGNED_SHORT(GL_UNSIGNED_SHORT, ElementShifts.ELEMENT_SHIFT_SHORT),
+    UNSIGNED_INT(GL_UNSIGNED_INT, ElementShifts.ELEMENT_SHIFT_INT);
+
+    private final int glType;
+    private final int elementShift;
+
+    IndexType(int glType, int elementShift) {
+        this.glType = glType;
+        this.elementShift = elementShift;
+    }
+
+    /**
+     * Gets the OpenGL type enum for this index type, as passed to glDrawElements.
+     *
+     * @return the OpenGL type enum for this index type.
+     */
+    public int getGlType() {
+        return glType;
+    }
+
+    /**
+     * Gets the shift that converts a number of indices of this type into a number of bytes.
+     *
+     * @return the element shift of this index type.
+     */
+    public int getElementShift() {
+        return elementShift;
+    }
+
+    /**
+     * Gets the size in bytes of a single index of this type.
+     *
+     * @return the size in bytes of a single index of this type.
+     */
+    public int getSize() {
+        return 1 << elementShift;
+    }
+
+    /**
+     * Gets the value with every bit of this type set, which blank indices hold.
+     *
+     * @return the restart index of this type.
+     */
+    public int getRestartIndex() {
+        return (int) getMaxElementCount();
+    }
+
+    /**
+     * Gets the largest number of elements indices of this type can reference. This is one less than the number of
+     * values of this type, because the restart index is never used to reference an element.
+     *
+     * @return the largest number of elements indices of this type can reference.
+     */
+    public long getMaxElementCount() {
+        return (1L << (8 << elementShift)) - 1;
+    }
+
+    /**
+     * Gets the smallest index type that can reference a given number of elements.
+     *
+     * @param elementCount the number of elements the indices must be able to reference.
+     * @return the smallest index type that can reference that many elements.
+     */
+    public static IndexType forElementCount(long elementCount) {
+        for (IndexType type : values()) {
+            if (elementCount <= type.getMaxElementCount()) {
+                return type;
+            }
+        }
+
+        throw new IllegalArgumentException("ElementCount is too large for any index type");
+    }
+}
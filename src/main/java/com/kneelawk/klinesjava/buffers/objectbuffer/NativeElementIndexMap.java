@@ -0,0 +1,335 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * NativeElementIndexMap - An open-addressed hash table in native memory that maps fixed-size byte keys to element
+ * indices.
+ * <p>
+ * Lookups work on the key currently held in the key buffer, so looking up an element only means encoding it into the
+ * key buffer: nothing is allocated and no Java hashCode or equals is called. Keys are hashed 8 bytes at a time and each
+ * slot keeps the hash of its key, so most mismatching keys are skipped without comparing them and growing the table
+ * never hashes a key again. Collisions are resolved by linear probing and removals shift later entries back instead of
+ * leaving tombstones.
+ * <p>
+ * The keys themselves are stored in a separate native array indexed by value, so every element's key can be read back
+ * by its index without keeping the element on the heap.
+ */
+final class NativeElementIndexMap implements Closeable {
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // each slot is the int hash of its key followed by the int value, which is EMPTY for empty slots
+    private static final int SLOT_SIZE = 8;
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private final int keyStride;
+    private final long key;
+    private final ByteBuffer keyBuffer;
+
+    private long slots;
+    private int capacity;
+    private int size = 0;
+
+    // the key of every value, at value * keyStride
+    private long keys;
+    private int keyCapacity;
+
+    NativeElementIndexMap(int keySize) {
+        if (keySize <= 0) {
+            throw new IllegalArgumentException("KeySize must be greater than zero");
+        }
+
+        // keys are padded with zeros to a whole number of longs so they can be hashed and compared a long at a time
+        keyStride = (keySize + 7) & ~7;
+        key = nmemCallocChecked(1, keyStride);
+        keyBuffer = memByteBuffer(key, keySize);
+
+        keyCapacity = INITIAL_CAPACITY;
+        keys = nmemCallocChecked(keyCapacity, keyStride);
+
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Gets the buffer holding the key lookups work on. Keys are written at position 0.
+     *
+     * @return the key buffer.
+     */
+    ByteBuffer getKeyBuffer() {
+        return keyBuffer;
+    }
+
+    /**
+     * Gets the number of keys in this map.
+     *
+     * @return the number of keys in this map.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value of the key in the key buffer.
+     *
+     * @return the value of the key, or -1 if the key is not in this map.
+     */
+    int get() {
+        int hash = hash(key, keyStride);
+        int slot = findKey(hash);
+        return slot < 0 ? EMPTY : memGetInt(slots + (long) slot * SLOT_SIZE + 4);
+    }
+
+    /**
+     * Gets the number of slots in the hash table.
+     *
+     * @return the number of slots in the hash table.
+     */
+    @VisibleForTesting
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the slot the key in the key buffer starts probing at.
+     *
+     * @return the home slot of the key in the key buffer.
+     */
+    @VisibleForTesting
+    int getHomeSlot() {
+        return hash(key, keyStride) & (capacity - 1);
+    }
+
+    /**
+     * Sets the value of the key in the key buffer, adding the key if it is not in this map yet. The value must not
+     * already belong to another key.
+     *
+     * @param value the value of the key. This must not be negative.
+     */
+    void put(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be less than zero");
+        }
+
+        ensureKeyCapacity(value);
+        memCopy(key, keyAddress(value), keyStride);
+
+        int hash = hash(key, keyStride);
+        int slot = findKey(hash);
+        if (slot >= 0) {
+            memPutInt(slots + (long) slot * SLOT_SIZE + 4, value);
+            return;
+        }
+
+        if ((size + 1) * 2 > capacity) {
+            allocate(capacity * 2);
+        }
+
+        insert(hash, value);
+        size++;
+    }
+
+    /**
+     * Copies the key of a value into the key buffer.
+     *
+     * @param value the value whose key is copied.
+     * @throws IllegalArgumentException if the value is not in this map.
+     */
+    void loadKey(int value) {
+        findValue(value);
+        memCopy(keyAddress(value), key, keyStride);
+    }
+
+    /**
+     * Gives the key of a value to another value, which must not belong to any key yet.
+     *
+     * @param from the value whose key is moved.
+     * @param to   the new value of the key.
+     * @throws IllegalArgumentException if from is not in this map.
+     */
+    void move(int from, int to) {
+        if (to < 0) {
+            throw new IllegalArgumentException("To cannot be less than zero");
+        }
+
+        int slot = findValue(from);
+        ensureKeyCapacity(to);
+        memCopy(keyAddress(from), keyAddress(to), keyStride);
+        memPutInt(slots + (long) slot * SLOT_SIZE + 4, to);
+    }
+
+    /**
+     * Removes the key of a value from this map.
+     *
+     * @param value the value whose key is removed.
+     * @throws IllegalArgumentException if the value is not in this map.
+     */
+    void remove(int value) {
+        int slot = findValue(value);
+        int mask = capacity - 1;
+
+        // shift every entry of the probe sequence after the removed one back if its home slot allows it
+        int hole = slot;
+        for (int next = (hole + 1) & mask; memGetInt(slots + (long) next * SLOT_SIZE + 4) != EMPTY;
+             next = (next + 1) & mask) {
+            int home = memGetInt(slots + (long) next * SLOT_SIZE) & mask;
+
+            // the entry can only move back if the hole is between its home slot and where it is now
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                memCopy(slots + (long) next * SLOT_SIZE, slots + (long) hole * SLOT_SIZE, SLOT_SIZE);
+                hole = next;
+            }
+        }
+
+        memPutInt(slots + (long) hole * SLOT_SIZE + 4, EMPTY);
+        size--;
+    }
+
+    /**
+     * Removes every key from this map.
+     */
+    void clear() {
+        fillEmpty(slots, capacity);
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        if (slots != NULL) {
+            nmemFree(slots);
+            nmemFree(keys);
+            nmemFree(key);
+            slots = NULL;
+            keys = NULL;
+        }
+    }
+
+    private long keyAddress(int value) {
+        return keys + (long) value * keyStride;
+    }
+
+    private int findKey(int hash) {
+        int mask = capacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long slotAddress = slots + (long) slot * SLOT_SIZE;
+            int value = memGetInt(slotAddress + 4);
+            if (value == EMPTY) {
+                return -1;
+            }
+
+            if (memGetInt(slotAddress) == hash && keyEquals(keyAddress(value))) {
+                return slot;
+            }
+        }
+    }
+
+    private int findValue(int value) {
+        if (value >= 0 && value < keyCapacity) {
+            int mask = capacity - 1;
+            for (int slot = hash(keyAddress(value), keyStride) & mask; ; slot = (slot + 1) & mask) {
+                int slotValue = memGetInt(slots + (long) slot * SLOT_SIZE + 4);
+                if (slotValue == EMPTY) {
+                    break;
+                }
+
+                if (slotValue == value) {
+                    return slot;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("No key has the value " + value);
+    }
+
+    private void insert(int hash, int value) {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+        while (memGetInt(slots + (long) slot * SLOT_SIZE + 4) != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+
+        memPutInt(slots + (long) slot * SLOT_SIZE, hash);
+        memPutInt(slots + (long) slot * SLOT_SIZE + 4, value);
+    }
+
+    private boolean keyEquals(long address) {
+        for (int i = 0; i < keyStride; i += 8) {
+            if (memGetLong(key + i) != memGetLong(address + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureKeyCapacity(int value) {
+        if (value >= keyCapacity) {
+            int newCapacity = keyCapacity;
+            while (value >= newCapacity) {
+                newCapacity *= 2;
+            }
+
+            long newKeys = nmemCallocChecked(newCapacity, keyStride);
+            memCopy(keys, newKeys, (long) keyCapacity * keyStride);
+            nmemFree(keys);
+            keys = newKeys;
+            keyCapacity = newCapacity;
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        long oldSlots = slots;
+        int oldCapacity = capacity;
+
+        slots = nmemAllocChecked((long) newCapacity * SLOT_SIZE);
+        capacity = newCapacity;
+        fillEmpty(slots, newCapacity);
+
+        if (oldSlots != NULL) {
+            // the stored hashes are reused, so no key is hashed again
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                long slotAddress = oldSlots + (long) slot * SLOT_SIZE;
+                int value = memGetInt(slotAddress + 4);
+                if (value != EMPTY) {
+                    insert(memGetInt(slotAddress), value);
+                }
+            }
+
+            nmemFree(oldSlots);
+        }
+    }
+
+    private static void fillEmpty(long slots, int capacity) {
+        // setting every byte to 0xFF makes every value EMPTY
+        memSet(slots, 0xFF, (long) capacity * SLOT_SIZE);
+    }
+
+    /**
+     * Hashes a key a long at a time using the murmur3 mixing functions.
+     */
+    private static int hash(long address, int length) {
+        long h = SEED ^ length;
+        for (int i = 0; i < length; i += 8) {
+            long k = memGetLong(address + i) * C1;
+            k = Long.rotateLeft(k, 31) * C2;
+            h ^= k;
+            h = Long.rotateLeft(h, 27) * 5 + 0x52DCE729;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+
+        return (int) h;
+    }
+}
@@ -0,0 +1,316 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * ObjectBufferSubscriber - Subscribes a {@link WritableObjectBuffer} to a reactive stream of elements.
+ * <p>
+ * Elements received from the publisher are only gathered into batches, on whatever thread the publisher delivers them.
+ * The batches are appended to the buffer by {@link #applyPending()}, which is meant to be called on the render thread
+ * once per frame, so buffers backed by GL objects are never touched from any other thread.
+ * <p>
+ * Demand is only signalled for as many elements as fit in the pending budget: every element that has been requested
+ * but not yet appended counts against it. When appending falls behind the publisher, requests stop until the render
+ * thread catches up, so memory stays bounded no matter how bursty the publisher is.
+ *
+ * @param <E> the type of element this subscriber receives.
+ */
+public class ObjectBufferSubscriber<E> implements Flow.Subscriber<E> {
+    /**
+     * The default size in bytes of a single batch of elements.
+     */
+    public static final long DEFAULT_BATCH_BYTES = 256 * 1024;
+
+    /**
+     * The default number of batches that can be requested or waiting to be appended at the same time.
+     */
+    public static final int DEFAULT_MAX_PENDING_BATCHES = 4;
+
+    private final WritableObjectBuffer<? super E> target;
+    private final int batchSize;
+    private final long capacity;
+
+    private final Object lock = new Object();
+    private final Object requestLock = new Object();
+
+    private final Deque<List<E>> readyBatches = new ArrayDeque<>();
+    private List<E> currentBatch;
+    private long outstanding = 0;
+    private long pending = 0;
+    private Flow.Subscription subscription;
+    private boolean completed = false;
+    private boolean cancelled = false;
+    private Throwable error;
+
+    /**
+     * Creates a subscriber using the default batch size and pending budget.
+     *
+     * @param target       the buffer elements are appended to.
+     * @param elementBytes the size in bytes of a single element once encoded into the buffer.
+     */
+    public ObjectBufferSubscriber(WritableObjectBuffer<? super E> target, long elementBytes) {
+        this(target, elementBytes, DEFAULT_BATCH_BYTES, DEFAULT_MAX_PENDING_BATCHES);
+    }
+
+    /**
+     * Creates a subscriber.
+     *
+     * @param target            the buffer elements are appended to.
+     * @param elementBytes      the size in bytes of a single element once encoded into the buffer.
+     * @param batchBytes        the size in bytes of a single batch of elements.
+     * @param maxPendingBatches the number of batches that can be requested or waiting to be appended at the same time.
+     */
+    public ObjectBufferSubscriber(WritableObjectBuffer<? super E> target, long elementBytes, long batchBytes,
+                                  int maxPendingBatches) {
+        if (elementBytes <= 0) {
+            throw new IllegalArgumentException("ElementBytes must be greater than zero");
+        }
+        if (batchBytes <= 0) {
+            throw new IllegalArgumentException("BatchBytes must be greater than zero");
+        }
+        if (maxPendingBatches <= 0) {
+            throw new IllegalArgumentException("MaxPendingBatches must be greater than zero");
+        }
+
+        this.target = Objects.requireNonNull(target, "target");
+        batchSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, batchBytes / elementBytes));
+        capacity = (long) batchSize * maxPendingBatches;
+        currentBatch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Gets the buffer elements are appended to.
+     *
+     * @return the buffer elements are appended to.
+     */
+    public WritableObjectBuffer<? super E> getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets the number of elements in a full batch.
+     *
+     * @return the number of elements in a full batch.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Gets the number of elements that have been received but not yet appended.
+     *
+     * @return the number of elements waiting to be appended.
+     */
+    public long getPendingCount() {
+        synchronized (lock) {
+            return pending;
+        }
+    }
+
+    /**
+     * Gets whether the publisher has finished, either normally or with an error, and every element it sent has been
+     * appended.
+     *
+     * @return whether this subscriber has nothing left to do.
+     */
+    public boolean isDone() {
+        synchronized (lock) {
+            return (completed || error != null) && pending == 0;
+        }
+    }
+
+    /**
+     * Gets the error the publisher finished with, if any.
+     *
+     * @return the error the publisher finished with, or null if it has not failed.
+     */
+    public Throwable getError() {
+        synchronized (lock) {
+            return error;
+        }
+    }
+
+    /**
+     * Appends every batch that is waiting to the buffer, including the batch that is still being filled, then requests
+     * more elements from the publisher.
+     * <p>
+     * This must be called on the thread that owns the buffer, usually the render thread at the start or end of a frame.
+     *
+     * @return the number of elements appended.
+     */
+    public int applyPending() {
+        return applyPending(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Appends up to maxBatches of the batches that are waiting to the buffer, then requests more elements from the
+     * publisher. The batch that is still being filled counts as a batch and is only appended once every full batch has
+     * been.
+     * <p>
+     * If appending a batch throws, that batch is dropped so it does not fail again and the exception is rethrown. The
+     * batches after it are kept, in order, and are appended by the next call.
+     * <p>
+     * This must be called on the thread that owns the buffer, usually the render thread at the start or end of a frame.
+     *
+     * @param maxBatches the largest number of batches to append.
+     * @return the number of elements appended.
+     */
+    public int applyPending(int maxBatches) {
+        if (maxBatches < 0) {
+            throw new IllegalArgumentException("MaxBatches cannot be less than zero");
+        }
+
+        List<List<E>> batches = new ArrayList<>();
+        synchronized (lock) {
+            while (batches.size() < maxBatches && !readyBatches.isEmpty()) {
+                batches.add(readyBatches.poll());
+            }
+
+            if (batches.size() < maxBatches && !currentBatch.isEmpty()) {
+                batches.add(currentBatch);
+                currentBatch = new ArrayList<>(batchSize);
+            }
+        }
+
+        int applied = 0;
+        int appendedBatches = 0;
+        try {
+            for (List<E> batch : batches) {
+                target.append(batch);
+                applied += batch.size();
+                appendedBatches++;
+            }
+        } finally {
+            synchronized (lock) {
+                // cancelling has already dropped everything, including the batches taken here
+                if (!cancelled) {
+                    long removed = applied;
+
+                    if (appendedBatches < batches.size()) {
+                        // the batch that failed is dropped so it does not keep holding up the budget, the batches
+                        // after it go back to the front of the queue to keep their order
+                        removed += batches.get(appendedBatches).size();
+                        for (int i = batches.size() - 1; i > appendedBatches; i--) {
+                            readyBatches.addFirst(batches.get(i));
+                        }
+                    }
+
+                    pending -= removed;
+                }
+            }
+        }
+
+        requestDemand();
+
+        return applied;
+    }
+
+    /**
+     * Cancels the subscription and drops every element that has not been appended yet.
+     */
+    public void cancel() {
+        Flow.Subscription toCancel;
+        synchronized (lock) {
+            cancelled = true;
+            toCancel = subscription;
+            readyBatches.clear();
+            currentBatch.clear();
+            pending = 0;
+            outstanding = 0;
+        }
+
+        if (toCancel != null) {
+            synchronized (requestLock) {
+                toCancel.cancel();
+            }
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        boolean reject;
+        synchronized (lock) {
+            reject = this.subscription != null || cancelled;
+            if (!reject) {
+                this.subscription = subscription;
+            }
+        }
+
+        if (reject) {
+            // a subscriber may only ever have one subscription
+            subscription.cancel();
+        } else {
+            requestDemand();
+        }
+    }
+
+    @Override
+    public void onNext(E item) {
+        Objects.requireNonNull(item, "item");
+
+        synchronized (lock) {
+            if (cancelled) {
+                return;
+            }
+
+            if (outstanding > 0) {
+                outstanding--;
+            }
+            pending++;
+
+            currentBatch.add(item);
+            if (currentBatch.size() >= batchSize) {
+                readyBatches.add(currentBatch);
+                currentBatch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (lock) {
+            error = Objects.requireNonNull(throwable, "throwable");
+            outstanding = 0;
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (lock) {
+            completed = true;
+            outstanding = 0;
+        }
+    }
+
+    private void requestDemand() {
+        Flow.Subscription toRequest;
+        long demand;
+        synchronized (lock) {
+            if (subscription == null || cancelled || completed || error != null) {
+                return;
+            }
+
+            demand = capacity - outstanding - pending;
+
+            // only top up in whole batches unless the publisher has nothing left to send
+            if (demand <= 0 || (demand < batchSize && outstanding > 0)) {
+                return;
+            }
+
+            outstanding += demand;
+            toRequest = subscription;
+        }
+
+        // the publisher may deliver elements from inside request, which only needs the main lock
+        synchronized (requestLock) {
+            toRequest.request(demand);
+        }
+    }
+}
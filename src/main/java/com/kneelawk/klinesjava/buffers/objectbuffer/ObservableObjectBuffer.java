@@ -0,0 +1,743 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import com.kneelawk.klinesjava.buffers.BufferChangeFeed;
+import com.kneelawk.klinesjava.buffers.BufferChangeListener;
+
+import java.nio.IntBuffer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * ObservableObjectBuffer - This buffer forwards everything written to it to the wrapped buffer and records what changed
+ * in a {@link BufferChangeFeed}, in elements. Listeners receive the recorded changes in order when {@link #flush()} is
+ * called.
+ *
+ * @param <E> the type of element this buffer holds.
+ */
+public class ObservableObjectBuffer<E> implements WritableObjectBuffer<E> {
+    private final WritableObjectBuffer<E> wrapped;
+    private final BufferChangeFeed feed = new BufferChangeFeed();
+
+    public ObservableObjectBuffer(WritableObjectBuffer<E> wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    /**
+     * Gets the buffer this buffer forwards everything to.
+     *
+     * @return the wrapped buffer.
+     */
+    public WritableObjectBuffer<E> getWrapped() {
+        return wrapped;
+    }
+
+    /**
+     * Gets the feed this buffer records its changes in.
+     *
+     * @return the feed this buffer records its changes in.
+     */
+    public BufferChangeFeed getChangeFeed() {
+        return feed;
+    }
+
+    /**
+     * Adds a listener to receive this buffer's changes when they are flushed.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(BufferChangeListener listener) {
+        feed.addListener(listener);
+    }
+
+    /**
+     * Removes a listener so it no longer receives this buffer's changes.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeListener(BufferChangeListener listener) {
+        feed.removeListener(listener);
+    }
+
+    /**
+     * Delivers every change recorded since the last flush to the listeners, in order.
+     */
+    public void flush() {
+        feed.flush();
+    }
+
+    /**
+     * Sets a chunk of elements within this buffer.
+     * <p>
+     * This will increase the size of this buffer if the chunk of elements being set extends beyond the current end of
+     * this buffer.,
+     *
+     * @param offset   the position in elements within this buffer to place the start of the new elements.
+     * @param elements the chunk of new elements to put into this buffer.
+     */
+    @Override
+    public void set(long offset, Collection<? extends E> elements) {
+        long oldSize = wrapped.getSize();
+        long length = elements.size();
+
+        wrapped.set(offset, elements);
+        feed.recordReplace(offset, length, length, oldSize);
+    }
+
+    /**
+     * Sets a chunk of elements within this buffer.
+     *
+     * @param offset   the position in elements within this buffer to place the start of the new elements.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the list of indices into the elements list that makes up the chunk of elements to set.
+     */
+    @Override
+    public void set(long offset, List<? extends E> elements, Collection<Integer> indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.size();
+
+        wrapped.set(offset, elements, indices);
+        feed.recordReplace(offset, length, length, oldSize);
+    }
+
+    /**
+     * Sets a chunk of elements within this buffer.
+     *
+     * @param offset   the position in elements within this buffer to place the start of the new elements.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to set.
+     */
+    @Override
+    public void set(long offset, List<? extends E> elements, IntBuffer indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.remaining();
+
+        wrapped.set(offset, elements, indices);
+        feed.recordReplace(offset, length, length, oldSize);
+    }
+
+    /**
+     * Sets a single element within this buffer.
+     * <p>
+     * This will increase the size of this buffer if the element being set extends beyond the current end of this
+     * buffer.
+     *
+     * @param offset  the position in elements within this buffer to place the new element.
+     * @param element the new element to set in this buffer.
+     */
+    @Override
+    public void set(long offset, E element) {
+        long oldSize = wrapped.getSize();
+        long length = 1;
+
+        wrapped.set(offset, element);
+        feed.recordReplace(offset, length, length, oldSize);
+    }
+
+    /**
+     * Appends a chunk of elements to the end of this buffer.
+     *
+     * @param elements the chunk of elements to append to the end of this buffer.
+     */
+    @Override
+    public void append(Collection<? extends E> elements) {
+        long oldSize = wrapped.getSize();
+        long length = elements.size();
+
+        wrapped.append(elements);
+        feed.recordInsert(oldSize, length);
+    }
+
+    /**
+     * Appends elements to the end of this buffer as they are produced by an iterator.
+     *
+     * @param elements the iterator producing the elements to append to the end of this buffer.
+     * @param sizeHint the expected number of elements the iterator will produce, or a negative number if it is
+     *                 unknown.
+     */
+    @Override
+    public void append(Iterator<? extends E> elements, long sizeHint) {
+        long oldSize = wrapped.getSize();
+
+        try {
+            wrapped.append(elements, sizeHint);
+        } finally {
+            // whatever was appended before a failure still needs to be uploaded
+            feed.recordInsert(oldSize, wrapped.getSize() - oldSize);
+        }
+    }
+
+    /**
+     * Appends a chunk of elements to the end of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices list ot draw from.
+     * @param indices  the list of indices into the elements list that makes up the chunk of elements to append.
+     */
+    @Override
+    public void append(List<? extends E> elements, Collection<Integer> indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.size();
+
+        wrapped.append(elements, indices);
+        feed.recordInsert(oldSize, length);
+    }
+
+    /**
+     * Appends a chunk of elements to the end of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices list ot draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to append.
+     */
+    @Override
+    public void append(List<? extends E> elements, IntBuffer indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.remaining();
+
+        wrapped.append(elements, indices);
+        feed.recordInsert(oldSize, length);
+    }
+
+    /**
+     * Appends a single element to the end of this buffer.
+     *
+     * @param element the element to append to the end of this buffer.
+     */
+    @Override
+    public void append(E element) {
+        long oldSize = wrapped.getSize();
+        long length = 1;
+
+        wrapped.append(element);
+        feed.recordInsert(oldSize, length);
+    }
+
+    /**
+     * Appends a chunk of blank elements to the end of this buffer.
+     * <p>
+     * Note: The value of all blank elements is undefined.
+     *
+     * @param length the length in elements of the chunk of blank elements to append to the end of this buffer.
+     */
+    @Override
+    public void appendBlank(long length) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.appendBlank(length);
+        feed.recordInsert(oldSize, length);
+    }
+
+    /**
+     * Prepends a chunk of elements to the beginning of this buffer.
+     *
+     * @param elements the chunk of elements to prepend to the beginning of this buffer.
+     */
+    @Override
+    public void prepend(Collection<? extends E> elements) {
+        long length = elements.size();
+
+        wrapped.prepend(elements);
+        feed.recordInsert(0, length);
+    }
+
+    /**
+     * Prepends a chunk of elements to the beginning of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the list of indices into the elements list that makes up the chunk of elements to prepend.
+     */
+    @Override
+    public void prepend(List<? extends E> elements, Collection<Integer> indices) {
+        long length = indices.size();
+
+        wrapped.prepend(elements, indices);
+        feed.recordInsert(0, length);
+    }
+
+    /**
+     * Prepends a chunk of elements to the beginning of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to prepend.
+     */
+    @Override
+    public void prepend(List<? extends E> elements, IntBuffer indices) {
+        long length = indices.remaining();
+
+        wrapped.prepend(elements, indices);
+        feed.recordInsert(0, length);
+    }
+
+    /**
+     * Prepends a single element to the beginning of this buffer.
+     *
+     * @param element the element to prepend to the beginning of this buffer.
+     */
+    @Override
+    public void prepend(E element) {
+        long length = 1;
+
+        wrapped.prepend(element);
+        feed.recordInsert(0, length);
+    }
+
+    /**
+     * Prepends a chunk of blank elements to the beginning of this buffer.
+     * <p>
+     * Note: The value of all blank elements is undefined.
+     *
+     * @param length the length in elements of the chunk of blank elements to append to the beginning of this buffer.
+     */
+    @Override
+    public void prependBlank(long length) {
+        wrapped.prependBlank(length);
+        feed.recordInsert(0, length);
+    }
+
+    /**
+     * Inserts a chunk of elements into this buffer at offset, moving the elements currently after offset to the end of
+     * the space where the new chunk of elements will be located.
+     *
+     * @param offset   the position in elements to insert the chunk of elements at.
+     * @param elements the chunk of elements to insert.
+     */
+    @Override
+    public void insert(long offset, Collection<? extends E> elements) {
+        long oldSize = wrapped.getSize();
+        long length = elements.size();
+
+        wrapped.insert(offset, elements);
+        feed.recordReplace(offset, 0, length, oldSize);
+    }
+
+    /**
+     * Inserts a chunk of elements into this buffer at offset, moving the elements currently after offset to the end of
+     * the space where the new chunk of elements will be located.
+     *
+     * @param offset   the position in elements to insert the chunk of elements at.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the list of indices into the elements list that makes up the chunk of data to insert.
+     */
+    @Override
+    public void insert(long offset, List<? extends E> elements, Collection<Integer> indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.size();
+
+        wrapped.insert(offset, elements, indices);
+        feed.recordReplace(offset, 0, length, oldSize);
+    }
+
+    /**
+     * Inserts a chunk of elements into this buffer at offset, moving the elements currently after offset to the end of
+     * the space where the new chunk of elements will be located.
+     *
+     * @param offset   the position in elements to insert the chunk of elements at.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to insert.
+     */
+    @Override
+    public void insert(long offset, List<? extends E> elements, IntBuffer indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.remaining();
+
+        wrapped.insert(offset, elements, indices);
+        feed.recordReplace(offset, 0, length, oldSize);
+    }
+
+    /**
+     * Inserts a single element into this buffer at offset, moving the elements currently after offset to the end of the
+     * space where the new element will be located.
+     *
+     * @param offset  the position in elements to insert the chunk of elements at.
+     * @param element the element to insert.
+     */
+    @Override
+    public void insert(long offset, E element) {
+        long oldSize = wrapped.getSize();
+        long length = 1;
+
+        wrapped.insert(offset, element);
+        feed.recordReplace(offset, 0, length, oldSize);
+    }
+
+    /**
+     * Inserts a chunk of blank elements into this buffer at offset, moving the elements currently after the offset to
+     * the end of the space where the empty space will be located.
+     * <p>
+     * Note: The value of all blank elements is undefined.
+     *
+     * @param offset the position in elements to insert the empty space at.
+     * @param length the length in elements of the empty space to insert.
+     */
+    @Override
+    public void insertBlank(long offset, long length) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.insertBlank(offset, length);
+        feed.recordReplace(offset, 0, length, oldSize);
+    }
+
+    /**
+     * Replaces a chunk of elements in this buffer with a new chunk of elements, moving the elements currently after the
+     * old chunk of elements to the end of the space where the new chunk of elements will be located.
+     *
+     * @param offset      the position in elements of the chunk to be replaced.
+     * @param chunkLength the length in elements of the chunk to be replaced.
+     * @param elements    the new chunk of elements to replace the old one.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, Collection<? extends E> elements) {
+        long oldSize = wrapped.getSize();
+        long length = elements.size();
+
+        wrapped.replace(offset, chunkLength, elements);
+        feed.recordReplace(offset, chunkLength, length, oldSize);
+    }
+
+    /**
+     * Replaces a chunk of elements in this buffer with a new chunk of elements, moving the elements currently after the
+     * old chunk of elements to the end of the space where the new chunk of elements will be located.
+     *
+     * @param offset      the position in elements of the chunk ot be replaced.
+     * @param chunkLength the length in elements of the chunk to be replaced.
+     * @param elements    the indexed list of unique elements for the indices list to draw from.
+     * @param indices     the list of indices into the elements list that makes up the chunk of data to replace with.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, List<? extends E> elements, Collection<Integer> indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.size();
+
+        wrapped.replace(offset, chunkLength, elements, indices);
+        feed.recordReplace(offset, chunkLength, length, oldSize);
+    }
+
+    /**
+     * Replaces a chunk of elements in this buffer with a new chunk of elements, moving the elements currently after the
+     * old chunk of elements to the end of the space where the new chunk of elements will be located.
+     *
+     * @param offset      the position in elements of the chunk ot be replaced.
+     * @param chunkLength the length in elements of the chunk to be replaced.
+     * @param elements    the indexed list of unique elements for the indices list to draw from.
+     * @param indices     the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, List<? extends E> elements, IntBuffer indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.remaining();
+
+        wrapped.replace(offset, chunkLength, elements, indices);
+        feed.recordReplace(offset, chunkLength, length, oldSize);
+    }
+
+    /**
+     * Replaces a chunk of elements in this buffer with a single element, moving the elements currently after the old
+     * chunk of elements to the end of the space where the new element will be located.
+     *
+     * @param offset      the position in elements of the chunk to be replaced.
+     * @param chunkLength the length in elements of the chunk to be replaced.
+     * @param element     the new element to replace the old chunk of elements.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, E element) {
+        long oldSize = wrapped.getSize();
+        long length = 1;
+
+        wrapped.replace(offset, chunkLength, element);
+        feed.recordReplace(offset, chunkLength, length, oldSize);
+    }
+
+    /**
+     * Replaces everything at and after offset with a new chunk of elements, resizing this buffer so that it ends at the
+     * end of the new chunk of elements.
+     *
+     * @param offset   the position in elements of the first element to replace.
+     * @param elements the new chunk of elements to replace the old one.
+     */
+    @Override
+    public void replaceAfter(long offset, Collection<? extends E> elements) {
+        long oldSize = wrapped.getSize();
+        long length = elements.size();
+
+        wrapped.replaceAfter(offset, elements);
+        feed.recordReplace(offset, oldSize - offset, length, oldSize);
+    }
+
+    /**
+     * Replaces everything at and after offset with a new chunk of elements, resizing this buffer so that it ends at the
+     * end of the new chunk of elements.
+     *
+     * @param offset   the position in elements of the first element to replace.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the list of indices into the elements list that makes up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceAfter(long offset, List<? extends E> elements, Collection<Integer> indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.size();
+
+        wrapped.replaceAfter(offset, elements, indices);
+        feed.recordReplace(offset, oldSize - offset, length, oldSize);
+    }
+
+    /**
+     * Replaces everything at and after offset with a new chunk of elements, resizing this buffer so that it ends at the
+     * end of the new chunk of elements.
+     *
+     * @param offset   the position in elements of the first element to replace.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceAfter(long offset, List<? extends E> elements, IntBuffer indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.remaining();
+
+        wrapped.replaceAfter(offset, elements, indices);
+        feed.recordReplace(offset, oldSize - offset, length, oldSize);
+    }
+
+    /**
+     * Replaces everything at and after offset with a single element, resizing this buffer so that it ends at the end of
+     * the new element.
+     *
+     * @param offset  the position in elements of the first element to replace.
+     * @param element the new element to replace the old chunk with.
+     */
+    @Override
+    public void replaceAfter(long offset, E element) {
+        long oldSize = wrapped.getSize();
+        long length = 1;
+
+        wrapped.replaceAfter(offset, element);
+        feed.recordReplace(offset, oldSize - offset, length, oldSize);
+    }
+
+    /**
+     * Replaces everything before cutoff with a new chunk of elements, moving everything after the old chunk of elements
+     * to the end of the space where the new chunk of elements will be located.
+     *
+     * @param cutoff   the position in elements to replace everything before.
+     * @param elements the new chunk of elements to replace the old one.
+     */
+    @Override
+    public void replaceBefore(long cutoff, Collection<? extends E> elements) {
+        long oldSize = wrapped.getSize();
+        long length = elements.size();
+
+        wrapped.replaceBefore(cutoff, elements);
+        feed.recordReplace(0, cutoff, length, oldSize);
+    }
+
+    /**
+     * Replaces everything before cutoff with a new chunk of elements, moving everything after the old chunk of elements
+     * to the end of the space where the new chunk of elements will be located.
+     *
+     * @param cutoff   the position in elements to replace everything before.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the list of indices into the elements list that makes up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceBefore(long cutoff, List<? extends E> elements, Collection<Integer> indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.size();
+
+        wrapped.replaceBefore(cutoff, elements, indices);
+        feed.recordReplace(0, cutoff, length, oldSize);
+    }
+
+    /**
+     * Replaces everything before cutoff with a new chunk of elements, moving everything after the old chunk of elements
+     * to the end of the space where the new chunk of elements will be located.
+     *
+     * @param cutoff   the position in elements to replace everything before.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceBefore(long cutoff, List<? extends E> elements, IntBuffer indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.remaining();
+
+        wrapped.replaceBefore(cutoff, elements, indices);
+        feed.recordReplace(0, cutoff, length, oldSize);
+    }
+
+    /**
+     * Replaces everything before cutoff with a single element, moving everything after the old chunk of elements to the
+     * end of the space where the new element will be located.
+     *
+     * @param cutoff  the position in elements to replace everything before.
+     * @param element the new element to replace the old chunk of elements.
+     */
+    @Override
+    public void replaceBefore(long cutoff, E element) {
+        long oldSize = wrapped.getSize();
+        long length = 1;
+
+        wrapped.replaceBefore(cutoff, element);
+        feed.recordReplace(0, cutoff, length, oldSize);
+    }
+
+    /**
+     * Replaces everything in this buffer with a new chunk of elements, resizing this buffer to match the size of the
+     * new chunk of elements.
+     *
+     * @param elements the new chunk of elements to replace everything in this buffer with.
+     */
+    @Override
+    public void replaceAll(Collection<? extends E> elements) {
+        long oldSize = wrapped.getSize();
+        long length = elements.size();
+
+        wrapped.replaceAll(elements);
+        feed.recordReplace(0, oldSize, length, oldSize);
+    }
+
+    /**
+     * Replaces everything in this buffer with a new chunk of elements, resizing this buffer to match the size of the
+     * new chunk of elements.
+     *
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the list of indices into the elements list that makes up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceAll(List<? extends E> elements, Collection<Integer> indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.size();
+
+        wrapped.replaceAll(elements, indices);
+        feed.recordReplace(0, oldSize, length, oldSize);
+    }
+
+    /**
+     * Replaces everything in this buffer with a new chunk of elements, resizing this buffer to match the size of the
+     * new chunk of elements.
+     *
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceAll(List<? extends E> elements, IntBuffer indices) {
+        long oldSize = wrapped.getSize();
+        long length = indices.remaining();
+
+        wrapped.replaceAll(elements, indices);
+        feed.recordReplace(0, oldSize, length, oldSize);
+    }
+
+    /**
+     * Replaces everything in this buffer with a single element, resizing this buffer to match the size of the new
+     * element.
+     *
+     * @param element the element to replace everything in this buffer with.
+     */
+    @Override
+    public void replaceAll(E element) {
+        long oldSize = wrapped.getSize();
+        long length = 1;
+
+        wrapped.replaceAll(element);
+        feed.recordReplace(0, oldSize, length, oldSize);
+    }
+
+    /**
+     * Removes a chunk of elements from this buffer, moving the elements at the end of the removed chunk to where the
+     * removed chunk began.
+     *
+     * @param offset      the position in elements of the chunk to be removed.
+     * @param chunkLength the length in elements of the chunk to be removed.
+     */
+    @Override
+    public void remove(long offset, long chunkLength) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.remove(offset, chunkLength);
+        feed.recordRemove(offset, chunkLength, oldSize);
+    }
+
+    /**
+     * Removes a chunk of elements from this buffer by moving the elements at the end of this buffer into the hole left
+     * by the removed chunk.
+     * <p>
+     * Unlike {@link #remove(long, long)}, this does not preserve the order of the elements in this buffer, but it only
+     * ever moves at most chunkLength elements, no matter how large this buffer is.
+     *
+     * @param offset      the position in elements of the chunk to be removed.
+     * @param chunkLength the length in elements of the chunk to be removed.
+     * @return the position in elements the relocated elements were moved from. Every element that was at or after this
+     * position before the removal is now at offset + (its old position - this position). If nothing was relocated,
+     * this is the old size of this buffer.
+     */
+    @Override
+    public long swapRemove(long offset, long chunkLength) {
+        long oldSize = wrapped.getSize();
+
+        long source = wrapped.swapRemove(offset, chunkLength);
+        feed.recordSwapRemove(offset, chunkLength, source, oldSize);
+        return source;
+    }
+
+    /**
+     * Removes everything at and after offset from this buffer, resizing as necessary.
+     *
+     * @param offset the position in elements of the first element to remove at and after.
+     */
+    @Override
+    public void removeAfter(long offset) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.removeAfter(offset);
+        feed.recordRemove(offset, oldSize - offset, oldSize);
+    }
+
+    /**
+     * Removes everything before cutoff from this buffer, resizing as necessary.
+     *
+     * @param cutoff the position in elements to remove everything before.
+     */
+    @Override
+    public void removeBefore(long cutoff) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.removeBefore(cutoff);
+        feed.recordRemove(0, cutoff, oldSize);
+    }
+
+    /**
+     * Clears this buffer.
+     * <p>
+     * Some implementations may simply implement this by setting their size to 0.
+     */
+    @Override
+    public void clear() {
+        wrapped.clear();
+        feed.recordClear();
+    }
+
+    /**
+     * Gets the current size of this buffer object.
+     * <p>
+     * This is simply the official size of this buffer, not the size of any underlying buffers this buffer might use.
+     *
+     * @return the current size of this buffer object.
+     */
+    @Override
+    public long getSize() {
+        return wrapped.getSize();
+    }
+
+    /**
+     * Resizes this buffer object.
+     * <p>
+     * This only changes the official size of this buffer. Any effects on any underlying buffers are implementation specific.
+     *
+     * @param size the new size of this buffer object.
+     */
+    @Override
+    public void setSize(long size) {
+        long oldSize = wrapped.getSize();
+
+        wrapped.setSize(size);
+        feed.recordResize(oldSize, size);
+    }
+}
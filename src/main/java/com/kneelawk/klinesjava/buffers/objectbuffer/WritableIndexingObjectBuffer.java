@@ -1,43 +1,121 @@
 package com.kneelawk.klinesjava.buffers.objectbuffer;
 
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
-import com.kneelawk.klinesjava.buffers.ElementShifts;
 import com.kneelawk.klinesjava.buffers.databuffer.CachingWrappingDataBuffer;
 import com.kneelawk.klinesjava.buffers.databuffer.ReadableWritableDataBuffer;
 import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
-import com.kneelawk.klinesjava.utils.CollectionUtils;
 import org.lwjgl.system.MemoryStack;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.*;
+import java.util.stream.IntStream;
 
 import static org.lwjgl.system.MemoryStack.stackPush;
 
 public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>, Closeable {
     private static final int COPY_CHUNK_SIZE = 64;
+    private static final int WIDEN_CHUNK_SIZE = 1024;
+
+    /**
+     * The value of blank indices, which do not reference any element. This is stored as the restart index of the
+     * current index type.
+     */
+    private static final int UNUSED_INDEX = -1;
+
+    /**
+     * The reference count of element slots that do not hold a live element.
+     */
+    private static final int FREE_SLOT = -1;
+
+    /**
+     * The default fraction of element slots that can be free before the element buffer is compacted automatically.
+     */
+    public static final float DEFAULT_COMPACT_THRESHOLD = 0.5f;
+
+    /**
+     * The number of free slots below which the element buffer is never compacted automatically.
+     */
+    private static final int MIN_AUTO_COMPACT_SLOTS = 64;
+
+    /**
+     * The index type new buffers start with, which covers almost every mesh at half the size of int indices.
+     */
+    public static final IndexType DEFAULT_MIN_INDEX_TYPE = IndexType.UNSIGNED_SHORT;
 
     private ReadableWritableDataBuffer indexBuffer;
+    private final IndexType minIndexType;
+    private IndexType indexType;
 
     private WritableObjectBuffer<E> elementBuffer;
-    private List<E> readableElementBuffer = Lists.newArrayList();
-    // TODO: Judge performance impacts of updating every element in this list for every time a chunk of indices is moved vs updating the entire index buffer every time an element is removed
-    private List<Set<Long>> elementUses = Lists.newArrayList();
+    // the number of slots in the element buffer, live or free
+    private int elementSlotCount = 0;
+    // the number of indices referencing each element slot, positions are never tracked so moving indices is free
+    private int[] refCounts = new int[16];
+    // slots whose count dropped to zero during the current operation, checked again at the end of it
+    private int[] releaseCandidates = new int[16];
+    private int releaseCandidateCount = 0;
+    // slots of the element buffer that no longer hold a live element, reused by getOrAdd
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount = 0;
+    private boolean releaseDeferred = false;
+    private float compactThreshold = DEFAULT_COMPACT_THRESHOLD;
 
     private Map<E, Integer> elementIndicesMap = Maps.newHashMap();
+    // the element in each slot, only kept when there is no encoder because the map's keys are these same elements
+    private List<E> slotElements = Lists.newArrayList();
+
+    // when an encoder is given, elements are deduplicated by their encoded bytes in native memory instead
+    private final ElementEncoder<E> elementEncoder;
+    private final NativeElementIndexMap nativeElementIndices;
 
     public WritableIndexingObjectBuffer(WritableDataBuffer indexBuffer,
                                         WritableObjectBuffer<E> elementBuffer) {
+        this(indexBuffer, elementBuffer, null);
+    }
+
+    public WritableIndexingObjectBuffer(WritableDataBuffer indexBuffer,
+                                        WritableObjectBuffer<E> elementBuffer,
+                                        ElementEncoder<E> elementEncoder) {
+        this(indexBuffer, elementBuffer, elementEncoder, DEFAULT_MIN_INDEX_TYPE);
+    }
+
+    /**
+     * Creates an indexing buffer that deduplicates elements by their encoded bytes.
+     * <p>
+     * Elements are looked up in an off-heap hash table keyed on the bytes written by the encoder, so finding an
+     * element never boxes an index or calls the element's hashCode or equals. Two elements are the same element when
+     * their encoded bytes are the same, which for floats means -0.0 and 0.0 are different and NaNs are only equal when
+     * they have the same bits, unlike with JOML's equals methods.
+     *
+     * @param indexBuffer    the buffer the indices are written to.
+     * @param elementBuffer  the buffer each unique element is written to.
+     * @param elementEncoder the encoder used to get the key of each element and to decode the elements moved by
+     *                       {@link #compact()}, or null to use the elements' equals and hashCode methods. With an
+     *                       encoder, only the keys are kept, in native memory, and no element is kept on the heap.
+     * @param minIndexType   the narrowest type indices are stored as. Indices are widened automatically once there
+     *                       are more unique elements than this type can reference. Buffers whose indices are read as
+     *                       a vertex attribute should use a fixed {@link IndexType#UNSIGNED_INT}.
+     */
+    public WritableIndexingObjectBuffer(WritableDataBuffer indexBuffer,
+                                        WritableObjectBuffer<E> elementBuffer,
+                                        ElementEncoder<E> elementEncoder,
+                                        IndexType minIndexType) {
         if (indexBuffer instanceof ReadableWritableDataBuffer) {
             this.indexBuffer = (ReadableWritableDataBuffer) indexBuffer;
         } else {
             this.indexBuffer = new CachingWrappingDataBuffer(indexBuffer);
         }
         this.elementBuffer = elementBuffer;
+        this.minIndexType = Objects.requireNonNull(minIndexType, "minIndexType");
+        indexType = minIndexType;
+        this.elementEncoder = elementEncoder;
+        nativeElementIndices =
+                elementEncoder == null ? null : new NativeElementIndexMap(elementEncoder.getEncodedSize());
     }
 
     /**
@@ -69,6 +147,19 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         replaceIndices(offset, indices.size(), it);
     }
 
+    /**
+     * Sets a chunk of elements within this buffer.
+     *
+     * @param offset   the position in elements within this buffer to place the start of the new elements.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to set.
+     */
+    @Override
+    public void set(long offset, List<? extends E> elements, IntBuffer indices) {
+        var it = gatherRefs(elements, indices);
+        replaceIndices(offset, indices.remaining(), it);
+    }
+
     /**
      * Sets a single element within this buffer.
      * <p>
@@ -114,6 +205,56 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         putIndices(offset, indices.size(), it);
     }
 
+    /**
+     * Appends a chunk of elements to the end of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices list ot draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to append.
+     */
+    @Override
+    public void append(List<? extends E> elements, IntBuffer indices) {
+        long offset = getSize();
+        appendBlank(indices.remaining());
+
+        var it = gatherRefs(elements, indices);
+        putIndices(offset, indices.remaining(), it);
+    }
+
+    /**
+     * Appends elements to the end of this buffer as the indices that make them up are produced by a stream.
+     * <p>
+     * The indices are gathered into blocks that are appended one at a time, so the stream is never collected.
+     *
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the stream of indices into the elements list that makes up the elements to append.
+     */
+    @Override
+    public void append(List<? extends E> elements, IntStream indices) {
+        int[] elementRefs = elements.stream().mapToInt(this::getOrAdd).toArray();
+        var it = indices.sequential().map(i -> elementRefs[i]).iterator();
+
+        int[] block = new int[STREAM_BLOCK_SIZE];
+
+        // the element refs have to stay valid until the last block has been put
+        releaseDeferred = true;
+        try {
+            while (it.hasNext()) {
+                int length = 0;
+                while (length < block.length && it.hasNext()) {
+                    block[length++] = it.nextInt();
+                }
+
+                long offset = getSize();
+                appendBlank(length);
+                putIndices(offset, length, Arrays.stream(block, 0, length).iterator());
+            }
+        } finally {
+            releaseDeferred = false;
+        }
+
+        releaseUnusedElements();
+    }
+
     /**
      * Appends a single element to the end of this buffer.
      *
@@ -141,7 +282,9 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
             throw new IllegalArgumentException("Length cannot be less than zero");
         }
 
-        indexBuffer.appendBlank(length << ElementShifts.ELEMENT_SHIFT_INT);
+        long offset = getSize();
+        indexBuffer.appendBlank(length << indexType.getElementShift());
+        fillUnused(offset, length);
     }
 
     /**
@@ -172,6 +315,20 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         putIndices(0, indices.size(), it);
     }
 
+    /**
+     * Prepends a chunk of elements to the beginning of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to prepend.
+     */
+    @Override
+    public void prepend(List<? extends E> elements, IntBuffer indices) {
+        prependBlank(indices.remaining());
+
+        var it = gatherRefs(elements, indices);
+        putIndices(0, indices.remaining(), it);
+    }
+
     /**
      * Prepends a single element to the beginning of this buffer.
      *
@@ -198,9 +355,8 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
             throw new IllegalArgumentException("Length cannot be less than zero");
         }
 
-        indexBuffer.prependBlank(length << ElementShifts.ELEMENT_SHIFT_INT);
-
-        elementUses.forEach(uses -> CollectionUtils.replaceAll(uses, position -> position + length));
+        indexBuffer.prependBlank(length << indexType.getElementShift());
+        fillUnused(0, length);
     }
 
     /**
@@ -243,6 +399,26 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         putIndices(offset, indices.size(), it);
     }
 
+    /**
+     * Inserts a chunk of elements into this buffer at offset, moving the elements currently after offset to the end of
+     * the space where the new chunk of elements will be located.
+     *
+     * @param offset   the position in elements to insert the chunk of elements at.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to insert.
+     */
+    @Override
+    public void insert(long offset, List<? extends E> elements, IntBuffer indices) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        insertBlank(offset, indices.remaining());
+
+        var it = gatherRefs(elements, indices);
+        putIndices(offset, indices.remaining(), it);
+    }
+
     /**
      * Inserts a single element into this buffer at offset, moving the elements currently after offset to the end of the
      * space where the new element will be located.
@@ -281,15 +457,8 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
             throw new IllegalArgumentException("Length cannot be less than zero");
         }
 
-        long size = getSize();
-
-        indexBuffer.insertBlank(offset << ElementShifts.ELEMENT_SHIFT_INT, length << ElementShifts.ELEMENT_SHIFT_INT);
-
-        if (offset < size) {
-            elementUses.forEach(
-                    uses -> CollectionUtils
-                            .replaceIf(uses, position -> position >= offset, position -> position + length));
-        }
+        indexBuffer.insertBlank(offset << indexType.getElementShift(), length << indexType.getElementShift());
+        fillUnused(offset, length);
     }
 
     /**
@@ -352,6 +521,36 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         replaceIndices(offset, length, it);
     }
 
+    /**
+     * Replaces a chunk of elements in this buffer with a new chunk of elements, moving the elements currently after the
+     * old chunk of elements to the end of the space where the new chunk of elements will be located.
+     *
+     * @param offset      the position in elements of the chunk ot be replaced.
+     * @param chunkLength the length in elements of the chunk to be replaced.
+     * @param elements    the indexed list of unique elements for the indices list to draw from.
+     * @param indices     the indices into the elements list that make up the chunk of data to insert.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, List<? extends E> elements, IntBuffer indices) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        if (chunkLength < 0) {
+            throw new IllegalArgumentException("ChunkLength cannot be less than zero");
+        }
+
+        final int length = indices.remaining();
+        if (chunkLength > length) {
+            removeIndices(offset + length, chunkLength - length);
+        } else if (chunkLength < length) {
+            insertBlank(offset + chunkLength, length - chunkLength);
+        }
+
+        var it = gatherRefs(elements, indices);
+        replaceIndices(offset, length, it);
+    }
+
     /**
      * Replaces a chunk of elements in this buffer with a single element, moving the elements currently after the old
      * chunk of elements to the end of the space where the new element will be located.
@@ -435,6 +634,33 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         replaceIndices(offset, length, it);
     }
 
+    /**
+     * Replaces everything at and after offset with a new chunk of elements, resizing this buffer so that it ends at the
+     * end of the new chunk of elements.
+     *
+     * @param offset   the position in elements of the first element to replace.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceAfter(long offset, List<? extends E> elements, IntBuffer indices) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        final long size = getSize();
+        final int length = indices.remaining();
+
+        if (size > offset + length) {
+            removeIndices(offset + length, size - (offset + length));
+        } else if (size < offset + length) {
+            appendBlank(offset + length - size);
+        }
+
+        var it = gatherRefs(elements, indices);
+        replaceIndices(offset, length, it);
+    }
+
     /**
      * Replaces everything at and after offset with a single element, resizing this buffer so that it ends at the end of
      * the new element.
@@ -499,7 +725,7 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
             throw new IllegalArgumentException("Cutoff cannot be less than zero");
         }
 
-        final int length = elements.size();
+        final int length = indices.size();
 
         if (cutoff > length) {
             removeIndices(length, cutoff - length);
@@ -512,6 +738,32 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         replaceIndices(0, length, it);
     }
 
+    /**
+     * Replaces everything before cutoff with a new chunk of elements, moving everything after the old chunk of elements
+     * to the end of the space where the new chunk of elements will be located.
+     *
+     * @param cutoff   the position in elements to replace everything before.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceBefore(long cutoff, List<? extends E> elements, IntBuffer indices) {
+        if (cutoff < 0) {
+            throw new IllegalArgumentException("Cutoff cannot be less than zero");
+        }
+
+        final int length = indices.remaining();
+
+        if (cutoff > length) {
+            removeIndices(length, cutoff - length);
+        } else if (cutoff < length) {
+            insertBlank(cutoff, length - cutoff);
+        }
+
+        var it = gatherRefs(elements, indices);
+        replaceIndices(0, length, it);
+    }
+
     /**
      * Replaces everything before cutoff with a single element, moving everything after the old chunk of elements to the
      * end of the space where the new element will be located.
@@ -579,6 +831,28 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         replaceIndices(0, length, it);
     }
 
+    /**
+     * Replaces everything in this buffer with a new chunk of elements, resizing this buffer to match the size of the
+     * new chunk of elements.
+     *
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceAll(List<? extends E> elements, IntBuffer indices) {
+        final long size = getSize();
+        final int length = indices.remaining();
+
+        if (size > length) {
+            removeIndices(length, size - length);
+        } else if (size < length) {
+            appendBlank(length - size);
+        }
+
+        var it = gatherRefs(elements, indices);
+        replaceIndices(0, length, it);
+    }
+
     /**
      * Replaces everything in this buffer with a single element, resizing this buffer to match the size of the new
      * element.
@@ -619,6 +893,54 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         removeIndices(offset, chunkLength);
     }
 
+    /**
+     * Removes a chunk of elements from this buffer by moving the elements at the end of this buffer into the hole left
+     * by the removed chunk.
+     * <p>
+     * Unlike {@link #remove(long, long)}, this does not preserve the order of the elements in this buffer, but it only
+     * ever moves at most chunkLength elements, no matter how large this buffer is.
+     *
+     * @param offset      the position in elements of the chunk to be removed.
+     * @param chunkLength the length in elements of the chunk to be removed.
+     * @return the position in elements the relocated elements were moved from. Every element that was at or after this
+     * position before the removal is now at offset + (its old position - this position). If nothing was relocated,
+     * this is the old size of this buffer.
+     */
+    @Override
+    public long swapRemove(long offset, long chunkLength) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        if (chunkLength < 0) {
+            throw new IllegalArgumentException("ChunkLength cannot be less than zero");
+        }
+
+        final long size = getSize();
+
+        if (offset >= size) {
+            return size;
+        }
+
+        if (offset + chunkLength >= size) {
+            removeIndices(offset, size - offset);
+            return size;
+        }
+
+        // remove all references held by the chunk being removed,
+        // the relocated indices still reference the same elements so nothing else changes
+        releaseIndices(offset, chunkLength);
+
+        final long movedLength = Math.min(chunkLength, size - (offset + chunkLength));
+        final long source = size - movedLength;
+
+        indexBuffer.swapRemove(offset << indexType.getElementShift(), chunkLength << indexType.getElementShift());
+
+        releaseUnusedElements();
+
+        return source;
+    }
+
     /**
      * Removes everything at and after offset from this buffer, resizing as necessary.
      *
@@ -663,12 +985,20 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
     @Override
     public void clear() {
         indexBuffer.clear();
+        indexType = minIndexType;
 
         elementBuffer.clear();
-        readableElementBuffer.clear();
-        elementUses.clear();
+        elementSlotCount = 0;
+        Arrays.fill(refCounts, 0);
+        releaseCandidateCount = 0;
+        freeSlotCount = 0;
 
-        elementIndicesMap.clear();
+        if (nativeElementIndices != null) {
+            nativeElementIndices.clear();
+        } else {
+            elementIndicesMap.clear();
+            slotElements.clear();
+        }
     }
 
     /**
@@ -680,7 +1010,18 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
      */
     @Override
     public long getSize() {
-        return indexBuffer.getSize() >> ElementShifts.ELEMENT_SHIFT_INT;
+        return indexBuffer.getSize() >> indexType.getElementShift();
+    }
+
+    /**
+     * Gets the type the indices in the index buffer are currently stored as. This is the type to pass to
+     * glDrawElements, and it only changes when more unique elements are added than it can reference or when this
+     * buffer is cleared.
+     *
+     * @return the current index type.
+     */
+    public IndexType getIndexType() {
+        return indexType;
     }
 
     /**
@@ -704,6 +1045,91 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         }
     }
 
+    /**
+     * Gets the number of slots in the element buffer that do not hold a live element and are waiting to be reused.
+     *
+     * @return the number of free slots in the element buffer.
+     */
+    public int getFreeSlotCount() {
+        return freeSlotCount;
+    }
+
+    /**
+     * Gets the fraction of element slots that can be free before the element buffer is compacted automatically.
+     *
+     * @return the fraction of element slots that can be free before compacting automatically.
+     */
+    public float getCompactThreshold() {
+        return compactThreshold;
+    }
+
+    /**
+     * Sets the fraction of element slots that can be free before the element buffer is compacted automatically at the
+     * end of an operation. Buffers with only a few free slots are never compacted automatically.
+     *
+     * @param compactThreshold the fraction of element slots that can be free before compacting automatically, or
+     *                         Float.POSITIVE_INFINITY to only compact when {@link #compact()} is called.
+     */
+    public void setCompactThreshold(float compactThreshold) {
+        if (compactThreshold < 0) {
+            throw new IllegalArgumentException("CompactThreshold cannot be less than zero");
+        }
+
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Removes every free slot from the element buffer.
+     * <p>
+     * The live elements at the end of the element buffer are moved into the free slots before it, so at most one
+     * element is moved per free slot, then every index is patched in a single pass over the index buffer. When this
+     * buffer has an encoder, each moved element is decoded from its stored key.
+     */
+    public void compact() {
+        if (freeSlotCount == 0) {
+            return;
+        }
+
+        final int oldCount = elementSlotCount;
+        final int newCount = oldCount - freeSlotCount;
+
+        int[] remap = new int[oldCount];
+        for (int i = 0; i < oldCount; i++) {
+            remap[i] = i;
+        }
+
+        // pair each free slot below the new end with a live element at or above it
+        int[] holes = Arrays.copyOf(freeSlots, freeSlotCount);
+        Arrays.sort(holes);
+        int source = oldCount - 1;
+        for (int hole : holes) {
+            if (hole >= newCount) {
+                break;
+            }
+
+            while (refCounts[source] == FREE_SLOT) {
+                source--;
+            }
+
+            moveElement(source, hole);
+            refCounts[hole] = refCounts[source];
+            refCounts[source] = 0;
+            remap[source] = hole;
+            source--;
+        }
+
+        elementBuffer.removeAfter(newCount);
+        Arrays.fill(refCounts, newCount, oldCount, 0);
+        elementSlotCount = newCount;
+        freeSlotCount = 0;
+
+        if (nativeElementIndices == null) {
+            slotElements.subList(newCount, oldCount).clear();
+        }
+
+        remapIndices(remap);
+    }
+
     /**
      * Closes this BufferObject and releases its underlying buffers.
      * If the BufferObject is already closed then invoking this
@@ -714,6 +1140,9 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
         if (indexBuffer instanceof Closeable) {
             ((Closeable) indexBuffer).close();
         }
+        if (nativeElementIndices != null) {
+            nativeElementIndices.close();
+        }
     }
 
     private void putIndices(long offset, long length, PrimitiveIterator.OfInt it) {
@@ -726,15 +1155,15 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
             IntBuffer buffer = stack.mallocInt(COPY_CHUNK_SIZE);
 
             // copy everything in 64 int chunks
-            for (int i = 0; i < chunks; i++) {
+            for (long i = 0; i < chunks; i++) {
                 for (int j = 0; j < COPY_CHUNK_SIZE; j++) {
                     int index = it.nextInt();
                     buffer.put(j, index);
-                    elementUses.get(index).add((long) (i * COPY_CHUNK_SIZE + j));
+                    refCounts[index]++;
                 }
 
                 // set the new indices
-                indexBuffer.set((offset + i * COPY_CHUNK_SIZE) << ElementShifts.ELEMENT_SHIFT_INT, buffer);
+                writeIndices(offset + i * COPY_CHUNK_SIZE, buffer);
             }
 
             // copy the remainder
@@ -743,176 +1172,421 @@ public class WritableIndexingObjectBuffer<E> implements WritableObjectBuffer<E>,
                 for (int i = 0; i < remainder; i++) {
                     int index = it.nextInt();
                     buffer.put(i, index);
-                    elementUses.get(index).add(chunks * COPY_CHUNK_SIZE + i);
+                    refCounts[index]++;
                 }
 
                 // set the new indices
-                indexBuffer.set((offset + chunks * COPY_CHUNK_SIZE) << ElementShifts.ELEMENT_SHIFT_INT, buffer);
+                writeIndices(offset + chunks * COPY_CHUNK_SIZE, buffer);
             }
         }
+
+        releaseUnusedElements();
+    }
+
+    /**
+     * Makes sure every element is in the element buffer, then gathers the element buffer positions of the elements
+     * the indices point to, reading the indices from the buffer's position to its limit.
+     */
+    private PrimitiveIterator.OfInt gatherRefs(List<? extends E> elements, IntBuffer indices) {
+        int[] elementRefs = elements.stream().mapToInt(this::getOrAdd).toArray();
+        int start = indices.position();
+        int end = indices.limit();
+
+        return new PrimitiveIterator.OfInt() {
+            private int position = start;
+
+            @Override
+            public int nextInt() {
+                if (position >= end) {
+                    throw new NoSuchElementException();
+                }
+
+                return elementRefs[indices.get(position++)];
+            }
+
+            @Override
+            public boolean hasNext() {
+                return position < end;
+            }
+        };
     }
 
     private void putIndex(long offset, int index) {
         // set new index
-        indexBuffer.set(offset << ElementShifts.ELEMENT_SHIFT_INT, index);
-        elementUses.get(index).add(offset);
+        writeIndex(offset, index);
+        refCounts[index]++;
+
+        releaseUnusedElements();
     }
 
     private void replaceIndices(long offset, long length, PrimitiveIterator.OfInt it) {
         final long size = getSize();
-        final long chunks = length / COPY_CHUNK_SIZE;
-        final int remainder = (int) (length % COPY_CHUNK_SIZE);
 
         try (MemoryStack stack = stackPush()) {
 
-            // allocate buffer
+            // allocate buffers
+            IntBuffer oldIndices = stack.mallocInt(COPY_CHUNK_SIZE);
             IntBuffer buffer = stack.mallocInt(COPY_CHUNK_SIZE);
 
-            // copy everything in 64 int chunks
-            for (int i = 0; i < chunks; i++) {
-                for (int j = 0; j < COPY_CHUNK_SIZE; j++) {
-                    int index = it.nextInt();
-                    long pieceOffset = i * COPY_CHUNK_SIZE + j;
-                    elementUses.get(index).add(pieceOffset);
-                    if (pieceOffset < size &&
-                            index != indexBuffer.readInt(pieceOffset << ElementShifts.ELEMENT_SHIFT_INT)) {
-                        removeIndexReference(pieceOffset);
-                    }
-                    buffer.put(j, index);
-                }
+            // copy everything in 64 int chunks, reading the indices being replaced a chunk at a time
+            for (long chunkStart = 0; chunkStart < length; chunkStart += COPY_CHUNK_SIZE) {
+                final int chunkLength = (int) Math.min(COPY_CHUNK_SIZE, length - chunkStart);
+                final long chunkOffset = offset + chunkStart;
+                final int existing = (int) Math.max(0, Math.min(chunkLength, size - chunkOffset));
 
-                // set the new indices
-                indexBuffer.set((offset + i * COPY_CHUNK_SIZE) << ElementShifts.ELEMENT_SHIFT_INT, buffer);
-            }
+                if (existing > 0) {
+                    oldIndices.clear().limit(existing);
+                    readIndices(chunkOffset, oldIndices);
+                }
 
-            // copy the remainder
-            if (remainder != 0) {
-                buffer.limit(remainder);
-                for (int i = 0; i < remainder; i++) {
+                buffer.clear().limit(chunkLength);
+                for (int i = 0; i < chunkLength; i++) {
                     int index = it.nextInt();
-                    long pieceOffset = chunks * COPY_CHUNK_SIZE + i;
-                    elementUses.get(index).add(pieceOffset);
-                    if (pieceOffset < size &&
-                            index != indexBuffer.readInt(pieceOffset << ElementShifts.ELEMENT_SHIFT_INT)) {
-                        removeIndexReference(pieceOffset);
-                    }
                     buffer.put(i, index);
+
+                    if (i >= existing) {
+                        refCounts[index]++;
+                    } else if (index != oldIndices.get(i)) {
+                        refCounts[index]++;
+                        releaseIndex(oldIndices.get(i));
+                    }
                 }
 
                 // set the new indices
-                indexBuffer.set((offset + chunks * COPY_CHUNK_SIZE) << ElementShifts.ELEMENT_SHIFT_INT, buffer);
+                writeIndices(chunkOffset, buffer);
             }
         }
+
+        releaseUnusedElements();
     }
 
     private void replaceIndex(long offset, int index) {
-        if (index != indexBuffer.readInt(offset << ElementShifts.ELEMENT_SHIFT_INT)) {
-            // remove old index
-            removeIndexReference(offset);
+        int oldIndex = offset < getSize() ? readIndex(offset) : UNUSED_INDEX;
 
+        if (index != oldIndex) {
             // set new index
-            indexBuffer.set(offset << ElementShifts.ELEMENT_SHIFT_INT, index);
-            elementUses.get(index).add(offset);
+            writeIndex(offset, index);
+            refCounts[index]++;
+
+            // remove old index
+            releaseIndex(oldIndex);
+            releaseUnusedElements();
         }
     }
 
     private int getOrAdd(E element) {
-        if (elementIndicesMap.containsKey(element)) {
-            return elementIndicesMap.get(element);
+        int existing = findElement(element);
+        if (existing >= 0) {
+            return existing;
         } else {
-            int index = readableElementBuffer.size();
+            int index;
+            if (freeSlotCount > 0) {
+                // reuse a free slot so nothing after it has to move
+                index = freeSlots[--freeSlotCount];
 
-            elementBuffer.append(element);
-            readableElementBuffer.add(element);
+                elementBuffer.set(index, element);
+            } else {
+                index = elementSlotCount;
 
-            elementIndicesMap.put(element, index);
+                if (index >= indexType.getMaxElementCount()) {
+                    widenIndices(IndexType.forElementCount(index + 1L));
+                }
+
+                elementBuffer.append(element);
+                elementSlotCount++;
+
+                if (index == refCounts.length) {
+                    refCounts = Arrays.copyOf(refCounts, refCounts.length * 2);
+                }
+            }
+
+            mapElement(element, index);
+            refCounts[index] = 0;
 
-            elementUses.add(Sets.newHashSet());
+            // indexed operations add every unique element even if no index ends up referencing it
+            addReleaseCandidate(index);
 
             return index;
         }
     }
 
-    private void removeIndices(long position, long length) {
-        // go through every index being removed and remove it
-        for (long incrementalPosition = position; incrementalPosition < position + length; incrementalPosition++) {
-            // remove all references to this index
-            removeIndexReference(incrementalPosition);
+    private int findElement(E element) {
+        if (nativeElementIndices != null) {
+            elementEncoder.encode(nativeElementIndices.getKeyBuffer(), 0, element);
+            return nativeElementIndices.get();
         }
 
-        // remove from backing buffer
-        indexBuffer.remove(position << ElementShifts.ELEMENT_SHIFT_INT, length << ElementShifts.ELEMENT_SHIFT_INT);
+        Integer index = elementIndicesMap.get(element);
+        return index == null ? -1 : index;
+    }
+
+    private void mapElement(E element, int index) {
+        if (nativeElementIndices != null) {
+            elementEncoder.encode(nativeElementIndices.getKeyBuffer(), 0, element);
+            nativeElementIndices.put(index);
+        } else {
+            elementIndicesMap.put(element, index);
+            if (index == slotElements.size()) {
+                slotElements.add(element);
+            } else {
+                slotElements.set(index, element);
+            }
+        }
+    }
+
+    private void unmapElement(int index) {
+        if (nativeElementIndices != null) {
+            nativeElementIndices.remove(index);
+        } else {
+            elementIndicesMap.remove(slotElements.set(index, null));
+        }
+    }
+
+    /**
+     * Moves the element in one slot of the element buffer into another slot, which must be free.
+     */
+    private void moveElement(int from, int to) {
+        E element;
+        if (nativeElementIndices != null) {
+            nativeElementIndices.loadKey(from);
+            element = elementEncoder.decode(nativeElementIndices.getKeyBuffer(), 0);
+            nativeElementIndices.move(from, to);
+        } else {
+            element = slotElements.set(from, null);
+            slotElements.set(to, element);
+            elementIndicesMap.put(element, to);
+        }
+
+        elementBuffer.set(to, element);
+    }
+
+    private int readIndex(long offset) {
+        try (MemoryStack stack = stackPush()) {
+            IntBuffer buffer = stack.mallocInt(1);
+            readIndices(indexType, offset, buffer);
+            return buffer.get(0);
+        }
+    }
+
+    private void writeIndex(long offset, int index) {
+        try (MemoryStack stack = stackPush()) {
+            writeIndices(indexType, offset, stack.ints(index));
+        }
+    }
+
+    private void readIndices(long offset, IntBuffer indices) {
+        readIndices(indexType, offset, indices);
+    }
+
+    private void writeIndices(long offset, IntBuffer indices) {
+        writeIndices(indexType, offset, indices);
+    }
+
+    /**
+     * Reads indices stored as the given type into the int buffer from its position to its limit, turning restart
+     * indices back into UNUSED_INDEX.
+     */
+    private void readIndices(IndexType type, long offset, IntBuffer indices) {
+        final int start = indices.position();
+        final int length = indices.remaining();
+        final int restart = type.getRestartIndex();
+
+        switch (type) {
+            case UNSIGNED_BYTE:
+                try (MemoryStack stack = stackPush()) {
+                    ByteBuffer narrow = stack.malloc(length);
+                    indexBuffer.readTo(offset << type.getElementShift(), narrow);
+                    for (int i = 0; i < length; i++) {
+                        int index = narrow.get(i) & 0xFF;
+                        indices.put(start + i, index == restart ? UNUSED_INDEX : index);
+                    }
+                }
+                break;
+            case UNSIGNED_SHORT:
+                try (MemoryStack stack = stackPush()) {
+                    ShortBuffer narrow = stack.mallocShort(length);
+                    indexBuffer.readTo(offset << type.getElementShift(), narrow);
+                    for (int i = 0; i < length; i++) {
+                        int index = narrow.get(i) & 0xFFFF;
+                        indices.put(start + i, index == restart ? UNUSED_INDEX : index);
+                    }
+                }
+                break;
+            default:
+                indexBuffer.readTo(offset << type.getElementShift(), indices);
+        }
+    }
+
+    /**
+     * Writes the indices in the int buffer from its position to its limit as the given type. Narrowing UNUSED_INDEX
+     * gives the restart index of every type.
+     */
+    private void writeIndices(IndexType type, long offset, IntBuffer indices) {
+        final int start = indices.position();
+        final int length = indices.remaining();
+
+        switch (type) {
+            case UNSIGNED_BYTE:
+                try (MemoryStack stack = stackPush()) {
+                    ByteBuffer narrow = stack.malloc(length);
+                    for (int i = 0; i < length; i++) {
+                        narrow.put(i, (byte) indices.get(start + i));
+                    }
+                    indexBuffer.set(offset << type.getElementShift(), narrow);
+                }
+                break;
+            case UNSIGNED_SHORT:
+                try (MemoryStack stack = stackPush()) {
+                    ShortBuffer narrow = stack.mallocShort(length);
+                    for (int i = 0; i < length; i++) {
+                        narrow.put(i, (short) indices.get(start + i));
+                    }
+                    indexBuffer.set(offset << type.getElementShift(), narrow);
+                }
+                break;
+            default:
+                indexBuffer.set(offset << type.getElementShift(), indices);
+        }
+    }
 
-        // decrement all the reverse references to account for the indices shifting back in the index buffer
-        elementUses.forEach(uses -> CollectionUtils
-                .replaceIf(uses, laterIndex -> laterIndex >= position, laterIndex -> laterIndex - length));
+    /**
+     * Rewrites every index as a wider type in a single pass.
+     * <p>
+     * The index buffer is grown to its new size first and then rewritten from the end backwards, so the wider indices
+     * of each chunk only ever overwrite narrower indices that have already been read.
+     */
+    private void widenIndices(IndexType newType) {
+        final IndexType oldType = indexType;
+        final long size = getSize();
+
+        indexBuffer.appendBlank((size << newType.getElementShift()) - (size << oldType.getElementShift()));
+        indexType = newType;
+
+        try (MemoryStack stack = stackPush()) {
+            IntBuffer buffer = stack.mallocInt(WIDEN_CHUNK_SIZE);
+
+            for (long chunkEnd = size; chunkEnd > 0; chunkEnd -= WIDEN_CHUNK_SIZE) {
+                long chunkStart = Math.max(0, chunkEnd - WIDEN_CHUNK_SIZE);
+                buffer.clear().limit((int) (chunkEnd - chunkStart));
+                readIndices(oldType, chunkStart, buffer);
+                writeIndices(newType, chunkStart, buffer);
+            }
+        }
     }
 
-    private void removeIndex(long position) {
-        // remove all references to this index
-        removeIndexReference(position);
+    private void fillUnused(long offset, long length) {
+        int shift = indexType.getElementShift();
+
+        // the low bytes of UNUSED_INDEX are the restart index of every index type
+        indexBuffer.fill(offset << shift, length << shift, UNUSED_INDEX, shift);
+    }
+
+    private void removeIndices(long position, long length) {
+        releaseIndices(position, length);
 
         // remove from backing buffer
-        indexBuffer.remove(position << ElementShifts.ELEMENT_SHIFT_INT, ElementShifts.ELEMENT_SIZE_INT);
+        indexBuffer.remove(position << indexType.getElementShift(), length << indexType.getElementShift());
 
-        // decrement all reverse references to account for the indices shifting back in the index buffer
-        elementUses.forEach(eachUses -> CollectionUtils
-                .replaceIf(eachUses, laterIndex -> laterIndex >= position, laterIndex -> laterIndex - 1));
+        releaseUnusedElements();
     }
 
-    private void removeIndexReference(long position) {
-        // get the index so we can remove things with it
-        int index = indexBuffer.readInt(position << ElementShifts.ELEMENT_SHIFT_INT);
+    /**
+     * Releases the references held by a chunk of indices, reading the chunk 64 indices at a time.
+     */
+    private void releaseIndices(long position, long length) {
+        try (MemoryStack stack = stackPush()) {
+            IntBuffer buffer = stack.mallocInt(COPY_CHUNK_SIZE);
 
-        // only handle indices that are actually valid
-        if (index >= 0 && index < readableElementBuffer.size()) {
-            // get the number of uses decremented
-            Set<Long> uses = elementUses.get(index);
+            for (long chunkStart = 0; chunkStart < length; chunkStart += COPY_CHUNK_SIZE) {
+                int chunkLength = (int) Math.min(COPY_CHUNK_SIZE, length - chunkStart);
+                buffer.clear().limit(chunkLength);
+                readIndices(position + chunkStart, buffer);
 
-            // remove this use from the collection of uses if its in there to begin with
-            uses.remove(position);
+                for (int i = 0; i < chunkLength; i++) {
+                    releaseIndex(buffer.get(i));
+                }
+            }
+        }
+    }
 
-            // check the number of uses
-            if (uses.size() < 1) {
-                // the element is no longer needed
-                removeElement(index);
+    private void releaseIndex(int index) {
+        // only handle indices that are actually valid, blank indices hold UNUSED_INDEX
+        if (index >= 0 && index < elementSlotCount) {
+            if (--refCounts[index] == 0) {
+                addReleaseCandidate(index);
             }
         }
     }
 
+    private void addReleaseCandidate(int index) {
+        if (releaseCandidateCount == releaseCandidates.length) {
+            releaseCandidates = Arrays.copyOf(releaseCandidates, releaseCandidates.length * 2);
+        }
+        releaseCandidates[releaseCandidateCount++] = index;
+    }
+
     /**
-     * Removes an element from the underlying element buffer.
-     *
-     * @param index the index of the element to remove.
-     * @deprecated The removal of elements from the underlying buffer should be avoided because it forces a shift of all
-     * elements after the removed element.
+     * Frees the slot of every element that is no longer referenced by any index, then compacts the element buffer if
+     * too many slots are free.
+     * <p>
+     * This is deferred until the end of each operation so that element references gathered at the start of the
+     * operation stay valid, and so that elements released and re-referenced by the same operation are never freed.
+     * Freeing a slot moves nothing: the element is only forgotten and its slot is reused by the next new element.
      */
-    @Deprecated
-    private void removeElement(int index) {
-        // remove this element from the backing
-        elementBuffer.remove(index, 1);
-        // remove its uses value
-        elementUses.remove(index);
-        // get the element so we can find its association in the map
-        E element = readableElementBuffer.get(index);
-        // remove the element from the internal element buffer
-        readableElementBuffer.remove(index);
-        // remove the element from the association map
-        elementIndicesMap.remove(element);
+    private void releaseUnusedElements() {
+        if (releaseCandidateCount == 0 || releaseDeferred) {
+            return;
+        }
 
-        // decrement everything pointing to indices after because the remove will have shifted everything back by 1
+        for (int i = 0; i < releaseCandidateCount; i++) {
+            int index = releaseCandidates[i];
 
-        // filter through elementIndicesMap and decrement any indices higher than the removed index
-        for (int laterIndex = index; laterIndex < readableElementBuffer.size(); laterIndex++) {
-            E laterElement = readableElementBuffer.get(laterIndex);
-            elementIndicesMap.put(laterElement, laterIndex);
+            // a slot can be a candidate more than once, but it can only be freed once
+            if (refCounts[index] == 0) {
+                unmapElement(index);
+                refCounts[index] = FREE_SLOT;
+
+                if (freeSlotCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+                }
+                freeSlots[freeSlotCount++] = index;
+            }
         }
+        releaseCandidateCount = 0;
+
+        if (freeSlotCount >= MIN_AUTO_COMPACT_SLOTS &&
+                freeSlotCount > elementSlotCount * (double) compactThreshold) {
+            compact();
+        }
+    }
 
-        // collect all the indices that reference elements after the removed element and decrement them
-        for (long laterReferencePosition : Iterables.concat(elementUses.subList(index, elementUses.size()))) {
-            long laterReferenceBufferPosition = laterReferencePosition << ElementShifts.ELEMENT_SHIFT_INT;
-            int newLaterIndex = indexBuffer.readInt(laterReferenceBufferPosition) - 1;
-            indexBuffer.set(laterReferenceBufferPosition, newLaterIndex);
+    /**
+     * Rewrites every index through the remap table, 64 indices at a time.
+     */
+    private void remapIndices(int[] remap) {
+        final long size = getSize();
+
+        try (MemoryStack stack = stackPush()) {
+            IntBuffer buffer = stack.mallocInt(COPY_CHUNK_SIZE);
+
+            for (long chunkStart = 0; chunkStart < size; chunkStart += COPY_CHUNK_SIZE) {
+                int chunkLength = (int) Math.min(COPY_CHUNK_SIZE, size - chunkStart);
+                buffer.clear().limit(chunkLength);
+                readIndices(chunkStart, buffer);
+
+                boolean changed = false;
+                for (int i = 0; i < chunkLength; i++) {
+                    int index = buffer.get(i);
+                    if (index >= 0 && index < remap.length && remap[index] != index) {
+                        buffer.put(i, remap[index]);
+                        changed = true;
+                    }
+                }
+
+                if (changed) {
+                    writeIndices(chunkStart, buffer);
+                }
+            }
         }
     }
 }
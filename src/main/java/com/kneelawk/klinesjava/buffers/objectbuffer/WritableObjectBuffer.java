@@ -2,11 +2,23 @@ package com.kneelawk.klinesjava.buffers.objectbuffer;
 
 import com.google.common.collect.ImmutableList;
 import com.kneelawk.klinesjava.buffers.BufferObject;
+import com.kneelawk.klinesjava.utils.CollectionUtils;
 
+import java.nio.IntBuffer;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public interface WritableObjectBuffer<E> extends BufferObject {
+    /**
+     * The number of elements the default streaming appends gather before appending them as a chunk.
+     */
+    int STREAM_BLOCK_SIZE = 1024;
+
     /**
      * Sets a chunk of elements within this buffer.
      * <p>
@@ -29,6 +41,31 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         set(offset, indices.stream().map(elements::get).collect(ImmutableList.toImmutableList()));
     }
 
+    /**
+     * Sets a chunk of elements within this buffer.
+     * <p>
+     * The indices are read from the buffer's position to its limit without boxing them, and the buffer's position and
+     * limit are not changed.
+     *
+     * @param offset   the position in elements within this buffer to place the start of the new elements.
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to set.
+     */
+    default void set(long offset, List<? extends E> elements, IntBuffer indices) {
+        set(offset, CollectionUtils.gather(elements, indices));
+    }
+
+    /**
+     * Sets a chunk of elements within this buffer.
+     *
+     * @param offset   the position in elements within this buffer to place the start of the new elements.
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to set.
+     */
+    default void set(long offset, List<? extends E> elements, int[] indices) {
+        set(offset, elements, IntBuffer.wrap(indices));
+    }
+
     /**
      * Sets a single element within this buffer.
      * <p>
@@ -59,6 +96,42 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         append(indices.stream().map(elements::get).collect(ImmutableList.toImmutableList()));
     }
 
+    /**
+     * Appends a chunk of elements to the end of this buffer.
+     * <p>
+     * The indices are read from the buffer's position to its limit without boxing them, and the buffer's position and
+     * limit are not changed.
+     *
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to append.
+     */
+    default void append(List<? extends E> elements, IntBuffer indices) {
+        append(CollectionUtils.gather(elements, indices));
+    }
+
+    /**
+     * Appends a chunk of elements to the end of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to append.
+     */
+    default void append(List<? extends E> elements, int[] indices) {
+        append(elements, IntBuffer.wrap(indices));
+    }
+
+    /**
+     * Appends elements to the end of this buffer as the indices that make them up are produced by a stream.
+     * <p>
+     * The stream is consumed sequentially and in encounter order.
+     *
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the stream of indices into the elements list that makes up the elements to append.
+     * @see #append(Iterator, long)
+     */
+    default void append(List<? extends E> elements, IntStream indices) {
+        append(indices.sequential().mapToObj(elements::get));
+    }
+
     /**
      * Appends a single element to the end of this buffer.
      *
@@ -68,6 +141,44 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         append(ImmutableList.of(element));
     }
 
+    /**
+     * Appends elements to the end of this buffer as they are produced by an iterator.
+     * <p>
+     * The elements are appended in blocks of {@link #STREAM_BLOCK_SIZE} elements, so only a single block is ever held
+     * at once instead of the whole sequence. If the iterator throws, the elements appended before it threw stay in
+     * this buffer.
+     *
+     * @param elements the iterator producing the elements to append to the end of this buffer.
+     * @param sizeHint the expected number of elements the iterator will produce, or a negative number if it is
+     *                 unknown. Implementations may use this to grow this buffer ahead of time, but the iterator is
+     *                 always read until it runs out.
+     */
+    default void append(Iterator<? extends E> elements, long sizeHint) {
+        CollectionUtils.forEachBlock(elements, STREAM_BLOCK_SIZE, block -> append(block));
+    }
+
+    /**
+     * Appends the elements of a spliterator to the end of this buffer as they are produced.
+     *
+     * @param elements the spliterator producing the elements to append to the end of this buffer.
+     * @see #append(Iterator, long)
+     */
+    default void append(Spliterator<? extends E> elements) {
+        append(Spliterators.iterator(elements), elements.getExactSizeIfKnown());
+    }
+
+    /**
+     * Appends the elements of a stream to the end of this buffer as they are produced.
+     * <p>
+     * The stream is consumed sequentially and in encounter order.
+     *
+     * @param elements the stream producing the elements to append to the end of this buffer.
+     * @see #append(Iterator, long)
+     */
+    default void append(Stream<? extends E> elements) {
+        append(elements.sequential().spliterator());
+    }
+
     /**
      * Appends a chunk of blank elements to the end of this buffer.
      * <p>
@@ -94,6 +205,29 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         prepend(indices.stream().map(elements::get).collect(ImmutableList.toImmutableList()));
     }
 
+    /**
+     * Prepends a chunk of elements to the beginning of this buffer.
+     * <p>
+     * The indices are read from the buffer's position to its limit without boxing them, and the buffer's position and
+     * limit are not changed.
+     *
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to prepend.
+     */
+    default void prepend(List<? extends E> elements, IntBuffer indices) {
+        prepend(CollectionUtils.gather(elements, indices));
+    }
+
+    /**
+     * Prepends a chunk of elements to the beginning of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to prepend.
+     */
+    default void prepend(List<? extends E> elements, int[] indices) {
+        prepend(elements, IntBuffer.wrap(indices));
+    }
+
     /**
      * Prepends a single element to the beginning of this buffer.
      *
@@ -133,6 +267,33 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         insert(offset, indices.stream().map(elements::get).collect(ImmutableList.toImmutableList()));
     }
 
+    /**
+     * Inserts a chunk of elements into this buffer at offset, moving the elements currently after offset to the end of
+     * the space where the new chunk of elements will be located.
+     * <p>
+     * The indices are read from the buffer's position to its limit without boxing them, and the buffer's position and
+     * limit are not changed.
+     *
+     * @param offset   the position in elements to insert the chunk of elements at.
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to insert.
+     */
+    default void insert(long offset, List<? extends E> elements, IntBuffer indices) {
+        insert(offset, CollectionUtils.gather(elements, indices));
+    }
+
+    /**
+     * Inserts a chunk of elements into this buffer at offset, moving the elements currently after offset to the end of
+     * the space where the new chunk of elements will be located.
+     *
+     * @param offset   the position in elements to insert the chunk of elements at.
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to insert.
+     */
+    default void insert(long offset, List<? extends E> elements, int[] indices) {
+        insert(offset, elements, IntBuffer.wrap(indices));
+    }
+
     /**
      * Inserts a single element into this buffer at offset, moving the elements currently after offset to the end of the
      * space where the new element will be located.
@@ -178,6 +339,35 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         replace(offset, chunkLength, indices.stream().map(elements::get).collect(ImmutableList.toImmutableList()));
     }
 
+    /**
+     * Replaces a chunk of elements in this buffer with a new chunk of elements, moving the elements currently after the
+     * old chunk of elements to the end of the space where the new chunk of elements will be located.
+     * <p>
+     * The indices are read from the buffer's position to its limit without boxing them, and the buffer's position and
+     * limit are not changed.
+     *
+     * @param offset      the position in elements of the chunk to be replaced.
+     * @param chunkLength the length in elements of the chunk to be replaced.
+     * @param elements    the indexed list of unique elements for the indices to draw from.
+     * @param indices     the indices into the elements list that make up the chunk of elements to replace with.
+     */
+    default void replace(long offset, long chunkLength, List<? extends E> elements, IntBuffer indices) {
+        replace(offset, chunkLength, CollectionUtils.gather(elements, indices));
+    }
+
+    /**
+     * Replaces a chunk of elements in this buffer with a new chunk of elements, moving the elements currently after the
+     * old chunk of elements to the end of the space where the new chunk of elements will be located.
+     *
+     * @param offset      the position in elements of the chunk to be replaced.
+     * @param chunkLength the length in elements of the chunk to be replaced.
+     * @param elements    the indexed list of unique elements for the indices to draw from.
+     * @param indices     the indices into the elements list that make up the chunk of elements to replace with.
+     */
+    default void replace(long offset, long chunkLength, List<? extends E> elements, int[] indices) {
+        replace(offset, chunkLength, elements, IntBuffer.wrap(indices));
+    }
+
     /**
      * Replaces a chunk of elements in this buffer with a single element, moving the elements currently after the old
      * chunk of elements to the end of the space where the new element will be located.
@@ -211,6 +401,33 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         replaceAfter(offset, indices.stream().map(elements::get).collect(ImmutableList.toImmutableList()));
     }
 
+    /**
+     * Replaces everything at and after offset with a new chunk of elements, resizing this buffer so that it ends at the
+     * end of the new chunk of elements.
+     * <p>
+     * The indices are read from the buffer's position to its limit without boxing them, and the buffer's position and
+     * limit are not changed.
+     *
+     * @param offset   the position in elements of the first element to replace.
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to replace with.
+     */
+    default void replaceAfter(long offset, List<? extends E> elements, IntBuffer indices) {
+        replaceAfter(offset, CollectionUtils.gather(elements, indices));
+    }
+
+    /**
+     * Replaces everything at and after offset with a new chunk of elements, resizing this buffer so that it ends at the
+     * end of the new chunk of elements.
+     *
+     * @param offset   the position in elements of the first element to replace.
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to replace with.
+     */
+    default void replaceAfter(long offset, List<? extends E> elements, int[] indices) {
+        replaceAfter(offset, elements, IntBuffer.wrap(indices));
+    }
+
     /**
      * Replaces everything at and after offset with a single element, resizing this buffer so that it ends at the end of
      * the new element.
@@ -243,6 +460,33 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         replaceBefore(cutoff, indices.stream().map(elements::get).collect(ImmutableList.toImmutableList()));
     }
 
+    /**
+     * Replaces everything before cutoff with a new chunk of elements, moving everything after the old chunk of elements
+     * to the end of the space where the new chunk of elements will be located.
+     * <p>
+     * The indices are read from the buffer's position to its limit without boxing them, and the buffer's position and
+     * limit are not changed.
+     *
+     * @param cutoff   the position in elements to replace everything before.
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to replace with.
+     */
+    default void replaceBefore(long cutoff, List<? extends E> elements, IntBuffer indices) {
+        replaceBefore(cutoff, CollectionUtils.gather(elements, indices));
+    }
+
+    /**
+     * Replaces everything before cutoff with a new chunk of elements, moving everything after the old chunk of elements
+     * to the end of the space where the new chunk of elements will be located.
+     *
+     * @param cutoff   the position in elements to replace everything before.
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to replace with.
+     */
+    default void replaceBefore(long cutoff, List<? extends E> elements, int[] indices) {
+        replaceBefore(cutoff, elements, IntBuffer.wrap(indices));
+    }
+
     /**
      * Replaces everything before cutoff with a single element, moving everything after the old chunk of elements to the
      * end of the space where the new element will be located.
@@ -273,6 +517,31 @@ public interface WritableObjectBuffer<E> extends BufferObject {
         replaceAll(indices.stream().map(elements::get).collect(ImmutableList.toImmutableList()));
     }
 
+    /**
+     * Replaces everything in this buffer with a new chunk of elements, resizing this buffer to match the size of the
+     * new chunk of elements.
+     * <p>
+     * The indices are read from the buffer's position to its limit without boxing them, and the buffer's position and
+     * limit are not changed.
+     *
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to replace with.
+     */
+    default void replaceAll(List<? extends E> elements, IntBuffer indices) {
+        replaceAll(CollectionUtils.gather(elements, indices));
+    }
+
+    /**
+     * Replaces everything in this buffer with a new chunk of elements, resizing this buffer to match the size of the
+     * new chunk of elements.
+     *
+     * @param elements the indexed list of unique elements for the indices to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to replace with.
+     */
+    default void replaceAll(List<? extends E> elements, int[] indices) {
+        replaceAll(elements, IntBuffer.wrap(indices));
+    }
+
     /**
      * Replaces everything in this buffer with a single element, resizing this buffer to match the size of the new
      * element.
@@ -292,6 +561,21 @@ public interface WritableObjectBuffer<E> extends BufferObject {
      */
     void remove(long offset, long chunkLength);
 
+    /**
+     * Removes a chunk of elements from this buffer by moving the elements at the end of this buffer into the hole left
+     * by the removed chunk.
+     * <p>
+     * Unlike {@link #remove(long, long)}, this does not preserve the order of the elements in this buffer, but it only
+     * ever moves at most chunkLength elements, no matter how large this buffer is.
+     *
+     * @param offset      the position in elements of the chunk to be removed.
+     * @param chunkLength the length in elements of the chunk to be removed.
+     * @return the position in elements the relocated elements were moved from. Every element that was at or after this
+     * position before the removal is now at offset + (its old position - this position). If nothing was relocated,
+     * this is the old size of this buffer.
+     */
+    long swapRemove(long offset, long chunkLength);
+
     /**
      * Removes everything at and after offset from this buffer, resizing as necessary.
      *
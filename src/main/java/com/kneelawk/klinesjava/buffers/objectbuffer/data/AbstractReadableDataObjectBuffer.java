@@ -0,0 +1,185 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.google.common.collect.ImmutableList;
+import com.kneelawk.klinesjava.buffers.databuffer.ReadableDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.ReadableObjectBuffer;
+import org.lwjgl.system.Pointer;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+/**
+ * AbstractReadableDataObjectBuffer - Decodes fixed-size elements from a data buffer.
+ * <p>
+ * When the data buffer is backed by native memory that can be addressed directly, such as a DirectDataBuffer, elements
+ * are decoded straight from that memory. Otherwise each element is first read into stack memory.
+ *
+ * @param <E> the type of element this buffer decodes.
+ */
+public abstract class AbstractReadableDataObjectBuffer<E> implements ReadableObjectBuffer<E> {
+    protected final ReadableDataBuffer buffer;
+    protected final int elementSize;
+    private final Pointer pointer;
+
+    public AbstractReadableDataObjectBuffer(ReadableDataBuffer buffer, int elementSize) {
+        this.buffer = buffer;
+        this.elementSize = elementSize;
+        this.pointer = buffer instanceof Pointer ? (Pointer) buffer : null;
+    }
+
+    /**
+     * Gets the data buffer the elements are decoded from.
+     *
+     * @return the data buffer the elements are decoded from.
+     */
+    public ReadableDataBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Gets a chunk of elements starting at offset.
+     * <p>
+     * This creates a new object for every element. Use the methods that decode into caller-provided objects or a view
+     * to read elements without allocating.
+     *
+     * @param offset the position in elements of the first element returned.
+     * @param length the length in elements of the chunk of elements returned.
+     * @return the specified chunk of elements.
+     */
+    @Override
+    public Collection<E> get(long offset, long length) {
+        checkBounds(offset, length);
+
+        ImmutableList.Builder<E> builder = ImmutableList.builder();
+        for (long i = 0; i < length; i++) {
+            builder.add(get(offset + i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads the encoded bytes of a chunk of elements into the buffer.
+     *
+     * @param offset the position in elements of the first element to read.
+     * @param length the length in elements of the chunk of elements to read.
+     * @param dest   the buffer to read the encoded elements into, starting at its position.
+     */
+    public void readTo(long offset, long length, ByteBuffer dest) {
+        checkBounds(offset, length);
+
+        if (length * elementSize > dest.remaining()) {
+            throw new IndexOutOfBoundsException(
+                    "length > remaining (" + length * elementSize + " > " + dest.remaining() + ")");
+        }
+
+        int limit = dest.limit();
+        dest.limit(dest.position() + (int) (length * elementSize));
+        buffer.readTo(offset * elementSize, dest);
+        dest.limit(limit);
+    }
+
+    /**
+     * Gets the current size of this buffer object.
+     * <p>
+     * This is simply the official size of this buffer, not the size of any underlying buffers this buffer might use.
+     *
+     * @return the current size of this buffer object.
+     */
+    @Override
+    public long getSize() {
+        return buffer.getSize() / elementSize;
+    }
+
+    /**
+     * Resizes this buffer object.
+     * <p>
+     * This only changes the official size of this buffer. Any effects on any underlying buffers are implementation specific.
+     *
+     * @param size the new size of this buffer object.
+     */
+    @Override
+    public void setSize(long size) {
+        buffer.setSize(size * elementSize);
+    }
+
+    /**
+     * Gets whether elements are decoded straight from the data buffer's native memory.
+     *
+     * @return whether elements are decoded straight from native memory.
+     */
+    protected boolean isDirect() {
+        return pointer != null;
+    }
+
+    /**
+     * Gets the current native address of an element. This may only be called if {@link #isDirect()} is true.
+     * <p>
+     * The address changes whenever the data buffer reallocates its memory, so it should not be kept.
+     *
+     * @param offset the position in elements of the element.
+     * @return the current native address of the element.
+     * @throws IllegalStateException if the data buffer has been closed.
+     */
+    protected long address(long offset) {
+        long address = pointer.address();
+        if (address == NULL) {
+            throw new IllegalStateException("The data buffer has been closed");
+        }
+
+        return address + offset * elementSize;
+    }
+
+    /**
+     * Gets the current native address of an element a view was moved onto, checking that the element is still in
+     * this buffer. This may only be called if {@link #isDirect()} is true.
+     *
+     * @param offset the position in elements of the element, or -1 if the view has not been moved yet.
+     * @return the current native address of the element.
+     * @throws IllegalStateException if the view has not been moved, the element is no longer in this buffer or the
+     *                               data buffer has been closed.
+     */
+    protected long viewAddress(long offset) {
+        checkViewOffset(offset);
+
+        long size = getSize();
+        if (offset >= size) {
+            throw new IllegalStateException(
+                    "The viewed element is no longer in the buffer (" + offset + " >= " + size + ")");
+        }
+
+        return address(offset);
+    }
+
+    /**
+     * Checks that a view has been moved onto an element.
+     *
+     * @param offset the position in elements of the element, or -1 if the view has not been moved yet.
+     * @throws IllegalStateException if the view has not been moved.
+     */
+    protected void checkViewOffset(long offset) {
+        if (offset < 0) {
+            throw new IllegalStateException("View has not been moved onto an element");
+        }
+    }
+
+    protected void checkIndex(long offset) {
+        checkBounds(offset, 1);
+    }
+
+    protected void checkBounds(long offset, long length) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be less than zero");
+        }
+
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be less than zero");
+        }
+
+        if (offset + length > getSize()) {
+            throw new IndexOutOfBoundsException(
+                    "offset + length > size (" + offset + " + " + length + " > " + getSize() + ")");
+        }
+    }
+}
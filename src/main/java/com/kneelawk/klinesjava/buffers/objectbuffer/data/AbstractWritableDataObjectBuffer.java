@@ -1,21 +1,53 @@
 package com.kneelawk.klinesjava.buffers.objectbuffer.data;
 
 import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import com.kneelawk.klinesjava.buffers.databuffer.WritableNativeDataBuffer;
 import com.kneelawk.klinesjava.buffers.objectbuffer.AbstractWritableObjectBuffer;
 import org.lwjgl.system.MemoryStack;
 
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.system.MemoryUtil.*;
 
 public abstract class AbstractWritableDataObjectBuffer<E> extends AbstractWritableObjectBuffer<E> {
     private static final int COPY_CHUNK_BYTES = 256;
 
+    /**
+     * The default number of elements at and above which chunks of elements are encoded using multiple threads, for
+     * buffers that support it.
+     */
+    public static final int DEFAULT_PARALLEL_ENCODING_THRESHOLD = 64 * 1024;
+
+    /**
+     * The number of elements each thread encodes at a time when encoding in parallel.
+     */
+    private static final int PARALLEL_ENCODING_GRAIN = 4096;
+
+    /**
+     * The largest chunk in bytes handed to a non-native data buffer at a time after encoding in parallel.
+     */
+    private static final int PARALLEL_UPLOAD_CHUNK_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * The size in bytes of the block elements are encoded into when they are appended from an iterator.
+     */
+    private static final int STREAM_STAGING_BYTES = 64 * 1024;
+
     protected final WritableDataBuffer buffer;
     protected final int elementSize;
     private final int copyChunkSize;
+    private int parallelEncodingThreshold = DEFAULT_PARALLEL_ENCODING_THRESHOLD;
+    private ForkJoinPool parallelEncodingPool = ForkJoinPool.commonPool();
 
     public AbstractWritableDataObjectBuffer(WritableDataBuffer buffer, int elementSize) {
         this(buffer, elementSize, COPY_CHUNK_BYTES / elementSize);
@@ -39,6 +71,18 @@ public abstract class AbstractWritableDataObjectBuffer<E> extends AbstractWritab
      */
     @Override
     protected void putElements(long offset, Collection<? extends E> elements) {
+        if (elements.size() >= parallelEncodingThreshold && parallelEncodingPool.getParallelism() > 1 &&
+                supportsParallelEncoding()) {
+            Spliterator<? extends E> spliterator = elements.spliterator();
+
+            // only spliterators that know the exact size of every split can tell each worker where its range starts
+            if (spliterator.hasCharacteristics(Spliterator.SUBSIZED) &&
+                    spliterator.getExactSizeIfKnown() == elements.size()) {
+                putElementsParallel(offset, spliterator, elements.size());
+                return;
+            }
+        }
+
         Iterator<? extends E> it = elements.iterator();
         final int chunks = elements.size() / copyChunkSize;
         final int remainder = elements.size() % copyChunkSize;
@@ -68,6 +112,275 @@ public abstract class AbstractWritableDataObjectBuffer<E> extends AbstractWritab
         }
     }
 
+    /**
+     * Appends elements to the end of this buffer as they are produced by an iterator.
+     * <p>
+     * Elements are encoded straight into a fixed-size native staging block, which is copied to the end of this buffer
+     * each time it fills up, so no list of the elements is ever built. If sizeHint is positive, this buffer is grown to
+     * fit that many elements up front and any part of that growth the iterator does not fill is removed again
+     * afterwards, even if the iterator throws.
+     *
+     * @param elements the iterator producing the elements to append to the end of this buffer.
+     * @param sizeHint the expected number of elements the iterator will produce, or a negative number if it is
+     *                 unknown.
+     */
+    @Override
+    public void append(Iterator<? extends E> elements, long sizeHint) {
+        long start = getSize();
+        long reserved = Math.max(sizeHint, 0);
+        if (reserved > 0) {
+            appendBlank(reserved);
+        }
+
+        int blockSize = Math.max(1, STREAM_STAGING_BYTES / elementSize);
+        long staging = nmemAllocChecked((long) blockSize * elementSize);
+        long count = 0;
+        try {
+            ByteBuffer block = memByteBuffer(staging, blockSize * elementSize);
+
+            while (elements.hasNext()) {
+                int blockCount = 0;
+                while (blockCount < blockSize && elements.hasNext()) {
+                    writeElement(block, blockCount * elementSize, elements.next());
+                    blockCount++;
+                }
+
+                block.limit(blockCount * elementSize);
+                buffer.set((start + count) * elementSize, block);
+                block.clear();
+
+                count += blockCount;
+            }
+        } finally {
+            nmemFree(staging);
+
+            // remove whatever part of the reserved space the iterator did not fill
+            if (count < reserved) {
+                buffer.removeAfter((start + count) * elementSize);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of elements at and above which chunks of elements are encoded using multiple threads.
+     *
+     * @return the number of elements at and above which chunks of elements are encoded using multiple threads.
+     */
+    public int getParallelEncodingThreshold() {
+        return parallelEncodingThreshold;
+    }
+
+    /**
+     * Sets the number of elements at and above which chunks of elements are encoded using multiple threads.
+     * <p>
+     * This only has an effect on buffers whose {@link #supportsParallelEncoding()} returns true, and only on chunks of
+     * elements whose spliterator can be split into exactly sized parts, such as lists and arrays.
+     *
+     * @param parallelEncodingThreshold the number of elements at and above which chunks of elements are encoded using
+     *                                  multiple threads, or Integer.MAX_VALUE to always encode on the calling thread.
+     */
+    public void setParallelEncodingThreshold(int parallelEncodingThreshold) {
+        if (parallelEncodingThreshold < 0) {
+            throw new IllegalArgumentException("ParallelEncodingThreshold cannot be less than zero");
+        }
+
+        this.parallelEncodingThreshold = parallelEncodingThreshold;
+    }
+
+    /**
+     * Sets the pool whose threads are used to encode large chunks of elements. This is the common pool by default.
+     *
+     * @param pool the pool whose threads are used to encode large chunks of elements.
+     */
+    public void setParallelEncodingPool(ForkJoinPool pool) {
+        this.parallelEncodingPool = pool;
+    }
+
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time. Buffers that return true have large chunks of elements encoded in parallel.
+     * <p>
+     * This should only return true if writeElement does not modify any state and only reads state that does not change
+     * while elements are being put.
+     *
+     * @return whether writeElement can be called from multiple threads at the same time.
+     */
+    protected boolean supportsParallelEncoding() {
+        return false;
+    }
+
+    private void putElementsParallel(long offset, Spliterator<? extends E> spliterator, int count) {
+        long length = (long) count * elementSize;
+        long staging = nmemAllocChecked(length);
+
+        try {
+            // every worker encodes its own range of elements into the staging memory
+            parallelEncodingPool.invoke(new EncodeAction(spliterator, staging));
+
+            if (buffer instanceof WritableNativeDataBuffer) {
+                ((WritableNativeDataBuffer) buffer).setNative(offset * elementSize, length, staging);
+            } else {
+                int chunkLength = PARALLEL_UPLOAD_CHUNK_BYTES - PARALLEL_UPLOAD_CHUNK_BYTES % elementSize;
+                for (long position = 0; position < length; position += chunkLength) {
+                    buffer.set(offset * elementSize + position,
+                            memByteBuffer(staging + position, (int) Math.min(chunkLength, length - position)));
+                }
+            }
+        } finally {
+            nmemFree(staging);
+        }
+    }
+
+    /**
+     * Sets a chunk of elements within this buffer to elements decoded from floats, without creating an object for each
+     * element.
+     * <p>
+     * This will increase the size of this buffer if the chunk of elements being set extends beyond the current end of
+     * this buffer.
+     *
+     * @param offset the position in elements within this buffer to place the start of the new elements.
+     * @param source the array holding the floats of the new elements.
+     * @param index  the position within the array of the first float of the first element.
+     * @param stride the distance in floats between the start of one element and the start of the next.
+     * @param count  the number of elements to set.
+     * @throws UnsupportedOperationException if this buffer does not support decoding elements from floats.
+     */
+    public void setFloats(long offset, float[] source, int index, int stride, int count) {
+        setFloats(offset, FloatBuffer.wrap(source), index, stride, count);
+    }
+
+    /**
+     * Sets a chunk of elements within this buffer to elements decoded from floats, without creating an object for each
+     * element.
+     * <p>
+     * This will increase the size of this buffer if the chunk of elements being set extends beyond the current end of
+     * this buffer. The source buffer's position and limit are not changed.
+     * <p>
+     * Every argument is checked before anything is written, but elements are only checked as they are decoded. If an
+     * element cannot be decoded, this buffer is cut back to its old size, and the elements before the invalid one
+     * that were within the old size may already have been overwritten.
+     *
+     * @param offset the position in elements within this buffer to place the start of the new elements.
+     * @param source the buffer holding the floats of the new elements.
+     * @param index  the absolute position within the source buffer of the first float of the first element.
+     * @param stride the distance in floats between the start of one element and the start of the next.
+     * @param count  the number of elements to set.
+     * @throws UnsupportedOperationException if this buffer does not support decoding elements from floats.
+     */
+    public void setFloats(long offset, FloatBuffer source, int index, int stride, int count) {
+        checkFloats(source, index, stride, count);
+        putFloatsOrTrim(offset, source, index, stride, count, getSize());
+    }
+
+    /**
+     * Appends a chunk of elements decoded from floats to the end of this buffer, without creating an object for each
+     * element.
+     *
+     * @param source the array holding the floats of the new elements.
+     * @param index  the position within the array of the first float of the first element.
+     * @param stride the distance in floats between the start of one element and the start of the next.
+     * @param count  the number of elements to append.
+     * @throws UnsupportedOperationException if this buffer does not support decoding elements from floats.
+     */
+    public void appendFloats(float[] source, int index, int stride, int count) {
+        appendFloats(FloatBuffer.wrap(source), index, stride, count);
+    }
+
+    /**
+     * Appends a chunk of elements decoded from floats to the end of this buffer, without creating an object for each
+     * element.
+     * <p>
+     * The source buffer's position and limit are not changed. If an element cannot be decoded, nothing is appended.
+     *
+     * @param source the buffer holding the floats of the new elements.
+     * @param index  the absolute position within the source buffer of the first float of the first element.
+     * @param stride the distance in floats between the start of one element and the start of the next.
+     * @param count  the number of elements to append.
+     * @throws UnsupportedOperationException if this buffer does not support decoding elements from floats.
+     */
+    public void appendFloats(FloatBuffer source, int index, int stride, int count) {
+        checkFloats(source, index, stride, count);
+
+        long offset = getSize();
+        appendBlank(count);
+        putFloatsOrTrim(offset, source, index, stride, count, offset);
+    }
+
+    /**
+     * Gets the number of floats each element is decoded from by the float entry points, or 0 if this buffer does not
+     * support decoding elements from floats.
+     *
+     * @return the number of floats each element is decoded from.
+     */
+    public int getFloatsPerElement() {
+        return 0;
+    }
+
+    private void checkFloats(FloatBuffer source, int index, int stride, int count) {
+        int floatsPerElement = getFloatsPerElement();
+        if (floatsPerElement == 0) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot decode elements from floats");
+        }
+
+        if (index < 0) {
+            throw new IllegalArgumentException("Index cannot be less than zero");
+        }
+
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be less than zero");
+        }
+
+        if (stride < floatsPerElement) {
+            throw new IllegalArgumentException(
+                    "Stride cannot be less than the floats per element (" + stride + " < " + floatsPerElement + ")");
+        }
+
+        if (count > 0 && index + (long) (count - 1) * stride + floatsPerElement > source.limit()) {
+            throw new IndexOutOfBoundsException(
+                    "index + length > size (" + index + " + " + ((long) (count - 1) * stride + floatsPerElement) +
+                            " > " + source.limit() + ")");
+        }
+    }
+
+    private void putFloatsOrTrim(long offset, FloatBuffer source, int index, int stride, int count, long oldSize) {
+        boolean written = false;
+        try {
+            putFloats(offset, source, index, stride, count);
+            written = true;
+        } finally {
+            // an element that cannot be decoded would otherwise leave undefined elements behind
+            if (!written) {
+                removeAfter(oldSize);
+            }
+        }
+    }
+
+    private void putFloats(long offset, FloatBuffer source, int index, int stride, int count) {
+        final int chunks = count / copyChunkSize;
+        final int remainder = count % copyChunkSize;
+        int sourceIndex = index;
+        try (MemoryStack stack = stackPush()) {
+            ByteBuffer byteBuffer = stack.malloc(copyChunkSize * elementSize);
+
+            for (int i = 0; i < chunks; i++) {
+                for (int j = 0; j < copyChunkSize; j++) {
+                    writeFloats(byteBuffer, j * elementSize, source, sourceIndex);
+                    sourceIndex += stride;
+                }
+                buffer.set((offset + i * copyChunkSize) * elementSize, byteBuffer);
+            }
+
+            if (remainder != 0) {
+                byteBuffer.limit(remainder * elementSize);
+                for (int i = 0; i < remainder; i++) {
+                    writeFloats(byteBuffer, i * elementSize, source, sourceIndex);
+                    sourceIndex += stride;
+                }
+                buffer.set((offset + chunks * copyChunkSize) * elementSize, byteBuffer);
+            }
+        }
+    }
+
     /**
      * Appends a chunk of blank elements to the end of this buffer.
      * <p>
@@ -118,6 +431,24 @@ public abstract class AbstractWritableDataObjectBuffer<E> extends AbstractWritab
         buffer.remove(offset * elementSize, chunkLength * elementSize);
     }
 
+    /**
+     * Removes a chunk of elements from this buffer by moving the elements at the end of this buffer into the hole left
+     * by the removed chunk.
+     * <p>
+     * Unlike {@link #remove(long, long)}, this does not preserve the order of the elements in this buffer, but it only
+     * ever moves at most chunkLength elements, no matter how large this buffer is.
+     *
+     * @param offset      the position in elements of the chunk to be removed.
+     * @param chunkLength the length in elements of the chunk to be removed.
+     * @return the position in elements the relocated elements were moved from. Every element that was at or after this
+     * position before the removal is now at offset + (its old position - this position). If nothing was relocated,
+     * this is the old size of this buffer.
+     */
+    @Override
+    public long swapRemove(long offset, long chunkLength) {
+        return buffer.swapRemove(offset * elementSize, chunkLength * elementSize) / elementSize;
+    }
+
     /**
      * Removes everything at and after offset from this buffer, resizing as necessary.
      *
@@ -182,4 +513,101 @@ public abstract class AbstractWritableDataObjectBuffer<E> extends AbstractWritab
      * @param element  the element to write.
      */
     protected abstract void writeElement(ByteBuffer buffer, int position, E element);
+
+    /**
+     * Used to write a single element decoded from floats to a buffer at a specific position.
+     * <p>
+     * Buffers that support decoding elements from floats override this along with {@link #getFloatsPerElement()}.
+     * Neither buffer's position or limit should be changed by this method.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param source   the buffer holding the floats of the element.
+     * @param index    the absolute position within the source buffer of the element's first float.
+     */
+    protected void writeFloats(ByteBuffer buffer, int position, FloatBuffer source, int index) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot decode elements from floats");
+    }
+
+    /**
+     * Encodes the elements of a spliterator into staging memory, splitting it across the pool's threads.
+     */
+    private class EncodeAction extends RecursiveAction implements Consumer<E> {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<? extends E> spliterator;
+        private final long address;
+        private ByteBuffer window;
+        private int windowPosition;
+
+        private EncodeAction(Spliterator<? extends E> spliterator, long address) {
+            this.spliterator = spliterator;
+            this.address = address;
+        }
+
+        @Override
+        protected void compute() {
+            long start = 0;
+            Spliterator<? extends E> prefix;
+            List<EncodeAction> forked = new ArrayList<>();
+
+            // keep splitting off the front half for other threads until what is left is small enough to encode here
+            while (spliterator.estimateSize() > PARALLEL_ENCODING_GRAIN && (prefix = spliterator.trySplit()) != null) {
+                long prefixSize = prefix.getExactSizeIfKnown();
+                EncodeAction action = new EncodeAction(prefix, address + start * elementSize);
+                action.fork();
+                forked.add(action);
+                start += prefixSize;
+            }
+
+            Throwable failure = null;
+            try {
+                long remaining = spliterator.getExactSizeIfKnown();
+                long encoded = 0;
+                while (encoded < remaining) {
+                    int windowLength = (int) Math.min(PARALLEL_ENCODING_GRAIN, remaining - encoded);
+                    window = memByteBuffer(address + (start + encoded) * elementSize, windowLength * elementSize);
+                    windowPosition = 0;
+
+                    for (int i = 0; i < windowLength; i++) {
+                        spliterator.tryAdvance(this);
+                    }
+
+                    encoded += windowLength;
+                }
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+
+            // wait for every forked range even if this one failed, the staging memory is freed as soon as the root
+            // action returns so no range may still be writing to it by then
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                EncodeAction action = forked.get(i);
+                action.quietlyJoin();
+
+                if (action.isCompletedAbnormally()) {
+                    Throwable exception = action.getException();
+                    if (failure == null) {
+                        failure = exception;
+                    } else if (exception != failure) {
+                        failure.addSuppressed(exception);
+                    }
+                }
+            }
+
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        }
+
+        @Override
+        public void accept(E element) {
+            writeElement(window, windowPosition, element);
+            windowPosition += elementSize;
+        }
+    }
 }
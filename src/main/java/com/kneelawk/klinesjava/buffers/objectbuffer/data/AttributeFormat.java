@@ -0,0 +1,82 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import java.util.Objects;
+
+/**
+ * AttributeFormat - Describes how a vertex attribute is stored in a buffer so that it can be handed to
+ * glVertexAttribFormat or glVertexAttribPointer.
+ */
+public final class AttributeFormat {
+    private final int componentCount;
+    private final ComponentType componentType;
+    private final boolean normalized;
+
+    public AttributeFormat(int componentCount, ComponentType componentType, boolean normalized) {
+        if (componentCount < 1 || componentCount > 4) {
+            throw new IllegalArgumentException("ComponentCount must be between 1 and 4");
+        }
+
+        if (normalized && componentType.isFloatingPoint()) {
+            throw new IllegalArgumentException("Floating point components cannot be normalized");
+        }
+
+        this.componentCount = componentCount;
+        this.componentType = Objects.requireNonNull(componentType, "componentType");
+        this.normalized = normalized;
+    }
+
+    /**
+     * Gets the number of components the attribute has.
+     *
+     * @return the number of components the attribute has.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Gets the type of each of the attribute's components.
+     *
+     * @return the type of each of the attribute's components.
+     */
+    public ComponentType getComponentType() {
+        return componentType;
+    }
+
+    /**
+     * Gets whether integer components are normalized to [0, 1] or [-1, 1] when read by the shader.
+     *
+     * @return whether integer components are normalized.
+     */
+    public boolean isNormalized() {
+        return normalized;
+    }
+
+    /**
+     * Gets the size in bytes of the attribute's components, not including any padding.
+     *
+     * @return the size in bytes of the attribute's components.
+     */
+    public int getSize() {
+        return componentCount * componentType.getSize();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AttributeFormat that = (AttributeFormat) o;
+        return componentCount == that.componentCount && normalized == that.normalized &&
+                componentType == that.componentType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(componentCount, componentType, normalized);
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeFormat{" + componentCount + " x " + componentType + (normalized ? ", normalized" : "") + "}";
+    }
+}
@@ -0,0 +1,110 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+/**
+ * BlockLayout - The standard memory layouts of GLSL uniform and shader storage blocks.
+ * <p>
+ * Both layouts align scalars and vectors the same way, with three-component vectors aligned like four-component
+ * vectors. They differ in how arrays and structs are aligned: std140 rounds their alignment, and so the stride of every
+ * array, up to that of a vec4, while std430 uses the alignment of their elements or members as-is.
+ */
+public enum BlockLayout {
+    /**
+     * The layout required for uniform blocks and also usable for shader storage blocks.
+     */
+    STD140("std140", 16),
+    /**
+     * The tighter layout only usable for shader storage blocks.
+     */
+    STD430("std430", 4);
+
+    private final String qualifier;
+    private final int minAggregateAlignment;
+
+    BlockLayout(String qualifier, int minAggregateAlignment) {
+        this.qualifier = qualifier;
+        this.minAggregateAlignment = minAggregateAlignment;
+    }
+
+    /**
+     * Gets the GLSL layout qualifier of this layout.
+     *
+     * @return the GLSL layout qualifier of this layout.
+     */
+    public String getQualifier() {
+        return qualifier;
+    }
+
+    /**
+     * Gets the base alignment in bytes of a single value of a type.
+     *
+     * @param type the type to get the alignment of.
+     * @return the base alignment in bytes.
+     */
+    public int getAlignment(GlslType type) {
+        if (type.isMatrix()) {
+            // matrices are laid out like arrays of their columns
+            return getAggregateAlignment(type.getColumnAlignment());
+        }
+
+        return type.getColumnAlignment();
+    }
+
+    /**
+     * Gets the size in bytes of a single value of a type, not counting any padding after the value.
+     *
+     * @param type the type to get the size of.
+     * @return the size in bytes.
+     */
+    public int getSize(GlslType type) {
+        if (type.isMatrix()) {
+            return getColumnStride(type) * type.getColumns();
+        }
+
+        return type.getColumnSize();
+    }
+
+    /**
+     * Gets the distance in bytes between the start of one column of a matrix type and the start of the next.
+     *
+     * @param type the matrix type to get the column stride of.
+     * @return the distance in bytes between columns.
+     */
+    public int getColumnStride(GlslType type) {
+        return roundUp(type.getColumnSize(), getAggregateAlignment(type.getColumnAlignment()));
+    }
+
+    /**
+     * Gets the alignment in bytes of an array of values of a type.
+     *
+     * @param type the type of the array's elements.
+     * @return the alignment in bytes of the array.
+     */
+    public int getArrayAlignment(GlslType type) {
+        return getAggregateAlignment(getAlignment(type));
+    }
+
+    /**
+     * Gets the distance in bytes between the start of one element of an array of values of a type and the start of the
+     * next.
+     *
+     * @param type the type of the array's elements.
+     * @return the distance in bytes between array elements.
+     */
+    public int getArrayStride(GlslType type) {
+        return roundUp(getSize(type), getArrayAlignment(type));
+    }
+
+    /**
+     * Gets the alignment of an array or struct whose elements or members have a given alignment.
+     *
+     * @param alignment the largest alignment of the elements or members.
+     * @return the alignment of the array or struct.
+     */
+    int getAggregateAlignment(int alignment) {
+        return roundUp(alignment, minAggregateAlignment);
+    }
+
+    static int roundUp(int value, int alignment) {
+        return (value + alignment - 1) / alignment * alignment;
+    }
+}
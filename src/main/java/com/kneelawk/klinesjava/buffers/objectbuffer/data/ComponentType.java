@@ -0,0 +1,53 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import static org.lwjgl.opengl.GL11C.*;
+import static org.lwjgl.opengl.GL30C.GL_HALF_FLOAT;
+
+/**
+ * The types of the individual components of a vertex attribute.
+ */
+public enum ComponentType {
+    BYTE(GL_BYTE, 1),
+    UNSIGNED_BYTE(GL_UNSIGNED_BYTE, 1),
+    SHORT(GL_SHORT, 2),
+    UNSIGNED_SHORT(GL_UNSIGNED_SHORT, 2),
+    INT(GL_INT, 4),
+    UNSIGNED_INT(GL_UNSIGNED_INT, 4),
+    HALF_FLOAT(GL_HALF_FLOAT, 2),
+    FLOAT(GL_FLOAT, 4);
+
+    private final int glType;
+    private final int size;
+
+    ComponentType(int glType, int size) {
+        this.glType = glType;
+        this.size = size;
+    }
+
+    /**
+     * Gets the OpenGL type enum for this component type.
+     *
+     * @return the OpenGL type enum for this component type.
+     */
+    public int getGlType() {
+        return glType;
+    }
+
+    /**
+     * Gets the size in bytes of a single component of this type.
+     *
+     * @return the size in bytes of a single component of this type.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets whether this is a floating point type.
+     *
+     * @return whether this is a floating point type.
+     */
+    public boolean isFloatingPoint() {
+        return this == HALF_FLOAT || this == FLOAT;
+    }
+}
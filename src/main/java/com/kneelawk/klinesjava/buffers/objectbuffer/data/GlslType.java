@@ -0,0 +1,103 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+/**
+ * GlslType - The GLSL scalar, vector and matrix types that can be members of a {@link StructLayout}.
+ * <p>
+ * Matrices are stored column-major, as an array of column vectors.
+ */
+public enum GlslType {
+    FLOAT("float", 1, 1, false),
+    INT("int", 1, 1, true),
+    UINT("uint", 1, 1, true),
+    VEC2("vec2", 2, 1, false),
+    VEC3("vec3", 3, 1, false),
+    VEC4("vec4", 4, 1, false),
+    IVEC2("ivec2", 2, 1, true),
+    IVEC3("ivec3", 3, 1, true),
+    IVEC4("ivec4", 4, 1, true),
+    MAT3("mat3", 3, 3, false),
+    MAT4("mat4", 4, 4, false);
+
+    private final String glslName;
+    private final int rows;
+    private final int columns;
+    private final boolean integer;
+
+    GlslType(String glslName, int rows, int columns, boolean integer) {
+        this.glslName = glslName;
+        this.rows = rows;
+        this.columns = columns;
+        this.integer = integer;
+    }
+
+    /**
+     * Gets the name of this type in GLSL source.
+     *
+     * @return the name of this type in GLSL source.
+     */
+    public String getGlslName() {
+        return glslName;
+    }
+
+    /**
+     * Gets the number of components in each column of this type. This is the number of components of a vector type.
+     *
+     * @return the number of components in each column.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns of this type. This is 1 for scalar and vector types.
+     *
+     * @return the number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets whether the components of this type are 32-bit integers instead of 32-bit floats.
+     *
+     * @return whether the components of this type are integers.
+     */
+    public boolean isInteger() {
+        return integer;
+    }
+
+    /**
+     * Gets whether this type is a matrix.
+     *
+     * @return whether this type has more than one column.
+     */
+    public boolean isMatrix() {
+        return columns > 1;
+    }
+
+    /**
+     * Gets the size in bytes of a single column of this type, without any padding.
+     *
+     * @return the size in bytes of a single column.
+     */
+    public int getColumnSize() {
+        return rows * 4;
+    }
+
+    /**
+     * Gets the base alignment in bytes of a single column of this type. Three-component vectors are aligned like
+     * four-component vectors.
+     *
+     * @return the base alignment in bytes of a single column.
+     */
+    public int getColumnAlignment() {
+        switch (rows) {
+            case 1:
+                return 4;
+            case 2:
+                return 8;
+            default:
+                return 16;
+        }
+    }
+}
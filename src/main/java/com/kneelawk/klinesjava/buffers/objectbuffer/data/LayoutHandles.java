@@ -0,0 +1,295 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import org.joml.Vector2fc;
+import org.joml.Vector2ic;
+import org.joml.Vector3fc;
+import org.joml.Vector3ic;
+import org.joml.Vector4fc;
+import org.joml.Vector4ic;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.kneelawk.klinesjava.utils.PackingUtils.*;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * LayoutHandles - Composes the method handles that pack values into vertex records.
+ * <p>
+ * Every attribute component gets its own handle that reads the component from its source and stores it with the
+ * conversion for its component type already chosen. The handles of all the components of a record are then folded into
+ * one handle, so writing a record does no lookups, no switching on types and no allocation.
+ */
+final class LayoutHandles {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final String[] VECTOR_COMPONENTS = {"x", "y", "z", "w"};
+
+    private static final MethodHandle ADD = findStatic("add", methodType(int.class, int.class, int.class));
+
+    private LayoutHandles() {
+    }
+
+    /**
+     * Creates a handle of type (ByteBuffer, int, float[], int)void that writes one record at the buffer position from
+     * the consecutive components in the array starting at the array position.
+     */
+    static MethodHandle floatArrayWriter(List<VertexLayout.Attribute> attributes) {
+        MethodHandle floatGetter = MethodHandles.arrayElementGetter(float[].class);
+
+        MethodHandle combined = null;
+        int sourceIndex = 0;
+        for (VertexLayout.Attribute attribute : attributes) {
+            AttributeFormat format = attribute.getFormat();
+            int componentSize = format.getComponentType().getSize();
+
+            for (int i = 0; i < format.getComponentCount(); i++) {
+                // (float[], int)float
+                MethodHandle getter = offset(floatGetter, 1, sourceIndex++);
+                // (ByteBuffer, int, float[], int)void
+                MethodHandle writer = MethodHandles.collectArguments(putter(format, false), 2, getter);
+                combined = sequence(combined, offset(writer, 1, attribute.getOffset() + i * componentSize));
+            }
+        }
+
+        return combined;
+    }
+
+    /**
+     * Creates a handle of type (ByteBuffer, int, Object)void that reads an attribute's value from an element using the
+     * getter and writes it into the record at the buffer position.
+     *
+     * @param attribute the attribute to write.
+     * @param getter    a handle of type (E)V that gets the attribute's value from an element.
+     */
+    static MethodHandle attributeWriter(VertexLayout.Attribute attribute, MethodHandle getter) {
+        AttributeFormat format = attribute.getFormat();
+        Class<?> valueType = getter.type().returnType();
+        int componentSize = format.getComponentType().getSize();
+
+        List<MethodHandle> components = componentGetters(valueType, format.getComponentCount(), attribute);
+
+        MethodHandle combined = null;
+        for (int i = 0; i < components.size(); i++) {
+            MethodHandle component = components.get(i);
+            boolean intSource = component.type().returnType() == int.class;
+
+            // (ByteBuffer, int, V)void
+            MethodHandle writer = MethodHandles.filterArguments(putter(format, intSource), 2, component);
+            combined = sequence(combined, offset(writer, 1, attribute.getOffset() + i * componentSize));
+        }
+
+        // (ByteBuffer, int, Object)void
+        return MethodHandles.filterArguments(combined, 2, getter.asType(methodType(valueType, Object.class)));
+    }
+
+    /**
+     * Runs first and then second with the same arguments. Both must return void.
+     */
+    static MethodHandle sequence(MethodHandle first, MethodHandle second) {
+        return first == null ? second : MethodHandles.foldArguments(second, first);
+    }
+
+    private static List<MethodHandle> componentGetters(Class<?> valueType, int count,
+                                                       VertexLayout.Attribute attribute) {
+        List<MethodHandle> getters = new ArrayList<>(count);
+
+        if (valueType == float.class || valueType == int.class) {
+            checkComponentCount(1, count, attribute);
+            getters.add(MethodHandles.identity(valueType));
+        } else if (valueType == float[].class || valueType == int[].class) {
+            MethodHandle elementGetter = MethodHandles.arrayElementGetter(valueType);
+            for (int i = 0; i < count; i++) {
+                getters.add(MethodHandles.insertArguments(elementGetter, 1, i));
+            }
+        } else {
+            Class<?> vectorType = vectorType(valueType);
+            if (vectorType == null) {
+                throw new IllegalArgumentException(
+                        "Unsupported value type " + valueType.getName() + " for attribute " + attribute);
+            }
+
+            int available = vectorComponentCount(vectorType);
+            checkComponentCount(available, count, attribute);
+
+            Class<?> componentType = isIntVector(vectorType) ? int.class : float.class;
+            for (int i = 0; i < count; i++) {
+                try {
+                    MethodHandle getter =
+                            LOOKUP.findVirtual(vectorType, VECTOR_COMPONENTS[i], methodType(componentType));
+                    getters.add(getter.asType(methodType(componentType, valueType)));
+                } catch (NoSuchMethodException | IllegalAccessException e) {
+                    throw new IllegalStateException("Unable to access component " + i + " of " + vectorType, e);
+                }
+            }
+        }
+
+        return getters;
+    }
+
+    private static Class<?> vectorType(Class<?> valueType) {
+        Class<?>[] vectorTypes =
+                {Vector2fc.class, Vector3fc.class, Vector4fc.class, Vector2ic.class, Vector3ic.class, Vector4ic.class};
+        for (Class<?> vectorType : vectorTypes) {
+            if (vectorType.isAssignableFrom(valueType)) {
+                return vectorType;
+            }
+        }
+        return null;
+    }
+
+    private static int vectorComponentCount(Class<?> vectorType) {
+        if (vectorType == Vector2fc.class || vectorType == Vector2ic.class) {
+            return 2;
+        } else if (vectorType == Vector3fc.class || vectorType == Vector3ic.class) {
+            return 3;
+        } else {
+            return 4;
+        }
+    }
+
+    private static boolean isIntVector(Class<?> vectorType) {
+        return vectorType == Vector2ic.class || vectorType == Vector3ic.class || vectorType == Vector4ic.class;
+    }
+
+    private static void checkComponentCount(int available, int count, VertexLayout.Attribute attribute) {
+        if (available < count) {
+            throw new IllegalArgumentException(
+                    "Value with " + available + " components is too small for attribute " + attribute);
+        }
+    }
+
+    /**
+     * Adds a constant to an int argument of a handle.
+     */
+    private static MethodHandle offset(MethodHandle handle, int argument, int delta) {
+        if (delta == 0) {
+            return handle;
+        }
+
+        return MethodHandles.filterArguments(handle, argument, MethodHandles.insertArguments(ADD, 1, delta));
+    }
+
+    /**
+     * Gets a handle of type (ByteBuffer, int, float)void or (ByteBuffer, int, int)void that stores a single component.
+     * <p>
+     * Float components stored as integer types are converted to normalized integers if the format is normalized and
+     * truncated otherwise. Int components are converted to the nearest float for floating point types and stored as-is
+     * for integer types.
+     */
+    private static MethodHandle putter(AttributeFormat format, boolean intSource) {
+        String name;
+        switch (format.getComponentType()) {
+            case FLOAT:
+                name = "putFloat";
+                break;
+            case HALF_FLOAT:
+                name = "putHalf";
+                break;
+            case BYTE:
+                name = intSource || !format.isNormalized() ? "putByte" : "putSnorm8";
+                break;
+            case UNSIGNED_BYTE:
+                name = intSource || !format.isNormalized() ? "putByte" : "putUnorm8";
+                break;
+            case SHORT:
+                name = intSource || !format.isNormalized() ? "putShort" : "putSnorm16";
+                break;
+            case UNSIGNED_SHORT:
+                name = intSource || !format.isNormalized() ? "putShort" : "putUnorm16";
+                break;
+            case INT:
+                name = intSource || !format.isNormalized() ? "putInt" : "putSnorm32";
+                break;
+            case UNSIGNED_INT:
+                name = intSource || !format.isNormalized() ? "putInt" : "putUnorm32";
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported component type " + format.getComponentType());
+        }
+
+        return findStatic(name, methodType(void.class, ByteBuffer.class, int.class,
+                intSource ? int.class : float.class));
+    }
+
+    private static MethodHandle findStatic(String name, MethodType type) {
+        try {
+            return LOOKUP.findStatic(LayoutHandles.class, name, type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Unable to find " + name + type, e);
+        }
+    }
+
+    private static int add(int a, int b) {
+        return a + b;
+    }
+
+    private static void putFloat(ByteBuffer buffer, int position, float value) {
+        buffer.putFloat(position, value);
+    }
+
+    private static void putFloat(ByteBuffer buffer, int position, int value) {
+        buffer.putFloat(position, value);
+    }
+
+    private static void putHalf(ByteBuffer buffer, int position, float value) {
+        buffer.putShort(position, toHalf(value));
+    }
+
+    private static void putHalf(ByteBuffer buffer, int position, int value) {
+        buffer.putShort(position, toHalf(value));
+    }
+
+    private static void putByte(ByteBuffer buffer, int position, float value) {
+        buffer.put(position, (byte) (int) value);
+    }
+
+    private static void putByte(ByteBuffer buffer, int position, int value) {
+        buffer.put(position, (byte) value);
+    }
+
+    private static void putSnorm8(ByteBuffer buffer, int position, float value) {
+        buffer.put(position, toSnorm8(value));
+    }
+
+    private static void putUnorm8(ByteBuffer buffer, int position, float value) {
+        buffer.put(position, toUnorm8(value));
+    }
+
+    private static void putShort(ByteBuffer buffer, int position, float value) {
+        buffer.putShort(position, (short) (int) value);
+    }
+
+    private static void putShort(ByteBuffer buffer, int position, int value) {
+        buffer.putShort(position, (short) value);
+    }
+
+    private static void putSnorm16(ByteBuffer buffer, int position, float value) {
+        buffer.putShort(position, toSnorm16(value));
+    }
+
+    private static void putUnorm16(ByteBuffer buffer, int position, float value) {
+        buffer.putShort(position, toUnorm16(value));
+    }
+
+    private static void putInt(ByteBuffer buffer, int position, float value) {
+        buffer.putInt(position, (int) value);
+    }
+
+    private static void putInt(ByteBuffer buffer, int position, int value) {
+        buffer.putInt(position, value);
+    }
+
+    private static void putSnorm32(ByteBuffer buffer, int position, float value) {
+        double clamped = Math.max(-1.0, Math.min(1.0, value));
+        buffer.putInt(position, (int) Math.round(clamped * Integer.MAX_VALUE));
+    }
+
+    private static void putUnorm32(ByteBuffer buffer, int position, float value) {
+        double clamped = Math.max(0.0, Math.min(1.0, value));
+        buffer.putInt(position, (int) Math.round(clamped * 4294967295.0));
+    }
+}
@@ -0,0 +1,255 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.google.common.base.Throwables;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * LayoutWriter - Packs objects into records of a {@link VertexLayout}.
+ * <p>
+ * A writer is a single method handle composed when the writer is built. It reads every attribute from the object and
+ * stores every component with its conversion already chosen, so writing an object does no reflection and no allocation.
+ * The one exception is a float or int attribute bound to a {@link Function}, whose result is boxed and then unboxed
+ * for every object. Such attributes should be bound with {@link Builder#bindFloat} or {@link Builder#bindInt} instead.
+ * <p>
+ * Each attribute's value can be a float, an int, a float[], an int[] or any JOML Vector2fc, Vector3fc, Vector4fc,
+ * Vector2ic, Vector3ic or Vector4ic with at least as many components as the attribute.
+ *
+ * @param <E> the type of object this writer writes.
+ */
+public final class LayoutWriter<E> {
+    private static final MethodHandle FUNCTION_APPLY;
+    private static final MethodHandle TO_FLOAT_APPLY;
+    private static final MethodHandle TO_INT_APPLY;
+
+    static {
+        try {
+            FUNCTION_APPLY = MethodHandles.publicLookup()
+                    .findVirtual(Function.class, "apply", MethodType.methodType(Object.class, Object.class));
+            TO_FLOAT_APPLY = MethodHandles.lookup().findVirtual(ToFloatFunction.class, "applyAsFloat",
+                    MethodType.methodType(float.class, Object.class));
+            TO_INT_APPLY = MethodHandles.publicLookup()
+                    .findVirtual(ToIntFunction.class, "applyAsInt", MethodType.methodType(int.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final VertexLayout layout;
+    private final MethodHandle handle;
+
+    private LayoutWriter(VertexLayout layout, MethodHandle handle) {
+        this.layout = layout;
+        this.handle = handle;
+    }
+
+    /**
+     * Gets the layout of the records this writer writes.
+     *
+     * @return the layout of the records this writer writes.
+     */
+    public VertexLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Writes a single object to a buffer as a record at a specific position.
+     * <p>
+     * The buffer's position and limit are the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the record to.
+     * @param position the position within the buffer to write the record at.
+     * @param element  the object to write.
+     */
+    public void write(ByteBuffer buffer, int position, E element) {
+        try {
+            handle.invokeExact(buffer, position, (Object) element);
+        } catch (Throwable t) {
+            Throwables.throwIfUnchecked(t);
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * A function that gets a float from an object, without boxing it.
+     *
+     * @param <T> the type of object the float is read from.
+     */
+    @FunctionalInterface
+    public interface ToFloatFunction<T> {
+        /**
+         * Gets the float value of an object.
+         *
+         * @param value the object to get the float from.
+         * @return the float value.
+         */
+        float applyAsFloat(T value);
+    }
+
+    /**
+     * Builds layout writers.
+     *
+     * @param <E> the type of object the writer writes.
+     */
+    public static final class Builder<E> {
+        private final VertexLayout layout;
+        private final Class<E> type;
+        private final Map<String, MethodHandle> getters = new HashMap<>();
+        private MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        Builder(VertexLayout layout, Class<E> type) {
+            this.layout = layout;
+            this.type = Objects.requireNonNull(type, "type");
+        }
+
+        /**
+         * Binds an attribute to a function that gets its value from an object.
+         * <p>
+         * When valueType is float.class or int.class, the function's result is boxed and then unboxed for every object.
+         * Use {@link #bindFloat(String, ToFloatFunction)} or {@link #bindInt(String, ToIntFunction)} for those
+         * attributes to keep writing allocation-free.
+         *
+         * @param name      the name of the attribute.
+         * @param valueType the type of the attribute's value.
+         * @param getter    the function that gets the attribute's value from an object.
+         * @param <V>       the type of the attribute's value.
+         * @return this builder.
+         */
+        public <V> Builder<E> bind(String name, Class<V> valueType, Function<? super E, ? extends V> getter) {
+            layout.getAttribute(name);
+
+            // primitive value types are unboxed from the function's result
+            getters.put(name, FUNCTION_APPLY.bindTo(getter).asType(MethodType.methodType(valueType, Object.class)));
+            return this;
+        }
+
+        /**
+         * Binds a single float attribute to a function that gets its value from an object without boxing it.
+         *
+         * @param name   the name of the attribute.
+         * @param getter the function that gets the attribute's value from an object.
+         * @return this builder.
+         */
+        public Builder<E> bindFloat(String name, ToFloatFunction<? super E> getter) {
+            layout.getAttribute(name);
+
+            getters.put(name, TO_FLOAT_APPLY.bindTo(getter));
+            return this;
+        }
+
+        /**
+         * Binds a single int attribute to a function that gets its value from an object without boxing it.
+         *
+         * @param name   the name of the attribute.
+         * @param getter the function that gets the attribute's value from an object.
+         * @return this builder.
+         */
+        public Builder<E> bindInt(String name, ToIntFunction<? super E> getter) {
+            layout.getAttribute(name);
+
+            getters.put(name, TO_INT_APPLY.bindTo(getter));
+            return this;
+        }
+
+        /**
+         * Binds an attribute to a method handle that gets its value from an object.
+         *
+         * @param name   the name of the attribute.
+         * @param getter a method handle taking a single object and returning the attribute's value.
+         * @return this builder.
+         */
+        public Builder<E> bind(String name, MethodHandle getter) {
+            layout.getAttribute(name);
+
+            if (getter.type().parameterCount() != 1 || getter.type().returnType() == void.class) {
+                throw new IllegalArgumentException("Getter must take a single object and return a value: " + getter);
+            }
+
+            getters.put(name, getter);
+            return this;
+        }
+
+        /**
+         * Sets the lookup used to find the getters and fields of attributes that are not explicitly bound. This is a
+         * public lookup by default, which can only find public members of exported packages.
+         *
+         * @param lookup the lookup used to find getters and fields.
+         * @return this builder.
+         */
+        public Builder<E> lookup(MethodHandles.Lookup lookup) {
+            this.lookup = Objects.requireNonNull(lookup, "lookup");
+            return this;
+        }
+
+        /**
+         * Builds the layout writer.
+         * <p>
+         * Every attribute that has not been explicitly bound is read from a public no-argument method named
+         * get&lt;Name&gt; or &lt;name&gt;, or a public field named &lt;name&gt;, in that order.
+         *
+         * @return the new layout writer.
+         */
+        public LayoutWriter<E> build() {
+            MethodHandle combined = null;
+            for (VertexLayout.Attribute attribute : layout.getAttributes()) {
+                MethodHandle getter = getters.get(attribute.getName());
+                if (getter == null) {
+                    getter = findGetter(attribute.getName());
+                }
+
+                combined = LayoutHandles.sequence(combined, LayoutHandles.attributeWriter(attribute, getter));
+            }
+
+            return new LayoutWriter<>(layout, combined);
+        }
+
+        private MethodHandle findGetter(String name) {
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+            try {
+                for (String methodName : new String[]{"get" + capitalized, name}) {
+                    Method method = findMethod(methodName);
+                    if (method != null) {
+                        return lookup.unreflect(method);
+                    }
+                }
+
+                Field field = type.getField(name);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return lookup.unreflectGetter(field);
+                }
+            } catch (NoSuchFieldException e) {
+                // fall through to the exception below
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Unable to access the value of attribute " + name + " in " + type,
+                        e);
+            }
+
+            throw new IllegalArgumentException("No getter or field for attribute " + name + " in " + type);
+        }
+
+        private Method findMethod(String name) {
+            try {
+                Method method = type.getMethod(name);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // no method with that name
+            }
+
+            return null;
+        }
+    }
+}
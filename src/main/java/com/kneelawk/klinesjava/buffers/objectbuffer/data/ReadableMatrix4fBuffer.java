@@ -0,0 +1,158 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.ReadableDataBuffer;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.system.MemoryUtil.memGetFloat;
+
+/**
+ * ReadableMatrix4fBuffer - Decodes matrices stored as sixteen floats in column-major order, the format written by
+ * {@link WritableMatrix4fBuffer}.
+ */
+public class ReadableMatrix4fBuffer extends AbstractReadableDataObjectBuffer<Matrix4fc> {
+    private static final int BYTES_PER_FLOAT = 4;
+    private static final int FLOATS_PER_ELEMENT = 16;
+    private static final int ELEMENT_SIZE = BYTES_PER_FLOAT * FLOATS_PER_ELEMENT;
+
+    public ReadableMatrix4fBuffer(ReadableDataBuffer buffer) {
+        super(buffer, ELEMENT_SIZE);
+    }
+
+    /**
+     * Gets a single element at offset.
+     * <p>
+     * This creates a new matrix. Use {@link #get(long, Matrix4f)} or a {@link View} to read matrices without
+     * allocating.
+     *
+     * @param offset the position in elements of the element returned.
+     * @return the specified element.
+     */
+    @Override
+    public Matrix4fc get(long offset) {
+        return get(offset, new Matrix4f());
+    }
+
+    /**
+     * Decodes a single element at offset into a caller-provided matrix.
+     *
+     * @param offset the position in elements of the element to decode.
+     * @param dest   the matrix to decode the element into.
+     * @return dest.
+     */
+    public Matrix4f get(long offset, Matrix4f dest) {
+        checkIndex(offset);
+
+        if (isDirect()) {
+            return getFromAddress(address(offset), dest);
+        } else {
+            try (MemoryStack stack = stackPush()) {
+                ByteBuffer bytes = stack.malloc(ELEMENT_SIZE);
+                buffer.readTo(offset * ELEMENT_SIZE, bytes);
+                return dest.set(bytes);
+            }
+        }
+    }
+
+    /**
+     * Creates a reusable view that can be moved between the elements of this buffer.
+     *
+     * @return a new view onto this buffer.
+     */
+    public View view() {
+        return new View();
+    }
+
+    private static Matrix4f getFromAddress(long a, Matrix4f dest) {
+        return dest.set(memGetFloat(a), memGetFloat(a + 4), memGetFloat(a + 8), memGetFloat(a + 12),
+                memGetFloat(a + 16), memGetFloat(a + 20), memGetFloat(a + 24), memGetFloat(a + 28),
+                memGetFloat(a + 32), memGetFloat(a + 36), memGetFloat(a + 40), memGetFloat(a + 44),
+                memGetFloat(a + 48), memGetFloat(a + 52), memGetFloat(a + 56), memGetFloat(a + 60));
+    }
+
+    /**
+     * A reusable, movable view onto a single element of this buffer.
+     * <p>
+     * When the data buffer is backed by addressable native memory, the view reads straight from that memory and always
+     * sees the element's current value. Reading such a view throws an IllegalStateException once its element is no
+     * longer in the buffer, for example after the buffer has shrunk or been closed. Otherwise the element is copied
+     * when the view is moved onto it.
+     */
+    public final class View {
+        private final float[] copy = new float[FLOATS_PER_ELEMENT];
+        private long offset = -1;
+
+        private View() {
+        }
+
+        /**
+         * Moves this view onto an element.
+         *
+         * @param offset the position in elements of the element to view.
+         * @return this view.
+         */
+        public View moveTo(long offset) {
+            checkIndex(offset);
+            this.offset = offset;
+
+            if (!isDirect()) {
+                try (MemoryStack stack = stackPush()) {
+                    FloatBuffer floats = stack.mallocFloat(FLOATS_PER_ELEMENT);
+                    buffer.readTo(offset * ELEMENT_SIZE, floats);
+                    floats.get(copy);
+                }
+            }
+
+            return this;
+        }
+
+        /**
+         * Gets the position in elements of the element this view is on, or -1 if it has not been moved onto one yet.
+         *
+         * @return the position in elements of the element this view is on.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Gets a single value of the matrix this view is on.
+         *
+         * @param column the column of the value, between 0 and 3.
+         * @param row    the row of the value, between 0 and 3.
+         * @return the value.
+         */
+        public float m(int column, int row) {
+            if (column < 0 || column > 3 || row < 0 || row > 3) {
+                throw new IndexOutOfBoundsException("Matrix index (" + column + ", " + row + ") out of bounds");
+            }
+
+            if (isDirect()) {
+                return memGetFloat(viewAddress(offset) + (column * 4 + row) * BYTES_PER_FLOAT);
+            } else {
+                checkViewOffset(offset);
+                return copy[column * 4 + row];
+            }
+        }
+
+        /**
+         * Copies the matrix this view is on into a matrix.
+         *
+         * @param dest the matrix to copy the element into.
+         * @return dest.
+         */
+        public Matrix4f get(Matrix4f dest) {
+            if (isDirect()) {
+                return getFromAddress(viewAddress(offset), dest);
+            } else {
+                checkViewOffset(offset);
+                return dest.set(copy);
+            }
+        }
+    }
+}
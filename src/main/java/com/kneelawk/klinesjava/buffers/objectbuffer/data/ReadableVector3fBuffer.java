@@ -0,0 +1,140 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.ReadableDataBuffer;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.system.MemoryUtil.memGetFloat;
+
+/**
+ * ReadableVector3fBuffer - Decodes vectors stored as three floats, the format written by {@link WritableVector3fBuffer}.
+ */
+public class ReadableVector3fBuffer extends AbstractReadableDataObjectBuffer<Vector3fc> {
+    private static final int ELEMENT_SIZE = 12;
+
+    public ReadableVector3fBuffer(ReadableDataBuffer buffer) {
+        super(buffer, ELEMENT_SIZE);
+    }
+
+    /**
+     * Gets a single element at offset.
+     * <p>
+     * This creates a new vector. Use {@link #get(long, Vector3f)} or a {@link View} to read vectors without allocating.
+     *
+     * @param offset the position in elements of the element returned.
+     * @return the specified element.
+     */
+    @Override
+    public Vector3fc get(long offset) {
+        return get(offset, new Vector3f());
+    }
+
+    /**
+     * Decodes a single element at offset into a caller-provided vector.
+     *
+     * @param offset the position in elements of the element to decode.
+     * @param dest   the vector to decode the element into.
+     * @return dest.
+     */
+    public Vector3f get(long offset, Vector3f dest) {
+        checkIndex(offset);
+
+        if (isDirect()) {
+            long address = address(offset);
+            return dest.set(memGetFloat(address), memGetFloat(address + 4), memGetFloat(address + 8));
+        } else {
+            try (MemoryStack stack = stackPush()) {
+                ByteBuffer bytes = stack.malloc(ELEMENT_SIZE);
+                buffer.readTo(offset * ELEMENT_SIZE, bytes);
+                return dest.set(0, bytes);
+            }
+        }
+    }
+
+    /**
+     * Creates a reusable view that can be moved between the elements of this buffer.
+     *
+     * @return a new view onto this buffer.
+     */
+    public View view() {
+        return new View();
+    }
+
+    /**
+     * A reusable, movable view onto a single element of this buffer.
+     * <p>
+     * When the data buffer is backed by addressable native memory, the view reads straight from that memory and always
+     * sees the element's current value. Reading such a view throws an IllegalStateException once its element is no
+     * longer in the buffer, for example after the buffer has shrunk or been closed. Otherwise the element is copied
+     * when the view is moved onto it.
+     */
+    public final class View {
+        private final Vector3f copy = new Vector3f();
+        private long offset = -1;
+
+        private View() {
+        }
+
+        /**
+         * Moves this view onto an element.
+         *
+         * @param offset the position in elements of the element to view.
+         * @return this view.
+         */
+        public View moveTo(long offset) {
+            checkIndex(offset);
+            this.offset = offset;
+
+            if (!isDirect()) {
+                ReadableVector3fBuffer.this.get(offset, copy);
+            }
+
+            return this;
+        }
+
+        /**
+         * Gets the position in elements of the element this view is on, or -1 if it has not been moved onto one yet.
+         *
+         * @return the position in elements of the element this view is on.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public float x() {
+            return isDirect() ? memGetFloat(viewAddress(offset)) : checkedCopy().x;
+        }
+
+        public float y() {
+            return isDirect() ? memGetFloat(viewAddress(offset) + 4) : checkedCopy().y;
+        }
+
+        public float z() {
+            return isDirect() ? memGetFloat(viewAddress(offset) + 8) : checkedCopy().z;
+        }
+
+        /**
+         * Copies the element this view is on into a vector.
+         *
+         * @param dest the vector to copy the element into.
+         * @return dest.
+         */
+        public Vector3f get(Vector3f dest) {
+            if (isDirect()) {
+                long address = viewAddress(offset);
+                return dest.set(memGetFloat(address), memGetFloat(address + 4), memGetFloat(address + 8));
+            } else {
+                return dest.set(checkedCopy());
+            }
+        }
+
+        private Vector3f checkedCopy() {
+            checkViewOffset(offset);
+            return copy;
+        }
+    }
+}
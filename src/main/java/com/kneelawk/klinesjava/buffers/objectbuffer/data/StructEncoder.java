@@ -0,0 +1,24 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import java.nio.ByteBuffer;
+
+/**
+ * StructEncoder - Writes the members of a single element into a record of a {@link StructLayout}, usually using the
+ * put methods of the layout's members.
+ *
+ * @param <E> the type of element this encoder writes.
+ */
+@FunctionalInterface
+public interface StructEncoder<E> {
+    /**
+     * Writes a single element as a record at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before. Padding bytes have
+     * already been cleared and do not need to be written.
+     *
+     * @param buffer   the buffer to write the record to.
+     * @param position the position within the buffer of the start of the record.
+     * @param element  the element to write.
+     */
+    void encode(ByteBuffer buffer, int position, E element);
+}
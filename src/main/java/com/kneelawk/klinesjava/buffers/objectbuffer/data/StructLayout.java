@@ -0,0 +1,631 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.google.common.collect.ImmutableList;
+import org.joml.Matrix3fc;
+import org.joml.Matrix4fc;
+import org.joml.Vector2fc;
+import org.joml.Vector2ic;
+import org.joml.Vector3fc;
+import org.joml.Vector3ic;
+import org.joml.Vector4fc;
+import org.joml.Vector4ic;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.lwjgl.opengl.GL45C.*;
+
+/**
+ * StructLayout - Describes how the members of a GLSL struct are laid out in a uniform or shader storage block.
+ * <p>
+ * Member offsets, array strides and the size of the struct follow the padding rules of the struct's
+ * {@link BlockLayout}, so records written using the members' put methods can be read by a shader declaring the struct
+ * returned by {@link #getGlslDeclaration()} without any extra repacking.
+ */
+public final class StructLayout {
+    private final String name;
+    private final BlockLayout blockLayout;
+    private final List<Member> members;
+    private final int alignment;
+    private final int size;
+    private final int[] padding;
+
+    private StructLayout(String name, BlockLayout blockLayout, List<Member> members, int alignment, int size) {
+        this.name = name;
+        this.blockLayout = blockLayout;
+        this.members = members;
+        this.alignment = alignment;
+        this.size = size;
+
+        boolean[] covered = new boolean[size];
+        markData(covered, 0);
+        padding = findPadding(covered);
+    }
+
+    /**
+     * Creates a builder for a struct layout.
+     *
+     * @param name        the name of the struct in GLSL source.
+     * @param blockLayout the block layout whose padding rules the struct follows.
+     * @return the new builder.
+     */
+    public static Builder builder(String name, BlockLayout blockLayout) {
+        return new Builder(name, blockLayout);
+    }
+
+    /**
+     * Gets the name of this struct in GLSL source.
+     *
+     * @return the name of this struct.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the block layout whose padding rules this struct follows.
+     *
+     * @return the block layout of this struct.
+     */
+    public BlockLayout getBlockLayout() {
+        return blockLayout;
+    }
+
+    /**
+     * Gets the members of this struct in the order they are declared.
+     *
+     * @return the members of this struct.
+     */
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    /**
+     * Gets a member of this struct by name.
+     *
+     * @param name the name of the member.
+     * @return the member with that name.
+     * @throws IllegalArgumentException if this struct has no member with that name.
+     */
+    public Member getMember(String name) {
+        for (Member member : members) {
+            if (member.name.equals(name)) {
+                return member;
+            }
+        }
+
+        throw new IllegalArgumentException("No member named " + name + " in struct " + this.name);
+    }
+
+    /**
+     * Gets the base alignment in bytes of this struct.
+     *
+     * @return the base alignment in bytes of this struct.
+     */
+    public int getAlignment() {
+        return alignment;
+    }
+
+    /**
+     * Gets the size in bytes of this struct, including the padding at its end. This is also the distance between the
+     * records of an array of this struct.
+     *
+     * @return the size in bytes of this struct.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Writes zeros over every padding byte of a record, so records never upload whatever happened to be in the staging
+     * memory before.
+     *
+     * @param buffer   the buffer holding the record.
+     * @param position the position within the buffer of the start of the record.
+     */
+    public void clearPadding(ByteBuffer buffer, int position) {
+        for (int i = 0; i < padding.length; i += 2) {
+            int end = position + padding[i] + padding[i + 1];
+            for (int p = position + padding[i]; p < end; p += 4) {
+                buffer.putInt(p, 0);
+            }
+        }
+    }
+
+    /**
+     * Gets the GLSL declarations of this struct and every struct nested in it, nested structs first.
+     *
+     * @return the GLSL declarations of this struct and its nested structs.
+     */
+    public String getGlslDeclaration() {
+        Set<StructLayout> structs = new LinkedHashSet<>();
+        collectStructs(structs);
+
+        StringBuilder sb = new StringBuilder();
+        for (StructLayout struct : structs) {
+            sb.append("struct ").append(struct.name).append(" {\n");
+            for (Member member : struct.members) {
+                sb.append("    ").append(member.getGlslTypeName()).append(' ').append(member.name);
+                if (member.arrayLength > 0) {
+                    sb.append('[').append(member.arrayLength).append(']');
+                }
+                sb.append(";\n");
+            }
+            sb.append("};\n");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Gets the GLSL declaration of a shader storage block holding a runtime-sized array of this struct, along with the
+     * declarations of the structs it uses.
+     *
+     * @param blockName the name of the block.
+     * @param binding   the shader storage buffer binding the block reads from.
+     * @param arrayName the name of the array of this struct inside the block.
+     * @return the GLSL declarations.
+     */
+    public String getStorageBlockGlsl(String blockName, int binding, String arrayName) {
+        return getGlslDeclaration() + "layout(" + blockLayout.getQualifier() + ", binding = " + binding + ") buffer " +
+                blockName + " {\n    " + name + ' ' + arrayName + "[];\n};\n";
+    }
+
+    /**
+     * Gets the GLSL declaration of a uniform block holding a fixed-size array of this struct, along with the
+     * declarations of the structs it uses.
+     *
+     * @param blockName the name of the block.
+     * @param binding   the uniform buffer binding the block reads from.
+     * @param arrayName the name of the array of this struct inside the block.
+     * @param length    the number of records in the array.
+     * @return the GLSL declarations.
+     * @throws IllegalStateException if this struct does not follow the std140 layout, the only layout uniform blocks
+     *                               can use.
+     */
+    public String getUniformBlockGlsl(String blockName, int binding, String arrayName, int length) {
+        if (blockLayout != BlockLayout.STD140) {
+            throw new IllegalStateException("Uniform blocks must use the std140 layout");
+        }
+        if (length <= 0) {
+            throw new IllegalArgumentException("Length must be greater than zero");
+        }
+
+        return getGlslDeclaration() + "layout(std140, binding = " + binding + ") uniform " + blockName + " {\n    " +
+                name + ' ' + arrayName + '[' + length + "];\n};\n";
+    }
+
+    /**
+     * Binds a buffer to an indexed shader storage buffer binding.
+     *
+     * @param binding the index of the shader storage buffer binding.
+     * @param buffer  the id of the buffer to bind.
+     */
+    public static void bindStorageBuffer(int binding, int buffer) {
+        glBindBufferBase(GL_SHADER_STORAGE_BUFFER, binding, buffer);
+    }
+
+    /**
+     * Binds a buffer to an indexed uniform buffer binding.
+     *
+     * @param binding the index of the uniform buffer binding.
+     * @param buffer  the id of the buffer to bind.
+     */
+    public static void bindUniformBuffer(int binding, int buffer) {
+        glBindBufferBase(GL_UNIFORM_BUFFER, binding, buffer);
+    }
+
+    @Override
+    public String toString() {
+        return "StructLayout{" + name + ", " + blockLayout + ", size=" + size + ", members=" + members + '}';
+    }
+
+    private void collectStructs(Set<StructLayout> structs) {
+        for (Member member : members) {
+            if (member.struct != null) {
+                member.struct.collectStructs(structs);
+            }
+        }
+        structs.add(this);
+    }
+
+    private void markData(boolean[] covered, int base) {
+        for (Member member : members) {
+            int elements = Math.max(1, member.arrayLength);
+            for (int i = 0; i < elements; i++) {
+                int start = base + member.offset + i * member.arrayStride;
+
+                if (member.struct != null) {
+                    member.struct.markData(covered, start);
+                } else {
+                    int columnStride = member.type.isMatrix() ? blockLayout.getColumnStride(member.type) : 0;
+                    for (int column = 0; column < member.type.getColumns(); column++) {
+                        int columnStart = start + column * columnStride;
+                        for (int b = 0; b < member.type.getColumnSize(); b++) {
+                            covered[columnStart + b] = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int[] findPadding(boolean[] covered) {
+        List<Integer> ranges = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= covered.length; i++) {
+            boolean pad = i < covered.length && !covered[i];
+            if (pad && start < 0) {
+                start = i;
+            } else if (!pad && start >= 0) {
+                ranges.add(start);
+                ranges.add(i - start);
+                start = -1;
+            }
+        }
+
+        return ranges.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * A single member of a struct layout.
+     * <p>
+     * The put methods write a value into a record, given the position of the start of the record. They write the first
+     * element of an array member; element i of an array is written by adding i times the array stride to the position.
+     * Members of a nested struct are written using the nested struct's members, with the position of the start of the
+     * record plus the offset of the nested struct member.
+     */
+    public static final class Member {
+        private final String name;
+        private final GlslType type;
+        private final StructLayout struct;
+        private final int arrayLength;
+        private final int offset;
+        private final int arrayStride;
+        private final int columnStride;
+
+        private Member(String name, GlslType type, StructLayout struct, int arrayLength, int offset, int arrayStride,
+                       int columnStride) {
+            this.name = name;
+            this.type = type;
+            this.struct = struct;
+            this.arrayLength = arrayLength;
+            this.offset = offset;
+            this.arrayStride = arrayStride;
+            this.columnStride = columnStride;
+        }
+
+        /**
+         * Gets the name of this member.
+         *
+         * @return the name of this member.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the type of this member, or of its elements if it is an array.
+         *
+         * @return the type of this member, or null if this member is a nested struct.
+         */
+        public GlslType getType() {
+            return type;
+        }
+
+        /**
+         * Gets the layout of this member, or of its elements if it is an array.
+         *
+         * @return the layout of this member, or null if this member is not a nested struct.
+         */
+        public StructLayout getStruct() {
+            return struct;
+        }
+
+        /**
+         * Gets the number of elements of this member.
+         *
+         * @return the number of elements of this member, or 0 if it is not an array.
+         */
+        public int getArrayLength() {
+            return arrayLength;
+        }
+
+        /**
+         * Gets the offset in bytes of this member from the start of the record.
+         *
+         * @return the offset in bytes of this member.
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Gets the distance in bytes between the start of one element of this member and the start of the next. For a
+         * member that is not an array, this is the size of its only element including padding.
+         *
+         * @return the distance in bytes between the elements of this member.
+         */
+        public int getArrayStride() {
+            return arrayStride;
+        }
+
+        /**
+         * Writes the value of a float member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putFloat(ByteBuffer buffer, int position, float value) {
+            checkType(GlslType.FLOAT);
+            buffer.putFloat(position + offset, value);
+        }
+
+        /**
+         * Writes the value of an int or uint member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putInt(ByteBuffer buffer, int position, int value) {
+            if (type != GlslType.INT && type != GlslType.UINT) {
+                throw typeMismatch("int or uint");
+            }
+            buffer.putInt(position + offset, value);
+        }
+
+        /**
+         * Writes the value of a vec2 member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putVector(ByteBuffer buffer, int position, Vector2fc value) {
+            checkType(GlslType.VEC2);
+            value.get(position + offset, buffer);
+        }
+
+        /**
+         * Writes the value of a vec3 member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putVector(ByteBuffer buffer, int position, Vector3fc value) {
+            checkType(GlslType.VEC3);
+            value.get(position + offset, buffer);
+        }
+
+        /**
+         * Writes the value of a vec4 member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putVector(ByteBuffer buffer, int position, Vector4fc value) {
+            checkType(GlslType.VEC4);
+            value.get(position + offset, buffer);
+        }
+
+        /**
+         * Writes the value of a ivec2 member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putVector(ByteBuffer buffer, int position, Vector2ic value) {
+            checkType(GlslType.IVEC2);
+            value.get(position + offset, buffer);
+        }
+
+        /**
+         * Writes the value of a ivec3 member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putVector(ByteBuffer buffer, int position, Vector3ic value) {
+            checkType(GlslType.IVEC3);
+            value.get(position + offset, buffer);
+        }
+
+        /**
+         * Writes the value of a ivec4 member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putVector(ByteBuffer buffer, int position, Vector4ic value) {
+            checkType(GlslType.IVEC4);
+            value.get(position + offset, buffer);
+        }
+
+        /**
+         * Writes the value of a mat3 member, padding each column to the alignment of a vec4 into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putMatrix(ByteBuffer buffer, int position, Matrix3fc value) {
+            checkType(GlslType.MAT3);
+
+            // every column is padded to the alignment of a vec4
+            int column = position + offset;
+            buffer.putFloat(column, value.m00());
+            buffer.putFloat(column + 4, value.m01());
+            buffer.putFloat(column + 8, value.m02());
+            column += columnStride;
+            buffer.putFloat(column, value.m10());
+            buffer.putFloat(column + 4, value.m11());
+            buffer.putFloat(column + 8, value.m12());
+            column += columnStride;
+            buffer.putFloat(column, value.m20());
+            buffer.putFloat(column + 4, value.m21());
+            buffer.putFloat(column + 8, value.m22());
+        }
+
+        /**
+         * Writes the value of a mat4 member into a record.
+         *
+         * @param buffer   the buffer holding the record.
+         * @param position the position within the buffer of the start of the record.
+         * @param value    the value to write.
+         */
+        public void putMatrix(ByteBuffer buffer, int position, Matrix4fc value) {
+            checkType(GlslType.MAT4);
+            value.get(position + offset, buffer);
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + getGlslTypeName() + (arrayLength > 0 ? "[" + arrayLength + "]" : "") + " @ " + offset;
+        }
+
+        private String getGlslTypeName() {
+            return struct != null ? struct.name : type.getGlslName();
+        }
+
+        private void checkType(GlslType expected) {
+            if (type != expected) {
+                throw typeMismatch(expected.getGlslName());
+            }
+        }
+
+        private IllegalArgumentException typeMismatch(String expected) {
+            return new IllegalArgumentException(
+                    "Member " + name + " is a " + getGlslTypeName() + ", not a " + expected);
+        }
+    }
+
+    /**
+     * Builds struct layouts.
+     */
+    public static final class Builder {
+        private final String name;
+        private final BlockLayout blockLayout;
+        private final List<Member> members = new ArrayList<>();
+        private int offset = 0;
+        private int alignment = 4;
+
+        private Builder(String name, BlockLayout blockLayout) {
+            this.name = Objects.requireNonNull(name, "name");
+            this.blockLayout = Objects.requireNonNull(blockLayout, "blockLayout");
+        }
+
+        /**
+         * Adds a member of a scalar, vector or matrix type.
+         *
+         * @param name the name of the member.
+         * @param type the type of the member.
+         * @return this builder.
+         */
+        public Builder member(String name, GlslType type) {
+            int memberAlignment = blockLayout.getAlignment(type);
+            int size = blockLayout.getSize(type);
+            return add(name, type, null, 0, memberAlignment, roundUp(size, memberAlignment), size);
+        }
+
+        /**
+         * Adds a fixed-size array member of a scalar, vector or matrix type.
+         *
+         * @param name   the name of the member.
+         * @param type   the type of the array's elements.
+         * @param length the number of elements in the array.
+         * @return this builder.
+         */
+        public Builder array(String name, GlslType type, int length) {
+            checkLength(length);
+            int stride = blockLayout.getArrayStride(type);
+            return add(name, type, null, length, blockLayout.getArrayAlignment(type), stride, stride * length);
+        }
+
+        /**
+         * Adds a nested struct member.
+         *
+         * @param name   the name of the member.
+         * @param struct the layout of the nested struct. It must use the same block layout as this struct.
+         * @return this builder.
+         */
+        public Builder member(String name, StructLayout struct) {
+            checkStruct(struct);
+            return add(name, null, struct, 0, struct.alignment, struct.size, struct.size);
+        }
+
+        /**
+         * Adds a fixed-size array member of a nested struct.
+         *
+         * @param name   the name of the member.
+         * @param struct the layout of the array's elements. It must use the same block layout as this struct.
+         * @param length the number of elements in the array.
+         * @return this builder.
+         */
+        public Builder array(String name, StructLayout struct, int length) {
+            checkStruct(struct);
+            checkLength(length);
+            return add(name, null, struct, length, struct.alignment, struct.size, struct.size * length);
+        }
+
+        /**
+         * Builds the struct layout.
+         *
+         * @return the new struct layout.
+         */
+        public StructLayout build() {
+            if (members.isEmpty()) {
+                throw new IllegalStateException("Struct " + name + " has no members");
+            }
+
+            int structAlignment = blockLayout.getAggregateAlignment(alignment);
+            return new StructLayout(name, blockLayout, ImmutableList.copyOf(members), structAlignment,
+                    roundUp(offset, structAlignment));
+        }
+
+        private Builder add(String name, GlslType type, StructLayout struct, int arrayLength, int memberAlignment,
+                            int arrayStride, int size) {
+            Objects.requireNonNull(name, "name");
+            for (Member member : members) {
+                if (member.name.equals(name)) {
+                    throw new IllegalArgumentException("Struct " + this.name + " already has a member named " + name);
+                }
+            }
+
+            int memberOffset = roundUp(offset, memberAlignment);
+            int columnStride = type != null && type.isMatrix() ? blockLayout.getColumnStride(type) : 0;
+            members.add(new Member(name, type, struct, arrayLength, memberOffset, arrayStride, columnStride));
+
+            offset = memberOffset + size;
+            alignment = Math.max(alignment, memberAlignment);
+            return this;
+        }
+
+        private void checkStruct(StructLayout struct) {
+            if (struct.blockLayout != blockLayout) {
+                throw new IllegalArgumentException(
+                        "Nested struct " + struct.name + " uses " + struct.blockLayout + ", not " + blockLayout);
+            }
+        }
+
+        private static void checkLength(int length) {
+            if (length <= 0) {
+                throw new IllegalArgumentException("Length must be greater than zero");
+            }
+        }
+    }
+
+    private static int roundUp(int value, int alignment) {
+        return BlockLayout.roundUp(value, alignment);
+    }
+}
@@ -0,0 +1,53 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import static org.lwjgl.opengl.GL45C.*;
+
+/**
+ * VertexAttributeSetup - The calls a {@link VertexLayout} makes to describe its attributes to a vertex array object.
+ * <p>
+ * {@link #GL} makes the actual OpenGL calls. Other implementations only exist so the calls a layout makes can be checked
+ * without a GL context.
+ */
+interface VertexAttributeSetup {
+    VertexAttributeSetup GL = new VertexAttributeSetup() {
+        @Override
+        public void enable(int vao, int location) {
+            glEnableVertexArrayAttrib(vao, location);
+        }
+
+        @Override
+        public void format(int vao, int location, int size, int type, boolean normalized, int offset) {
+            glVertexArrayAttribFormat(vao, location, size, type, normalized, offset);
+        }
+
+        @Override
+        public void integerFormat(int vao, int location, int size, int type, int offset) {
+            glVertexArrayAttribIFormat(vao, location, size, type, offset);
+        }
+
+        @Override
+        public void binding(int vao, int location, int bindingIndex) {
+            glVertexArrayAttribBinding(vao, location, bindingIndex);
+        }
+    };
+
+    /**
+     * Enables an attribute, like glEnableVertexArrayAttrib.
+     */
+    void enable(int vao, int location);
+
+    /**
+     * Describes an attribute the shader reads as floats, like glVertexArrayAttribFormat.
+     */
+    void format(int vao, int location, int size, int type, boolean normalized, int offset);
+
+    /**
+     * Describes an attribute the shader reads as integers, like glVertexArrayAttribIFormat.
+     */
+    void integerFormat(int vao, int location, int size, int type, int offset);
+
+    /**
+     * Sets the vertex buffer binding an attribute reads from, like glVertexArrayAttribBinding.
+     */
+    void binding(int vao, int location, int bindingIndex);
+}
@@ -0,0 +1,438 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+import static org.lwjgl.opengl.GL45C.*;
+
+/**
+ * VertexLayout - Describes how the attributes of a vertex are laid out within a single record of a vertex buffer.
+ * <p>
+ * The same layout is used both to pack data into records, see {@link #writerFor(Class)} and
+ * {@link #writeFloats(ByteBuffer, int, float[], int, int)}, and to tell OpenGL how to read those records back, see
+ * {@link #setupVertexArray(int, int, ToIntFunction)}.
+ */
+public final class VertexLayout {
+    private final ImmutableList<Attribute> attributes;
+    private final int stride;
+    private final int componentCount;
+    private final MethodHandle floatArrayWriter;
+
+    private VertexLayout(ImmutableList<Attribute> attributes, int stride) {
+        this.attributes = attributes;
+        this.stride = stride;
+
+        int componentCount = 0;
+        for (Attribute attribute : attributes) {
+            componentCount += attribute.format.getComponentCount();
+        }
+        this.componentCount = componentCount;
+
+        floatArrayWriter = LayoutHandles.floatArrayWriter(attributes);
+    }
+
+    /**
+     * Creates a builder for a new vertex layout.
+     *
+     * @return a new vertex layout builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the attributes of this layout in the order they were added.
+     *
+     * @return the attributes of this layout.
+     */
+    public List<Attribute> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Gets an attribute of this layout by name.
+     *
+     * @param name the name of the attribute.
+     * @return the attribute with that name.
+     * @throws IllegalArgumentException if this layout has no attribute with that name.
+     */
+    public Attribute getAttribute(String name) {
+        for (Attribute attribute : attributes) {
+            if (attribute.name.equals(name)) {
+                return attribute;
+            }
+        }
+
+        throw new IllegalArgumentException("No attribute named " + name + " in " + this);
+    }
+
+    /**
+     * Gets the size in bytes of a single vertex record, including padding.
+     *
+     * @return the size in bytes of a single vertex record.
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Gets the total number of components of all the attributes of this layout. This is the number of floats each
+     * vertex takes up in arrays written by {@link #writeFloats(ByteBuffer, int, float[], int, int)}.
+     *
+     * @return the total number of components of all the attributes of this layout.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Starts building a writer that packs objects of the specified type into records of this layout. Attributes that
+     * are not explicitly bound are read from the public getter or field of the same name.
+     *
+     * @param type the type of object to be written.
+     * @param <E>  the type of object to be written.
+     * @return a builder for the writer.
+     */
+    public <E> LayoutWriter.Builder<E> writerFor(Class<E> type) {
+        return new LayoutWriter.Builder<>(this, type);
+    }
+
+    /**
+     * Packs vertices stored as consecutive floats in an array into records of this layout.
+     * <p>
+     * Each vertex takes up {@link #getComponentCount()} floats in the array, the components of each attribute in the
+     * order the attributes were added. Components of integer types are converted like they would be from float vectors.
+     * Floats only hold every integer up to 2^24 exactly, so larger integer components, such as indices, lose their low
+     * bits before they are ever converted; write those through {@link #writerFor(Class)} with int bindings instead.
+     *
+     * @param buffer       the buffer to write the records to.
+     * @param position     the position within the buffer to write the first record at.
+     * @param source       the array to read the vertices from.
+     * @param sourceOffset the position within the array of the first component of the first vertex.
+     * @param vertexCount  the number of vertices to write.
+     */
+    public void writeFloats(ByteBuffer buffer, int position, float[] source, int sourceOffset, int vertexCount) {
+        if (sourceOffset < 0) {
+            throw new IllegalArgumentException("SourceOffset cannot be less than zero");
+        }
+
+        if (vertexCount < 0) {
+            throw new IllegalArgumentException("VertexCount cannot be less than zero");
+        }
+
+        if (sourceOffset + (long) vertexCount * componentCount > source.length) {
+            throw new IndexOutOfBoundsException(
+                    "sourceOffset + length > size (" + sourceOffset + " + " + (long) vertexCount * componentCount +
+                            " > " + source.length + ")");
+        }
+
+        try {
+            for (int i = 0; i < vertexCount; i++) {
+                floatArrayWriter.invokeExact(buffer, position + i * stride, source, sourceOffset + i * componentCount);
+            }
+        } catch (Throwable t) {
+            Throwables.throwIfUnchecked(t);
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * Enables and describes every attribute of this layout in a vertex array object, reading from a single vertex
+     * buffer binding.
+     * <p>
+     * Attributes whose location is -1, such as attributes the shader does not use, are skipped.
+     *
+     * @param vao          the vertex array object to set up.
+     * @param bindingIndex the vertex buffer binding every attribute reads from.
+     * @param locations    looks up the location of each attribute by name, for example
+     *                     {@code program::getAttributeLocation}.
+     */
+    public void setupVertexArray(int vao, int bindingIndex, ToIntFunction<? super String> locations) {
+        setupVertexArray(vao, bindingIndex, locations, VertexAttributeSetup.GL);
+    }
+
+    void setupVertexArray(int vao, int bindingIndex, ToIntFunction<? super String> locations,
+                          VertexAttributeSetup setup) {
+        for (Attribute attribute : attributes) {
+            int location = locations.applyAsInt(attribute.name);
+            if (location >= 0) {
+                setupAttribute(vao, bindingIndex, location, attribute, setup);
+            }
+        }
+    }
+
+    /**
+     * Enables and describes every attribute of this layout in a vertex array object, reading from a single vertex
+     * buffer binding. Attributes are given consecutive locations in the order they were added.
+     *
+     * @param vao           the vertex array object to set up.
+     * @param bindingIndex  the vertex buffer binding every attribute reads from.
+     * @param firstLocation the location of the first attribute.
+     */
+    public void setupVertexArray(int vao, int bindingIndex, int firstLocation) {
+        setupVertexArray(vao, bindingIndex, firstLocation, VertexAttributeSetup.GL);
+    }
+
+    void setupVertexArray(int vao, int bindingIndex, int firstLocation, VertexAttributeSetup setup) {
+        for (int i = 0; i < attributes.size(); i++) {
+            setupAttribute(vao, bindingIndex, firstLocation + i, attributes.get(i), setup);
+        }
+    }
+
+    /**
+     * Binds a buffer holding records of this layout to a vertex buffer binding of a vertex array object.
+     *
+     * @param vao          the vertex array object to bind the buffer to.
+     * @param bindingIndex the vertex buffer binding to bind the buffer to.
+     * @param buffer       the OpenGL buffer name of the buffer holding the records.
+     */
+    public void bindBuffer(int vao, int bindingIndex, int buffer) {
+        glVertexArrayVertexBuffer(vao, bindingIndex, buffer, 0, stride);
+    }
+
+    private static void setupAttribute(int vao, int bindingIndex, int location, Attribute attribute,
+                                       VertexAttributeSetup setup) {
+        AttributeFormat format = attribute.format;
+
+        setup.enable(vao, location);
+        if (attribute.integer) {
+            setup.integerFormat(vao, location, format.getComponentCount(), format.getComponentType().getGlType(),
+                    attribute.offset);
+        } else {
+            setup.format(vao, location, format.getComponentCount(), format.getComponentType().getGlType(),
+                    format.isNormalized(), attribute.offset);
+        }
+        setup.binding(vao, location, bindingIndex);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VertexLayout that = (VertexLayout) o;
+        return stride == that.stride && attributes.equals(that.attributes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(attributes, stride);
+    }
+
+    @Override
+    public String toString() {
+        return "VertexLayout{" + attributes + ", stride " + stride + "}";
+    }
+
+    /**
+     * A single named attribute within a vertex layout.
+     */
+    public static final class Attribute {
+        private final String name;
+        private final AttributeFormat format;
+        private final int offset;
+        private final boolean integer;
+
+        private Attribute(String name, AttributeFormat format, int offset, boolean integer) {
+            this.name = name;
+            this.format = format;
+            this.offset = offset;
+            this.integer = integer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public AttributeFormat getFormat() {
+            return format;
+        }
+
+        /**
+         * Gets the position in bytes of this attribute within a vertex record.
+         *
+         * @return the position in bytes of this attribute within a vertex record.
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Gets whether the shader reads this attribute as integers instead of floats.
+         *
+         * @return whether the shader reads this attribute as integers.
+         */
+        public boolean isInteger() {
+            return integer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Attribute that = (Attribute) o;
+            return offset == that.offset && integer == that.integer && name.equals(that.name) &&
+                    format.equals(that.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, format, offset, integer);
+        }
+
+        @Override
+        public String toString() {
+            return name + "@" + offset + (integer ? " integer " : " ") + format;
+        }
+    }
+
+    /**
+     * Builds vertex layouts.
+     * <p>
+     * Attributes without an explicit offset are placed after the end of the last attribute, rounded up to a multiple of
+     * 4 bytes. The stride defaults to the end of the last attribute rounded up to a multiple of 4 bytes.
+     */
+    public static final class Builder {
+        private final List<Attribute> attributes = new ArrayList<>();
+        private int nextOffset = 0;
+        private int stride = -1;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an attribute that the shader reads as floats.
+         *
+         * @param name           the name of the attribute.
+         * @param componentType  the type each component is stored as.
+         * @param componentCount the number of components, between 1 and 4.
+         * @param normalized     whether integer components are normalized to [0, 1] or [-1, 1].
+         * @return this builder.
+         */
+        public Builder attribute(String name, ComponentType componentType, int componentCount, boolean normalized) {
+            return attribute(name, componentType, componentCount, normalized, align(nextOffset));
+        }
+
+        /**
+         * Adds an attribute that the shader reads as floats at a specific offset.
+         *
+         * @param name           the name of the attribute.
+         * @param componentType  the type each component is stored as.
+         * @param componentCount the number of components, between 1 and 4.
+         * @param normalized     whether integer components are normalized to [0, 1] or [-1, 1].
+         * @param offset         the position in bytes of the attribute within a vertex record.
+         * @return this builder.
+         */
+        public Builder attribute(String name, ComponentType componentType, int componentCount, boolean normalized,
+                                 int offset) {
+            return add(name, new AttributeFormat(componentCount, componentType, normalized), offset, false);
+        }
+
+        /**
+         * Adds an attribute that the shader reads as integers.
+         *
+         * @param name           the name of the attribute.
+         * @param componentType  the integer type each component is stored as.
+         * @param componentCount the number of components, between 1 and 4.
+         * @return this builder.
+         */
+        public Builder integerAttribute(String name, ComponentType componentType, int componentCount) {
+            return integerAttribute(name, componentType, componentCount, align(nextOffset));
+        }
+
+        /**
+         * Adds an attribute that the shader reads as integers at a specific offset.
+         *
+         * @param name           the name of the attribute.
+         * @param componentType  the integer type each component is stored as.
+         * @param componentCount the number of components, between 1 and 4.
+         * @param offset         the position in bytes of the attribute within a vertex record.
+         * @return this builder.
+         */
+        public Builder integerAttribute(String name, ComponentType componentType, int componentCount, int offset) {
+            if (componentType.isFloatingPoint()) {
+                throw new IllegalArgumentException("Integer attributes cannot have floating point components");
+            }
+
+            return add(name, new AttributeFormat(componentCount, componentType, false), offset, true);
+        }
+
+        /**
+         * Sets the size in bytes of a single vertex record, including padding.
+         *
+         * @param stride the size in bytes of a single vertex record.
+         * @return this builder.
+         */
+        public Builder stride(int stride) {
+            if (stride <= 0) {
+                throw new IllegalArgumentException("Stride must be greater than zero");
+            }
+
+            this.stride = stride;
+            return this;
+        }
+
+        /**
+         * Builds the vertex layout.
+         *
+         * @return the new vertex layout.
+         */
+        public VertexLayout build() {
+            if (attributes.isEmpty()) {
+                throw new IllegalStateException("A vertex layout must have at least one attribute");
+            }
+
+            List<Attribute> byOffset = new ArrayList<>(attributes);
+            byOffset.sort(Comparator.comparingInt(Attribute::getOffset));
+
+            int end = 0;
+            Attribute previous = null;
+            for (Attribute attribute : byOffset) {
+                if (attribute.offset < end) {
+                    throw new IllegalStateException("Attribute " + attribute + " overlaps attribute " + previous);
+                }
+
+                end = attribute.offset + attribute.format.getSize();
+                previous = attribute;
+            }
+
+            int stride = this.stride;
+            if (stride < 0) {
+                stride = align(end);
+            } else if (stride < end) {
+                throw new IllegalStateException("Stride " + stride + " is smaller than the attributes (" + end + ")");
+            }
+
+            return new VertexLayout(ImmutableList.copyOf(attributes), stride);
+        }
+
+        private Builder add(String name, AttributeFormat format, int offset, boolean integer) {
+            Objects.requireNonNull(name, "name");
+
+            if (offset < 0) {
+                throw new IllegalArgumentException("Offset cannot be less than zero");
+            }
+
+            for (Attribute attribute : attributes) {
+                if (attribute.name.equals(name)) {
+                    throw new IllegalArgumentException("Duplicate attribute name " + name);
+                }
+            }
+
+            attributes.add(new Attribute(name, format, offset, integer));
+            nextOffset = Math.max(nextOffset, offset + format.getSize());
+            return this;
+        }
+
+        private static int align(int offset) {
+            return (offset + 3) & ~3;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Matrix4fc;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * WritableAffineMatrix4fBuffer - This buffer stores affine transforms as the top three rows of the matrix, three vec4s
+ * for a total of 48 bytes, leaving out the bottom row which is always (0, 0, 0, 1).
+ * <p>
+ * Only affine matrices can be stored. Writing any other matrix throws an IllegalArgumentException.
+ */
+public class WritableAffineMatrix4fBuffer extends AbstractWritableDataObjectBuffer<Matrix4fc> {
+    private static final int BYTES_PER_FLOAT = 4;
+    private static final int FLOATS_PER_ELEMENT = 12;
+    private static final int ELEMENT_SIZE = BYTES_PER_FLOAT * FLOATS_PER_ELEMENT;
+
+    /**
+     * GLSL that applies a transform stored by this buffer to a position. The three rows are read as three consecutive
+     * vec4 attributes.
+     */
+    public static final String DECODE_GLSL = "" +
+            "vec3 applyTransform(vec4 row0, vec4 row1, vec4 row2, vec3 position) {\n" +
+            "    vec4 p = vec4(position, 1.0);\n" +
+            "    return vec3(dot(row0, p), dot(row1, p), dot(row2, p));\n" +
+            "}\n";
+
+    public WritableAffineMatrix4fBuffer(WritableDataBuffer buffer) {
+        super(buffer, ELEMENT_SIZE);
+    }
+
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time.
+     *
+     * @return true, elements are encoded without modifying any state.
+     */
+    @Override
+    protected boolean supportsParallelEncoding() {
+        return true;
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, Matrix4fc element) {
+        if (!element.isAffine()) {
+            throw new IllegalArgumentException("Transform must be affine: " + element);
+        }
+
+        element.get4x3Transposed(position, buffer);
+    }
+
+    /**
+     * Gets the number of floats each element is decoded from by the float entry points.
+     *
+     * @return 16, the matrix in column-major order.
+     */
+    @Override
+    public int getFloatsPerElement() {
+        return 16;
+    }
+
+    /**
+     * Used to write a single element decoded from floats to a buffer at a specific position.
+     * <p>
+     * The element is read as a matrix in column-major order, which must be affine.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param source   the buffer holding the floats of the element.
+     * @param index    the absolute position within the source buffer of the element's first float.
+     */
+    @Override
+    protected void writeFloats(ByteBuffer buffer, int position, FloatBuffer source, int index) {
+        if (source.get(index + 3) != 0f || source.get(index + 7) != 0f || source.get(index + 11) != 0f ||
+                source.get(index + 15) != 1f) {
+            throw new IllegalArgumentException("Transform must be affine, element at index " + index + " is not");
+        }
+
+        // write the top three rows, each made of the same row from all four columns
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 4; column++) {
+                buffer.putFloat(position + (row * 4 + column) * BYTES_PER_FLOAT, source.get(index + column * 4 + row));
+            }
+        }
+    }
+}
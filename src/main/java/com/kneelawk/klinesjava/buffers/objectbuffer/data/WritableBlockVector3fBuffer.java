@@ -0,0 +1,76 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Vector3fc;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * WritableBlockVector3fBuffer - An object buffer that stores its elements as a vec3 array of a uniform or shader
+ * storage block.
+ * <p>
+ * Both std140 and std430 align vec3 array elements like vec4s, so every element is 16 bytes apart with its last 4
+ * bytes zeroed, unlike {@link WritableVector3fBuffer} which packs elements 12 bytes apart for vertex attributes.
+ */
+public class WritableBlockVector3fBuffer extends AbstractWritableDataObjectBuffer<Vector3fc> {
+    private static final int ELEMENT_SIZE = 16;
+
+    public WritableBlockVector3fBuffer(WritableDataBuffer buffer) {
+        super(buffer, ELEMENT_SIZE);
+    }
+
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time.
+     *
+     * @return true, elements are encoded without modifying any state.
+     */
+    @Override
+    protected boolean supportsParallelEncoding() {
+        return true;
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, Vector3fc element) {
+        element.get(position, buffer);
+        buffer.putInt(position + 12, 0);
+    }
+
+    /**
+     * Gets the number of floats each element is decoded from by the float entry points.
+     *
+     * @return 3, the x, y and z of the vector.
+     */
+    @Override
+    public int getFloatsPerElement() {
+        return 3;
+    }
+
+    /**
+     * Used to write a single element decoded from floats to a buffer at a specific position.
+     * <p>
+     * The element is read as x, y and z.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param source   the buffer holding the floats of the element.
+     * @param index    the absolute position within the source buffer of the element's first float.
+     */
+    @Override
+    protected void writeFloats(ByteBuffer buffer, int position, FloatBuffer source, int index) {
+        buffer.putFloat(position, source.get(index));
+        buffer.putFloat(position + 4, source.get(index + 1));
+        buffer.putFloat(position + 8, source.get(index + 2));
+        buffer.putInt(position + 12, 0);
+    }
+}
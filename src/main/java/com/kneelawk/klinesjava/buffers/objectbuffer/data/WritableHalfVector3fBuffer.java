@@ -0,0 +1,111 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static com.kneelawk.klinesjava.utils.PackingUtils.toHalf;
+
+/**
+ * WritableHalfVector3fBuffer - This buffer stores vectors as three half-precision floats relative to an origin, padded
+ * to 8 bytes so every element stays 4-byte aligned.
+ * <p>
+ * Storing vectors relative to an origin near them keeps as much of the half-precision floats' precision as possible.
+ * The shader gets the original vector back by adding the origin to the attribute.
+ */
+public class WritableHalfVector3fBuffer extends AbstractWritableDataObjectBuffer<Vector3fc> {
+    private static final int ELEMENT_SIZE = 8;
+
+    /**
+     * The format of the attribute stored in this buffer.
+     */
+    public static final AttributeFormat ATTRIBUTE_FORMAT = new AttributeFormat(3, ComponentType.HALF_FLOAT, false);
+
+    private final Vector3f origin;
+
+    public WritableHalfVector3fBuffer(WritableDataBuffer buffer) {
+        this(buffer, new Vector3f());
+    }
+
+    public WritableHalfVector3fBuffer(WritableDataBuffer buffer, Vector3fc origin) {
+        super(buffer, ELEMENT_SIZE);
+        this.origin = new Vector3f(origin);
+    }
+
+    /**
+     * Gets the format of the attribute stored in this buffer. Each element is 8 bytes apart.
+     *
+     * @return the format of the attribute stored in this buffer.
+     */
+    public AttributeFormat getAttributeFormat() {
+        return ATTRIBUTE_FORMAT;
+    }
+
+    /**
+     * Gets the origin the vectors in this buffer are stored relative to.
+     *
+     * @return the origin the vectors in this buffer are stored relative to.
+     */
+    public Vector3fc getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time.
+     *
+     * @return true, elements are encoded without modifying any state.
+     */
+    @Override
+    protected boolean supportsParallelEncoding() {
+        return true;
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, Vector3fc element) {
+        buffer.putShort(position, toHalf(element.x() - origin.x));
+        buffer.putShort(position + 2, toHalf(element.y() - origin.y));
+        buffer.putShort(position + 4, toHalf(element.z() - origin.z));
+        buffer.putShort(position + 6, (short) 0);
+    }
+
+    /**
+     * Gets the number of floats each element is decoded from by the float entry points.
+     *
+     * @return 3, the x, y and z of the vector.
+     */
+    @Override
+    public int getFloatsPerElement() {
+        return 3;
+    }
+
+    /**
+     * Used to write a single element decoded from floats to a buffer at a specific position.
+     * <p>
+     * The element is read as x, y and z.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param source   the buffer holding the floats of the element.
+     * @param index    the absolute position within the source buffer of the element's first float.
+     */
+    @Override
+    protected void writeFloats(ByteBuffer buffer, int position, FloatBuffer source, int index) {
+        buffer.putShort(position, toHalf(source.get(index) - origin.x));
+        buffer.putShort(position + 2, toHalf(source.get(index + 1) - origin.y));
+        buffer.putShort(position + 4, toHalf(source.get(index + 2) - origin.z));
+        buffer.putShort(position + 6, (short) 0);
+    }
+}
@@ -0,0 +1,43 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * WritableLayoutBuffer - This buffer stores objects as records of a {@link VertexLayout}, packed by a
+ * {@link LayoutWriter} instead of a hand-written writeElement.
+ *
+ * @param <E> the type of object this buffer stores.
+ */
+public class WritableLayoutBuffer<E> extends AbstractWritableDataObjectBuffer<E> {
+    private final LayoutWriter<E> writer;
+
+    public WritableLayoutBuffer(WritableDataBuffer buffer, LayoutWriter<E> writer) {
+        super(buffer, writer.getLayout().getStride());
+        this.writer = writer;
+    }
+
+    /**
+     * Gets the layout of the records stored in this buffer.
+     *
+     * @return the layout of the records stored in this buffer.
+     */
+    public VertexLayout getLayout() {
+        return writer.getLayout();
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, E element) {
+        writer.write(buffer, position, element);
+    }
+}
@@ -4,16 +4,36 @@ import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
 import org.joml.Matrix4fc;
 
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 
 public class WritableMatrix4fBuffer extends AbstractWritableDataObjectBuffer<Matrix4fc> {
     private static final int BYTES_PER_FLOAT = 4;
     private static final int FLOATS_PER_ELEMENT = 16;
     private static final int ELEMENT_SIZE = BYTES_PER_FLOAT * FLOATS_PER_ELEMENT;
 
+    /**
+     * GLSL that applies a transform stored by this buffer to a position. The matrix is read as a mat4 attribute.
+     */
+    public static final String DECODE_GLSL = "" +
+            "vec3 applyTransform(mat4 transform, vec3 position) {\n" +
+            "    return (transform * vec4(position, 1.0)).xyz;\n" +
+            "}\n";
+
     public WritableMatrix4fBuffer(WritableDataBuffer buffer) {
         super(buffer, ELEMENT_SIZE);
     }
 
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time.
+     *
+     * @return true, elements are encoded without modifying any state.
+     */
+    @Override
+    protected boolean supportsParallelEncoding() {
+        return true;
+    }
+
     /**
      * Used to write a single element to a buffer at a specific position.
      * <p>
@@ -27,4 +47,31 @@ public class WritableMatrix4fBuffer extends AbstractWritableDataObjectBuffer<Mat
     protected void writeElement(ByteBuffer buffer, int position, Matrix4fc element) {
         element.get(position, buffer);
     }
+
+    /**
+     * Gets the number of floats each element is decoded from by the float entry points.
+     *
+     * @return 16, the matrix in column-major order.
+     */
+    @Override
+    public int getFloatsPerElement() {
+        return FLOATS_PER_ELEMENT;
+    }
+
+    /**
+     * Used to write a single element decoded from floats to a buffer at a specific position.
+     * <p>
+     * The element is read as a matrix in column-major order.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param source   the buffer holding the floats of the element.
+     * @param index    the absolute position within the source buffer of the element's first float.
+     */
+    @Override
+    protected void writeFloats(ByteBuffer buffer, int position, FloatBuffer source, int index) {
+        for (int i = 0; i < FLOATS_PER_ELEMENT; i++) {
+            buffer.putFloat(position + i * BYTES_PER_FLOAT, source.get(index + i));
+        }
+    }
 }
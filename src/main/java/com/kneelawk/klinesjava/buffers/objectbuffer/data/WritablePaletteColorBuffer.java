@@ -0,0 +1,272 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Vector3fc;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import static com.kneelawk.klinesjava.utils.PackingUtils.toUnorm8;
+import static org.lwjgl.system.MemoryStack.stackPush;
+
+/**
+ * WritablePaletteColorBuffer - This buffer stores colors as 1 or 2 byte indices into a palette of RGBA8 colors.
+ * <p>
+ * Colors are rounded to 8 bits per channel, and every distinct rounded color gets an entry in the palette the first
+ * time it is written. The palette is appended to a separate data buffer, 4 bytes per entry, which is meant to be bound
+ * as a shader storage buffer or texture buffer for the shader to look the indices up in. A full 1-byte palette is only
+ * 1 KiB and also fits in a uniform buffer, but a full 2-byte palette is 256 KiB, well past the usual 64 KiB uniform
+ * buffer limit. Palette entries are never removed. A chunk of colors that would overflow the palette is rejected before
+ * this buffer is changed.
+ * <p>
+ * Unlike the other attribute buffers, the indices are not padded to 4 bytes, so the attribute has a stride of 1 or 2
+ * bytes. The indices only exist to take less room than an RGBA8 color, and a 2-byte index padded to 4 bytes would take
+ * just as much. Separate attribute buffers with small strides are valid in OpenGL, but drivers that are slow at
+ * fetching unaligned attributes are better served by {@link WritableRGBA8ColorBuffer}.
+ */
+public class WritablePaletteColorBuffer extends AbstractWritableDataObjectBuffer<Vector3fc> {
+    private static final int PALETTE_ENTRY_SIZE = 4;
+
+    private final WritableDataBuffer paletteBuffer;
+    private final ColorIndexTable palette = new ColorIndexTable();
+    private final int maxPaletteSize;
+    private final AttributeFormat attributeFormat;
+
+    public WritablePaletteColorBuffer(WritableDataBuffer indexBuffer, WritableDataBuffer paletteBuffer) {
+        this(indexBuffer, paletteBuffer, 1);
+    }
+
+    public WritablePaletteColorBuffer(WritableDataBuffer indexBuffer, WritableDataBuffer paletteBuffer,
+                                      int indexSize) {
+        super(indexBuffer, checkIndexSize(indexSize));
+        this.paletteBuffer = paletteBuffer;
+
+        if (indexSize == 1) {
+            maxPaletteSize = 1 << 8;
+            attributeFormat = new AttributeFormat(1, ComponentType.UNSIGNED_BYTE, false);
+        } else {
+            maxPaletteSize = 1 << 16;
+            attributeFormat = new AttributeFormat(1, ComponentType.UNSIGNED_SHORT, false);
+        }
+    }
+
+    private static int checkIndexSize(int indexSize) {
+        if (indexSize != 1 && indexSize != 2) {
+            throw new IllegalArgumentException("IndexSize must be 1 or 2");
+        }
+
+        return indexSize;
+    }
+
+    /**
+     * Gets the format of the index attribute stored in this buffer. The index is an integer attribute, so it should be
+     * set up with glVertexAttribIFormat. Each element is only 1 or 2 bytes apart.
+     *
+     * @return the format of the attribute stored in this buffer.
+     */
+    public AttributeFormat getAttributeFormat() {
+        return attributeFormat;
+    }
+
+    /**
+     * Gets the buffer the palette is stored in.
+     *
+     * @return the buffer the palette is stored in.
+     */
+    public WritableDataBuffer getPaletteBuffer() {
+        return paletteBuffer;
+    }
+
+    /**
+     * Gets the number of colors in the palette.
+     *
+     * @return the number of colors in the palette.
+     */
+    public int getPaletteSize() {
+        return palette.size();
+    }
+
+    /**
+     * Gets the maximum number of colors the palette can hold with this buffer's index size.
+     *
+     * @return the maximum number of colors the palette can hold.
+     */
+    public int getMaxPaletteSize() {
+        return maxPaletteSize;
+    }
+
+    /**
+     * Gets the palette index of a color, adding it to the palette if it is not in there yet.
+     * <p>
+     * This can be used to fill the palette ahead of time so that colors get predictable indices.
+     *
+     * @param color the color to get the palette index of.
+     * @return the palette index of the color.
+     * @throws IllegalStateException if the color is not in the palette and the palette is full.
+     */
+    public int getPaletteIndex(Vector3fc color) {
+        int key = key(color);
+
+        int index = palette.get(key);
+        if (index >= 0) {
+            return index;
+        }
+
+        if (palette.size() >= maxPaletteSize) {
+            throw new IllegalStateException("Palette is full (" + maxPaletteSize + " colors)");
+        }
+
+        int newIndex = palette.size();
+
+        try (MemoryStack stack = stackPush()) {
+            paletteBuffer.set((long) newIndex * PALETTE_ENTRY_SIZE,
+                    stack.bytes((byte) (key >>> 16), (byte) (key >>> 8), (byte) key, (byte) 0xFF));
+        }
+
+        palette.put(key, newIndex);
+
+        return newIndex;
+    }
+
+    /**
+     * Checks that every new color in a chunk of colors still fits in the palette, so a full palette is found before
+     * this buffer makes room for the chunk.
+     *
+     * @param elements the chunk of colors about to be written.
+     * @throws IllegalStateException if the new colors do not fit in the palette.
+     */
+    @Override
+    protected void checkElements(Collection<? extends Vector3fc> elements) {
+        if (palette.size() + (long) elements.size() <= maxPaletteSize) {
+            return;
+        }
+
+        ColorIndexTable added = new ColorIndexTable();
+        for (Vector3fc color : elements) {
+            int key = key(color);
+            if (palette.get(key) < 0 && added.get(key) < 0) {
+                if (palette.size() + added.size() >= maxPaletteSize) {
+                    throw new IllegalStateException("Palette is full (" + maxPaletteSize + " colors)");
+                }
+
+                added.put(key, added.size());
+            }
+        }
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, Vector3fc element) {
+        int index = getPaletteIndex(element);
+
+        if (elementSize == 1) {
+            buffer.put(position, (byte) index);
+        } else {
+            buffer.putShort(position, (short) index);
+        }
+    }
+
+    private static int key(Vector3fc color) {
+        return ((toUnorm8(color.x()) & 0xFF) << 16) | ((toUnorm8(color.y()) & 0xFF) << 8) |
+                (toUnorm8(color.z()) & 0xFF);
+    }
+
+    /**
+     * An open-addressed hash table from packed RGB colors to palette indices, so looking up a color never boxes the
+     * color or its index. The last color looked up is remembered, because neighbouring vertices often share a color.
+     */
+    private static class ColorIndexTable {
+        // keys are stored plus one so that 0 marks an empty slot
+        private int[] keys = new int[64];
+        private int[] values = new int[64];
+        private int shift = Integer.SIZE - 6;
+        private int size = 0;
+        private int lastKey = -1;
+        private int lastValue = -1;
+
+        /**
+         * Gets the palette index of a color.
+         *
+         * @param key the packed RGB color.
+         * @return the palette index of the color, or -1 if it is not in the palette.
+         */
+        private int get(int key) {
+            if (key == lastKey) {
+                return lastValue;
+            }
+
+            int stored = key + 1;
+            int mask = keys.length - 1;
+            for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == stored) {
+                    lastKey = key;
+                    lastValue = values[slot];
+                    return lastValue;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Adds a color that is not in the palette yet.
+         *
+         * @param key   the packed RGB color.
+         * @param value the palette index of the color.
+         */
+        private void put(int key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+
+            insert(key + 1, value);
+            size++;
+            lastKey = key;
+            lastValue = value;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int slot(int key) {
+            // fibonacci hashing spreads the low bits of nearby colors across the table
+            return (key * 0x9E3779B9) >>> shift;
+        }
+
+        private void insert(int stored, int value) {
+            int mask = keys.length - 1;
+            int slot = slot(stored - 1);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = stored;
+            values[slot] = value;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            shift--;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Vector3fc;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static com.kneelawk.klinesjava.utils.PackingUtils.toUnorm8;
+
+/**
+ * WritableRGBA8ColorBuffer - This buffer stores colors as four unsigned normalized bytes, red, green, blue and alpha.
+ * The shader reads them back as a vec4 in [0, 1].
+ */
+public class WritableRGBA8ColorBuffer extends AbstractWritableDataObjectBuffer<Vector3fc> {
+    private static final int ELEMENT_SIZE = 4;
+
+    /**
+     * The format of the attribute stored in this buffer.
+     */
+    public static final AttributeFormat ATTRIBUTE_FORMAT = new AttributeFormat(4, ComponentType.UNSIGNED_BYTE, true);
+
+    private final byte alpha;
+
+    public WritableRGBA8ColorBuffer(WritableDataBuffer buffer) {
+        this(buffer, 1f);
+    }
+
+    public WritableRGBA8ColorBuffer(WritableDataBuffer buffer, float alpha) {
+        super(buffer, ELEMENT_SIZE);
+        this.alpha = toUnorm8(alpha);
+    }
+
+    /**
+     * Gets the format of the attribute stored in this buffer. Each element is 4 bytes apart.
+     *
+     * @return the format of the attribute stored in this buffer.
+     */
+    public AttributeFormat getAttributeFormat() {
+        return ATTRIBUTE_FORMAT;
+    }
+
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time.
+     *
+     * @return true, elements are encoded without modifying any state.
+     */
+    @Override
+    protected boolean supportsParallelEncoding() {
+        return true;
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, Vector3fc element) {
+        buffer.put(position, toUnorm8(element.x()));
+        buffer.put(position + 1, toUnorm8(element.y()));
+        buffer.put(position + 2, toUnorm8(element.z()));
+        buffer.put(position + 3, alpha);
+    }
+
+    /**
+     * Gets the number of floats each element is decoded from by the float entry points.
+     *
+     * @return 3, the red, green and blue of the color.
+     */
+    @Override
+    public int getFloatsPerElement() {
+        return 3;
+    }
+
+    /**
+     * Used to write a single element decoded from floats to a buffer at a specific position.
+     * <p>
+     * The element is read as red, green and blue.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param source   the buffer holding the floats of the element.
+     * @param index    the absolute position within the source buffer of the element's first float.
+     */
+    @Override
+    protected void writeFloats(ByteBuffer buffer, int position, FloatBuffer source, int index) {
+        buffer.put(position, toUnorm8(source.get(index)));
+        buffer.put(position + 1, toUnorm8(source.get(index + 1)));
+        buffer.put(position + 2, toUnorm8(source.get(index + 2)));
+        buffer.put(position + 3, alpha);
+    }
+}
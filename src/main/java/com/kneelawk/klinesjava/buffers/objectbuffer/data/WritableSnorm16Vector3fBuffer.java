@@ -0,0 +1,130 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static com.kneelawk.klinesjava.utils.PackingUtils.toSnorm16;
+
+/**
+ * WritableSnorm16Vector3fBuffer - This buffer stores vectors as three signed normalized 16-bit integers relative to an
+ * origin and scale, padded to 8 bytes so every element stays 4-byte aligned.
+ * <p>
+ * Each component is stored as (component - origin) / scale, so every vector within scale of the origin on each axis
+ * can be stored and anything outside of that is clamped. The shader gets the original vector back with
+ * origin + attribute * scale.
+ */
+public class WritableSnorm16Vector3fBuffer extends AbstractWritableDataObjectBuffer<Vector3fc> {
+    private static final int ELEMENT_SIZE = 8;
+
+    /**
+     * The format of the attribute stored in this buffer.
+     */
+    public static final AttributeFormat ATTRIBUTE_FORMAT = new AttributeFormat(3, ComponentType.SHORT, true);
+
+    private final Vector3f origin;
+    private final Vector3f scale;
+    private final Vector3f inverseScale;
+
+    public WritableSnorm16Vector3fBuffer(WritableDataBuffer buffer, Vector3fc origin, float scale) {
+        this(buffer, origin, new Vector3f(scale));
+    }
+
+    public WritableSnorm16Vector3fBuffer(WritableDataBuffer buffer, Vector3fc origin, Vector3fc scale) {
+        super(buffer, ELEMENT_SIZE);
+
+        if (!(scale.x() > 0 && scale.y() > 0 && scale.z() > 0)) {
+            throw new IllegalArgumentException("Scale must be greater than zero on every axis");
+        }
+
+        this.origin = new Vector3f(origin);
+        this.scale = new Vector3f(scale);
+        inverseScale = new Vector3f(1f / scale.x(), 1f / scale.y(), 1f / scale.z());
+    }
+
+    /**
+     * Gets the format of the attribute stored in this buffer. Each element is 8 bytes apart.
+     *
+     * @return the format of the attribute stored in this buffer.
+     */
+    public AttributeFormat getAttributeFormat() {
+        return ATTRIBUTE_FORMAT;
+    }
+
+    /**
+     * Gets the origin the vectors in this buffer are stored relative to.
+     *
+     * @return the origin the vectors in this buffer are stored relative to.
+     */
+    public Vector3fc getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Gets the distance from the origin on each axis that maps to the largest storable value.
+     *
+     * @return the scale the vectors in this buffer are stored with.
+     */
+    public Vector3fc getScale() {
+        return scale;
+    }
+
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time.
+     *
+     * @return true, elements are encoded without modifying any state.
+     */
+    @Override
+    protected boolean supportsParallelEncoding() {
+        return true;
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, Vector3fc element) {
+        buffer.putShort(position, toSnorm16((element.x() - origin.x) * inverseScale.x));
+        buffer.putShort(position + 2, toSnorm16((element.y() - origin.y) * inverseScale.y));
+        buffer.putShort(position + 4, toSnorm16((element.z() - origin.z) * inverseScale.z));
+        buffer.putShort(position + 6, (short) 0);
+    }
+
+    /**
+     * Gets the number of floats each element is decoded from by the float entry points.
+     *
+     * @return 3, the x, y and z of the vector.
+     */
+    @Override
+    public int getFloatsPerElement() {
+        return 3;
+    }
+
+    /**
+     * Used to write a single element decoded from floats to a buffer at a specific position.
+     * <p>
+     * The element is read as x, y and z.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param source   the buffer holding the floats of the element.
+     * @param index    the absolute position within the source buffer of the element's first float.
+     */
+    @Override
+    protected void writeFloats(ByteBuffer buffer, int position, FloatBuffer source, int index) {
+        buffer.putShort(position, toSnorm16((source.get(index) - origin.x) * inverseScale.x));
+        buffer.putShort(position + 2, toSnorm16((source.get(index + 1) - origin.y) * inverseScale.y));
+        buffer.putShort(position + 4, toSnorm16((source.get(index + 2) - origin.z) * inverseScale.z));
+        buffer.putShort(position + 6, (short) 0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * WritableStructBuffer - An object buffer that stores its elements as an array of a {@link StructLayout}, ready to be
+ * read by a uniform or shader storage block.
+ * <p>
+ * Each element is written by a {@link StructEncoder} at the struct's size apart, after the record's padding bytes have
+ * been cleared.
+ *
+ * @param <E> the type of element this buffer holds.
+ */
+public class WritableStructBuffer<E> extends AbstractWritableDataObjectBuffer<E> {
+    private static final int COPY_CHUNK_BYTES = 256;
+
+    private final StructLayout layout;
+    private final StructEncoder<? super E> encoder;
+
+    public WritableStructBuffer(WritableDataBuffer buffer, StructLayout layout, StructEncoder<? super E> encoder) {
+        super(buffer, layout.getSize(), Math.max(1, COPY_CHUNK_BYTES / layout.getSize()));
+        this.layout = layout;
+        this.encoder = Objects.requireNonNull(encoder, "encoder");
+    }
+
+    /**
+     * Gets the layout of the records in this buffer.
+     *
+     * @return the layout of the records in this buffer.
+     */
+    public StructLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, E element) {
+        layout.clearPadding(buffer, position);
+        encoder.encode(buffer, position, element);
+    }
+}
@@ -0,0 +1,144 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Matrix4fc;
+
+import java.nio.ByteBuffer;
+
+/**
+ * WritableTRSMatrix4fBuffer - This buffer stores transforms as a translation, a uniform scale and a rotation
+ * quaternion, two vec4s for a total of 32 bytes. The first vec4 holds the translation in xyz and the scale in w, the
+ * second holds the quaternion.
+ * <p>
+ * Only affine matrices made of a translation, a rotation and a positive uniform scale can be stored. Writing any other
+ * matrix throws an IllegalArgumentException.
+ */
+public class WritableTRSMatrix4fBuffer extends AbstractWritableDataObjectBuffer<Matrix4fc> {
+    private static final int BYTES_PER_FLOAT = 4;
+    private static final int FLOATS_PER_ELEMENT = 8;
+    private static final int ELEMENT_SIZE = BYTES_PER_FLOAT * FLOATS_PER_ELEMENT;
+
+    /**
+     * The relative amount the scales of the axes are allowed to differ by, and the axes are allowed to be off from
+     * perpendicular by, for a matrix to still count as uniformly scaled.
+     */
+    public static final float UNIFORM_SCALE_TOLERANCE = 1e-4f;
+
+    /**
+     * GLSL that applies a transform stored by this buffer to a position. The two vec4s are read as two consecutive vec4
+     * attributes.
+     */
+    public static final String DECODE_GLSL = "" +
+            "vec3 applyTransform(vec4 translationScale, vec4 rotation, vec3 position) {\n" +
+            "    vec3 rotated = position + 2.0 * cross(rotation.xyz, cross(rotation.xyz, position) + rotation.w * position);\n" +
+            "    return translationScale.xyz + translationScale.w * rotated;\n" +
+            "}\n";
+
+    public WritableTRSMatrix4fBuffer(WritableDataBuffer buffer) {
+        super(buffer, ELEMENT_SIZE);
+    }
+
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time.
+     *
+     * @return true, elements are encoded without modifying any state.
+     */
+    @Override
+    protected boolean supportsParallelEncoding() {
+        return true;
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, Matrix4fc element) {
+        if (!element.isAffine()) {
+            throw new IllegalArgumentException("Transform must be affine: " + element);
+        }
+
+        float scaleX = length(element.m00(), element.m01(), element.m02());
+        float scaleY = length(element.m10(), element.m11(), element.m12());
+        float scaleZ = length(element.m20(), element.m21(), element.m22());
+        float scale = (scaleX + scaleY + scaleZ) / 3f;
+        float tolerance = UNIFORM_SCALE_TOLERANCE * scale;
+        float squareTolerance = tolerance * scale;
+
+        if (!(scale > 0f) || Math.abs(scaleX - scale) > tolerance || Math.abs(scaleY - scale) > tolerance ||
+                Math.abs(scaleZ - scale) > tolerance ||
+                Math.abs(dot(element.m00(), element.m01(), element.m02(), element.m10(), element.m11(),
+                        element.m12())) > squareTolerance ||
+                Math.abs(dot(element.m00(), element.m01(), element.m02(), element.m20(), element.m21(),
+                        element.m22())) > squareTolerance ||
+                Math.abs(dot(element.m10(), element.m11(), element.m12(), element.m20(), element.m21(),
+                        element.m22())) > squareTolerance) {
+            throw new IllegalArgumentException("Transform must only translate, rotate and scale uniformly: " + element);
+        }
+
+        if (element.determinantAffine() < 0f) {
+            throw new IllegalArgumentException("Transform cannot be stored as a rotation, it mirrors: " + element);
+        }
+
+        // the rotation matrix is the upper 3x3 divided by the scale, mRC below is row R, column C
+        float inverseScale = 1f / scale;
+        float m00 = element.m00() * inverseScale, m01 = element.m10() * inverseScale, m02 = element.m20() * inverseScale;
+        float m10 = element.m01() * inverseScale, m11 = element.m11() * inverseScale, m12 = element.m21() * inverseScale;
+        float m20 = element.m02() * inverseScale, m21 = element.m12() * inverseScale, m22 = element.m22() * inverseScale;
+
+        float qx, qy, qz, qw;
+        float trace = m00 + m11 + m22;
+        if (trace >= 0f) {
+            float s = (float) Math.sqrt(trace + 1f);
+            qw = 0.5f * s;
+            s = 0.5f / s;
+            qx = (m21 - m12) * s;
+            qy = (m02 - m20) * s;
+            qz = (m10 - m01) * s;
+        } else if (m00 >= m11 && m00 >= m22) {
+            float s = (float) Math.sqrt(1f + m00 - m11 - m22);
+            qx = 0.5f * s;
+            s = 0.5f / s;
+            qy = (m01 + m10) * s;
+            qz = (m02 + m20) * s;
+            qw = (m21 - m12) * s;
+        } else if (m11 >= m22) {
+            float s = (float) Math.sqrt(1f + m11 - m00 - m22);
+            qy = 0.5f * s;
+            s = 0.5f / s;
+            qx = (m01 + m10) * s;
+            qz = (m12 + m21) * s;
+            qw = (m02 - m20) * s;
+        } else {
+            float s = (float) Math.sqrt(1f + m22 - m00 - m11);
+            qz = 0.5f * s;
+            s = 0.5f / s;
+            qx = (m02 + m20) * s;
+            qy = (m12 + m21) * s;
+            qw = (m10 - m01) * s;
+        }
+
+        buffer.putFloat(position, element.m30());
+        buffer.putFloat(position + 4, element.m31());
+        buffer.putFloat(position + 8, element.m32());
+        buffer.putFloat(position + 12, scale);
+        buffer.putFloat(position + 16, qx);
+        buffer.putFloat(position + 20, qy);
+        buffer.putFloat(position + 24, qz);
+        buffer.putFloat(position + 28, qw);
+    }
+
+    private static float length(float x, float y, float z) {
+        return (float) Math.sqrt(x * x + y * y + z * z);
+    }
+
+    private static float dot(float x0, float y0, float z0, float x1, float y1, float z1) {
+        return x0 * x1 + y0 * y1 + z0 * z1;
+    }
+}
@@ -4,14 +4,40 @@ import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
 import org.joml.Vector3fc;
 
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 
 public class WritableVector3fBuffer extends AbstractWritableDataObjectBuffer<Vector3fc> {
     private static final int ELEMENT_SIZE = 12;
 
+    /**
+     * The format of the attribute stored in this buffer.
+     */
+    public static final AttributeFormat ATTRIBUTE_FORMAT = new AttributeFormat(3, ComponentType.FLOAT, false);
+
     public WritableVector3fBuffer(WritableDataBuffer buffer) {
         super(buffer, ELEMENT_SIZE);
     }
 
+    /**
+     * Gets the format of the attribute stored in this buffer. Each element is 12 bytes apart.
+     *
+     * @return the format of the attribute stored in this buffer.
+     */
+    public AttributeFormat getAttributeFormat() {
+        return ATTRIBUTE_FORMAT;
+    }
+
+    /**
+     * Gets whether {@link #writeElement(ByteBuffer, int, Object)} can be called from multiple threads at the same
+     * time.
+     *
+     * @return true, elements are encoded without modifying any state.
+     */
+    @Override
+    protected boolean supportsParallelEncoding() {
+        return true;
+    }
+
     /**
      * Used to write a single element to a buffer at a specific position.
      * <p>
@@ -25,4 +51,31 @@ public class WritableVector3fBuffer extends AbstractWritableDataObjectBuffer<Vec
     protected void writeElement(ByteBuffer buffer, int position, Vector3fc element) {
         element.get(position, buffer);
     }
+
+    /**
+     * Gets the number of floats each element is decoded from by the float entry points.
+     *
+     * @return 3, the x, y and z of the vector.
+     */
+    @Override
+    public int getFloatsPerElement() {
+        return 3;
+    }
+
+    /**
+     * Used to write a single element decoded from floats to a buffer at a specific position.
+     * <p>
+     * The element is read as x, y and z.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param source   the buffer holding the floats of the element.
+     * @param index    the absolute position within the source buffer of the element's first float.
+     */
+    @Override
+    protected void writeFloats(ByteBuffer buffer, int position, FloatBuffer source, int index) {
+        buffer.putFloat(position, source.get(index));
+        buffer.putFloat(position + 4, source.get(index + 1));
+        buffer.putFloat(position + 8, source.get(index + 2));
+    }
 }
@@ -1,9 +1,8 @@
 package com.kneelawk.klinesjava.graphics;
 
 import com.kneelawk.klinesjava.buffers.databuffer.WritableGLArrayDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.IndexType;
 import com.kneelawk.klinesjava.buffers.objectbuffer.WritableIndexingObjectBuffer;
-import com.kneelawk.klinesjava.buffers.objectbuffer.WritableObjectBuffer;
-import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableMatrix4fBuffer;
 import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableVector3fBuffer;
 
 public class GraphicsEngine {
@@ -13,7 +12,53 @@ public class GraphicsEngine {
     WritableGLArrayDataBuffer transformIndices = new WritableGLArrayDataBuffer();
     WritableGLArrayDataBuffer vertexIndices = new WritableGLArrayDataBuffer();
 
-    WritableObjectBuffer<Vertex> vertices = new WritableIndexingObjectBuffer<>(vertexIndices,
-            new WritableVertexBuffer(new WritableVector3fBuffer(positions), new WritableVector3fBuffer(colors),
-                    new WritableIndexingObjectBuffer<>(transformIndices, new WritableMatrix4fBuffer(transforms))));
+    final TransformEncoding transformEncoding;
+    WritableIndexingObjectBuffer<Vertex> vertices;
+
+    public GraphicsEngine() {
+        this(TransformEncoding.MATRIX4);
+    }
+
+    public GraphicsEngine(TransformEncoding transformEncoding) {
+        this.transformEncoding = transformEncoding;
+
+        vertices = new WritableIndexingObjectBuffer<>(vertexIndices,
+                new WritableVertexBuffer(new WritableVector3fBuffer(positions), new WritableVector3fBuffer(colors),
+                        new WritableIndexingObjectBuffer<>(transformIndices,
+                                transformEncoding.createBuffer(transforms), Vertex.TRANSFORM_ENCODER,
+                                IndexType.UNSIGNED_INT)),
+                Vertex.ENCODER);
+    }
+
+    /**
+     * Gets how this engine stores transforms in its transform buffer.
+     *
+     * @return how this engine stores transforms in its transform buffer.
+     */
+    public TransformEncoding getTransformEncoding() {
+        return transformEncoding;
+    }
+
+    /**
+     * Gets the type the vertex indices are currently stored as, which is the type to draw them with.
+     *
+     * @return the current type of the vertex indices.
+     */
+    public IndexType getIndexType() {
+        return vertices.getIndexType();
+    }
+
+    /**
+     * Marks the end of a frame, letting the engine's buffers move to storage that better suits how they are being used.
+     *
+     * @return whether the OpenGL buffer name of any of the engine's buffers has changed.
+     */
+    public boolean endFrame() {
+        boolean changed = positions.endFrame();
+        changed |= colors.endFrame();
+        changed |= transforms.endFrame();
+        changed |= transformIndices.endFrame();
+        changed |= vertexIndices.endFrame();
+        return changed;
+    }
 }
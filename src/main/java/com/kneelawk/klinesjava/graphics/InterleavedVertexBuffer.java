@@ -0,0 +1,60 @@
+package com.kneelawk.klinesjava.graphics;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.AbstractWritableDataObjectBuffer;
+import org.joml.Matrix4fc;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * InterleavedVertexBuffer - This buffer packs each vertex's position, color and transform index into a single record
+ * within one data buffer, instead of fanning them out to a buffer per attribute like {@link WritableVertexBuffer} does.
+ * <p>
+ * Every chunk of vertices is encoded into one staging buffer and uploaded with a single set, and vertex fetch reads
+ * every attribute of a vertex from the same stream. The transforms themselves are not stored in this buffer, each
+ * vertex's transform is turned into an index into a separate transform buffer by the transform indexer. Vertex array
+ * objects reading this buffer are set up using the format's {@link InterleavedVertexFormat#getLayout() layout}.
+ */
+public class InterleavedVertexBuffer extends AbstractWritableDataObjectBuffer<Vertex> {
+    private static final int COPY_CHUNK_BYTES = 4096;
+
+    private final InterleavedVertexFormat format;
+    private final ToIntFunction<? super Matrix4fc> transformIndexer;
+
+    public InterleavedVertexBuffer(WritableDataBuffer buffer, ToIntFunction<? super Matrix4fc> transformIndexer) {
+        this(buffer, InterleavedVertexFormat.DEFAULT, transformIndexer);
+    }
+
+    public InterleavedVertexBuffer(WritableDataBuffer buffer, InterleavedVertexFormat format,
+                                   ToIntFunction<? super Matrix4fc> transformIndexer) {
+        super(buffer, format.getStride(), Math.max(1, COPY_CHUNK_BYTES / format.getStride()));
+        this.format = format;
+        this.transformIndexer = Objects.requireNonNull(transformIndexer, "transformIndexer");
+    }
+
+    /**
+     * Gets the format of the vertex records stored in this buffer.
+     *
+     * @return the format of the vertex records stored in this buffer.
+     */
+    public InterleavedVertexFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Used to write a single element to a buffer at a specific position.
+     * <p>
+     * The buffer's position and limit should be the same after this method as they were before.
+     *
+     * @param buffer   the buffer to write the element to.
+     * @param position the position within the buffer to write the element at.
+     * @param element  the element to write.
+     */
+    @Override
+    protected void writeElement(ByteBuffer buffer, int position, Vertex element) {
+        format.write(buffer, position, element.getPosition(), element.getColor(),
+                transformIndexer.applyAsInt(element.getTransform()));
+    }
+}
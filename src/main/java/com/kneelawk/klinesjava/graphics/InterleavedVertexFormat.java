@@ -0,0 +1,288 @@
+package com.kneelawk.klinesjava.graphics;
+
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.AttributeFormat;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.ComponentType;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.VertexLayout;
+import org.joml.Vector3fc;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import static com.kneelawk.klinesjava.utils.PackingUtils.toHalf;
+import static com.kneelawk.klinesjava.utils.PackingUtils.toUnorm8;
+
+/**
+ * InterleavedVertexFormat - Describes how the position, color and transform index of a vertex are packed into a single
+ * record by an {@link InterleavedVertexBuffer}.
+ * <p>
+ * The record itself is a {@link VertexLayout} with the attributes {@value #POSITION_ATTRIBUTE},
+ * {@value #COLOR_ATTRIBUTE} and {@value #TRANSFORM_INDEX_ATTRIBUTE} in that order, so the offsets and stride follow the
+ * layout's rules and the layout is what sets up vertex array objects to read the records. This class only adds a
+ * writer specialized for the three fixed attributes.
+ */
+public final class InterleavedVertexFormat {
+    /**
+     * The name of the position attribute in the vertex layout.
+     */
+    public static final String POSITION_ATTRIBUTE = "position";
+
+    /**
+     * The name of the color attribute in the vertex layout.
+     */
+    public static final String COLOR_ATTRIBUTE = "color";
+
+    /**
+     * The name of the transform index attribute in the vertex layout. It is read by the shader as an integer.
+     */
+    public static final String TRANSFORM_INDEX_ATTRIBUTE = "transformIndex";
+
+    /**
+     * Full precision positions and colors with 32-bit transform indices, 28 bytes per vertex.
+     */
+    public static final InterleavedVertexFormat DEFAULT =
+            new InterleavedVertexFormat(PositionEncoding.FLOAT, ColorEncoding.FLOAT, IndexEncoding.UNSIGNED_INT);
+
+    /**
+     * Half precision positions, 8-bit colors and 16-bit transform indices, 16 bytes per vertex.
+     */
+    public static final InterleavedVertexFormat COMPACT =
+            new InterleavedVertexFormat(PositionEncoding.HALF, ColorEncoding.UNORM8, IndexEncoding.UNSIGNED_SHORT);
+
+    private final PositionEncoding positionEncoding;
+    private final ColorEncoding colorEncoding;
+    private final IndexEncoding indexEncoding;
+    private final VertexLayout layout;
+    private final int positionOffset;
+    private final int colorOffset;
+    private final int transformIndexOffset;
+    private final int stride;
+
+    public InterleavedVertexFormat(PositionEncoding positionEncoding, ColorEncoding colorEncoding,
+                                   IndexEncoding indexEncoding) {
+        this.positionEncoding = Objects.requireNonNull(positionEncoding, "positionEncoding");
+        this.colorEncoding = Objects.requireNonNull(colorEncoding, "colorEncoding");
+        this.indexEncoding = Objects.requireNonNull(indexEncoding, "indexEncoding");
+
+        AttributeFormat position = positionEncoding.attributeFormat;
+        AttributeFormat color = colorEncoding.attributeFormat;
+        AttributeFormat index = indexEncoding.attributeFormat;
+        layout = VertexLayout.builder()
+                .attribute(POSITION_ATTRIBUTE, position.getComponentType(), position.getComponentCount(),
+                        position.isNormalized())
+                .attribute(COLOR_ATTRIBUTE, color.getComponentType(), color.getComponentCount(), color.isNormalized())
+                .integerAttribute(TRANSFORM_INDEX_ATTRIBUTE, index.getComponentType(), index.getComponentCount())
+                .build();
+
+        positionOffset = layout.getAttribute(POSITION_ATTRIBUTE).getOffset();
+        colorOffset = layout.getAttribute(COLOR_ATTRIBUTE).getOffset();
+        transformIndexOffset = layout.getAttribute(TRANSFORM_INDEX_ATTRIBUTE).getOffset();
+        stride = layout.getStride();
+    }
+
+    /**
+     * Gets the vertex layout of the records of this format, used to set up vertex array objects that read them.
+     *
+     * @return the vertex layout of the records of this format.
+     */
+    public VertexLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets the size in bytes of a single vertex record, including padding.
+     *
+     * @return the size in bytes of a single vertex record.
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Gets the position in bytes of the position attribute within a vertex record.
+     *
+     * @return the position in bytes of the position attribute within a vertex record.
+     */
+    public int getPositionOffset() {
+        return positionOffset;
+    }
+
+    /**
+     * Gets the position in bytes of the color attribute within a vertex record.
+     *
+     * @return the position in bytes of the color attribute within a vertex record.
+     */
+    public int getColorOffset() {
+        return colorOffset;
+    }
+
+    /**
+     * Gets the position in bytes of the transform index attribute within a vertex record.
+     *
+     * @return the position in bytes of the transform index attribute within a vertex record.
+     */
+    public int getTransformIndexOffset() {
+        return transformIndexOffset;
+    }
+
+    public PositionEncoding getPositionEncoding() {
+        return positionEncoding;
+    }
+
+    public ColorEncoding getColorEncoding() {
+        return colorEncoding;
+    }
+
+    public IndexEncoding getIndexEncoding() {
+        return indexEncoding;
+    }
+
+    /**
+     * Writes a single vertex record to a buffer at a specific position.
+     *
+     * @param buffer         the buffer to write the record to.
+     * @param position       the position within the buffer to write the record at.
+     * @param vertexPosition the position of the vertex.
+     * @param color          the color of the vertex.
+     * @param transformIndex the index of the vertex's transform.
+     */
+    void write(ByteBuffer buffer, int position, Vector3fc vertexPosition, Vector3fc color, int transformIndex) {
+        positionEncoding.write(buffer, position + positionOffset, vertexPosition);
+        colorEncoding.write(buffer, position + colorOffset, color);
+        indexEncoding.write(buffer, position + transformIndexOffset, transformIndex);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        InterleavedVertexFormat that = (InterleavedVertexFormat) o;
+        return positionEncoding == that.positionEncoding && colorEncoding == that.colorEncoding &&
+                indexEncoding == that.indexEncoding;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(positionEncoding, colorEncoding, indexEncoding);
+    }
+
+    @Override
+    public String toString() {
+        return "InterleavedVertexFormat{" + positionEncoding + ", " + colorEncoding + ", " + indexEncoding + ", stride " +
+                stride + "}";
+    }
+
+    /**
+     * The ways a vertex position can be stored.
+     */
+    public enum PositionEncoding {
+        /**
+         * Three 32-bit floats.
+         */
+        FLOAT(new AttributeFormat(3, ComponentType.FLOAT, false)),
+        /**
+         * Three half-precision floats.
+         */
+        HALF(new AttributeFormat(3, ComponentType.HALF_FLOAT, false));
+
+        private final AttributeFormat attributeFormat;
+
+        PositionEncoding(AttributeFormat attributeFormat) {
+            this.attributeFormat = attributeFormat;
+        }
+
+        public AttributeFormat getAttributeFormat() {
+            return attributeFormat;
+        }
+
+        private void write(ByteBuffer buffer, int position, Vector3fc value) {
+            if (this == FLOAT) {
+                buffer.putFloat(position, value.x());
+                buffer.putFloat(position + 4, value.y());
+                buffer.putFloat(position + 8, value.z());
+            } else {
+                buffer.putShort(position, toHalf(value.x()));
+                buffer.putShort(position + 2, toHalf(value.y()));
+                buffer.putShort(position + 4, toHalf(value.z()));
+                buffer.putShort(position + 6, (short) 0);
+            }
+        }
+    }
+
+    /**
+     * The ways a vertex color can be stored.
+     */
+    public enum ColorEncoding {
+        /**
+         * Three 32-bit floats.
+         */
+        FLOAT(new AttributeFormat(3, ComponentType.FLOAT, false)),
+        /**
+         * Four unsigned normalized bytes, with alpha always fully opaque.
+         */
+        UNORM8(new AttributeFormat(4, ComponentType.UNSIGNED_BYTE, true));
+
+        private final AttributeFormat attributeFormat;
+
+        ColorEncoding(AttributeFormat attributeFormat) {
+            this.attributeFormat = attributeFormat;
+        }
+
+        public AttributeFormat getAttributeFormat() {
+            return attributeFormat;
+        }
+
+        private void write(ByteBuffer buffer, int position, Vector3fc value) {
+            if (this == FLOAT) {
+                buffer.putFloat(position, value.x());
+                buffer.putFloat(position + 4, value.y());
+                buffer.putFloat(position + 8, value.z());
+            } else {
+                buffer.put(position, toUnorm8(value.x()));
+                buffer.put(position + 1, toUnorm8(value.y()));
+                buffer.put(position + 2, toUnorm8(value.z()));
+                buffer.put(position + 3, (byte) 0xFF);
+            }
+        }
+    }
+
+    /**
+     * The ways a transform index can be stored. Transform indices are read by the shader as integer attributes.
+     */
+    public enum IndexEncoding {
+        /**
+         * A 16-bit unsigned integer, for up to 65536 transforms.
+         */
+        UNSIGNED_SHORT(new AttributeFormat(1, ComponentType.UNSIGNED_SHORT, false)),
+        /**
+         * A 32-bit unsigned integer.
+         */
+        UNSIGNED_INT(new AttributeFormat(1, ComponentType.UNSIGNED_INT, false));
+
+        private final AttributeFormat attributeFormat;
+
+        IndexEncoding(AttributeFormat attributeFormat) {
+            this.attributeFormat = attributeFormat;
+        }
+
+        public AttributeFormat getAttributeFormat() {
+            return attributeFormat;
+        }
+
+        private void write(ByteBuffer buffer, int position, int index) {
+            if (index < 0) {
+                throw new IllegalArgumentException("Transform index cannot be less than zero");
+            }
+
+            if (this == UNSIGNED_SHORT) {
+                if (index > 0xFFFF) {
+                    throw new IllegalArgumentException("Transform index " + index + " does not fit in " + this);
+                }
+
+                buffer.putShort(position, (short) index);
+                buffer.putShort(position + 2, (short) 0);
+            } else {
+                buffer.putInt(position, index);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.kneelawk.klinesjava.graphics;
+
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.WritableObjectBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableAffineMatrix4fBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableMatrix4fBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableTRSMatrix4fBuffer;
+import org.joml.Matrix4fc;
+
+import java.util.function.Function;
+
+/**
+ * TransformEncoding - The ways transforms can be stored in the transform buffer.
+ */
+public enum TransformEncoding {
+    /**
+     * Stores the full 4x4 matrix, 64 bytes per transform. Any matrix can be stored.
+     */
+    MATRIX4(64, WritableMatrix4fBuffer.DECODE_GLSL, WritableMatrix4fBuffer::new),
+    /**
+     * Stores the top three rows of the matrix, 48 bytes per transform. Only affine matrices can be stored.
+     */
+    AFFINE(48, WritableAffineMatrix4fBuffer.DECODE_GLSL, WritableAffineMatrix4fBuffer::new),
+    /**
+     * Stores a translation, a uniform scale and a rotation quaternion, 32 bytes per transform. Only matrices that
+     * translate, rotate and scale uniformly can be stored.
+     */
+    TRANSLATION_ROTATION_SCALE(32, WritableTRSMatrix4fBuffer.DECODE_GLSL, WritableTRSMatrix4fBuffer::new);
+
+    private final int elementSize;
+    private final String decodeGlsl;
+    private final Function<WritableDataBuffer, WritableObjectBuffer<Matrix4fc>> factory;
+
+    TransformEncoding(int elementSize, String decodeGlsl,
+                      Function<WritableDataBuffer, WritableObjectBuffer<Matrix4fc>> factory) {
+        this.elementSize = elementSize;
+        this.decodeGlsl = decodeGlsl;
+        this.factory = factory;
+    }
+
+    /**
+     * Gets the size in bytes of each transform stored with this encoding.
+     *
+     * @return the size in bytes of each transform stored with this encoding.
+     */
+    public int getElementSize() {
+        return elementSize;
+    }
+
+    /**
+     * Gets the GLSL that decodes transforms stored with this encoding. It declares an applyTransform function that
+     * takes the transform's attributes followed by a vec3 position and returns the transformed position.
+     *
+     * @return the GLSL that decodes transforms stored with this encoding.
+     */
+    public String getDecodeGlsl() {
+        return decodeGlsl;
+    }
+
+    /**
+     * Creates an object buffer that stores transforms with this encoding in the specified data buffer.
+     *
+     * @param buffer the data buffer to store the transforms in.
+     * @return an object buffer that stores transforms with this encoding.
+     */
+    public WritableObjectBuffer<Matrix4fc> createBuffer(WritableDataBuffer buffer) {
+        return factory.apply(buffer);
+    }
+}
@@ -1,11 +1,58 @@
 package com.kneelawk.klinesjava.graphics;
 
+import com.kneelawk.klinesjava.buffers.objectbuffer.ElementEncoder;
+import org.joml.Matrix4f;
 import org.joml.Matrix4fc;
+import org.joml.Vector3f;
 import org.joml.Vector3fc;
 
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 public class Vertex {
+    /**
+     * Encodes a transform as its 16 floats, which gives the same equality as {@link Matrix4fc}'s equals.
+     */
+    public static final ElementEncoder<Matrix4fc> TRANSFORM_ENCODER = new ElementEncoder<>() {
+        @Override
+        public int getEncodedSize() {
+            return 64;
+        }
+
+        @Override
+        public void encode(ByteBuffer buffer, int position, Matrix4fc element) {
+            element.get(position, buffer);
+        }
+
+        @Override
+        public Matrix4fc decode(ByteBuffer buffer, int position) {
+            return decodeMatrix(buffer, position);
+        }
+    };
+
+    /**
+     * Encodes a vertex as its position, color and transform, which gives the same equality as {@link #equals(Object)}.
+     */
+    public static final ElementEncoder<Vertex> ENCODER = new ElementEncoder<>() {
+        @Override
+        public int getEncodedSize() {
+            return 88;
+        }
+
+        @Override
+        public void encode(ByteBuffer buffer, int position, Vertex element) {
+            element.position.get(position, buffer);
+            element.color.get(position + 12, buffer);
+            element.transform.get(position + 24, buffer);
+        }
+
+        @Override
+        public Vertex decode(ByteBuffer buffer, int position) {
+            return new Vertex(new Vector3f(position, buffer), new Vector3f(position + 12, buffer),
+                    decodeMatrix(buffer, position + 24));
+        }
+    };
+
     private final Vector3fc position;
     private final Vector3fc color;
     private final Matrix4fc transform;
@@ -28,6 +75,15 @@ public class Vertex {
         return transform;
     }
 
+    private static Matrix4f decodeMatrix(ByteBuffer buffer, int position) {
+        // the 16 floats are stored in column-major order, as Matrix4fc.get writes them
+        float[] values = new float[16];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getFloat(position + i * 4);
+        }
+        return new Matrix4f().set(values);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,17 +1,41 @@
 package com.kneelawk.klinesjava.graphics;
 
-import com.google.common.collect.ImmutableList;
+import com.kneelawk.klinesjava.buffers.objectbuffer.AbstractWritableObjectBuffer;
 import com.kneelawk.klinesjava.buffers.objectbuffer.WritableObjectBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.AbstractWritableDataObjectBuffer;
 import org.joml.Matrix4fc;
 import org.joml.Vector3fc;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * WritableVertexBuffer - This buffer fans each vertex out to a separate buffer per attribute.
+ * <p>
+ * Chunks of vertices are split up in a single pass. Each run of up to 256 vertices has its positions, colors and
+ * transforms gathered into reusable arrays, which are then handed to the attribute buffers as lightweight list views,
+ * so no per-call copies of the attributes are made. Indexed operations split their list of unique vertices into the
+ * same views, which grow to fit it, and every attribute buffer draws from them with the same indices. Views that grew
+ * are shrunk back to 256 vertices afterwards, so one large indexed operation doesn't pin a large array for the life of
+ * the buffer.
+ */
+public class WritableVertexBuffer extends AbstractWritableObjectBuffer<Vertex> {
+    private static final int COPY_CHUNK_SIZE = 256;
 
-public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
     private final WritableObjectBuffer<Vector3fc> positionBuffer;
     private final WritableObjectBuffer<Vector3fc> colorBuffer;
     private final WritableObjectBuffer<Matrix4fc> transformBuffer;
+    private final ChunkView<Vector3fc> positions = new ChunkView<>(new Vector3fc[COPY_CHUNK_SIZE]);
+    private final ChunkView<Vector3fc> colors = new ChunkView<>(new Vector3fc[COPY_CHUNK_SIZE]);
+    private final ChunkView<Matrix4fc> transforms = new ChunkView<>(new Matrix4fc[COPY_CHUNK_SIZE]);
 
     public WritableVertexBuffer(
             WritableObjectBuffer<Vector3fc> positionBuffer,
@@ -23,32 +47,158 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
     }
 
     /**
-     * Sets a chunk of elements within this buffer.
+     * Sets the values of elements within this buffer.
      * <p>
-     * This will increase the size of this buffer if the chunk of elements being set extends beyond the current end of
-     * this buffer.,
+     * The elements are iterated once. Each run of vertices is split into its attributes and set in every attribute
+     * buffer before moving on to the next run.
      *
-     * @param offset   the position in elements within this buffer to place the start of the new elements.
-     * @param elements the chunk of new elements to put into this buffer.
+     * @param offset   the position in elements of the first element in this buffer to set to a new element.
+     * @param elements the chunk of elements to put.
      */
     @Override
-    public void set(long offset, Collection<? extends Vertex> elements) {
-        positionBuffer.set(offset, elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()));
-        colorBuffer.set(offset, elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()));
-        transformBuffer
-                .set(offset, elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()));
+    protected void putElements(long offset, Collection<? extends Vertex> elements) {
+        Iterator<? extends Vertex> it = elements.iterator();
+        long position = offset;
+
+        try {
+            while (it.hasNext()) {
+                int count = 0;
+                while (count < COPY_CHUNK_SIZE && it.hasNext()) {
+                    Vertex vertex = it.next();
+                    positions.array[count] = vertex.getPosition();
+                    colors.array[count] = vertex.getColor();
+                    transforms.array[count] = vertex.getTransform();
+                    count++;
+                }
+
+                positions.size = count;
+                colors.size = count;
+                transforms.size = count;
+
+                positionBuffer.set(position, positions);
+                colorBuffer.set(position, colors);
+                transformBuffer.set(position, transforms);
+
+                position += count;
+            }
+        } finally {
+            clearViews();
+        }
     }
 
     /**
-     * Appends a chunk of elements to the end of this buffer.
+     * Sets a chunk of vertices within this buffer to vertices decoded from interleaved floats, without creating an
+     * object for each vertex. Every vertex in the chunk shares the same transform.
+     * <p>
+     * This only works when the position and color buffers are data-backed buffers that decode vectors from 3 floats.
      *
-     * @param elements the chunk of elements to append to the end of this buffer.
+     * @param offset        the position in elements within this buffer to place the start of the new vertices.
+     * @param source        the array holding the floats of the new vertices.
+     * @param positionIndex the position within the array of the first float of the first vertex's position.
+     * @param colorIndex    the position within the array of the first float of the first vertex's color.
+     * @param stride        the distance in floats between the start of one vertex and the start of the next.
+     * @param transform     the transform of every vertex in the chunk.
+     * @param count         the number of vertices to set.
+     * @throws UnsupportedOperationException if the position or color buffer cannot decode vectors from floats.
      */
-    @Override
-    public void append(Collection<? extends Vertex> elements) {
-        positionBuffer.append(elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()));
-        colorBuffer.append(elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()));
-        transformBuffer.append(elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()));
+    public void setFloats(long offset, float[] source, int positionIndex, int colorIndex, int stride,
+                          Matrix4fc transform, int count) {
+        setFloats(offset, FloatBuffer.wrap(source), positionIndex, colorIndex, stride, transform, count);
+    }
+
+    /**
+     * Sets a chunk of vertices within this buffer to vertices decoded from interleaved floats, without creating an
+     * object for each vertex. Every vertex in the chunk shares the same transform.
+     * <p>
+     * This only works when the position and color buffers are data-backed buffers that decode vectors from 3 floats.
+     * The source buffer's position and limit are not changed. If a vertex cannot be written, such as when the transform
+     * buffer rejects the transform, every attribute buffer is cut back to its old size, and the vertices within the old
+     * size may already have been partly overwritten.
+     *
+     * @param offset        the position in elements within this buffer to place the start of the new vertices.
+     * @param source        the buffer holding the floats of the new vertices.
+     * @param positionIndex the absolute position within the source of the first float of the first vertex's position.
+     * @param colorIndex    the absolute position within the source of the first float of the first vertex's color.
+     * @param stride        the distance in floats between the start of one vertex and the start of the next.
+     * @param transform     the transform of every vertex in the chunk.
+     * @param count         the number of vertices to set.
+     * @throws UnsupportedOperationException if the position or color buffer cannot decode vectors from floats.
+     */
+    public void setFloats(long offset, FloatBuffer source, int positionIndex, int colorIndex, int stride,
+                          Matrix4fc transform, int count) {
+        AbstractWritableDataObjectBuffer<Vector3fc> positionFloats = floatBuffer(positionBuffer, "position");
+        AbstractWritableDataObjectBuffer<Vector3fc> colorFloats = floatBuffer(colorBuffer, "color");
+        checkColorFloats(source, colorIndex, stride, count);
+
+        long oldSize = getSize();
+        boolean written = false;
+        try {
+            positionFloats.setFloats(offset, source, positionIndex, stride, count);
+            colorFloats.setFloats(offset, source, colorIndex, stride, count);
+            transformBuffer.set(offset, Collections.nCopies(count, transform));
+            written = true;
+        } finally {
+            // keep the attribute buffers the same size as each other
+            if (!written) {
+                removeAfter(oldSize);
+            }
+        }
+    }
+
+    /**
+     * Appends a chunk of vertices decoded from interleaved floats to the end of this buffer, without creating an object
+     * for each vertex. Every vertex in the chunk shares the same transform.
+     * <p>
+     * This only works when the position and color buffers are data-backed buffers that decode vectors from 3 floats.
+     *
+     * @param source        the array holding the floats of the new vertices.
+     * @param positionIndex the position within the array of the first float of the first vertex's position.
+     * @param colorIndex    the position within the array of the first float of the first vertex's color.
+     * @param stride        the distance in floats between the start of one vertex and the start of the next.
+     * @param transform     the transform of every vertex in the chunk.
+     * @param count         the number of vertices to append.
+     * @throws UnsupportedOperationException if the position or color buffer cannot decode vectors from floats.
+     */
+    public void appendFloats(float[] source, int positionIndex, int colorIndex, int stride, Matrix4fc transform,
+                             int count) {
+        appendFloats(FloatBuffer.wrap(source), positionIndex, colorIndex, stride, transform, count);
+    }
+
+    /**
+     * Appends a chunk of vertices decoded from interleaved floats to the end of this buffer, without creating an object
+     * for each vertex. Every vertex in the chunk shares the same transform.
+     * <p>
+     * This only works when the position and color buffers are data-backed buffers that decode vectors from 3 floats.
+     * The source buffer's position and limit are not changed. If a vertex cannot be written, such as when the transform
+     * buffer rejects the transform, nothing is appended to any attribute buffer.
+     *
+     * @param source        the buffer holding the floats of the new vertices.
+     * @param positionIndex the absolute position within the source of the first float of the first vertex's position.
+     * @param colorIndex    the absolute position within the source of the first float of the first vertex's color.
+     * @param stride        the distance in floats between the start of one vertex and the start of the next.
+     * @param transform     the transform of every vertex in the chunk.
+     * @param count         the number of vertices to append.
+     * @throws UnsupportedOperationException if the position or color buffer cannot decode vectors from floats.
+     */
+    public void appendFloats(FloatBuffer source, int positionIndex, int colorIndex, int stride, Matrix4fc transform,
+                             int count) {
+        AbstractWritableDataObjectBuffer<Vector3fc> positionFloats = floatBuffer(positionBuffer, "position");
+        AbstractWritableDataObjectBuffer<Vector3fc> colorFloats = floatBuffer(colorBuffer, "color");
+        checkColorFloats(source, colorIndex, stride, count);
+
+        long offset = getSize();
+        boolean written = false;
+        try {
+            positionFloats.appendFloats(source, positionIndex, stride, count);
+            colorFloats.appendFloats(source, colorIndex, stride, count);
+            transformBuffer.append(Collections.nCopies(count, transform));
+            written = true;
+        } finally {
+            // keep the attribute buffers the same size as each other
+            if (!written) {
+                removeAfter(offset);
+            }
+        }
     }
 
     /**
@@ -65,18 +215,6 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
         transformBuffer.appendBlank(length);
     }
 
-    /**
-     * Prepends a chunk of elements to the beginning of this buffer.
-     *
-     * @param elements the chunk of elements to prepend to the beginning of this buffer.
-     */
-    @Override
-    public void prepend(Collection<? extends Vertex> elements) {
-        positionBuffer.prepend(elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()));
-        colorBuffer.prepend(elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()));
-        transformBuffer.prepend(elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()));
-    }
-
     /**
      * Prepends a chunk of blank elements to the beginning of this buffer.
      * <p>
@@ -91,22 +229,6 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
         transformBuffer.prependBlank(length);
     }
 
-    /**
-     * Inserts a chunk of elements into this buffer at offset, moving the elements currently after offset to the end of
-     * the space where the new chunk of elements will be located.
-     *
-     * @param offset   the position in elements to insert the chunk of elements at.
-     * @param elements the chunk of elements to insert.
-     */
-    @Override
-    public void insert(long offset, Collection<? extends Vertex> elements) {
-        positionBuffer
-                .insert(offset, elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()));
-        colorBuffer.insert(offset, elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()));
-        transformBuffer
-                .insert(offset, elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()));
-    }
-
     /**
      * Inserts a chunk of blank elements into this buffer at offset, moving the elements currently after the offset to
      * the end of the space where the empty space will be located.
@@ -120,73 +242,7 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
     public void insertBlank(long offset, long length) {
         positionBuffer.insertBlank(offset, length);
         colorBuffer.insertBlank(offset, length);
-        positionBuffer.insertBlank(offset, length);
-    }
-
-    /**
-     * Replaces a chunk of elements in this buffer with a new chunk of elements, moving the elements currently after the
-     * old chunk of elements to the end of the space where the new chunk of elements will be located.
-     *
-     * @param offset      the position in elements of the chunk to be replaced.
-     * @param chunkLength the length in elements of the chunk to be replaced.
-     * @param elements    the new chunk of elements to replace the old one.
-     */
-    @Override
-    public void replace(long offset, long chunkLength, Collection<? extends Vertex> elements) {
-        positionBuffer.replace(offset, chunkLength,
-                elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()));
-        colorBuffer.replace(offset, chunkLength,
-                elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()));
-        transformBuffer.replace(offset, chunkLength,
-                elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()));
-    }
-
-    /**
-     * Replaces everything at and after offset with a new chunk of elements, resizing this buffer so that it ends at the
-     * end of the new chunk of elements.
-     *
-     * @param offset   the position in elements of the first element to replace.
-     * @param elements the new chunk of elements to replace the old one.
-     */
-    @Override
-    public void replaceAfter(long offset, Collection<? extends Vertex> elements) {
-        positionBuffer.replaceAfter(offset,
-                elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()));
-        colorBuffer
-                .replaceAfter(offset, elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()));
-        transformBuffer.replaceAfter(offset,
-                elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()));
-    }
-
-    /**
-     * Replaces everything before cutoff with a new chunk of elements, moving everything after the old chunk of elements
-     * to the end of the space where the new chunk of elements will be located.
-     *
-     * @param cutoff   the position in elements to replace everything before.
-     * @param elements the new chunk of elements to replace the old one.
-     */
-    @Override
-    public void replaceBefore(long cutoff, Collection<? extends Vertex> elements) {
-        positionBuffer.replaceBefore(cutoff,
-                elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()));
-        colorBuffer.replaceBefore(cutoff,
-                elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()));
-        transformBuffer.replaceBefore(cutoff,
-                elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()));
-    }
-
-    /**
-     * Replaces everything in this buffer with a new chunk of elements, resizing this buffer to match the size of the
-     * new chunk of elements.
-     *
-     * @param elements the new chunk of elements to replace everything in this buffer with.
-     */
-    @Override
-    public void replaceAll(Collection<? extends Vertex> elements) {
-        positionBuffer.replaceAll(elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()));
-        colorBuffer.replaceAll(elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()));
-        transformBuffer
-                .replaceAll(elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()));
+        transformBuffer.insertBlank(offset, length);
     }
 
     /**
@@ -203,6 +259,26 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
         transformBuffer.remove(offset, chunkLength);
     }
 
+    /**
+     * Removes a chunk of elements from this buffer by moving the elements at the end of this buffer into the hole left
+     * by the removed chunk.
+     * <p>
+     * Unlike {@link #remove(long, long)}, this does not preserve the order of the elements in this buffer, but it only
+     * ever moves at most chunkLength elements, no matter how large this buffer is.
+     *
+     * @param offset      the position in elements of the chunk to be removed.
+     * @param chunkLength the length in elements of the chunk to be removed.
+     * @return the position in elements the relocated elements were moved from. Every element that was at or after this
+     * position before the removal is now at offset + (its old position - this position). If nothing was relocated,
+     * this is the old size of this buffer.
+     */
+    @Override
+    public long swapRemove(long offset, long chunkLength) {
+        colorBuffer.swapRemove(offset, chunkLength);
+        transformBuffer.swapRemove(offset, chunkLength);
+        return positionBuffer.swapRemove(offset, chunkLength);
+    }
+
     /**
      * Removes everything at and after offset from this buffer, resizing as necessary.
      *
@@ -274,13 +350,33 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
      */
     @Override
     public void set(long offset, List<? extends Vertex> elements, Collection<Integer> indices) {
-        positionBuffer.set(offset, elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()),
-                indices);
-        colorBuffer
-                .set(offset, elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()), indices);
-        transformBuffer
-                .set(offset, elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()),
-                        indices);
+        splitUnique(elements);
+        try {
+            positionBuffer.set(offset, positions, indices);
+            colorBuffer.set(offset, colors, indices);
+            transformBuffer.set(offset, transforms, indices);
+        } finally {
+            clearViews();
+        }
+    }
+
+    /**
+     * Sets a chunk of elements within this buffer.
+     *
+     * @param offset   the position in elements within this buffer to place the start of the new elements.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to set.
+     */
+    @Override
+    public void set(long offset, List<? extends Vertex> elements, IntBuffer indices) {
+        splitUnique(elements);
+        try {
+            positionBuffer.set(offset, positions, indices);
+            colorBuffer.set(offset, colors, indices);
+            transformBuffer.set(offset, transforms, indices);
+        } finally {
+            clearViews();
+        }
     }
 
     /**
@@ -307,11 +403,32 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
      */
     @Override
     public void append(List<? extends Vertex> elements, Collection<Integer> indices) {
-        positionBuffer
-                .append(elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()), indices);
-        colorBuffer.append(elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()), indices);
-        transformBuffer
-                .append(elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()), indices);
+        splitUnique(elements);
+        try {
+            positionBuffer.append(positions, indices);
+            colorBuffer.append(colors, indices);
+            transformBuffer.append(transforms, indices);
+        } finally {
+            clearViews();
+        }
+    }
+
+    /**
+     * Appends a chunk of elements to the end of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices list ot draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to append.
+     */
+    @Override
+    public void append(List<? extends Vertex> elements, IntBuffer indices) {
+        splitUnique(elements);
+        try {
+            positionBuffer.append(positions, indices);
+            colorBuffer.append(colors, indices);
+            transformBuffer.append(transforms, indices);
+        } finally {
+            clearViews();
+        }
     }
 
     /**
@@ -334,11 +451,32 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
      */
     @Override
     public void prepend(List<? extends Vertex> elements, Collection<Integer> indices) {
-        positionBuffer
-                .prepend(elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()), indices);
-        colorBuffer.prepend(elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()), indices);
-        transformBuffer
-                .prepend(elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()), indices);
+        splitUnique(elements);
+        try {
+            positionBuffer.prepend(positions, indices);
+            colorBuffer.prepend(colors, indices);
+            transformBuffer.prepend(transforms, indices);
+        } finally {
+            clearViews();
+        }
+    }
+
+    /**
+     * Prepends a chunk of elements to the beginning of this buffer.
+     *
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of elements to prepend.
+     */
+    @Override
+    public void prepend(List<? extends Vertex> elements, IntBuffer indices) {
+        splitUnique(elements);
+        try {
+            positionBuffer.prepend(positions, indices);
+            colorBuffer.prepend(colors, indices);
+            transformBuffer.prepend(transforms, indices);
+        } finally {
+            clearViews();
+        }
     }
 
     /**
@@ -363,14 +501,34 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
      */
     @Override
     public void insert(long offset, List<? extends Vertex> elements, Collection<Integer> indices) {
-        positionBuffer
-                .insert(offset, elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()),
-                        indices);
-        colorBuffer.insert(offset, elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()),
-                indices);
-        transformBuffer
-                .insert(offset, elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()),
-                        indices);
+        splitUnique(elements);
+        try {
+            positionBuffer.insert(offset, positions, indices);
+            colorBuffer.insert(offset, colors, indices);
+            transformBuffer.insert(offset, transforms, indices);
+        } finally {
+            clearViews();
+        }
+    }
+
+    /**
+     * Inserts a chunk of elements into this buffer at offset, moving the elements currently after offset to the end of
+     * the space where the new chunk of elements will be located.
+     *
+     * @param offset   the position in elements to insert the chunk of elements at.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to insert.
+     */
+    @Override
+    public void insert(long offset, List<? extends Vertex> elements, IntBuffer indices) {
+        splitUnique(elements);
+        try {
+            positionBuffer.insert(offset, positions, indices);
+            colorBuffer.insert(offset, colors, indices);
+            transformBuffer.insert(offset, transforms, indices);
+        } finally {
+            clearViews();
+        }
     }
 
     /**
@@ -398,12 +556,35 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
      */
     @Override
     public void replace(long offset, long chunkLength, List<? extends Vertex> elements, Collection<Integer> indices) {
-        positionBuffer.replace(offset, chunkLength,
-                elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()), indices);
-        colorBuffer.replace(offset, chunkLength,
-                elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()), indices);
-        transformBuffer.replace(offset, chunkLength,
-                elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()), indices);
+        splitUnique(elements);
+        try {
+            positionBuffer.replace(offset, chunkLength, positions, indices);
+            colorBuffer.replace(offset, chunkLength, colors, indices);
+            transformBuffer.replace(offset, chunkLength, transforms, indices);
+        } finally {
+            clearViews();
+        }
+    }
+
+    /**
+     * Replaces a chunk of elements in this buffer with a new chunk of elements, moving the elements currently after the
+     * old chunk of elements to the end of the space where the new chunk of elements will be located.
+     *
+     * @param offset      the position in elements of the chunk ot be replaced.
+     * @param chunkLength the length in elements of the chunk to be replaced.
+     * @param elements    the indexed list of unique elements for the indices list to draw from.
+     * @param indices     the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replace(long offset, long chunkLength, List<? extends Vertex> elements, IntBuffer indices) {
+        splitUnique(elements);
+        try {
+            positionBuffer.replace(offset, chunkLength, positions, indices);
+            colorBuffer.replace(offset, chunkLength, colors, indices);
+            transformBuffer.replace(offset, chunkLength, transforms, indices);
+        } finally {
+            clearViews();
+        }
     }
 
     /**
@@ -431,13 +612,34 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
      */
     @Override
     public void replaceAfter(long offset, List<? extends Vertex> elements, Collection<Integer> indices) {
-        positionBuffer.replaceAfter(offset,
-                elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()), indices);
-        colorBuffer
-                .replaceAfter(offset, elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()),
-                        indices);
-        transformBuffer.replaceAfter(offset,
-                elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()), indices);
+        splitUnique(elements);
+        try {
+            positionBuffer.replaceAfter(offset, positions, indices);
+            colorBuffer.replaceAfter(offset, colors, indices);
+            transformBuffer.replaceAfter(offset, transforms, indices);
+        } finally {
+            clearViews();
+        }
+    }
+
+    /**
+     * Replaces everything at and after offset with a new chunk of elements, resizing this buffer so that it ends at the
+     * end of the new chunk of elements.
+     *
+     * @param offset   the position in elements of the first element to replace.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceAfter(long offset, List<? extends Vertex> elements, IntBuffer indices) {
+        splitUnique(elements);
+        try {
+            positionBuffer.replaceAfter(offset, positions, indices);
+            colorBuffer.replaceAfter(offset, colors, indices);
+            transformBuffer.replaceAfter(offset, transforms, indices);
+        } finally {
+            clearViews();
+        }
     }
 
     /**
@@ -464,13 +666,34 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
      */
     @Override
     public void replaceBefore(long cutoff, List<? extends Vertex> elements, Collection<Integer> indices) {
-        positionBuffer.replaceBefore(cutoff,
-                elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()), indices);
-        colorBuffer
-                .replaceBefore(cutoff, elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()),
-                        indices);
-        transformBuffer.replaceBefore(cutoff,
-                elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()), indices);
+        splitUnique(elements);
+        try {
+            positionBuffer.replaceBefore(cutoff, positions, indices);
+            colorBuffer.replaceBefore(cutoff, colors, indices);
+            transformBuffer.replaceBefore(cutoff, transforms, indices);
+        } finally {
+            clearViews();
+        }
+    }
+
+    /**
+     * Replaces everything before cutoff with a new chunk of elements, moving everything after the old chunk of elements
+     * to the end of the space where the new chunk of elements will be located.
+     *
+     * @param cutoff   the position in elements to replace everything before.
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceBefore(long cutoff, List<? extends Vertex> elements, IntBuffer indices) {
+        splitUnique(elements);
+        try {
+            positionBuffer.replaceBefore(cutoff, positions, indices);
+            colorBuffer.replaceBefore(cutoff, colors, indices);
+            transformBuffer.replaceBefore(cutoff, transforms, indices);
+        } finally {
+            clearViews();
+        }
     }
 
     /**
@@ -496,12 +719,33 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
      */
     @Override
     public void replaceAll(List<? extends Vertex> elements, Collection<Integer> indices) {
-        positionBuffer.replaceAll(elements.stream().map(Vertex::getPosition).collect(ImmutableList.toImmutableList()),
-                indices);
-        colorBuffer
-                .replaceAll(elements.stream().map(Vertex::getColor).collect(ImmutableList.toImmutableList()), indices);
-        transformBuffer.replaceAll(elements.stream().map(Vertex::getTransform).collect(ImmutableList.toImmutableList()),
-                indices);
+        splitUnique(elements);
+        try {
+            positionBuffer.replaceAll(positions, indices);
+            colorBuffer.replaceAll(colors, indices);
+            transformBuffer.replaceAll(transforms, indices);
+        } finally {
+            clearViews();
+        }
+    }
+
+    /**
+     * Replaces everything in this buffer with a new chunk of elements, resizing this buffer to match the size of the
+     * new chunk of elements.
+     *
+     * @param elements the indexed list of unique elements for the indices list to draw from.
+     * @param indices  the indices into the elements list that make up the chunk of data to replace with.
+     */
+    @Override
+    public void replaceAll(List<? extends Vertex> elements, IntBuffer indices) {
+        splitUnique(elements);
+        try {
+            positionBuffer.replaceAll(positions, indices);
+            colorBuffer.replaceAll(colors, indices);
+            transformBuffer.replaceAll(transforms, indices);
+        } finally {
+            clearViews();
+        }
     }
 
     /**
@@ -516,4 +760,102 @@ public class WritableVertexBuffer implements WritableObjectBuffer<Vertex> {
         colorBuffer.replaceAll(element.getColor());
         transformBuffer.replaceAll(element.getTransform());
     }
+
+    /**
+     * Splits the unique vertices of an indexed operation into the attribute views in a single pass, growing the views
+     * if there are more unique vertices than fit in them.
+     */
+    private void splitUnique(List<? extends Vertex> elements) {
+        int size = elements.size();
+        positions.ensureCapacity(size);
+        colors.ensureCapacity(size);
+        transforms.ensureCapacity(size);
+
+        int count = 0;
+        for (Vertex vertex : elements) {
+            positions.array[count] = vertex.getPosition();
+            colors.array[count] = vertex.getColor();
+            transforms.array[count] = vertex.getTransform();
+            count++;
+        }
+
+        positions.size = count;
+        colors.size = count;
+        transforms.size = count;
+    }
+
+    private void clearViews() {
+        // don't keep the vertices alive
+        positions.clear();
+        colors.clear();
+        transforms.clear();
+        positions.trimTo(COPY_CHUNK_SIZE);
+        colors.trimTo(COPY_CHUNK_SIZE);
+        transforms.trimTo(COPY_CHUNK_SIZE);
+    }
+
+    private static void checkColorFloats(FloatBuffer source, int colorIndex, int stride, int count) {
+        // the position buffer checks everything else before anything is written, but the colors are only checked by
+        // the color buffer after the positions have already been written
+        if (colorIndex < 0) {
+            throw new IllegalArgumentException("ColorIndex cannot be less than zero");
+        }
+
+        if (count > 0 && colorIndex + (long) (count - 1) * stride + 3 > source.limit()) {
+            throw new IndexOutOfBoundsException(
+                    "colorIndex + length > size (" + colorIndex + " + " + ((long) (count - 1) * stride + 3) + " > " +
+                            source.limit() + ")");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AbstractWritableDataObjectBuffer<Vector3fc> floatBuffer(WritableObjectBuffer<Vector3fc> buffer,
+                                                                         String name) {
+        if (!(buffer instanceof AbstractWritableDataObjectBuffer) ||
+                ((AbstractWritableDataObjectBuffer<Vector3fc>) buffer).getFloatsPerElement() != 3) {
+            throw new UnsupportedOperationException("The " + name + " buffer cannot decode vectors from floats");
+        }
+
+        return (AbstractWritableDataObjectBuffer<Vector3fc>) buffer;
+    }
+
+    /**
+     * A reusable list view over the start of an array.
+     */
+    private static class ChunkView<E> extends AbstractList<E> implements RandomAccess {
+        private E[] array;
+        private int size;
+
+        private ChunkView(E[] array) {
+            this.array = array;
+        }
+
+        @Override
+        public E get(int index) {
+            return array[Objects.checkIndex(index, size)];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(array, 0, size, null);
+            size = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (array.length < capacity) {
+                array = Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+            }
+        }
+
+        private void trimTo(int capacity) {
+            if (array.length > capacity) {
+                array = Arrays.copyOf(array, capacity);
+            }
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.kneelawk.klinesjava.shaders;
 import java.util.Objects;
 
 import static org.lwjgl.opengl.GL20C.glDeleteProgram;
+import static org.lwjgl.opengl.GL20C.glGetAttribLocation;
 import static org.lwjgl.opengl.GL20C.glGetUniformLocation;
 
 /**
@@ -41,6 +42,16 @@ public class ShaderProgram {
         return glGetUniformLocation(id, name);
     }
 
+    /**
+     * Gets the location of a vertex attribute within this program.
+     *
+     * @param name the textual name of the attribute.
+     * @return the location of the attribute, or -1 if this program has no active attribute with that name.
+     */
+    public int getAttributeLocation(CharSequence name) {
+        return glGetAttribLocation(id, name);
+    }
+
     /**
      * Deletes this program.
      * <p>
@@ -2,9 +2,14 @@ package com.kneelawk.klinesjava.utils;
 
 import com.google.common.collect.Lists;
 
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 
@@ -38,4 +43,73 @@ public class CollectionUtils {
 
         collection.addAll(newElements);
     }
+
+    /**
+     * Gathers the elements of an iterator into blocks and passes each block to an action as soon as it is full, and the
+     * last, possibly shorter, block once the iterator runs out.
+     * <p>
+     * The same list is reused for every block, so the action must not keep a reference to it.
+     *
+     * @param iterator  the iterator to gather the elements of.
+     * @param blockSize the largest number of elements in each block.
+     * @param action    the action to pass each block to.
+     */
+    public static <E> void forEachBlock(Iterator<? extends E> iterator, int blockSize,
+                                        Consumer<? super List<E>> action) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("BlockSize must be greater than zero");
+        }
+
+        List<E> block = new ArrayList<>(blockSize);
+        while (iterator.hasNext()) {
+            block.add(iterator.next());
+
+            if (block.size() == blockSize || !iterator.hasNext()) {
+                action.accept(block);
+                block.clear();
+            }
+        }
+    }
+
+    /**
+     * Creates a read-only view of the elements of a list picked out by a buffer of indices.
+     * <p>
+     * The view reads the indices from the buffer's position to its limit when its elements are accessed, so nothing is
+     * copied or boxed. Neither the list nor the indices buffer should be changed while the view is being used.
+     *
+     * @param elements the list to pick elements from.
+     * @param indices  the indices into the list of the elements in the view.
+     * @return a view whose i-th element is the element of the list at the i-th index.
+     */
+    public static <E> List<E> gather(List<? extends E> elements, IntBuffer indices) {
+        return new GatherList<>(elements, indices);
+    }
+
+    private static class GatherList<E> extends AbstractList<E> implements RandomAccess {
+        private final List<? extends E> elements;
+        private final IntBuffer indices;
+        private final int start;
+        private final int size;
+
+        private GatherList(List<? extends E> elements, IntBuffer indices) {
+            this.elements = elements;
+            this.indices = indices;
+            start = indices.position();
+            size = indices.remaining();
+        }
+
+        @Override
+        public E get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+
+            return elements.get(indices.get(start + index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.kneelawk.klinesjava.utils;
+
+public class PackingUtils {
+    /**
+     * Converts a float to the bits of the nearest IEEE 754 half-precision float, rounding ties to even.
+     * <p>
+     * Values too large for a half-precision float become infinity and values too small become zero.
+     *
+     * @param value the float to convert.
+     * @return the bits of the half-precision float.
+     */
+    public static short toHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int abs = bits & 0x7FFFFFFF;
+
+        // infinity and NaN, NaN keeps the top of its payload and stays quiet
+        if (abs >= 0x7F800000) {
+            return (short) (sign | 0x7C00 | (abs > 0x7F800000 ? 0x200 | ((abs >>> 13) & 0x3FF) : 0));
+        }
+
+        // anything that rounds to 65520 or above overflows to infinity
+        if (abs >= 0x477FF000) {
+            return (short) (sign | 0x7C00);
+        }
+
+        // anything below 2^-14 becomes a subnormal half or zero
+        if (abs < 0x38800000) {
+            int shift = 126 - (abs >>> 23);
+            if (shift > 24) {
+                return (short) sign;
+            }
+
+            int mantissa = (abs & 0x7FFFFF) | 0x800000;
+            int half = mantissa >>> shift;
+            int remainder = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (remainder > halfway || (remainder == halfway && (half & 1) != 0)) {
+                half++;
+            }
+
+            return (short) (sign | half);
+        }
+
+        // rebias the exponent and round the mantissa, a carry out of the mantissa correctly bumps the exponent
+        int half = (abs - 0x38000000) >>> 13;
+        int remainder = abs & 0x1FFF;
+        if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0)) {
+            half++;
+        }
+
+        return (short) (sign | half);
+    }
+
+    /**
+     * Converts a float in the range [-1, 1] to a signed normalized 16-bit integer. Values outside of the range are
+     * clamped and NaN becomes zero.
+     *
+     * @param value the float to convert.
+     * @return the signed normalized 16-bit integer.
+     */
+    public static short toSnorm16(float value) {
+        float clamped = Math.max(-1f, Math.min(1f, value));
+        return (short) Math.round(clamped * 32767f);
+    }
+
+    /**
+     * Converts a float in the range [0, 1] to an unsigned normalized 8-bit integer. Values outside of the range are
+     * clamped.
+     *
+     * @param value the float to convert.
+     * @return the unsigned normalized 8-bit integer, stored in the bits of a byte.
+     */
+    public static byte toUnorm8(float value) {
+        float clamped = Math.max(0f, Math.min(1f, value));
+        return (byte) Math.round(clamped * 255f);
+    }
+
+    /**
+     * Converts a float in the range [-1, 1] to a signed normalized 8-bit integer. Values outside of the range are
+     * clamped.
+     *
+     * @param value the float to convert.
+     * @return the signed normalized 8-bit integer.
+     */
+    public static byte toSnorm8(float value) {
+        float clamped = Math.max(-1f, Math.min(1f, value));
+        return (byte) Math.round(clamped * 127f);
+    }
+
+    /**
+     * Converts a float in the range [0, 1] to an unsigned normalized 16-bit integer. Values outside of the range are
+     * clamped.
+     *
+     * @param value the float to convert.
+     * @return the unsigned normalized 16-bit integer, stored in the bits of a short.
+     */
+    public static short toUnorm16(float value) {
+        float clamped = Math.max(0f, Math.min(1f, value));
+        return (short) Math.round(clamped * 65535f);
+    }
+}
@@ -0,0 +1,123 @@
+package com.kneelawk.klinesjava.buffers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferChangeFeedTest {
+    @Test
+    void discardDuringFlushStopsDelivery() {
+        BufferChangeFeed feed = new BufferChangeFeed();
+        RecordingListener recorder = new RecordingListener();
+        feed.addListener(new RecordingListener() {
+            @Override
+            public void onInsert(long offset, long length) {
+                feed.discard();
+            }
+        });
+        feed.addListener(recorder);
+
+        feed.recordSet(0, 4);
+        feed.recordInsert(10, 2);
+        feed.recordRemove(20, 3);
+        feed.flush();
+
+        // the listener after the discarding one never sees the discarded insert
+        assertEquals(List.of("set 0 4"), recorder.events);
+        assertEquals(0, feed.getPendingEventCount());
+
+        feed.flush();
+        assertEquals(List.of("set 0 4"), recorder.events);
+    }
+
+    @Test
+    void eventsRecordedAfterDiscardDuringFlushAreKept() {
+        BufferChangeFeed feed = new BufferChangeFeed();
+        RecordingListener recorder = new RecordingListener();
+        feed.addListener(new RecordingListener() {
+            @Override
+            public void onInsert(long offset, long length) {
+                feed.discard();
+                feed.recordSet(5, 1);
+                feed.recordSet(6, 1);
+            }
+        });
+
+        feed.recordInsert(0, 1);
+        feed.recordInsert(1, 1);
+        feed.flush();
+
+        assertEquals(1, feed.getPendingEventCount());
+
+        feed.addListener(recorder);
+        feed.flush();
+        assertEquals(List.of("set 5 2"), recorder.events);
+    }
+
+    @Test
+    void discardResetsMerging() {
+        BufferChangeFeed feed = new BufferChangeFeed();
+        RecordingListener recorder = new RecordingListener();
+        feed.addListener(new RecordingListener() {
+            @Override
+            public void onRemove(long offset, long length) {
+                feed.discard();
+            }
+        });
+        feed.addListener(recorder);
+
+        feed.recordSet(0, 1);
+        feed.recordRemove(4, 1);
+        feed.flush();
+
+        feed.recordSet(0, 2);
+        feed.recordSet(2, 2);
+        assertEquals(1, feed.getPendingEventCount());
+    }
+
+    @Test
+    void nestedFlushThrows() {
+        BufferChangeFeed feed = new BufferChangeFeed();
+        feed.addListener(new RecordingListener() {
+            @Override
+            public void onClear() {
+                feed.flush();
+            }
+        });
+
+        feed.recordClear();
+        assertThrows(IllegalStateException.class, feed::flush);
+
+        // the feed is usable again after the failed flush
+        assertEquals(0, feed.getPendingEventCount());
+        feed.recordSet(0, 1);
+        assertEquals(1, feed.getPendingEventCount());
+    }
+
+    private static class RecordingListener implements BufferChangeListener {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onSet(long offset, long length) {
+            events.add("set " + offset + " " + length);
+        }
+
+        @Override
+        public void onInsert(long offset, long length) {
+            events.add("insert " + offset + " " + length);
+        }
+
+        @Override
+        public void onRemove(long offset, long length) {
+            events.add("remove " + offset + " " + length);
+        }
+
+        @Override
+        public void onClear() {
+            events.add("clear");
+        }
+    }
+}
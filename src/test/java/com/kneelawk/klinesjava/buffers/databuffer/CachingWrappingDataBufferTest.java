@@ -0,0 +1,88 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingWrappingDataBufferTest {
+    private DirectDataBuffer wrapped;
+    private CachingWrappingDataBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        wrapped = new DirectDataBuffer();
+        buffer = new CachingWrappingDataBuffer(wrapped);
+        buffer.appendBlank(64);
+        buffer.setCompareBeforeUpload(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.close();
+        wrapped.close();
+    }
+
+    @Test
+    void comparedSetRejectsHeapBuffers() {
+        assertThrows(IllegalArgumentException.class, () -> buffer.set(0, ByteBuffer.allocate(16)));
+        assertThrows(IllegalArgumentException.class, () -> buffer.set(0, FloatBuffer.allocate(4)));
+        assertEquals(0, buffer.getComparedBytes());
+    }
+
+    @Test
+    void comparedSetOnlyWritesChangedData() {
+        FloatBuffer data = MemoryUtil.memAllocFloat(4);
+        try {
+            data.put(0, 1).put(1, 2).put(2, 3).put(3, 4);
+            buffer.set(0, data);
+            assertEquals(2f, wrapped.readFloat(4));
+
+            // writing the same data again leaves nothing to upload
+            long suppressed = buffer.getSuppressedBytes();
+            buffer.set(0, data);
+            assertEquals(suppressed + 16, buffer.getSuppressedBytes());
+            assertEquals(4f, buffer.readFloat(12));
+        } finally {
+            MemoryUtil.memFree(data);
+        }
+    }
+
+    @Test
+    void swapRemoveReturnsWhereTheMovedDataCameFrom() {
+        buffer.clear();
+        for (int i = 0; i < 10; i++) {
+            buffer.append(i);
+        }
+
+        assertEquals(32, buffer.swapRemove(4, 8));
+        assertInts(0, 8, 9, 3, 4, 5, 6, 7);
+
+        // overlapping the end
+        assertEquals(24, buffer.swapRemove(12, 12));
+        assertInts(0, 8, 9, 6, 7);
+
+        // reaching the end
+        assertEquals(20, buffer.swapRemove(12, 8));
+        assertInts(0, 8, 9);
+
+        // outside the buffer
+        assertEquals(12, buffer.swapRemove(12, 4));
+        assertEquals(12, buffer.swapRemove(40, 4));
+        assertInts(0, 8, 9);
+    }
+
+    private void assertInts(int... expected) {
+        assertEquals(expected.length * 4L, buffer.getSize());
+        assertEquals(expected.length * 4L, wrapped.getSize());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], buffer.readInt(i * 4L), "Cached int " + i);
+            assertEquals(expected[i], wrapped.readInt(i * 4L), "Wrapped int " + i);
+        }
+    }
+}
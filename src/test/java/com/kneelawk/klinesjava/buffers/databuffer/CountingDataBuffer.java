@@ -0,0 +1,43 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+/**
+ * CountingDataBuffer - A direct data buffer that counts the writes made to it, standing in for the uploads a GL buffer
+ * would make.
+ */
+public class CountingDataBuffer extends DirectDataBuffer {
+    private long setCalls = 0;
+    private long setBytes = 0;
+
+    /**
+     * Gets the number of times data has been set in this buffer.
+     *
+     * @return the number of set calls.
+     */
+    public long getSetCalls() {
+        return setCalls;
+    }
+
+    /**
+     * Gets the total number of bytes set in this buffer.
+     *
+     * @return the number of bytes set.
+     */
+    public long getSetBytes() {
+        return setBytes;
+    }
+
+    /**
+     * Resets the counts to zero.
+     */
+    public void resetCounts() {
+        setCalls = 0;
+        setBytes = 0;
+    }
+
+    @Override
+    public void setNative(long offset, long length, long address) {
+        setCalls++;
+        setBytes += length;
+        super.setNative(offset, length, address);
+    }
+}
@@ -0,0 +1,144 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+class DirectDataBufferTest {
+    private static final int SIZE = 8 * 1024 * 1024 + 13;
+
+    private ForkJoinPool pool;
+    private DirectDataBuffer serial;
+    private DirectDataBuffer parallel;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+
+        // both buffers start with room to grow so shifts are done in place
+        serial = new DirectDataBuffer(SIZE * 2L);
+        serial.setParallelMoveThreshold(Long.MAX_VALUE);
+
+        parallel = new DirectDataBuffer(SIZE * 2L);
+        parallel.setParallelMovePool(pool);
+        parallel.setParallelMoveThreshold(0);
+
+        byte[] data = new byte[SIZE];
+        new Random(42).nextBytes(data);
+        ByteBuffer buffer = memAlloc(SIZE);
+        try {
+            buffer.put(data).flip();
+            serial.append(buffer);
+            parallel.append(buffer);
+        } finally {
+            memFree(buffer);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        serial.close();
+        parallel.close();
+        pool.shutdown();
+    }
+
+    @Test
+    void parallelPrependMatchesSerial() {
+        ByteBuffer small = memAlloc(16);
+        try {
+            for (int i = 0; i < 16; i++) {
+                small.put(i, (byte) i);
+            }
+
+            serial.prepend(small);
+            parallel.prepend(small);
+        } finally {
+            memFree(small);
+        }
+
+        assertSameContents();
+    }
+
+    @Test
+    void parallelFrontRemoveMatchesSerial() {
+        serial.remove(0, 3 * 1024 * 1024 + 7);
+        parallel.remove(0, 3 * 1024 * 1024 + 7);
+
+        assertSameContents();
+    }
+
+    @Test
+    void parallelMiddleRemoveMatchesSerial() {
+        serial.remove(1000, 1024 * 1024);
+        parallel.remove(1000, 1024 * 1024);
+
+        assertSameContents();
+    }
+
+    @Test
+    void swapRemoveMovesTheEndIntoTheHole() {
+        try (DirectDataBuffer buffer = ints(10)) {
+            assertEquals(32, buffer.swapRemove(4, 8));
+            assertInts(buffer, 0, 8, 9, 3, 4, 5, 6, 7);
+        }
+    }
+
+    @Test
+    void swapRemoveOverlappingTheEndOnlyMovesWhatFollowsTheHole() {
+        try (DirectDataBuffer buffer = ints(10)) {
+            // only two ints follow the hole, so they are all that moves
+            assertEquals(32, buffer.swapRemove(16, 16));
+            assertInts(buffer, 0, 1, 2, 3, 8, 9);
+        }
+    }
+
+    @Test
+    void swapRemoveReachingTheEndReturnsTheOldSize() {
+        try (DirectDataBuffer buffer = ints(10)) {
+            assertEquals(40, buffer.swapRemove(24, 16));
+            assertInts(buffer, 0, 1, 2, 3, 4, 5);
+
+            assertEquals(24, buffer.swapRemove(8, 100));
+            assertInts(buffer, 0, 1);
+        }
+    }
+
+    @Test
+    void swapRemoveOutsideTheBufferRemovesNothing() {
+        try (DirectDataBuffer buffer = ints(10)) {
+            assertEquals(40, buffer.swapRemove(40, 4));
+            assertEquals(40, buffer.swapRemove(100, 4));
+            assertEquals(40, buffer.swapRemove(8, 0));
+            assertInts(buffer, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        }
+    }
+
+    private static DirectDataBuffer ints(int count) {
+        DirectDataBuffer buffer = new DirectDataBuffer();
+        for (int i = 0; i < count; i++) {
+            buffer.append(i);
+        }
+        return buffer;
+    }
+
+    private static void assertInts(ReadableDataBuffer buffer, int... expected) {
+        assertEquals(expected.length * 4L, buffer.getSize());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], buffer.readInt(i * 4L), "Int " + i);
+        }
+    }
+
+    private void assertSameContents() {
+        assertEquals(serial.getSize(), parallel.getSize());
+        ByteBuffer expected = memByteBuffer(serial.address(), (int) serial.getSize());
+        ByteBuffer actual = memByteBuffer(parallel.address(), (int) parallel.getSize());
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,99 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.libc.LibCString.nmemmove;
+
+/**
+ * ParallelMemoryMoverBenchmark - Compares the throughput of {@link ParallelMemoryMover} against the serial copies it
+ * replaces, across chunk sizes and thread counts.
+ * <p>
+ * The serial baselines are the copy through a temporary buffer DirectDataBuffer does below the parallel threshold, and
+ * a single memmove. Only runs when the klines.benchmark system property is true, use
+ * <code>./gradlew test -Pbenchmark</code>.
+ */
+@EnabledIfSystemProperty(named = "klines.benchmark", matches = "true")
+class ParallelMemoryMoverBenchmark {
+    private static final long MIB = 1024 * 1024;
+    private static final long[] SIZES = {16 * MIB, 64 * MIB, 256 * MIB};
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 5;
+
+    @Test
+    void shortForwardShift() {
+        // prepending a few kilobytes to a large buffer
+        run("short forward shift (prepend 4 KiB)", 0, 4096);
+    }
+
+    @Test
+    void longBackwardShift() {
+        // removing the front quarter of a large buffer
+        run("long backward shift (remove front quarter)", -1, 0);
+    }
+
+    private static void run(String name, long sourceOffset, long destOffset) {
+        int[] threadCounts = IntStream.of(1, 2, 4, 8, Runtime.getRuntime().availableProcessors())
+                .filter(threads -> threads <= Runtime.getRuntime().availableProcessors()).distinct().sorted().toArray();
+
+        System.out.println();
+        System.out.println(name + ", throughput in GiB/s of bytes moved");
+        System.out.printf("%10s %10s %10s", "size", "tmp copy", "memmove");
+        for (int threads : threadCounts) {
+            System.out.printf(" %9s", threads + " thr");
+        }
+        System.out.println();
+
+        for (long size : SIZES) {
+            long source = sourceOffset < 0 ? size / 4 : sourceOffset;
+            long length = size - source;
+            long region = nmemAllocChecked(size + destOffset);
+            long tmp = nmemAllocChecked(length);
+
+            try {
+                memSet(region, 1, size + destOffset);
+
+                double tmpCopy = measure(length, () -> {
+                    memCopy(region + source, tmp, length);
+                    memCopy(tmp, region + destOffset, length);
+                });
+                double memmove = measure(length, () -> nmemmove(region + destOffset, region + source, length));
+                System.out.printf("%7d MiB %10.2f %10.2f", size / MIB, tmpCopy, memmove);
+
+                for (int threads : threadCounts) {
+                    ForkJoinPool pool = new ForkJoinPool(threads);
+                    try {
+                        ParallelMemoryMover mover = new ParallelMemoryMover(pool);
+                        System.out.printf(" %9.2f",
+                                measure(length, () -> mover.move(region + source, region + destOffset, length)));
+                    } finally {
+                        pool.shutdown();
+                    }
+                }
+                System.out.println();
+            } finally {
+                nmemFree(tmp);
+                nmemFree(region);
+            }
+        }
+    }
+
+    private static double measure(long length, Runnable move) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            move.run();
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            move.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return length / (double) (1L << 30) / (best / 1e9);
+    }
+}
@@ -0,0 +1,127 @@
+package com.kneelawk.klinesjava.buffers.databuffer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+class ParallelMemoryMoverTest {
+    private static final long BLOCK_SIZE = 4096;
+    private static final int PARALLELISM = 4;
+
+    private ForkJoinPool pool;
+    private ParallelMemoryMover mover;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(PARALLELISM);
+        mover = new ParallelMemoryMover(pool, BLOCK_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void disjointMove() {
+        assertMoves(mover, 0, 200_000, 100_000);
+        assertMoves(mover, 200_000, 0, 100_000);
+    }
+
+    @Test
+    void overlappingForwardMoveInWaves() {
+        // distances of at least BLOCK_SIZE * PARALLELISM are moved in waves
+        assertMoves(mover, 0, 50_000, 200_003);
+        assertMoves(mover, 0, BLOCK_SIZE * PARALLELISM, 100_000);
+    }
+
+    @Test
+    void overlappingBackwardMoveInWaves() {
+        assertMoves(mover, 50_000, 0, 200_003);
+        assertMoves(mover, BLOCK_SIZE * PARALLELISM, 0, 100_000);
+    }
+
+    @Test
+    void overlappingForwardMoveWithHalos() {
+        // shorter distances split the chunk into one block per thread and save each block's halo first
+        assertMoves(mover, 0, 1, 100_000);
+        assertMoves(mover, 0, 100, 100_001);
+        assertMoves(mover, 0, 5000, 100_002);
+        assertMoves(mover, 0, 16_383, 70_000);
+    }
+
+    @Test
+    void overlappingBackwardMoveWithHalos() {
+        assertMoves(mover, 1, 0, 100_000);
+        assertMoves(mover, 100, 0, 100_001);
+        assertMoves(mover, 5000, 0, 100_002);
+        assertMoves(mover, 16_383, 0, 70_000);
+    }
+
+    @Test
+    void smallOverlappingMoveFallsBackToMemmove() {
+        assertMoves(mover, 0, 100, 6000);
+        assertMoves(mover, 100, 0, 6000);
+        assertMoves(mover, 0, 1, 1);
+    }
+
+    @Test
+    void emptyMoveDoesNothing() {
+        assertMoves(mover, 0, 100, 0);
+        assertMoves(mover, 100, 100, 1000);
+    }
+
+    @Test
+    void randomMoves() {
+        Random random = new Random(1234);
+
+        for (int parallelism : new int[]{2, 3, 8}) {
+            ForkJoinPool randomPool = new ForkJoinPool(parallelism);
+            try {
+                ParallelMemoryMover randomMover = new ParallelMemoryMover(randomPool, 1 + random.nextInt(8192));
+
+                for (int i = 0; i < 200; i++) {
+                    long length = random.nextInt(200_000);
+                    long source = random.nextInt(100_000);
+                    long dest = random.nextBoolean() ? source + random.nextInt(100_000) :
+                            Math.max(0, source - random.nextInt(100_000));
+                    assertMoves(randomMover, source, dest, length);
+                }
+            } finally {
+                randomPool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Checks that a move gives the same result as System.arraycopy, which behaves like memmove for overlapping
+     * ranges, and that nothing outside the destination changes.
+     */
+    private static void assertMoves(ParallelMemoryMover mover, long source, long dest, long length) {
+        int regionSize = (int) (Math.max(source, dest) + length + 64);
+        byte[] expected = new byte[regionSize];
+        new Random(source * 31 + dest * 17 + length).nextBytes(expected);
+
+        ByteBuffer region = memAlloc(regionSize);
+        try {
+            region.put(expected).flip();
+            System.arraycopy(expected, (int) source, expected, (int) dest, (int) length);
+
+            mover.move(memAddress(region) + source, memAddress(region) + dest, length);
+
+            byte[] actual = new byte[regionSize];
+            region.get(actual);
+            assertArrayEquals(expected, actual,
+                    "move of " + length + " bytes from " + source + " to " + dest + " gave the wrong result");
+        } finally {
+            memFree(region);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.ReadableVector3fBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableVector3fBuffer;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.kneelawk.klinesjava.buffers.objectbuffer.WritableIndexingObjectBufferTest.VECTOR_ENCODER;
+import static com.kneelawk.klinesjava.buffers.objectbuffer.WritableIndexingObjectBufferTest.readIndices;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the IntBuffer and int[] index overloads of every indexed operation do the same as their
+ * Collection&lt;Integer&gt; counterparts, both for the defaults in WritableObjectBuffer and for the overrides in
+ * WritableIndexingObjectBuffer.
+ */
+class IndexedOverloadsTest {
+    private static final List<Vector3fc> UNIQUE = WritableIndexingObjectBufferTest.vectors(0, 20);
+
+    // padding around the indices in the IntBuffer variant, which would fail the operation if it was read
+    private static final int PADDING = 3;
+
+    private final List<DirectDataBuffer> data = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        data.forEach(DirectDataBuffer::close);
+    }
+
+    @Test
+    void defaultOverloadsMatchCollectionOverloads() {
+        for (Variant variant : Variant.values()) {
+            DirectDataBuffer elements = allocate();
+            ReadableVector3fBuffer readable = new ReadableVector3fBuffer(elements);
+            WritableVector3fBuffer buffer = new WritableVector3fBuffer(elements);
+
+            runOperations(buffer, variant, () -> new ArrayList<>(readable.get(0, readable.getSize())));
+        }
+    }
+
+    @Test
+    void indexingBufferOverloadsMatchCollectionOverloads() throws IOException {
+        for (Variant variant : Variant.values()) {
+            DirectDataBuffer indices = allocate();
+            DirectDataBuffer elements = allocate();
+            ReadableVector3fBuffer readable = new ReadableVector3fBuffer(elements);
+
+            try (WritableIndexingObjectBuffer<Vector3fc> buffer = new WritableIndexingObjectBuffer<>(indices,
+                    new WritableVector3fBuffer(elements), VECTOR_ENCODER)) {
+                runOperations(buffer, variant, () -> Arrays.stream(readIndices(buffer, indices))
+                        .mapToObj(readable::get).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    private void runOperations(WritableObjectBuffer<Vector3fc> buffer, Variant variant, Contents contents) {
+        Model model = new Model(variant, contents);
+
+        int[] indices = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3};
+        variant.apply(buffer, indices, (b, i) -> b.append(UNIQUE, i), (b, i) -> b.append(UNIQUE, i),
+                (b, i) -> b.append(UNIQUE, i));
+        model.check("append", m -> m.addAll(gather(indices)));
+
+        int[] set = {7, 7, 8};
+        variant.apply(buffer, set, (b, i) -> b.set(2, UNIQUE, i), (b, i) -> b.set(2, UNIQUE, i),
+                (b, i) -> b.set(2, UNIQUE, i));
+        model.check("set", m -> setAll(m, 2, gather(set)));
+
+        int[] prepend = {10, 11};
+        variant.apply(buffer, prepend, (b, i) -> b.prepend(UNIQUE, i), (b, i) -> b.prepend(UNIQUE, i),
+                (b, i) -> b.prepend(UNIQUE, i));
+        model.check("prepend", m -> m.addAll(0, gather(prepend)));
+
+        int[] insert = {12, 0, 12};
+        variant.apply(buffer, insert, (b, i) -> b.insert(4, UNIQUE, i), (b, i) -> b.insert(4, UNIQUE, i),
+                (b, i) -> b.insert(4, UNIQUE, i));
+        model.check("insert", m -> m.addAll(4, gather(insert)));
+
+        int[] growing = {13, 14, 15, 16, 17};
+        variant.apply(buffer, growing, (b, i) -> b.replace(1, 3, UNIQUE, i), (b, i) -> b.replace(1, 3, UNIQUE, i),
+                (b, i) -> b.replace(1, 3, UNIQUE, i));
+        model.check("growing replace", m -> replace(m, 1, 3, gather(growing)));
+
+        int[] shrinking = {18};
+        variant.apply(buffer, shrinking, (b, i) -> b.replace(0, 4, UNIQUE, i), (b, i) -> b.replace(0, 4, UNIQUE, i),
+                (b, i) -> b.replace(0, 4, UNIQUE, i));
+        model.check("shrinking replace", m -> replace(m, 0, 4, gather(shrinking)));
+
+        int[] before = {19, 2};
+        variant.apply(buffer, before, (b, i) -> b.replaceBefore(6, UNIQUE, i),
+                (b, i) -> b.replaceBefore(6, UNIQUE, i), (b, i) -> b.replaceBefore(6, UNIQUE, i));
+        model.check("shrinking replaceBefore", m -> replace(m, 0, 6, gather(before)));
+
+        // the new chunk is sized from the indices, not from the much longer list of unique elements
+        int[] growingBefore = {4, 5, 6, 7, 8};
+        variant.apply(buffer, growingBefore, (b, i) -> b.replaceBefore(2, UNIQUE, i),
+                (b, i) -> b.replaceBefore(2, UNIQUE, i), (b, i) -> b.replaceBefore(2, UNIQUE, i));
+        model.check("growing replaceBefore", m -> replace(m, 0, 2, gather(growingBefore)));
+
+        int[] after = {1, 2, 3, 4};
+        variant.apply(buffer, after, (b, i) -> b.replaceAfter(5, UNIQUE, i), (b, i) -> b.replaceAfter(5, UNIQUE, i),
+                (b, i) -> b.replaceAfter(5, UNIQUE, i));
+        model.check("replaceAfter", m -> replace(m, 5, m.size() - 5, gather(after)));
+
+        int[] pastTheEnd = {5, 6};
+        long last = buffer.getSize() - 1;
+        variant.apply(buffer, pastTheEnd, (b, i) -> b.set(last, UNIQUE, i), (b, i) -> b.set(last, UNIQUE, i),
+                (b, i) -> b.set(last, UNIQUE, i));
+        model.check("set past the end", m -> setAll(m, (int) last, gather(pastTheEnd)));
+
+        int[] all = {9, 8, 7};
+        variant.apply(buffer, all, (b, i) -> b.replaceAll(UNIQUE, i), (b, i) -> b.replaceAll(UNIQUE, i),
+                (b, i) -> b.replaceAll(UNIQUE, i));
+        model.check("replaceAll", m -> replace(m, 0, m.size(), gather(all)));
+
+        // longer than a single block of the streaming append
+        int[] stream = IntStream.range(0, 3000).map(i -> (i * 7) % UNIQUE.size()).toArray();
+        buffer.append(UNIQUE, Arrays.stream(stream));
+        model.check("stream append", m -> m.addAll(gather(stream)));
+    }
+
+    private DirectDataBuffer allocate() {
+        DirectDataBuffer buffer = new DirectDataBuffer();
+        data.add(buffer);
+        return buffer;
+    }
+
+    private static List<Vector3fc> gather(int[] indices) {
+        return Arrays.stream(indices).mapToObj(UNIQUE::get).collect(Collectors.toList());
+    }
+
+    private static void setAll(List<Vector3fc> model, int offset, List<Vector3fc> elements) {
+        for (int i = 0; i < elements.size(); i++) {
+            if (offset + i < model.size()) {
+                model.set(offset + i, elements.get(i));
+            } else {
+                model.add(elements.get(i));
+            }
+        }
+    }
+
+    private static void replace(List<Vector3fc> model, int offset, int chunkLength, List<Vector3fc> elements) {
+        model.subList(offset, offset + chunkLength).clear();
+        model.addAll(offset, elements);
+    }
+
+    private enum Variant {
+        COLLECTION,
+        INT_BUFFER,
+        INT_ARRAY;
+
+        private void apply(WritableObjectBuffer<Vector3fc> buffer, int[] indices,
+                           Operation<Collection<Integer>> collection, Operation<IntBuffer> intBuffer,
+                           Operation<int[]> intArray) {
+            switch (this) {
+                case COLLECTION:
+                    collection.apply(buffer, Arrays.stream(indices).boxed().collect(Collectors.toList()));
+                    break;
+                case INT_BUFFER:
+                    int[] padded = new int[indices.length + PADDING * 2];
+                    Arrays.fill(padded, -1);
+                    System.arraycopy(indices, 0, padded, PADDING, indices.length);
+
+                    IntBuffer window = IntBuffer.wrap(padded, PADDING, indices.length);
+                    intBuffer.apply(buffer, window);
+
+                    assertEquals(PADDING, window.position(), "Position of the indices");
+                    assertEquals(PADDING + indices.length, window.limit(), "Limit of the indices");
+                    break;
+                default:
+                    intArray.apply(buffer, indices);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation<I> {
+        void apply(WritableObjectBuffer<Vector3fc> buffer, I indices);
+    }
+
+    @FunctionalInterface
+    private interface Contents {
+        List<Vector3fc> read();
+    }
+
+    @FunctionalInterface
+    private interface Change {
+        void apply(List<Vector3fc> model);
+    }
+
+    private static class Model {
+        private final List<Vector3fc> expected = new ArrayList<>();
+        private final Variant variant;
+        private final Contents contents;
+
+        private Model(Variant variant, Contents contents) {
+            this.variant = variant;
+            this.contents = contents;
+        }
+
+        private void check(String operation, Change change) {
+            change.apply(expected);
+            assertEquals(expected, contents.read(), variant + " " + operation);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeElementIndexMapTest {
+    private NativeElementIndexMap map;
+
+    @BeforeEach
+    void setUp() {
+        map = new NativeElementIndexMap(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        map.close();
+    }
+
+    @Test
+    void probeChainWrapsAroundTheTableEnd() {
+        int last = map.getCapacity() - 1;
+        List<Integer> wrapping = keysWithHomeSlot(last, 3);
+        int first = keysWithHomeSlot(0, 1).get(0);
+
+        // the chain starting at the last slot continues at slots 0 and 1, pushing the key whose home is 0 to slot 2
+        for (int i = 0; i < 3; i++) {
+            put(wrapping.get(i), i);
+        }
+        put(first, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, get(wrapping.get(i)));
+        }
+        assertEquals(3, get(first));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    void removeFromTheMiddleOfAWrappedChain() {
+        int last = map.getCapacity() - 1;
+        List<Integer> wrapping = keysWithHomeSlot(last, 3);
+        int first = keysWithHomeSlot(0, 1).get(0);
+        for (int i = 0; i < 3; i++) {
+            put(wrapping.get(i), i);
+        }
+        put(first, 3);
+
+        // the hole at slot 0 is filled from slot 1, and the key whose home is 0 moves back to slot 1
+        map.remove(1);
+
+        assertEquals(-1, get(wrapping.get(1)));
+        assertEquals(0, get(wrapping.get(0)));
+        assertEquals(2, get(wrapping.get(2)));
+        assertEquals(3, get(first));
+        assertEquals(3, map.size());
+
+        map.remove(0);
+        assertEquals(-1, get(wrapping.get(0)));
+        assertEquals(2, get(wrapping.get(2)));
+        assertEquals(3, get(first));
+
+        // freed values can be given to other keys
+        put(wrapping.get(0), 1);
+        assertEquals(1, get(wrapping.get(0)));
+    }
+
+    @Test
+    void entryIsNotMovedBeforeItsHomeSlot() {
+        int home = 10;
+        int other = keysWithHomeSlot(home, 1).get(0);
+        List<Integer> chain = keysWithHomeSlot(home + 1, 2);
+
+        // slots 10, 11 and 12 are filled by a key at home and two keys whose home is 11
+        put(other, 0);
+        put(chain.get(0), 1);
+        put(chain.get(1), 2);
+
+        // removing the key in slot 10 must not move the keys whose home is 11 before it
+        map.remove(0);
+        assertEquals(1, get(chain.get(0)));
+        assertEquals(2, get(chain.get(1)));
+
+        map.remove(1);
+        assertEquals(2, get(chain.get(1)));
+    }
+
+    @Test
+    void growingKeepsEveryKey() {
+        int capacity = map.getCapacity();
+        int count = capacity * 4;
+        for (int i = 0; i < count; i++) {
+            put(i * 31, i);
+        }
+
+        assertTrue(map.getCapacity() > capacity);
+        assertEquals(count, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, get(i * 31));
+        }
+
+        for (int i = 0; i < count; i += 2) {
+            map.remove(i);
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0 ? -1 : i, get(i * 31));
+        }
+    }
+
+    @Test
+    void loadKeyAndMove() {
+        put(1234, 0);
+        put(5678, 1);
+
+        map.move(0, 7);
+        assertEquals(7, get(1234));
+
+        map.getKeyBuffer().putInt(0, 0);
+        map.loadKey(7);
+        assertEquals(1234, map.getKeyBuffer().getInt(0));
+
+        assertThrows(IllegalArgumentException.class, () -> map.loadKey(0));
+        assertThrows(IllegalArgumentException.class, () -> map.remove(3));
+    }
+
+    @Test
+    void matchesHashMap() {
+        Random random = new Random(4321);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Map<Integer, Integer> keys = new HashMap<>();
+        Deque<Integer> freeValues = new ArrayDeque<>();
+        int nextValue = 0;
+
+        for (int step = 0; step < 20000; step++) {
+            int key = random.nextInt(600);
+            Integer value = expected.get(key);
+            if (value == null) {
+                int newValue = freeValues.isEmpty() ? nextValue++ : freeValues.pop();
+                put(key, newValue);
+                expected.put(key, newValue);
+                keys.put(newValue, key);
+            } else {
+                map.remove(value);
+                expected.remove(key);
+                keys.remove(value);
+                freeValues.push(value);
+            }
+
+            if (step % 500 == 0) {
+                for (int check = 0; check < 600; check++) {
+                    assertEquals(expected.getOrDefault(check, -1).intValue(), get(check), "Key " + check);
+                }
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : keys.entrySet()) {
+            map.loadKey(entry.getKey());
+            assertEquals(entry.getValue().intValue(), map.getKeyBuffer().getInt(0));
+        }
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(-1, get(expected.keySet().iterator().next()));
+    }
+
+    private void put(int key, int value) {
+        map.getKeyBuffer().putInt(0, key);
+        map.put(value);
+    }
+
+    private int get(int key) {
+        map.getKeyBuffer().putInt(0, key);
+        return map.get();
+    }
+
+    private List<Integer> keysWithHomeSlot(int slot, int count) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; keys.size() < count; key++) {
+            map.getKeyBuffer().putInt(0, key);
+            if (map.getHomeSlot() == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,243 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableVector3fBuffer;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectBufferSubscriberTest {
+    // four 12-byte elements per batch and three batches of budget
+    private static final int BATCH_SIZE = 4;
+    private static final int MAX_PENDING_BATCHES = 3;
+    private static final int CAPACITY = BATCH_SIZE * MAX_PENDING_BATCHES;
+
+    private DirectDataBuffer data;
+    private FailingVector3fBuffer buffer;
+    private ObjectBufferSubscriber<Vector3fc> subscriber;
+    private SynchronousSubscription subscription;
+
+    @BeforeEach
+    void setUp() {
+        data = new DirectDataBuffer();
+        buffer = new FailingVector3fBuffer(data);
+        subscriber = new ObjectBufferSubscriber<>(buffer, 12, 12 * BATCH_SIZE, MAX_PENDING_BATCHES);
+        subscription = new SynchronousSubscription(subscriber);
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.close();
+    }
+
+    @Test
+    void demandIsToppedUpInWholeBatches() {
+        subscriber.onSubscribe(subscription);
+        assertEquals(List.of((long) CAPACITY), subscription.requests);
+
+        subscription.emit(3);
+        assertEquals(3, subscriber.applyPending());
+
+        // three elements of room is less than a batch while the publisher still owes elements
+        assertEquals(List.of((long) CAPACITY), subscription.requests);
+
+        subscription.emit(1);
+        assertEquals(1, subscriber.applyPending());
+        assertEquals(List.of((long) CAPACITY, (long) BATCH_SIZE), subscription.requests);
+        assertAppended(0, 4);
+    }
+
+    @Test
+    void pendingElementsStayWithinTheBudget() {
+        subscription.emitOnRequest = true;
+        subscriber.onSubscribe(subscription);
+
+        // the publisher sends everything requested at once, and nothing more is requested until it is appended
+        assertEquals(CAPACITY, subscriber.getPendingCount());
+        assertEquals(List.of((long) CAPACITY), subscription.requests);
+
+        for (int frame = 0; frame < 10; frame++) {
+            assertEquals(BATCH_SIZE, subscriber.applyPending(1));
+            assertTrue(subscriber.getPendingCount() <= CAPACITY);
+            assertTrue(subscription.requested() - buffer.getSize() <= CAPACITY);
+        }
+
+        assertEquals(CAPACITY, subscriber.applyPending());
+        assertAppended(0, BATCH_SIZE * 10 + CAPACITY);
+    }
+
+    @Test
+    void cancelDropsPendingElements() {
+        subscriber.onSubscribe(subscription);
+        subscription.emit(6);
+
+        subscriber.cancel();
+        assertTrue(subscription.cancelled);
+        assertEquals(0, subscriber.getPendingCount());
+
+        // late elements are ignored and nothing more is requested
+        subscription.emit(2);
+        assertEquals(0, subscriber.applyPending());
+        assertEquals(0, buffer.getSize());
+        assertEquals(1, subscription.requests.size());
+    }
+
+    @Test
+    void secondSubscriptionIsCancelled() {
+        subscriber.onSubscribe(subscription);
+        SynchronousSubscription second = new SynchronousSubscription(subscriber);
+
+        subscriber.onSubscribe(second);
+        assertTrue(second.cancelled);
+        assertTrue(second.requests.isEmpty());
+        assertFalse(subscription.cancelled);
+    }
+
+    @Test
+    void completeFinishesOnceEverythingIsAppended() {
+        subscriber.onSubscribe(subscription);
+        subscription.emit(5);
+        subscriber.onComplete();
+
+        assertFalse(subscriber.isDone());
+        assertEquals(5, subscriber.applyPending());
+        assertTrue(subscriber.isDone());
+        assertNull(subscriber.getError());
+
+        // a finished publisher is never asked for more
+        assertEquals(1, subscription.requests.size());
+        assertAppended(0, 5);
+    }
+
+    @Test
+    void errorFinishesOnceEverythingIsAppended() {
+        subscriber.onSubscribe(subscription);
+        subscription.emit(2);
+        IllegalStateException error = new IllegalStateException("publisher failed");
+        subscriber.onError(error);
+
+        assertFalse(subscriber.isDone());
+        assertSame(error, subscriber.getError());
+        assertEquals(2, subscriber.applyPending());
+        assertTrue(subscriber.isDone());
+        assertEquals(1, subscription.requests.size());
+    }
+
+    @Test
+    void failedBatchIsDroppedAndLaterBatchesAreKept() {
+        subscriber.onSubscribe(subscription);
+        subscription.emit(CAPACITY);
+
+        // the second batch fails, the third must not be lost with it
+        buffer.failAt = BATCH_SIZE;
+        assertThrows(IllegalStateException.class, subscriber::applyPending);
+        assertEquals(BATCH_SIZE, buffer.getSize());
+        assertEquals(BATCH_SIZE, subscriber.getPendingCount());
+
+        buffer.failAt = -1;
+        assertEquals(BATCH_SIZE, subscriber.applyPending());
+        assertAppended(0, BATCH_SIZE);
+        assertAppended(BATCH_SIZE * 2, BATCH_SIZE);
+        assertEquals(0, subscriber.getPendingCount());
+    }
+
+    @Test
+    void failedBatchKeepsTheUnfinishedBatch() {
+        subscriber.onSubscribe(subscription);
+        subscription.emit(BATCH_SIZE + 2);
+
+        buffer.failAt = 0;
+        assertThrows(IllegalStateException.class, subscriber::applyPending);
+        assertEquals(2, subscriber.getPendingCount());
+
+        // elements that arrive after the failure are appended after the kept ones
+        subscription.emit(1);
+        buffer.failAt = -1;
+        assertEquals(3, subscriber.applyPending());
+        assertAppended(BATCH_SIZE, 3);
+    }
+
+    /**
+     * Checks that the buffer holds count consecutive elements starting from the element with the given id.
+     */
+    private void assertAppended(int firstId, int count) {
+        long start = -1;
+        for (long i = 0; i < buffer.getSize(); i++) {
+            if (data.readFloat(i * 12) == firstId) {
+                start = i;
+                break;
+            }
+        }
+        assertTrue(start >= 0, "Element " + firstId + " was not appended");
+        assertTrue(start + count <= buffer.getSize());
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(firstId + i, data.readFloat((start + i) * 12), "Element " + (start + i));
+        }
+    }
+
+    private static class FailingVector3fBuffer extends WritableVector3fBuffer {
+        // the id of the first element of the batch that fails to append, or -1 for none
+        private int failAt = -1;
+
+        FailingVector3fBuffer(DirectDataBuffer buffer) {
+            super(buffer);
+        }
+
+        @Override
+        public void append(Collection<? extends Vector3fc> elements) {
+            if (!elements.isEmpty() && elements.iterator().next().x() == failAt) {
+                throw new IllegalStateException("Append failed");
+            }
+            super.append(elements);
+        }
+    }
+
+    /**
+     * A publisher's subscription that delivers elements on the calling thread, either when told to or from inside
+     * request.
+     */
+    private static class SynchronousSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<Vector3fc> subscriber;
+        private final List<Long> requests = new ArrayList<>();
+        private boolean emitOnRequest = false;
+        private boolean cancelled = false;
+        private int nextId = 0;
+
+        SynchronousSubscription(Flow.Subscriber<Vector3fc> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            requests.add(n);
+            if (emitOnRequest) {
+                emit((int) n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        long requested() {
+            return requests.stream().mapToLong(Long::longValue).sum();
+        }
+
+        void emit(int count) {
+            for (int i = 0; i < count; i++) {
+                subscriber.onNext(new Vector3f(nextId++, 0, 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import com.kneelawk.klinesjava.buffers.BufferChangeListener;
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableVector3fBuffer;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.kneelawk.klinesjava.buffers.objectbuffer.WritableIndexingObjectBufferTest.failingAfter;
+import static com.kneelawk.klinesjava.buffers.objectbuffer.WritableIndexingObjectBufferTest.vectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservableObjectBufferTest {
+    private DirectDataBuffer data;
+    private WritableVector3fBuffer wrapped;
+    private ObservableObjectBuffer<Vector3fc> buffer;
+    private RecordingListener recorder;
+
+    @BeforeEach
+    void setUp() {
+        data = new DirectDataBuffer();
+        wrapped = new WritableVector3fBuffer(data);
+        buffer = new ObservableObjectBuffer<>(wrapped);
+        recorder = new RecordingListener();
+
+        buffer.append(vectors(0, 5));
+        buffer.flush();
+        buffer.addListener(recorder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.close();
+    }
+
+    @Test
+    void streamAppendRecordsTheAppendedRange() {
+        buffer.append(vectors(5, 15).iterator(), 100);
+        buffer.flush();
+
+        assertEquals(15, wrapped.getSize());
+        assertEquals(List.of("insert 5 10"), recorder.events);
+    }
+
+    @Test
+    void streamAppendRecordsWhatWasKeptWhenTheIteratorThrows() {
+        List<Vector3fc> vectors = vectors(5, 10005);
+
+        assertThrows(IllegalStateException.class, () -> buffer.append(failingAfter(vectors, 8000), 10000));
+        buffer.flush();
+
+        // the recorded range is exactly what the wrapped buffer kept, not the size hint
+        long kept = wrapped.getSize() - 5;
+        assertTrue(kept < 10000, "Kept " + kept);
+        assertEquals(List.of("insert 5 " + kept), recorder.events);
+    }
+
+    private static class RecordingListener implements BufferChangeListener {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onSet(long offset, long length) {
+            events.add("set " + offset + " " + length);
+        }
+
+        @Override
+        public void onInsert(long offset, long length) {
+            events.add("insert " + offset + " " + length);
+        }
+
+        @Override
+        public void onRemove(long offset, long length) {
+            events.add("remove " + offset + " " + length);
+        }
+
+        @Override
+        public void onClear() {
+            events.add("clear");
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.ReadableVector3fBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableVector3fBuffer;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+class WritableIndexingObjectBufferTest {
+    static final ElementEncoder<Vector3fc> VECTOR_ENCODER = new ElementEncoder<>() {
+        @Override
+        public int getEncodedSize() {
+            return 12;
+        }
+
+        @Override
+        public void encode(ByteBuffer buffer, int position, Vector3fc element) {
+            element.get(position, buffer);
+        }
+
+        @Override
+        public Vector3fc decode(ByteBuffer buffer, int position) {
+            return new Vector3f(position, buffer);
+        }
+    };
+
+    private DirectDataBuffer indices;
+    private DirectDataBuffer elements;
+    private ReadableVector3fBuffer readableElements;
+
+    @BeforeEach
+    void setUp() {
+        indices = new DirectDataBuffer();
+        elements = new DirectDataBuffer();
+        readableElements = new ReadableVector3fBuffer(elements);
+    }
+
+    @AfterEach
+    void tearDown() {
+        indices.close();
+        elements.close();
+    }
+
+    @Test
+    void compactDecodesMovedElementsFromTheirKeys() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            buffer.setCompactThreshold(Float.POSITIVE_INFINITY);
+            List<Vector3fc> vectors = vectors(0, 10);
+            buffer.append(vectors);
+
+            buffer.remove(0, 5);
+            assertEquals(5, buffer.getFreeSlotCount());
+
+            buffer.compact();
+            assertEquals(0, buffer.getFreeSlotCount());
+            assertEquals(5, readableElements.getSize());
+            assertResolves(buffer, vectors.subList(5, 10));
+
+            // moved elements are still found by their keys
+            buffer.append(vectors.get(9));
+            assertEquals(5, readableElements.getSize());
+        }
+    }
+
+    @Test
+    void removingPastMinAutoCompactSlotsCompacts() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            // any fraction of free slots is too many, so only the minimum slot count holds compaction back
+            buffer.setCompactThreshold(0);
+            List<Vector3fc> vectors = vectors(0, 200);
+            buffer.append(vectors);
+
+            buffer.remove(0, 63);
+            assertEquals(63, buffer.getFreeSlotCount());
+            assertEquals(200, readableElements.getSize());
+
+            buffer.remove(0, 1);
+            assertEquals(0, buffer.getFreeSlotCount());
+            assertEquals(136, readableElements.getSize());
+            assertResolves(buffer, vectors.subList(64, 200));
+        }
+    }
+
+    @Test
+    void removingPastDefaultThresholdCompacts() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            List<Vector3fc> vectors = vectors(0, 200);
+            buffer.append(vectors);
+
+            // exactly half of the slots free is not more than the threshold
+            buffer.removeAfter(100);
+            assertEquals(100, buffer.getFreeSlotCount());
+            assertEquals(200, readableElements.getSize());
+
+            buffer.removeAfter(99);
+            assertEquals(0, buffer.getFreeSlotCount());
+            assertEquals(99, readableElements.getSize());
+            assertResolves(buffer, vectors.subList(0, 99));
+        }
+    }
+
+    @Test
+    void compactKeepsEveryIndexResolving() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> encoded = create(VECTOR_ENCODER)) {
+            checkCompactKeepsEveryIndexResolving(encoded);
+        }
+    }
+
+    @Test
+    void compactKeepsEveryIndexResolvingWithoutEncoder() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> hashed = create(null)) {
+            checkCompactKeepsEveryIndexResolving(hashed);
+        }
+    }
+
+    private void checkCompactKeepsEveryIndexResolving(WritableIndexingObjectBuffer<Vector3fc> buffer) {
+        buffer.setCompactThreshold(Float.POSITIVE_INFINITY);
+        List<Vector3fc> vectors = vectors(0, 100);
+        List<Vector3fc> expected = new ArrayList<>(vectors);
+        buffer.append(vectors);
+
+        // every element from 40 on is referenced twice, so only removing both copies frees it
+        buffer.append(vectors.subList(40, 100));
+        expected.addAll(vectors.subList(40, 100));
+
+        for (int i = 99; i >= 0; i -= 3) {
+            buffer.remove(i, 1);
+            expected.remove(i);
+        }
+        assertEquals(14, buffer.getFreeSlotCount());
+
+        buffer.compact();
+        assertEquals(0, buffer.getFreeSlotCount());
+        assertEquals(86, readableElements.getSize());
+        assertResolves(buffer, expected);
+
+        // existing elements are found at their new slots and new elements are added after them
+        buffer.append(vectors.get(1));
+        assertEquals(86, readableElements.getSize());
+        buffer.append(new Vector3f(1000));
+        assertEquals(87, readableElements.getSize());
+        expected.add(vectors.get(1));
+        expected.add(new Vector3f(1000));
+        assertResolves(buffer, expected);
+    }
+
+    @Test
+    void freedSlotIsReusedByGetOrAdd() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            buffer.setCompactThreshold(Float.POSITIVE_INFINITY);
+            List<Vector3fc> expected = new ArrayList<>(vectors(0, 10));
+            buffer.append(expected);
+            int freedSlot = readIndices(buffer)[3];
+
+            buffer.remove(3, 1);
+            expected.remove(3);
+            assertEquals(1, buffer.getFreeSlotCount());
+
+            Vector3f added = new Vector3f(1000, 2000, 3000);
+            buffer.append(added);
+            expected.add(added);
+
+            assertEquals(0, buffer.getFreeSlotCount());
+            assertEquals(10, readableElements.getSize());
+            assertEquals(freedSlot, readIndices(buffer)[9]);
+            assertResolves(buffer, expected);
+
+            // the freed element is no longer known, so adding it again takes a new slot
+            buffer.append(vectors(3, 4));
+            assertEquals(11, readableElements.getSize());
+        }
+    }
+
+    @Test
+    void replacingElementWithItselfKeepsIt() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            buffer.setCompactThreshold(Float.POSITIVE_INFINITY);
+            List<Vector3fc> vectors = vectors(0, 5);
+            buffer.append(vectors);
+            int[] before = readIndices(buffer);
+
+            // each element is only referenced once, so releasing it before re-referencing it would free it
+            buffer.set(2, vectors.get(2));
+            buffer.replace(1, 1, vectors.get(1));
+            buffer.replace(0, 5, vectors);
+            buffer.replaceAll(vectors);
+
+            assertEquals(0, buffer.getFreeSlotCount());
+            assertEquals(5, readableElements.getSize());
+            assertArrayEquals(before, readIndices(buffer));
+            assertResolves(buffer, vectors);
+        }
+    }
+
+    @Test
+    void setReleasesOverwrittenElements() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            buffer.setCompactThreshold(Float.POSITIVE_INFINITY);
+            List<Vector3fc> v = vectors(0, 6);
+            buffer.append(v.subList(0, 5));
+
+            buffer.set(1, v.get(3));
+            assertEquals(1, buffer.getFreeSlotCount());
+
+            // v3 is still referenced at position 1, so overwriting its original position keeps it
+            buffer.set(3, v.get(5));
+            assertEquals(0, buffer.getFreeSlotCount());
+            assertResolves(buffer, List.of(v.get(0), v.get(3), v.get(2), v.get(5), v.get(4)));
+
+            buffer.remove(1, 1);
+            assertEquals(1, buffer.getFreeSlotCount());
+
+            // setting past the end only releases the positions that existed, and v1 takes v3's freed slot
+            buffer.set(3, v.subList(0, 3));
+            assertEquals(1, buffer.getFreeSlotCount());
+            assertEquals(5, readableElements.getSize());
+            assertResolves(buffer, List.of(v.get(0), v.get(2), v.get(5), v.get(0), v.get(1), v.get(2)));
+        }
+    }
+
+    @Test
+    void replaceKeepsElementsItReferencesAgain() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            buffer.setCompactThreshold(Float.POSITIVE_INFINITY);
+            List<Vector3fc> v = vectors(0, 10);
+            buffer.append(v.subList(0, 5));
+
+            // v2 is released by the replaced chunk and referenced twice by the new one
+            buffer.replace(1, 2, List.of(v.get(2), v.get(2), v.get(9)));
+
+            assertEquals(1, buffer.getFreeSlotCount());
+            assertEquals(6, readableElements.getSize());
+            assertResolves(buffer, List.of(v.get(0), v.get(2), v.get(2), v.get(9), v.get(3), v.get(4)));
+
+            buffer.replace(1, 2, v.get(3));
+            assertEquals(2, buffer.getFreeSlotCount());
+            buffer.remove(0, 1);
+            buffer.replaceAll(v.get(4));
+            assertEquals(5, buffer.getFreeSlotCount());
+            assertResolves(buffer, List.of(v.get(4)));
+        }
+    }
+
+    @Test
+    void swapRemoveReleasesOnlyTheRemovedChunk() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            buffer.setCompactThreshold(Float.POSITIVE_INFINITY);
+            List<Vector3fc> v = vectors(0, 6);
+            buffer.append(v);
+            buffer.append(v.get(1));
+
+            // v1 is still referenced by the relocated last index
+            assertEquals(5, buffer.swapRemove(1, 2));
+            assertEquals(1, buffer.getFreeSlotCount());
+            assertResolves(buffer, List.of(v.get(0), v.get(5), v.get(1), v.get(3), v.get(4)));
+
+            // removing a chunk that reaches the end relocates nothing
+            assertEquals(5, buffer.swapRemove(2, 10));
+            assertEquals(4, buffer.getFreeSlotCount());
+            assertResolves(buffer, List.of(v.get(0), v.get(5)));
+        }
+    }
+
+    @Test
+    void streamAppendDefersReleaseUntilTheEnd() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            // compacting whenever possible would move element 199 if anything were released between blocks
+            buffer.setCompactThreshold(0);
+            List<Vector3fc> v = vectors(0, 200);
+            int count = WritableObjectBuffer.STREAM_BLOCK_SIZE * 3 + 5;
+
+            buffer.append(v, IntStream.generate(() -> 199).limit(count));
+
+            assertEquals(0, buffer.getFreeSlotCount());
+            assertEquals(1, readableElements.getSize());
+            assertResolves(buffer, Collections.nCopies(count, v.get(199)));
+        }
+    }
+
+    @Test
+    void streamAppendReleasesUnreferencedElements() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            buffer.setCompactThreshold(Float.POSITIVE_INFINITY);
+            List<Vector3fc> v = vectors(0, 3);
+            buffer.append(v.get(1));
+
+            buffer.append(v, IntStream.of(0, 0, 2));
+
+            // v1 was already referenced, so only unreferenced elements added by the append are freed
+            assertEquals(0, buffer.getFreeSlotCount());
+            buffer.remove(0, 1);
+            assertEquals(1, buffer.getFreeSlotCount());
+            assertResolves(buffer, List.of(v.get(0), v.get(0), v.get(2)));
+        }
+    }
+
+    @Test
+    void widenIndicesKeepsIndicesAndBlanks() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer =
+                     new WritableIndexingObjectBuffer<>(indices, new WritableVector3fBuffer(elements), VECTOR_ENCODER,
+                             IndexType.UNSIGNED_BYTE)) {
+            buffer.appendBlank(2);
+            assertIndexType(buffer, IndexType.UNSIGNED_BYTE, 2);
+            assertBlanks(buffer, 0, 2);
+
+            List<Vector3fc> small = vectors(0, 300);
+            buffer.append(small);
+            assertIndexType(buffer, IndexType.UNSIGNED_SHORT, 302);
+            assertBlanks(buffer, 0, 2);
+
+            // more unique elements than an unsigned short can reference, widened in the middle of one append
+            List<Vector3fc> large = vectors(300, 70000);
+            buffer.append(large);
+            buffer.appendBlank(1);
+            assertIndexType(buffer, IndexType.UNSIGNED_INT, 70003);
+            assertBlanks(buffer, 0, 2);
+            assertBlanks(buffer, 70002, 1);
+
+            assertEquals(70000, readableElements.getSize());
+            int[] read = readIndices(buffer);
+            Vector3f element = new Vector3f();
+            for (int i = 0; i < 70000; i++) {
+                assertEquals(i, read[i + 2], "Index " + i);
+                Vector3fc expected = i < 300 ? small.get(i) : large.get(i - 300);
+                assertEquals(expected, readableElements.get(read[i + 2], element), "Element " + i);
+            }
+        }
+    }
+
+    @Test
+    void swapRemoveReturnsWhereTheMovedIndicesCameFrom() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            List<Vector3fc> vectors = vectors(0, 10);
+            buffer.append(vectors);
+
+            assertEquals(8, buffer.swapRemove(1, 2));
+            assertResolves(buffer, pick(vectors, 0, 8, 9, 3, 4, 5, 6, 7));
+
+            // overlapping the end
+            assertEquals(6, buffer.swapRemove(3, 3));
+            assertResolves(buffer, pick(vectors, 0, 8, 9, 6, 7));
+
+            // reaching the end
+            assertEquals(5, buffer.swapRemove(3, 5));
+            assertResolves(buffer, pick(vectors, 0, 8, 9));
+
+            // outside the buffer
+            assertEquals(3, buffer.swapRemove(3, 1));
+            assertEquals(3, buffer.swapRemove(10, 1));
+            assertResolves(buffer, pick(vectors, 0, 8, 9));
+        }
+    }
+
+    @Test
+    void defaultStreamAppendReadsTheWholeIteratorWhateverTheSizeHint() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            List<Vector3fc> vectors = vectors(0, 1500);
+
+            buffer.append(vectors.subList(0, 10).iterator(), 100);
+            assertResolves(buffer, vectors.subList(0, 10));
+
+            buffer.clear();
+            buffer.append(vectors.iterator(), 3);
+            assertResolves(buffer, vectors);
+        }
+    }
+
+    @Test
+    void defaultStreamAppendKeepsTheBlocksAppendedBeforeAFailure() throws IOException {
+        try (WritableIndexingObjectBuffer<Vector3fc> buffer = create(VECTOR_ENCODER)) {
+            List<Vector3fc> vectors = vectors(0, 3000);
+
+            assertThrows(IllegalStateException.class, () -> buffer.append(failingAfter(vectors, 2500), 3000));
+
+            // two whole blocks were appended before the iterator threw, the partial third block never was
+            assertResolves(buffer, vectors.subList(0, 2 * WritableObjectBuffer.STREAM_BLOCK_SIZE));
+        }
+    }
+
+    private void assertIndexType(WritableIndexingObjectBuffer<?> buffer, IndexType type, long size) {
+        assertEquals(type, buffer.getIndexType());
+        assertEquals(size, buffer.getSize());
+        assertEquals(size << type.getElementShift(), indices.getSize());
+    }
+
+    private void assertBlanks(WritableIndexingObjectBuffer<?> buffer, int offset, int length) {
+        int[] read = readIndices(buffer);
+        for (int i = offset; i < offset + length; i++) {
+            assertEquals(buffer.getIndexType().getRestartIndex(), read[i], "Blank " + i);
+        }
+    }
+
+    WritableIndexingObjectBuffer<Vector3fc> create(ElementEncoder<Vector3fc> encoder) {
+        return new WritableIndexingObjectBuffer<>(indices, new WritableVector3fBuffer(elements), encoder);
+    }
+
+    static List<Vector3fc> vectors(int start, int end) {
+        List<Vector3fc> vectors = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            vectors.add(new Vector3f(i, -i, i * 0.5f));
+        }
+        return vectors;
+    }
+
+    /**
+     * Creates an iterator over a list that throws an IllegalStateException instead of producing the element at
+     * failAt.
+     */
+    static <E> Iterator<E> failingAfter(List<E> elements, int failAt) {
+        Iterator<E> it = elements.iterator();
+        return new Iterator<>() {
+            private int produced = 0;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (produced == failAt) {
+                    throw new IllegalStateException("Failing at element " + failAt);
+                }
+
+                produced++;
+                return it.next();
+            }
+        };
+    }
+
+    private static List<Vector3fc> pick(List<Vector3fc> vectors, int... positions) {
+        List<Vector3fc> picked = new ArrayList<>();
+        for (int position : positions) {
+            picked.add(vectors.get(position));
+        }
+        return picked;
+    }
+
+    /**
+     * Reads every index and checks that it references an element equal to the expected one.
+     */
+    void assertResolves(WritableIndexingObjectBuffer<Vector3fc> buffer, List<? extends Vector3fc> expected) {
+        assertEquals(expected.size(), buffer.getSize());
+
+        int[] read = readIndices(buffer);
+        for (int i = 0; i < read.length; i++) {
+            assertEquals(expected.get(i), readableElements.get(read[i], new Vector3f()), "Element " + i);
+        }
+    }
+
+    /**
+     * Reads the raw indices from the index buffer, widening them from the buffer's current index type.
+     */
+    int[] readIndices(WritableIndexingObjectBuffer<?> buffer) {
+        return readIndices(buffer, indices);
+    }
+
+    /**
+     * Reads the raw indices of a buffer from the data buffer it writes them to.
+     */
+    static int[] readIndices(WritableIndexingObjectBuffer<?> buffer, DirectDataBuffer indexData) {
+        IndexType type = buffer.getIndexType();
+        int count = (int) buffer.getSize();
+        ByteBuffer bytes = memAlloc(count << type.getElementShift());
+        try {
+            indexData.readTo(0, bytes);
+
+            int[] read = new int[count];
+            for (int i = 0; i < count; i++) {
+                switch (type) {
+                    case UNSIGNED_BYTE:
+                        read[i] = bytes.get(i) & 0xFF;
+                        break;
+                    case UNSIGNED_SHORT:
+                        read[i] = bytes.getShort(i * 2) & 0xFFFF;
+                        break;
+                    default:
+                        read[i] = bytes.getInt(i * 4);
+                }
+            }
+            return read;
+        } finally {
+            memFree(bytes);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import org.junit.jupiter.api.Test;
+
+import static com.kneelawk.klinesjava.buffers.objectbuffer.data.BlockLayout.STD140;
+import static com.kneelawk.klinesjava.buffers.objectbuffer.data.BlockLayout.STD430;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockLayoutTest {
+    @Test
+    void scalarsAndVectorsAreAlignedTheSameInBothLayouts() {
+        for (BlockLayout layout : BlockLayout.values()) {
+            assertEquals(4, layout.getAlignment(GlslType.FLOAT));
+            assertEquals(8, layout.getAlignment(GlslType.VEC2));
+            assertEquals(16, layout.getAlignment(GlslType.VEC3));
+            assertEquals(16, layout.getAlignment(GlslType.IVEC4));
+
+            // a vec3 is aligned like a vec4 but only takes up 12 bytes
+            assertEquals(12, layout.getSize(GlslType.VEC3));
+        }
+    }
+
+    @Test
+    void arrayStrides() {
+        assertEquals(16, STD140.getArrayStride(GlslType.FLOAT));
+        assertEquals(4, STD430.getArrayStride(GlslType.FLOAT));
+        assertEquals(16, STD140.getArrayStride(GlslType.VEC2));
+        assertEquals(8, STD430.getArrayStride(GlslType.VEC2));
+
+        // vec3 array elements are 16 bytes apart in both layouts
+        assertEquals(16, STD140.getArrayStride(GlslType.VEC3));
+        assertEquals(16, STD430.getArrayStride(GlslType.VEC3));
+
+        assertEquals(16, STD140.getArrayAlignment(GlslType.FLOAT));
+        assertEquals(4, STD430.getArrayAlignment(GlslType.FLOAT));
+    }
+
+    @Test
+    void matrixColumns() {
+        for (BlockLayout layout : BlockLayout.values()) {
+            // mat3 columns are vec3s, which are padded to 16 bytes even in std430
+            assertEquals(16, layout.getColumnStride(GlslType.MAT3));
+            assertEquals(48, layout.getSize(GlslType.MAT3));
+            assertEquals(16, layout.getAlignment(GlslType.MAT3));
+            assertEquals(48, layout.getArrayStride(GlslType.MAT3));
+
+            assertEquals(64, layout.getSize(GlslType.MAT4));
+        }
+    }
+}
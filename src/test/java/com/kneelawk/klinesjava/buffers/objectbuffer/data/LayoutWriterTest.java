@@ -0,0 +1,76 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayoutWriterTest {
+    private static final VertexLayout LAYOUT = VertexLayout.builder()
+            .attribute("weight", ComponentType.FLOAT, 1, false)
+            .integerAttribute("id", ComponentType.INT, 1)
+            .build();
+
+    @Test
+    void primitiveBindingsWriteTheirValues() {
+        LayoutWriter<Sample> writer = LAYOUT.writerFor(Sample.class)
+                .bindFloat("weight", Sample::getWeight)
+                .bindInt("id", Sample::getId)
+                .build();
+
+        ByteBuffer buffer = ByteBuffer.allocate(LAYOUT.getStride() * 2).order(ByteOrder.nativeOrder());
+        writer.write(buffer, 0, new Sample(1.5f, 7));
+        writer.write(buffer, LAYOUT.getStride(), new Sample(-0.25f, -3));
+
+        assertEquals(1.5f, buffer.getFloat(LAYOUT.getAttribute("weight").getOffset()));
+        assertEquals(7, buffer.getInt(LAYOUT.getAttribute("id").getOffset()));
+        assertEquals(-0.25f, buffer.getFloat(LAYOUT.getStride() + LAYOUT.getAttribute("weight").getOffset()));
+        assertEquals(-3, buffer.getInt(LAYOUT.getStride() + LAYOUT.getAttribute("id").getOffset()));
+    }
+
+    @Test
+    void primitiveBindingsMatchBoxedBindings() {
+        LayoutWriter<Sample> primitive = LAYOUT.writerFor(Sample.class)
+                .bindFloat("weight", Sample::getWeight)
+                .bindInt("id", Sample::getId)
+                .build();
+        LayoutWriter<Sample> boxed = LAYOUT.writerFor(Sample.class)
+                .bind("weight", float.class, Sample::getWeight)
+                .bind("id", int.class, Sample::getId)
+                .build();
+
+        ByteBuffer expected = ByteBuffer.allocate(LAYOUT.getStride()).order(ByteOrder.nativeOrder());
+        ByteBuffer actual = ByteBuffer.allocate(LAYOUT.getStride()).order(ByteOrder.nativeOrder());
+        Sample sample = new Sample(3.75f, 123456);
+        boxed.write(expected, 0, sample);
+        primitive.write(actual, 0, sample);
+
+        assertArrayEquals(expected.array(), actual.array());
+    }
+
+    @Test
+    void primitiveBindingRejectsUnknownAttribute() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LAYOUT.writerFor(Sample.class).bindFloat("missing", Sample::getWeight));
+    }
+
+    private static class Sample {
+        private final float weight;
+        private final int id;
+
+        Sample(float weight, int id) {
+            this.weight = weight;
+            this.id = id;
+        }
+
+        float getWeight() {
+            return weight;
+        }
+
+        int getId() {
+            return id;
+        }
+    }
+}
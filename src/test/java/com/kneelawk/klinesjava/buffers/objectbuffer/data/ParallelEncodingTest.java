@@ -0,0 +1,139 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.system.MemoryUtil.memByteBuffer;
+
+/**
+ * Checks that every buffer that encodes in parallel writes exactly the same bytes as when it encodes on the calling
+ * thread.
+ */
+class ParallelEncodingTest {
+    private static final int BATCH_SIZE = 65536 + 123;
+    private static final int PREFIX_SIZE = 37;
+
+    private ForkJoinPool pool;
+    private DirectDataBuffer serialData;
+    private DirectDataBuffer parallelData;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        serialData = new DirectDataBuffer();
+        parallelData = new DirectDataBuffer();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        serialData.close();
+        parallelData.close();
+    }
+
+    @Test
+    void vector3f() {
+        assertSameBytes(WritableVector3fBuffer::new, vectors());
+    }
+
+    @Test
+    void matrix4f() {
+        assertSameBytes(WritableMatrix4fBuffer::new, transforms());
+    }
+
+    @Test
+    void affineMatrix4f() {
+        assertSameBytes(WritableAffineMatrix4fBuffer::new, transforms());
+    }
+
+    @Test
+    void trsMatrix4f() {
+        assertSameBytes(WritableTRSMatrix4fBuffer::new, transforms());
+    }
+
+    @Test
+    void halfVector3f() {
+        assertSameBytes(data -> new WritableHalfVector3fBuffer(data, new Vector3f(10, -20, 30)), vectors());
+    }
+
+    @Test
+    void snorm16Vector3f() {
+        assertSameBytes(data -> new WritableSnorm16Vector3fBuffer(data, new Vector3f(1, 2, 3), 2000), vectors());
+    }
+
+    @Test
+    void rgba8Color() {
+        List<Vector3fc> colors = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE + PREFIX_SIZE; i++) {
+            colors.add(new Vector3f((i % 256) / 255f, (i % 97) / 96f, 1.5f - (i % 7) / 2f));
+        }
+        assertSameBytes(data -> new WritableRGBA8ColorBuffer(data, 0.75f), colors);
+    }
+
+    @Test
+    void blockVector3f() {
+        assertSameBytes(WritableBlockVector3fBuffer::new, vectors());
+    }
+
+    /**
+     * Appends a few elements, then the rest of the list as one batch, once with parallel encoding disabled and once
+     * with every batch encoded in parallel, and compares the two buffers byte for byte.
+     */
+    private <E> void assertSameBytes(Function<WritableDataBuffer, AbstractWritableDataObjectBuffer<E>> factory,
+                                     List<E> elements) {
+        AbstractWritableDataObjectBuffer<E> serial = factory.apply(serialData);
+        serial.setParallelEncodingThreshold(Integer.MAX_VALUE);
+        AbstractWritableDataObjectBuffer<E> parallel = factory.apply(parallelData);
+        parallel.setParallelEncodingThreshold(0);
+        parallel.setParallelEncodingPool(pool);
+
+        // the batch starts part way into the buffer, so every worker writes at a non-zero offset
+        List<E> prefix = elements.subList(0, PREFIX_SIZE);
+        List<E> batch = elements.subList(PREFIX_SIZE, elements.size());
+        serial.append(prefix);
+        parallel.append(prefix);
+        serial.append(batch);
+        parallel.append(batch);
+
+        assertEquals(elements.size(), parallel.getSize());
+        assertEquals(serialData.getSize(), parallelData.getSize());
+
+        ByteBuffer expected = memByteBuffer(serialData.address(), (int) serialData.getSize());
+        ByteBuffer actual = memByteBuffer(parallelData.address(), (int) parallelData.getSize());
+        int mismatch = expected.mismatch(actual);
+        assertEquals(-1, mismatch, "First differing byte");
+    }
+
+    private static List<Vector3fc> vectors() {
+        List<Vector3fc> vectors = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE + PREFIX_SIZE; i++) {
+            vectors.add(new Vector3f(i * 0.25f, -i * 0.5f, (i % 1000) * 1.75f));
+        }
+        return vectors;
+    }
+
+    private static List<Matrix4fc> transforms() {
+        List<Matrix4fc> transforms = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE + PREFIX_SIZE; i++) {
+            transforms.add(new Matrix4f().translation(i, -i, i * 0.5f).rotateXYZ(i * 0.01f, i * 0.02f, i * 0.03f)
+                    .scale(1 + (i % 10) * 0.1f));
+        }
+        return transforms;
+    }
+}
@@ -0,0 +1,68 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadableMatrix4fBufferTest {
+    private DirectDataBuffer data;
+    private WritableMatrix4fBuffer writable;
+    private ReadableMatrix4fBuffer readable;
+
+    @BeforeEach
+    void setUp() {
+        data = new DirectDataBuffer();
+        writable = new WritableMatrix4fBuffer(data);
+        readable = new ReadableMatrix4fBuffer(data);
+
+        List<Matrix4fc> matrices = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            matrices.add(new Matrix4f().translation(i, 0, 0));
+        }
+        writable.append(matrices);
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.close();
+    }
+
+    @Test
+    void viewSeesCurrentValue() {
+        ReadableMatrix4fBuffer.View view = readable.view().moveTo(7);
+        assertEquals(7, view.m(3, 0));
+
+        writable.set(7, new Matrix4f().scaling(2));
+        assertEquals(2, view.m(0, 0));
+        assertEquals(new Matrix4f().scaling(2), view.get(new Matrix4f()));
+    }
+
+    @Test
+    void viewRejectsElementRemovedByCompacting() {
+        ReadableMatrix4fBuffer.View view = readable.view().moveTo(31);
+
+        writable.removeAfter(2);
+        data.compact();
+
+        assertThrows(IllegalStateException.class, () -> view.m(0, 0));
+        assertThrows(IllegalStateException.class, () -> view.get(new Matrix4f()));
+        assertEquals(1, view.moveTo(1).m(3, 0));
+    }
+
+    @Test
+    void viewRejectsClosedBuffer() {
+        ReadableMatrix4fBuffer.View view = readable.view().moveTo(0);
+
+        data.close();
+
+        assertThrows(IllegalStateException.class, () -> view.m(1, 1));
+    }
+}
@@ -0,0 +1,88 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadableVector3fBufferTest {
+    private DirectDataBuffer data;
+    private WritableVector3fBuffer writable;
+    private ReadableVector3fBuffer readable;
+
+    @BeforeEach
+    void setUp() {
+        data = new DirectDataBuffer();
+        writable = new WritableVector3fBuffer(data);
+        readable = new ReadableVector3fBuffer(data);
+
+        List<Vector3fc> vectors = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            vectors.add(new Vector3f(i, i * 2, i * 3));
+        }
+        writable.append(vectors);
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.close();
+    }
+
+    @Test
+    void viewSeesCurrentValue() {
+        ReadableVector3fBuffer.View view = readable.view().moveTo(42);
+        assertEquals(new Vector3f(42, 84, 126), view.get(new Vector3f()));
+
+        writable.set(42, new Vector3f(-1, -2, -3));
+        assertEquals(-1, view.x());
+        assertEquals(-2, view.y());
+        assertEquals(-3, view.z());
+    }
+
+    @Test
+    void viewRejectsElementRemovedByShrinking() {
+        ReadableVector3fBuffer.View view = readable.view().moveTo(90);
+
+        writable.removeAfter(50);
+
+        assertThrows(IllegalStateException.class, view::x);
+        assertThrows(IllegalStateException.class, () -> view.get(new Vector3f()));
+
+        // moving the view back into the buffer makes it usable again
+        assertEquals(10, view.moveTo(10).x());
+    }
+
+    @Test
+    void viewRejectsElementRemovedByCompacting() {
+        ReadableVector3fBuffer.View view = readable.view().moveTo(99);
+        ReadableVector3fBuffer.View kept = readable.view().moveTo(3);
+
+        writable.removeAfter(4);
+        data.compact();
+
+        assertThrows(IllegalStateException.class, view::z);
+        assertEquals(new Vector3f(3, 6, 9), kept.get(new Vector3f()));
+    }
+
+    @Test
+    void viewRejectsClosedBuffer() {
+        ReadableVector3fBuffer.View view = readable.view().moveTo(0);
+
+        data.close();
+
+        assertThrows(IllegalStateException.class, view::y);
+        assertThrows(IllegalStateException.class, () -> readable.get(0, new Vector3f()));
+    }
+
+    @Test
+    void unmovedViewThrows() {
+        assertThrows(IllegalStateException.class, readable.view()::x);
+    }
+}
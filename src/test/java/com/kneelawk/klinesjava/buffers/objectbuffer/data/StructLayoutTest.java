@@ -0,0 +1,211 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import org.joml.Matrix3f;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static com.kneelawk.klinesjava.buffers.objectbuffer.data.BlockLayout.STD140;
+import static com.kneelawk.klinesjava.buffers.objectbuffer.data.BlockLayout.STD430;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructLayoutTest {
+    @Test
+    void floatPacksIntoTheEndOfAVec3() {
+        for (BlockLayout layout : BlockLayout.values()) {
+            StructLayout struct = StructLayout.builder("Light", layout)
+                    .member("position", GlslType.VEC3)
+                    .member("radius", GlslType.FLOAT)
+                    .build();
+
+            assertEquals(0, struct.getMember("position").getOffset());
+            assertEquals(12, struct.getMember("radius").getOffset());
+            assertEquals(16, struct.getAlignment());
+            assertEquals(16, struct.getSize());
+        }
+    }
+
+    @Test
+    void vec3IsAlignedAfterAFloat() {
+        StructLayout struct = StructLayout.builder("Sample", STD430)
+                .member("weight", GlslType.FLOAT)
+                .member("normal", GlslType.VEC3)
+                .build();
+
+        assertEquals(16, struct.getMember("normal").getOffset());
+        assertEquals(32, struct.getSize());
+    }
+
+    @Test
+    void mat3ColumnStride() {
+        StructLayout struct = StructLayout.builder("Transform", STD430)
+                .member("scale", GlslType.FLOAT)
+                .member("rotation", GlslType.MAT3)
+                .build();
+
+        StructLayout.Member rotation = struct.getMember("rotation");
+        assertEquals(16, rotation.getOffset());
+        assertEquals(64, struct.getSize());
+
+        ByteBuffer buffer = ByteBuffer.allocate(struct.getSize()).order(ByteOrder.nativeOrder());
+        rotation.putMatrix(buffer, 0, new Matrix3f(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        for (int column = 0; column < 3; column++) {
+            for (int row = 0; row < 3; row++) {
+                assertEquals(column * 3 + row + 1, buffer.getFloat(16 + column * 16 + row * 4));
+            }
+        }
+    }
+
+    @Test
+    void floatArrayStride() {
+        StructLayout std140 = StructLayout.builder("Weights", STD140)
+                .array("weights", GlslType.FLOAT, 4)
+                .member("count", GlslType.INT)
+                .build();
+        StructLayout std430 = StructLayout.builder("Weights", STD430)
+                .array("weights", GlslType.FLOAT, 4)
+                .member("count", GlslType.INT)
+                .build();
+
+        assertEquals(16, std140.getMember("weights").getArrayStride());
+        assertEquals(64, std140.getMember("count").getOffset());
+        assertEquals(80, std140.getSize());
+
+        assertEquals(4, std430.getMember("weights").getArrayStride());
+        assertEquals(16, std430.getMember("count").getOffset());
+        assertEquals(20, std430.getSize());
+    }
+
+    @Test
+    void nestedStructAlignmentAndSize() {
+        StructLayout inner140 = StructLayout.builder("Inner", STD140)
+                .member("uv", GlslType.VEC2)
+                .member("layer", GlslType.FLOAT)
+                .build();
+        StructLayout inner430 = StructLayout.builder("Inner", STD430)
+                .member("uv", GlslType.VEC2)
+                .member("layer", GlslType.FLOAT)
+                .build();
+
+        // std140 rounds the alignment of a struct up to that of a vec4, and its size up to its alignment
+        assertEquals(16, inner140.getAlignment());
+        assertEquals(16, inner140.getSize());
+        assertEquals(8, inner430.getAlignment());
+        assertEquals(16, inner430.getSize());
+
+        StructLayout outer140 = StructLayout.builder("Outer", STD140)
+                .member("id", GlslType.FLOAT)
+                .member("inner", inner140)
+                .member("tail", GlslType.FLOAT)
+                .build();
+        StructLayout outer430 = StructLayout.builder("Outer", STD430)
+                .member("id", GlslType.FLOAT)
+                .member("inner", inner430)
+                .member("tail", GlslType.FLOAT)
+                .build();
+
+        assertEquals(16, outer140.getMember("inner").getOffset());
+        assertEquals(32, outer140.getMember("tail").getOffset());
+        assertEquals(48, outer140.getSize());
+
+        assertEquals(8, outer430.getMember("inner").getOffset());
+        assertEquals(24, outer430.getMember("tail").getOffset());
+        assertEquals(32, outer430.getSize());
+
+        StructLayout array = StructLayout.builder("Array", STD430)
+                .member("id", GlslType.FLOAT)
+                .array("inners", inner430, 3)
+                .build();
+        assertEquals(8, array.getMember("inners").getOffset());
+        assertEquals(16, array.getMember("inners").getArrayStride());
+        assertEquals(56, array.getSize());
+    }
+
+    @Test
+    void clearPaddingZeroesOnlyPadding() {
+        StructLayout inner = StructLayout.builder("Inner", STD140)
+                .member("value", GlslType.FLOAT)
+                .build();
+        StructLayout struct = StructLayout.builder("Padded", STD140)
+                .member("flag", GlslType.INT)
+                .member("normal", GlslType.VEC3)
+                .member("rotation", GlslType.MAT3)
+                .array("weights", GlslType.FLOAT, 2)
+                .member("inner", inner)
+                .build();
+
+        // int@0, vec3@16, mat3@32 with 12 byte columns every 16 bytes, float[2]@80 every 16 bytes, Inner@112
+        assertEquals(128, struct.getSize());
+        assertPadding(struct, 4, 16, 28, 32, 44, 48, 60, 64, 76, 80, 84, 96, 100, 112, 116, 128);
+    }
+
+    @Test
+    void clearPaddingOfAPackedStructDoesNothing() {
+        StructLayout struct = StructLayout.builder("Packed", STD430)
+                .member("position", GlslType.VEC3)
+                .member("radius", GlslType.FLOAT)
+                .array("weights", GlslType.FLOAT, 4)
+                .build();
+
+        assertPadding(struct);
+    }
+
+    @Test
+    void clearPaddingAtAnOffset() {
+        StructLayout struct = StructLayout.builder("Sample", STD140)
+                .member("weight", GlslType.FLOAT)
+                .member("normal", GlslType.VEC3)
+                .build();
+
+        ByteBuffer buffer = filled(struct.getSize() * 2);
+        struct.clearPadding(buffer, struct.getSize());
+
+        for (int i = 0; i < buffer.capacity(); i++) {
+            boolean padding = i >= 36 && i < 48 || i >= 60;
+            assertEquals(padding ? 0 : -1, buffer.get(i), "Byte " + i);
+        }
+    }
+
+    @Test
+    void builderRejectsInvalidMembers() {
+        assertThrows(IllegalStateException.class, () -> StructLayout.builder("Empty", STD140).build());
+        assertThrows(IllegalArgumentException.class, () -> StructLayout.builder("Twice", STD140)
+                .member("a", GlslType.FLOAT)
+                .member("a", GlslType.INT));
+        assertThrows(IllegalArgumentException.class,
+                () -> StructLayout.builder("Empty", STD140).array("a", GlslType.FLOAT, 0));
+
+        StructLayout std430 = StructLayout.builder("Inner", STD430).member("a", GlslType.FLOAT).build();
+        assertThrows(IllegalArgumentException.class,
+                () -> StructLayout.builder("Outer", STD140).member("inner", std430));
+        assertThrows(IllegalStateException.class, () -> std430.getUniformBlockGlsl("Block", 0, "items", 4));
+        assertThrows(IllegalArgumentException.class, () -> std430.getMember("missing"));
+        assertThrows(IllegalArgumentException.class,
+                () -> std430.getMember("a").putInt(ByteBuffer.allocate(4), 0, 1));
+    }
+
+    /**
+     * Checks that clearing the padding of a record zeroes exactly the given [start, end) ranges.
+     */
+    private static void assertPadding(StructLayout struct, int... ranges) {
+        ByteBuffer buffer = filled(struct.getSize());
+        struct.clearPadding(buffer, 0);
+
+        for (int i = 0; i < buffer.capacity(); i++) {
+            boolean padding = false;
+            for (int r = 0; r < ranges.length; r += 2) {
+                padding |= i >= ranges[r] && i < ranges[r + 1];
+            }
+            assertEquals(padding ? 0 : -1, buffer.get(i), "Byte " + i);
+        }
+    }
+
+    private static ByteBuffer filled(int size) {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, (byte) -1);
+        }
+        return buffer;
+    }
+}
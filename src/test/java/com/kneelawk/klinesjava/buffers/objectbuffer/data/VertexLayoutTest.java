@@ -0,0 +1,191 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.opengl.GL11C.*;
+import static org.lwjgl.opengl.GL30C.GL_HALF_FLOAT;
+
+class VertexLayoutTest {
+    private static final VertexLayout LAYOUT = VertexLayout.builder()
+            .attribute("position", ComponentType.HALF_FLOAT, 3, false)
+            .attribute("color", ComponentType.UNSIGNED_BYTE, 4, true)
+            .attribute("normal", ComponentType.BYTE, 3, true)
+            .integerAttribute("index", ComponentType.UNSIGNED_INT, 1)
+            .attribute("weight", ComponentType.UNSIGNED_SHORT, 1, false)
+            .build();
+
+    @Test
+    void offsetsAreAlignedToFourBytes() {
+        assertEquals(0, LAYOUT.getAttribute("position").getOffset());
+        assertEquals(8, LAYOUT.getAttribute("color").getOffset());
+        assertEquals(12, LAYOUT.getAttribute("normal").getOffset());
+        assertEquals(16, LAYOUT.getAttribute("index").getOffset());
+        assertEquals(20, LAYOUT.getAttribute("weight").getOffset());
+        assertEquals(24, LAYOUT.getStride());
+        assertEquals(12, LAYOUT.getComponentCount());
+    }
+
+    @Test
+    void explicitOffsetsAndStride() {
+        VertexLayout layout = VertexLayout.builder()
+                .attribute("b", ComponentType.FLOAT, 2, false, 16)
+                .attribute("a", ComponentType.FLOAT, 1, false, 0)
+                .attribute("c", ComponentType.SHORT, 1, false)
+                .stride(32)
+                .build();
+
+        // attributes without an offset go after the furthest attribute so far
+        assertEquals(24, layout.getAttribute("c").getOffset());
+        assertEquals(32, layout.getStride());
+        assertEquals("b", layout.getAttributes().get(0).getName());
+    }
+
+    @Test
+    void builderRejectsInvalidLayouts() {
+        assertThrows(IllegalStateException.class, () -> VertexLayout.builder().build());
+        assertThrows(IllegalStateException.class, () -> VertexLayout.builder()
+                .attribute("a", ComponentType.FLOAT, 2, false, 0)
+                .attribute("b", ComponentType.FLOAT, 1, false, 4)
+                .build());
+        assertThrows(IllegalStateException.class, () -> VertexLayout.builder()
+                .attribute("a", ComponentType.FLOAT, 3, false)
+                .stride(8)
+                .build());
+        assertThrows(IllegalArgumentException.class, () -> VertexLayout.builder()
+                .attribute("a", ComponentType.FLOAT, 1, false)
+                .attribute("a", ComponentType.FLOAT, 1, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> VertexLayout.builder().integerAttribute("a", ComponentType.HALF_FLOAT, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> VertexLayout.builder().attribute("a", ComponentType.FLOAT, 1, false, -4));
+        assertThrows(IllegalArgumentException.class, () -> LAYOUT.getAttribute("missing"));
+    }
+
+    @Test
+    void writeFloatsConvertsEachComponent() {
+        float[] source = {
+                1, -2, 0.5f,
+                0, 0.5f, 1, 2,
+                -1, 0, 0.5f,
+                7, 3.75f,
+                99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 99, 99
+        };
+        ByteBuffer buffer = allocate(2);
+        buffer.put(LAYOUT.getStride() - 1, (byte) 0x55);
+
+        LAYOUT.writeFloats(buffer, 0, source, 0, 1);
+
+        assertEquals((short) 0x3C00, buffer.getShort(0));
+        assertEquals((short) 0xC000, buffer.getShort(2));
+        assertEquals((short) 0x3800, buffer.getShort(4));
+
+        // normalized unsigned bytes round and clamp
+        assertEquals(0, buffer.get(8));
+        assertEquals((byte) 128, buffer.get(9));
+        assertEquals((byte) 255, buffer.get(10));
+        assertEquals((byte) 255, buffer.get(11));
+
+        // normalized signed bytes
+        assertEquals(-127, buffer.get(12));
+        assertEquals(0, buffer.get(13));
+        assertEquals(64, buffer.get(14));
+
+        // integer attributes and unnormalized integer types are truncated
+        assertEquals(7, buffer.getInt(16));
+        assertEquals(3, buffer.getShort(20));
+
+        // padding and the next record are left alone
+        assertEquals(0x55, buffer.get(LAYOUT.getStride() - 1));
+        assertEquals(0, buffer.getInt(LAYOUT.getStride()));
+    }
+
+    @Test
+    void writeFloatsLosesIntegerPrecisionAbove2To24() {
+        VertexLayout layout = VertexLayout.builder().integerAttribute("index", ComponentType.INT, 1).build();
+        ByteBuffer buffer = allocate(1);
+
+        layout.writeFloats(buffer, 0, new float[]{16777216}, 0, 1);
+        assertEquals(16777216, buffer.getInt(0));
+
+        // 2^24 + 1 has no float, so the array already holds 2^24
+        layout.writeFloats(buffer, 0, new float[]{16777217}, 0, 1);
+        assertEquals(16777216, buffer.getInt(0));
+
+        // the int binding of a writer keeps every bit
+        LayoutWriter<Integer> writer = layout.writerFor(Integer.class).bindInt("index", Integer::intValue).build();
+        writer.write(buffer, 0, 16777217);
+        assertEquals(16777217, buffer.getInt(0));
+    }
+
+    @Test
+    void writeFloatsChecksItsArguments() {
+        ByteBuffer buffer = allocate(2);
+        float[] source = new float[LAYOUT.getComponentCount() * 2];
+
+        LAYOUT.writeFloats(buffer, 0, source, 0, 2);
+        assertThrows(IndexOutOfBoundsException.class, () -> LAYOUT.writeFloats(buffer, 0, source, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> LAYOUT.writeFloats(buffer, 0, source, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> LAYOUT.writeFloats(buffer, 0, source, 0, -1));
+    }
+
+    @Test
+    void setupVertexArrayDescribesEveryAttribute() {
+        RecordingSetup setup = new RecordingSetup();
+        LAYOUT.setupVertexArray(5, 2, 3, setup);
+
+        assertEquals(List.of(
+                "enable 5 3", "format 5 3 3 " + GL_HALF_FLOAT + " false 0", "binding 5 3 2",
+                "enable 5 4", "format 5 4 4 " + GL_UNSIGNED_BYTE + " true 8", "binding 5 4 2",
+                "enable 5 5", "format 5 5 3 " + GL_BYTE + " true 12", "binding 5 5 2",
+                "enable 5 6", "iformat 5 6 1 " + GL_UNSIGNED_INT + " 16", "binding 5 6 2",
+                "enable 5 7", "format 5 7 1 " + GL_UNSIGNED_SHORT + " false 20", "binding 5 7 2"
+        ), setup.calls);
+    }
+
+    @Test
+    void setupVertexArraySkipsUnusedAttributes() {
+        RecordingSetup setup = new RecordingSetup();
+        Map<String, Integer> locations = Map.of("color", 1, "index", 0);
+        LAYOUT.setupVertexArray(9, 0, name -> locations.getOrDefault(name, -1), setup);
+
+        assertEquals(List.of(
+                "enable 9 1", "format 9 1 4 " + GL_UNSIGNED_BYTE + " true 8", "binding 9 1 0",
+                "enable 9 0", "iformat 9 0 1 " + GL_UNSIGNED_INT + " 16", "binding 9 0 0"
+        ), setup.calls);
+    }
+
+    private static ByteBuffer allocate(int records) {
+        return ByteBuffer.allocate(LAYOUT.getStride() * records).order(ByteOrder.nativeOrder());
+    }
+
+    private static class RecordingSetup implements VertexAttributeSetup {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void enable(int vao, int location) {
+            calls.add("enable " + vao + " " + location);
+        }
+
+        @Override
+        public void format(int vao, int location, int size, int type, boolean normalized, int offset) {
+            calls.add("format " + vao + " " + location + " " + size + " " + type + " " + normalized + " " + offset);
+        }
+
+        @Override
+        public void integerFormat(int vao, int location, int size, int type, int offset) {
+            calls.add("iformat " + vao + " " + location + " " + size + " " + type + " " + offset);
+        }
+
+        @Override
+        public void binding(int vao, int location, int bindingIndex) {
+            calls.add("binding " + vao + " " + location + " " + bindingIndex);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import com.kneelawk.klinesjava.buffers.databuffer.WritableDataBuffer;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WritableAffineMatrix4fBufferTest {
+    private static final int ELEMENT_SIZE = 48;
+    private static final int BATCH_SIZE = AbstractWritableDataObjectBuffer.DEFAULT_PARALLEL_ENCODING_THRESHOLD + 4096;
+
+    private ForkJoinPool pool;
+    private DirectDataBuffer data;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        data = new DirectDataBuffer();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        data.close();
+    }
+
+    @Test
+    void parallelAppendEncodesEveryElement() {
+        WritableAffineMatrix4fBuffer buffer = new WritableAffineMatrix4fBuffer(data);
+        buffer.setParallelEncodingPool(pool);
+
+        buffer.append(createBatch(-1));
+
+        assertEquals(BATCH_SIZE, buffer.getSize());
+        for (int i = 0; i < BATCH_SIZE; i += 997) {
+            // the translation is the last float of the first row of the transposed 4x3 matrix
+            assertEquals(i, data.readFloat((long) i * ELEMENT_SIZE + 12));
+        }
+    }
+
+    @Test
+    void parallelAppendWithInvalidElementThrows() {
+        for (int invalid : new int[]{0, BATCH_SIZE / 2, BATCH_SIZE - 1}) {
+            WritableAffineMatrix4fBuffer buffer = new WritableAffineMatrix4fBuffer(data);
+            buffer.setParallelEncodingPool(pool);
+
+            assertThrows(IllegalArgumentException.class, () -> buffer.append(createBatch(invalid)));
+        }
+    }
+
+    @Test
+    void parallelAppendWaitsForEveryWorkerBeforeThrowing() {
+        SlowAffineMatrix4fBuffer buffer = new SlowAffineMatrix4fBuffer(data);
+        buffer.setParallelEncodingPool(pool);
+
+        // the calling thread encodes the end of the batch, so it fails while the workers are still encoding the rest
+        assertThrows(IllegalArgumentException.class, () -> buffer.append(createBatch(BATCH_SIZE - 1)));
+
+        assertEquals(0, buffer.activeWriters.get(), "a worker was still writing after the staging memory was freed");
+        assertTrue(buffer.slowWrites.get() > 0, "no worker was slowed down");
+    }
+
+    @Test
+    void appendFloatsWithInvalidElementAppendsNothing() {
+        WritableAffineMatrix4fBuffer buffer = new WritableAffineMatrix4fBuffer(data);
+        buffer.append(new Matrix4f().translation(1, 2, 3));
+
+        // enough elements for several chunks, with a projective matrix after the first chunk has been written
+        int count = 40;
+        float[] source = createFloats(count);
+        source[30 * 16 + 3] = 1;
+
+        assertThrows(IllegalArgumentException.class, () -> buffer.appendFloats(source, 0, 16, count));
+
+        assertEquals(1, buffer.getSize());
+        assertEquals(ELEMENT_SIZE, data.getSize());
+        assertEquals(1, data.readFloat(12));
+    }
+
+    @Test
+    void setFloatsWithInvalidElementKeepsTheOldSize() {
+        WritableAffineMatrix4fBuffer buffer = new WritableAffineMatrix4fBuffer(data);
+        buffer.append(List.of(new Matrix4f(), new Matrix4f()));
+
+        int count = 40;
+        float[] source = createFloats(count);
+        source[35 * 16 + 15] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> buffer.setFloats(1, source, 0, 16, count));
+        assertEquals(2, buffer.getSize());
+    }
+
+    @Test
+    void appendFloatsTransposesTheTopRows() {
+        WritableAffineMatrix4fBuffer buffer = new WritableAffineMatrix4fBuffer(data);
+        Matrix4f matrix = new Matrix4f().translation(5, 6, 7).rotateY(0.5f).scale(2);
+        float[] source = new float[20];
+        matrix.get(source, 2);
+
+        buffer.appendFloats(source, 2, 16, 1);
+
+        ByteBuffer expected = ByteBuffer.allocateDirect(ELEMENT_SIZE).order(ByteOrder.nativeOrder());
+        matrix.get4x3Transposed(0, expected);
+        for (int i = 0; i < ELEMENT_SIZE; i += 4) {
+            assertEquals(expected.getFloat(i), data.readFloat(i), "byte " + i);
+        }
+    }
+
+    private static float[] createFloats(int count) {
+        float[] source = new float[count * 16];
+        for (int i = 0; i < count; i++) {
+            new Matrix4f().translation(i, 0, 0).get(source, i * 16);
+        }
+        return source;
+    }
+
+    private static List<Matrix4fc> createBatch(int invalid) {
+        List<Matrix4fc> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Matrix4f matrix = new Matrix4f().translation(i, 0, 0);
+            if (i == invalid) {
+                // a projective bottom row makes the matrix non-affine
+                matrix.m03(1);
+            }
+            batch.add(matrix);
+        }
+        return batch;
+    }
+
+    /**
+     * Slows down every worker encoding the front of the batch and tracks how many writes are in progress.
+     */
+    private static class SlowAffineMatrix4fBuffer extends WritableAffineMatrix4fBuffer {
+        private final AtomicInteger activeWriters = new AtomicInteger();
+        private final AtomicInteger slowWrites = new AtomicInteger();
+
+        private SlowAffineMatrix4fBuffer(WritableDataBuffer buffer) {
+            super(buffer);
+        }
+
+        @Override
+        protected void writeElement(ByteBuffer buffer, int position, Matrix4fc element) {
+            activeWriters.incrementAndGet();
+            try {
+                int index = (int) element.m30();
+                if (index < BATCH_SIZE / 2 && index % 1024 == 0) {
+                    slowWrites.incrementAndGet();
+                    Thread.sleep(20);
+                }
+
+                super.writeElement(buffer, position, element);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                activeWriters.decrementAndGet();
+            }
+        }
+    }
+}
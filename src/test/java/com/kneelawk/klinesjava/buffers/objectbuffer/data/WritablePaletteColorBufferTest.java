@@ -0,0 +1,112 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WritablePaletteColorBufferTest {
+    private DirectDataBuffer indices;
+    private DirectDataBuffer palette;
+
+    @BeforeEach
+    void setUp() {
+        indices = new DirectDataBuffer();
+        palette = new DirectDataBuffer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        indices.close();
+        palette.close();
+    }
+
+    @Test
+    void repeatedColorsShareAnEntry() {
+        WritablePaletteColorBuffer buffer = new WritablePaletteColorBuffer(indices, palette);
+
+        buffer.append(List.of(new Vector3f(1, 0, 0), new Vector3f(0, 1, 0), new Vector3f(1, 0, 0),
+                new Vector3f(0, 1, 0), new Vector3f(0, 0, 1)));
+
+        assertEquals(3, buffer.getPaletteSize());
+        assertEquals(5, indices.getSize());
+        assertArrayEquals(new byte[]{0, 1, 0, 1, 2}, readBytes(indices, 5));
+        assertArrayEquals(new byte[]{(byte) 0xFF, 0, 0, (byte) 0xFF, 0, (byte) 0xFF, 0, (byte) 0xFF},
+                readBytes(palette, 8));
+    }
+
+    @Test
+    void twoBytePaletteHoldsManyColors() {
+        WritablePaletteColorBuffer buffer = new WritablePaletteColorBuffer(indices, palette, 2);
+
+        List<Vector3fc> colors = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            colors.add(color(i));
+        }
+        buffer.append(colors);
+        buffer.append(colors);
+
+        assertEquals(5000, buffer.getPaletteSize());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, indices.readShort(2L * i) & 0xFFFF);
+            assertEquals(i, indices.readShort(2L * (5000 + i)) & 0xFFFF);
+            assertEquals(i, buffer.getPaletteIndex(color(i)));
+        }
+    }
+
+    @Test
+    void fullPaletteThrows() {
+        WritablePaletteColorBuffer buffer = new WritablePaletteColorBuffer(indices, palette);
+
+        for (int i = 0; i < buffer.getMaxPaletteSize(); i++) {
+            assertEquals(i, buffer.getPaletteIndex(color(i)));
+        }
+
+        assertThrows(IllegalStateException.class, () -> buffer.getPaletteIndex(color(buffer.getMaxPaletteSize())));
+        assertEquals(17, buffer.getPaletteIndex(color(17)));
+    }
+
+    @Test
+    void overflowingChunkIsRejectedBeforeAnythingChanges() {
+        WritablePaletteColorBuffer buffer = new WritablePaletteColorBuffer(indices, palette);
+        buffer.append(List.of(color(0), color(1), color(2)));
+        for (int i = 3; i < buffer.getMaxPaletteSize() - 1; i++) {
+            buffer.getPaletteIndex(color(i));
+        }
+
+        // only one more color fits, but these hold two new ones
+        List<Vector3fc> overflowing = List.of(color(1), color(1000), color(1001), color(1000));
+        assertThrows(IllegalStateException.class, () -> buffer.append(overflowing));
+        assertThrows(IllegalStateException.class, () -> buffer.insert(1, overflowing));
+        assertThrows(IllegalStateException.class, () -> buffer.replaceAll(overflowing));
+        assertThrows(IllegalStateException.class, () -> buffer.set(0, overflowing));
+
+        assertEquals(3, indices.getSize());
+        assertArrayEquals(new byte[]{0, 1, 2}, readBytes(indices, 3));
+        assertEquals(buffer.getMaxPaletteSize() - 1, buffer.getPaletteSize());
+
+        // repeats of a single new color still fit
+        buffer.insert(1, List.of(color(1000), color(2), color(1000)));
+        assertArrayEquals(new byte[]{0, (byte) 255, 2, (byte) 255, 1, 2}, readBytes(indices, 6));
+        assertEquals(buffer.getMaxPaletteSize(), buffer.getPaletteSize());
+    }
+
+    private static Vector3fc color(int i) {
+        return new Vector3f((i & 0xFF) / 255f, ((i >> 8) & 0xFF) / 255f, ((i >> 16) & 0xFF) / 255f);
+    }
+
+    private static byte[] readBytes(DirectDataBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.readByte(i);
+        }
+        return bytes;
+    }
+}
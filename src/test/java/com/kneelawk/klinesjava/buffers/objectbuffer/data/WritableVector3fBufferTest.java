@@ -0,0 +1,206 @@
+package com.kneelawk.klinesjava.buffers.objectbuffer.data;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.system.MemoryUtil.memAllocFloat;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+class WritableVector3fBufferTest {
+    private DirectDataBuffer data;
+    private WritableVector3fBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        data = new DirectDataBuffer();
+        buffer = new WritableVector3fBuffer(data);
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.close();
+    }
+
+    @Test
+    void appendCollectionWritesAfterExistingElements() {
+        buffer.append(new Vector3f(1, 2, 3));
+        buffer.append(List.of(new Vector3f(4, 5, 6), new Vector3f(7, 8, 9)));
+
+        assertEquals(3, buffer.getSize());
+        assertEquals(36, data.getSize());
+        assertFloats(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void appendFloatsSkipsStridePadding() {
+        // x, y, z, then two floats of padding that must not be read
+        float[] source = {-1, -1, 1, 2, 3, 99, 99, 4, 5, 6, 99, 99, 7, 8, 9};
+
+        buffer.appendFloats(source, 2, 5, 3);
+
+        assertEquals(3, buffer.getSize());
+        assertFloats(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void setFloatsMatchesObjectSet() {
+        buffer.append(List.of(new Vector3f(), new Vector3f(), new Vector3f()));
+
+        buffer.setFloats(1, new float[]{10, 11, 12, 13, 14, 15, 16, 17}, 1, 4, 2);
+
+        assertEquals(3, buffer.getSize());
+        assertFloats(0, 0, 0, 0, 11, 12, 13, 15, 16, 17);
+    }
+
+    @Test
+    void setFloatsPastTheEndGrowsTheBuffer() {
+        buffer.append(new Vector3f(1, 2, 3));
+
+        buffer.setFloats(1, new float[]{4, 5, 6, 7, 8, 9}, 0, 3, 2);
+
+        assertEquals(3, buffer.getSize());
+        assertFloats(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void floatBufferPositionAndLimitAreUnchanged() {
+        FloatBuffer source = memAllocFloat(16);
+        try {
+            for (int i = 0; i < 16; i++) {
+                source.put(i, i);
+            }
+            source.position(5).limit(12);
+
+            // the index is absolute, so it may be before the position
+            buffer.appendFloats(source, 0, 4, 3);
+
+            assertEquals(5, source.position());
+            assertEquals(12, source.limit());
+            assertFloats(0, 0, 1, 2, 4, 5, 6, 8, 9, 10);
+        } finally {
+            memFree(source);
+        }
+    }
+
+    @Test
+    void lastElementMayEndExactlyAtTheLimit() {
+        buffer.appendFloats(new float[]{0, 0, 0, 0, 1, 2, 3}, 0, 4, 2);
+
+        assertEquals(2, buffer.getSize());
+        assertFloats(1, 1, 2, 3);
+    }
+
+    @Test
+    void argumentsAreCheckedBeforeWriting() {
+        float[] source = new float[10];
+
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.appendFloats(source, 0, 4, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.appendFloats(source, 8, 3, 1));
+        assertThrows(IllegalArgumentException.class, () -> buffer.appendFloats(source, 0, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> buffer.appendFloats(source, -1, 3, 1));
+        assertThrows(IllegalArgumentException.class, () -> buffer.appendFloats(source, 0, 3, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.setFloats(0, source, 4, 3, 3));
+
+        assertEquals(0, buffer.getSize());
+        assertEquals(0, data.getSize());
+    }
+
+    @Test
+    void zeroCountDoesNothing() {
+        buffer.appendFloats(new float[0], 0, 3, 0);
+        assertEquals(0, buffer.getSize());
+    }
+
+    @Test
+    void streamAppendTrimsTheUnusedPartOfTheSizeHint() {
+        buffer.append(new Vector3f(-1, -2, -3));
+        buffer.append(vectors(10).iterator(), 100);
+
+        assertEquals(11, buffer.getSize());
+        assertEquals(11 * 12, data.getSize());
+        assertFloats(0, -1, -2, -3);
+        assertStreamed(1, 10);
+    }
+
+    @Test
+    void streamAppendGrowsPastASmallSizeHint() {
+        buffer.append(vectors(10).iterator(), 3);
+
+        assertEquals(10, buffer.getSize());
+        assertStreamed(0, 10);
+    }
+
+    @Test
+    void streamAppendTrimsTheSizeHintWhenTheIteratorThrows() {
+        buffer.append(new Vector3f(-1, -2, -3));
+        Iterator<Vector3fc> failing = failingAfter(vectors(10000), 6000);
+
+        assertThrows(IllegalStateException.class, () -> buffer.append(failing, 10000));
+
+        // only whole staging blocks that were copied before the failure are kept, never unwritten reserved space
+        long size = buffer.getSize();
+        assertTrue(size >= 1 && size <= 6001, "Size " + size);
+        assertEquals(size * 12, data.getSize());
+        assertFloats(0, -1, -2, -3);
+        assertStreamed(1, (int) size - 1);
+    }
+
+    /**
+     * Checks that count elements starting at firstElement are the vectors produced by {@link #vectors(int)}.
+     */
+    private void assertStreamed(int firstElement, int count) {
+        for (int i = 0; i < count; i++) {
+            assertFloats(firstElement + i, i, i + 0.5f, -i);
+        }
+    }
+
+    static List<Vector3fc> vectors(int count) {
+        List<Vector3fc> vectors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            vectors.add(new Vector3f(i, i + 0.5f, -i));
+        }
+        return vectors;
+    }
+
+    /**
+     * Creates an iterator over a list that throws an IllegalStateException instead of producing the element at
+     * failAt.
+     */
+    static <E> Iterator<E> failingAfter(List<E> elements, int failAt) {
+        Iterator<E> it = elements.iterator();
+        return new Iterator<>() {
+            private int produced = 0;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (produced == failAt) {
+                    throw new IllegalStateException("Failing at element " + failAt);
+                }
+
+                produced++;
+                return it.next();
+            }
+        };
+    }
+
+    private void assertFloats(int firstElement, float... expected) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], data.readFloat((firstElement * 3L + i) * 4), "float " + i);
+        }
+    }
+}
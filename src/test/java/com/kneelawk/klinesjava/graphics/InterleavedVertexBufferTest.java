@@ -0,0 +1,84 @@
+package com.kneelawk.klinesjava.graphics;
+
+import com.kneelawk.klinesjava.buffers.databuffer.CountingDataBuffer;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterleavedVertexBufferTest {
+    private CountingDataBuffer data;
+    private Map<Matrix4fc, Integer> transformIndices;
+
+    @BeforeEach
+    void setUp() {
+        data = new CountingDataBuffer();
+        transformIndices = new HashMap<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        data.close();
+    }
+
+    @Test
+    void appendWritesOneRecordPerVertex() {
+        InterleavedVertexBuffer buffer = new InterleavedVertexBuffer(data, this::indexTransform);
+        buffer.append(createVertices(10));
+
+        int stride = InterleavedVertexFormat.DEFAULT.getStride();
+        assertEquals(10 * stride, data.getSize());
+        for (int i = 0; i < 10; i++) {
+            long record = (long) i * stride;
+            assertEquals(i, data.readFloat(record));
+            assertEquals(i * 0.1f, data.readFloat(record + 12));
+            assertEquals(i % 3, data.readInt(record + 24));
+        }
+    }
+
+    @Test
+    void appendUploadsOncePerChunk() {
+        InterleavedVertexBuffer buffer = new InterleavedVertexBuffer(data, this::indexTransform);
+        int stride = InterleavedVertexFormat.DEFAULT.getStride();
+        int chunkSize = 4096 / stride;
+
+        buffer.append(createVertices(1000));
+
+        assertEquals((1000 + chunkSize - 1) / chunkSize, data.getSetCalls());
+        assertEquals(1000L * stride, data.getSetBytes());
+    }
+
+    @Test
+    void compactFormatRecordsAreSixteenBytes() {
+        InterleavedVertexBuffer buffer =
+                new InterleavedVertexBuffer(data, InterleavedVertexFormat.COMPACT, this::indexTransform);
+        buffer.append(createVertices(5));
+
+        assertEquals(5 * 16, data.getSize());
+        assertEquals(2, data.readShort(16 * 2 + 12));
+        assertEquals(0, data.readShort(16 * 2 + 14));
+    }
+
+    private int indexTransform(Matrix4fc transform) {
+        return transformIndices.computeIfAbsent(transform, t -> transformIndices.size());
+    }
+
+    static List<Vertex> createVertices(int count) {
+        Matrix4fc[] transforms = {new Matrix4f(), new Matrix4f().translation(1, 0, 0), new Matrix4f().scaling(2)};
+
+        List<Vertex> vertices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vertices.add(new Vertex(new Vector3f(i, -i, 0.5f), new Vector3f(i * 0.1f, 0, 1), transforms[i % 3]));
+        }
+        return vertices;
+    }
+}
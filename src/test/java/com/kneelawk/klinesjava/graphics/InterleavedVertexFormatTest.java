@@ -0,0 +1,157 @@
+package com.kneelawk.klinesjava.graphics;
+
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.VertexLayout;
+import com.kneelawk.klinesjava.graphics.InterleavedVertexFormat.ColorEncoding;
+import com.kneelawk.klinesjava.graphics.InterleavedVertexFormat.IndexEncoding;
+import com.kneelawk.klinesjava.graphics.InterleavedVertexFormat.PositionEncoding;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterleavedVertexFormatTest {
+    private static final byte GARBAGE = (byte) 0xAA;
+
+    @Test
+    void defaultLayout() {
+        InterleavedVertexFormat format = InterleavedVertexFormat.DEFAULT;
+
+        assertEquals(0, format.getPositionOffset());
+        assertEquals(12, format.getColorOffset());
+        assertEquals(24, format.getTransformIndexOffset());
+        assertEquals(28, format.getStride());
+    }
+
+    @Test
+    void compactLayout() {
+        InterleavedVertexFormat format = InterleavedVertexFormat.COMPACT;
+
+        // the 6-byte half position and the 2-byte index are both padded to 4-byte boundaries
+        assertEquals(0, format.getPositionOffset());
+        assertEquals(8, format.getColorOffset());
+        assertEquals(12, format.getTransformIndexOffset());
+        assertEquals(16, format.getStride());
+    }
+
+    @Test
+    void halfPositionWritesEightBytes() {
+        InterleavedVertexFormat format =
+                new InterleavedVertexFormat(PositionEncoding.HALF, ColorEncoding.FLOAT, IndexEncoding.UNSIGNED_INT);
+        ByteBuffer record = writeRecord(format, 0);
+
+        // 1.0, -2.0 and 0.5 as half floats, then two bytes of zeroed padding
+        assertEquals((short) 0x3C00, record.getShort(0));
+        assertEquals((short) 0xC000, record.getShort(2));
+        assertEquals((short) 0x3800, record.getShort(4));
+        assertEquals(0, record.getShort(6));
+        assertEquals(8, format.getColorOffset());
+    }
+
+    @Test
+    void unsignedShortIndexWritesFourBytes() {
+        InterleavedVertexFormat format =
+                new InterleavedVertexFormat(PositionEncoding.FLOAT, ColorEncoding.FLOAT, IndexEncoding.UNSIGNED_SHORT);
+        ByteBuffer record = writeRecord(format, 0xFFFF);
+
+        assertEquals(24, format.getTransformIndexOffset());
+        assertEquals(28, format.getStride());
+        assertEquals((short) 0xFFFF, record.getShort(24));
+        assertEquals(0, record.getShort(26));
+    }
+
+    @Test
+    void compactRecordBytes() {
+        InterleavedVertexFormat format = InterleavedVertexFormat.COMPACT;
+        ByteBuffer record = writeRecord(format, 0x1234);
+
+        byte[] bytes = Arrays.copyOf(record.array(), format.getStride());
+
+        ByteBuffer expected = ByteBuffer.allocate(16).order(ByteOrder.nativeOrder());
+        expected.putShort((short) 0x3C00).putShort((short) 0xC000).putShort((short) 0x3800).putShort((short) 0);
+        expected.put((byte) 0).put((byte) 0x80).put((byte) 0xFF).put((byte) 0xFF);
+        expected.putShort((short) 0x1234).putShort((short) 0);
+
+        assertArrayEquals(expected.array(), bytes);
+    }
+
+    @Test
+    void writeOnlyTouchesItsRecord() {
+        for (InterleavedVertexFormat format : Arrays.asList(InterleavedVertexFormat.DEFAULT,
+                InterleavedVertexFormat.COMPACT)) {
+            ByteBuffer buffer = ByteBuffer.allocate(format.getStride() * 3).order(ByteOrder.nativeOrder());
+            Arrays.fill(buffer.array(), GARBAGE);
+
+            format.write(buffer, format.getStride(), new Vector3f(1, -2, 0.5f), new Vector3f(0, 0.5f, 1), 7);
+
+            for (int i = 0; i < format.getStride(); i++) {
+                assertEquals(GARBAGE, buffer.get(i), format + " wrote before its record");
+                assertEquals(GARBAGE, buffer.get(format.getStride() * 2 + i), format + " wrote after its record");
+            }
+        }
+    }
+
+    @Test
+    void unsignedShortIndexRejectsLargeIndices() {
+        InterleavedVertexFormat format = InterleavedVertexFormat.COMPACT;
+        ByteBuffer buffer = ByteBuffer.allocate(format.getStride()).order(ByteOrder.nativeOrder());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> format.write(buffer, 0, new Vector3f(), new Vector3f(), 0x10000));
+        assertThrows(IllegalArgumentException.class, () -> format.write(buffer, 0, new Vector3f(), new Vector3f(), -1));
+    }
+
+    @Test
+    void offsetsComeFromTheLayout() {
+        for (InterleavedVertexFormat format : Arrays.asList(InterleavedVertexFormat.DEFAULT,
+                InterleavedVertexFormat.COMPACT)) {
+            VertexLayout layout = format.getLayout();
+
+            assertEquals(format.getStride(), layout.getStride());
+            assertEquals(format.getPositionOffset(),
+                    layout.getAttribute(InterleavedVertexFormat.POSITION_ATTRIBUTE).getOffset());
+            assertEquals(format.getColorOffset(),
+                    layout.getAttribute(InterleavedVertexFormat.COLOR_ATTRIBUTE).getOffset());
+            assertEquals(format.getTransformIndexOffset(),
+                    layout.getAttribute(InterleavedVertexFormat.TRANSFORM_INDEX_ATTRIBUTE).getOffset());
+            assertTrue(layout.getAttribute(InterleavedVertexFormat.TRANSFORM_INDEX_ATTRIBUTE).isInteger());
+            assertEquals(format.getColorEncoding().getAttributeFormat(),
+                    layout.getAttribute(InterleavedVertexFormat.COLOR_ATTRIBUTE).getFormat());
+        }
+    }
+
+    @Test
+    void writeMatchesTheLayoutsFloatWriter() {
+        // position, color and the transform index, with the opaque alpha of the 8-bit color written out
+        float[] compact = {1, -2, 0.5f, 0, 0.5f, 1, 1, 0x1234};
+        float[] full = {1, -2, 0.5f, 0, 0.5f, 1, 0x1234};
+
+        assertSameRecord(InterleavedVertexFormat.COMPACT, compact);
+        assertSameRecord(InterleavedVertexFormat.DEFAULT, full);
+    }
+
+    private static void assertSameRecord(InterleavedVertexFormat format, float[] source) {
+        ByteBuffer expected = ByteBuffer.allocate(format.getStride()).order(ByteOrder.nativeOrder());
+        ByteBuffer actual = ByteBuffer.allocate(format.getStride()).order(ByteOrder.nativeOrder());
+
+        format.getLayout().writeFloats(expected, 0, source, 0, 1);
+        format.write(actual, 0, new Vector3f(source[0], source[1], source[2]),
+                new Vector3f(source[3], source[4], source[5]), (int) source[source.length - 1]);
+
+        assertArrayEquals(expected.array(), actual.array(), format.toString());
+    }
+
+    /**
+     * Writes a record into a buffer full of garbage, so padding that is not written shows up.
+     */
+    private static ByteBuffer writeRecord(InterleavedVertexFormat format, int transformIndex) {
+        ByteBuffer buffer = ByteBuffer.allocate(format.getStride()).order(ByteOrder.nativeOrder());
+        Arrays.fill(buffer.array(), GARBAGE);
+
+        format.write(buffer, 0, new Vector3f(1, -2, 0.5f), new Vector3f(0, 0.5f, 1), transformIndex);
+        return buffer;
+    }
+}
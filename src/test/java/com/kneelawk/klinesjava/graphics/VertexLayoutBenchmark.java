@@ -0,0 +1,186 @@
+package com.kneelawk.klinesjava.graphics;
+
+import com.kneelawk.klinesjava.buffers.databuffer.CountingDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.IndexType;
+import com.kneelawk.klinesjava.buffers.objectbuffer.WritableIndexingObjectBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.WritableObjectBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableMatrix4fBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableVector3fBuffer;
+import org.joml.Matrix4fc;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * VertexLayoutBenchmark - Compares the separate attribute buffers of {@link WritableVertexBuffer} (SoA) against the
+ * single interleaved record buffer of {@link InterleavedVertexBuffer} (AoS).
+ * <p>
+ * The CPU cost is the time to encode and write a batch of vertices into native data buffers. The upload cost is the
+ * number of writes and bytes that reach the data buffers, each of which would be a buffer upload when backed by a GL
+ * buffer. Both layouts deduplicate the same transforms. Only runs when the klines.benchmark system property is true,
+ * use <code>./gradlew test -Pbenchmark</code>.
+ */
+@EnabledIfSystemProperty(named = "klines.benchmark", matches = "true")
+class VertexLayoutBenchmark {
+    private static final int[] BATCH_SIZES = {1_000, 100_000, 1_000_000};
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    void appendBatches() {
+        System.out.println();
+        System.out.println("appending a batch of vertices to empty buffers");
+        System.out.printf("%10s %-20s %12s %12s %12s%n", "vertices", "layout", "ns/vertex", "uploads", "bytes");
+
+        for (int batchSize : BATCH_SIZES) {
+            List<Vertex> batch = InterleavedVertexBufferTest.createVertices(batchSize);
+
+            run(batchSize, "SoA", batch, new SoaLayout());
+            run(batchSize, "AoS default", batch, new AosLayout(InterleavedVertexFormat.DEFAULT));
+            run(batchSize, "AoS compact", batch, new AosLayout(InterleavedVertexFormat.COMPACT));
+        }
+    }
+
+    private static void run(int batchSize, String name, List<Vertex> batch, Layout layout) {
+        try {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                layout.clear();
+                layout.append(batch);
+            }
+
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < ITERATIONS; i++) {
+                layout.clear();
+                layout.resetCounts();
+
+                long start = System.nanoTime();
+                layout.append(batch);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            System.out.printf("%10d %-20s %12.1f %12d %12d%n", batchSize, name, best / (double) batchSize,
+                    layout.getSetCalls(), layout.getSetBytes());
+        } finally {
+            layout.close();
+        }
+    }
+
+    private interface Layout {
+        void append(List<Vertex> batch);
+
+        void clear();
+
+        void resetCounts();
+
+        long getSetCalls();
+
+        long getSetBytes();
+
+        void close();
+    }
+
+    private static class SoaLayout implements Layout {
+        private final CountingDataBuffer positions = new CountingDataBuffer();
+        private final CountingDataBuffer colors = new CountingDataBuffer();
+        private final CountingDataBuffer transformIndices = new CountingDataBuffer();
+        private final CountingDataBuffer transforms = new CountingDataBuffer();
+        private final WritableObjectBuffer<Vertex> vertices = new WritableVertexBuffer(
+                new WritableVector3fBuffer(positions), new WritableVector3fBuffer(colors),
+                new WritableIndexingObjectBuffer<>(transformIndices, new WritableMatrix4fBuffer(transforms),
+                        Vertex.TRANSFORM_ENCODER, IndexType.UNSIGNED_INT));
+
+        @Override
+        public void append(List<Vertex> batch) {
+            vertices.append(batch);
+        }
+
+        @Override
+        public void clear() {
+            vertices.clear();
+        }
+
+        @Override
+        public void resetCounts() {
+            positions.resetCounts();
+            colors.resetCounts();
+            transformIndices.resetCounts();
+            transforms.resetCounts();
+        }
+
+        @Override
+        public long getSetCalls() {
+            return positions.getSetCalls() + colors.getSetCalls() + transformIndices.getSetCalls() +
+                    transforms.getSetCalls();
+        }
+
+        @Override
+        public long getSetBytes() {
+            return positions.getSetBytes() + colors.getSetBytes() + transformIndices.getSetBytes() +
+                    transforms.getSetBytes();
+        }
+
+        @Override
+        public void close() {
+            positions.close();
+            colors.close();
+            transformIndices.close();
+            transforms.close();
+        }
+    }
+
+    private static class AosLayout implements Layout {
+        private final CountingDataBuffer records = new CountingDataBuffer();
+        private final CountingDataBuffer transforms = new CountingDataBuffer();
+        private final WritableMatrix4fBuffer transformBuffer = new WritableMatrix4fBuffer(transforms);
+        private final Map<Matrix4fc, Integer> transformIndices = new HashMap<>();
+        private final InterleavedVertexBuffer vertices;
+
+        private AosLayout(InterleavedVertexFormat format) {
+            vertices = new InterleavedVertexBuffer(records, format, this::indexTransform);
+        }
+
+        private int indexTransform(Matrix4fc transform) {
+            return transformIndices.computeIfAbsent(transform, t -> {
+                transformBuffer.append(t);
+                return transformIndices.size();
+            });
+        }
+
+        @Override
+        public void append(List<Vertex> batch) {
+            vertices.append(batch);
+        }
+
+        @Override
+        public void clear() {
+            vertices.clear();
+            transformBuffer.clear();
+            transformIndices.clear();
+        }
+
+        @Override
+        public void resetCounts() {
+            records.resetCounts();
+            transforms.resetCounts();
+        }
+
+        @Override
+        public long getSetCalls() {
+            return records.getSetCalls() + transforms.getSetCalls();
+        }
+
+        @Override
+        public long getSetBytes() {
+            return records.getSetBytes() + transforms.getSetBytes();
+        }
+
+        @Override
+        public void close() {
+            records.close();
+            transforms.close();
+        }
+    }
+}
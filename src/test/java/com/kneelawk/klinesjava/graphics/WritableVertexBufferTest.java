@@ -0,0 +1,281 @@
+package com.kneelawk.klinesjava.graphics;
+
+import com.kneelawk.klinesjava.buffers.databuffer.DirectDataBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableAffineMatrix4fBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableMatrix4fBuffer;
+import com.kneelawk.klinesjava.buffers.objectbuffer.data.WritableVector3fBuffer;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WritableVertexBufferTest {
+    private static final int UNIQUE_COUNT = 300;
+
+    private Buffers expected;
+    private Buffers actual;
+    private List<Vertex> unique;
+    private int[] indices;
+
+    @BeforeEach
+    void setUp() {
+        expected = new Buffers();
+        actual = new Buffers();
+
+        // more unique vertices than fit in the views by default, so they have to grow
+        unique = InterleavedVertexBufferTest.createVertices(UNIQUE_COUNT);
+        indices = new int[1000];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = (i * 7919) % UNIQUE_COUNT;
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        expected.close();
+        actual.close();
+    }
+
+    @Test
+    void indexedOperationsMatchPlainOperations() {
+        expected.vertices.append(gather(0, 1000));
+        actual.vertices.append(unique, Arrays.asList(boxed(0, 1000)));
+        assertSameContents();
+
+        expected.vertices.set(100, gather(0, 200));
+        actual.vertices.set(100, unique, IntBuffer.wrap(indices, 0, 200));
+        assertSameContents();
+
+        expected.vertices.insert(50, gather(200, 500));
+        actual.vertices.insert(50, unique, IntBuffer.wrap(indices, 200, 300));
+        assertSameContents();
+
+        expected.vertices.prepend(gather(500, 600));
+        actual.vertices.prepend(unique, Arrays.asList(boxed(500, 600)));
+        assertSameContents();
+
+        expected.vertices.replace(10, 40, gather(600, 700));
+        actual.vertices.replace(10, 40, unique, IntBuffer.wrap(indices, 600, 100));
+        assertSameContents();
+
+        expected.vertices.replaceBefore(30, gather(700, 710));
+        actual.vertices.replaceBefore(30, unique, Arrays.asList(boxed(700, 710)));
+        assertSameContents();
+
+        expected.vertices.replaceAfter(900, gather(710, 800));
+        actual.vertices.replaceAfter(900, unique, IntBuffer.wrap(indices, 710, 90));
+        assertSameContents();
+
+        expected.vertices.replaceAll(gather(800, 1000));
+        actual.vertices.replaceAll(unique, Arrays.asList(boxed(800, 1000)));
+        assertSameContents();
+    }
+
+    @Test
+    void attributeBytesMatchTheVertices() {
+        List<Vertex> model = new ArrayList<>(gather(0, 1000));
+        actual.vertices.append(unique, Arrays.asList(boxed(0, 1000)));
+        assertAttributes(model);
+
+        // small operations after the views have grown and been trimmed again
+        model.addAll(0, unique.subList(0, 3));
+        actual.vertices.prepend(unique.subList(0, 3));
+        assertAttributes(model);
+
+        List<Vertex> replacement = gather(10, 20);
+        for (int i = 0; i < replacement.size(); i++) {
+            model.set(500 + i, replacement.get(i));
+        }
+        actual.vertices.set(500, unique, IntBuffer.wrap(indices, 10, 10));
+        assertAttributes(model);
+
+        // and another large one
+        model.addAll(200, gather(200, 700));
+        actual.vertices.insert(200, unique, IntBuffer.wrap(indices, 200, 500));
+        assertAttributes(model);
+    }
+
+    @Test
+    void insertBlankShiftsEveryAttributeBuffer() {
+        List<Vertex> model = new ArrayList<>(unique.subList(0, 10));
+        actual.vertices.append(model);
+
+        actual.vertices.insertBlank(4, 3);
+        assertEquals(13, actual.vertices.getSize());
+        assertEquals(13 * 12, actual.positions.getSize());
+        assertEquals(13 * 12, actual.colors.getSize());
+        assertEquals(13 * 64, actual.transforms.getSize());
+
+        List<Vertex> filler = unique.subList(100, 103);
+        model.addAll(4, filler);
+        actual.vertices.set(4, filler);
+        assertAttributes(model);
+    }
+
+    @Test
+    void swapRemoveReturnsWhereTheMovedVerticesCameFrom() {
+        actual.vertices.append(unique.subList(0, 10));
+
+        assertEquals(8, actual.vertices.swapRemove(1, 2));
+        assertAttributes(pick(0, 8, 9, 3, 4, 5, 6, 7));
+
+        // overlapping the end
+        assertEquals(6, actual.vertices.swapRemove(3, 3));
+        assertAttributes(pick(0, 8, 9, 6, 7));
+
+        // reaching the end
+        assertEquals(5, actual.vertices.swapRemove(3, 5));
+        assertAttributes(pick(0, 8, 9));
+
+        // outside the buffer
+        assertEquals(3, actual.vertices.swapRemove(3, 1));
+        assertEquals(3, actual.vertices.swapRemove(10, 1));
+        assertAttributes(pick(0, 8, 9));
+    }
+
+    @Test
+    void setFloatsFansTheTransformOutToEveryVertex() {
+        Matrix4f transform = new Matrix4f().translation(1, 2, 3);
+        expected.vertices.append(unique.subList(0, 10));
+        actual.vertices.append(unique.subList(0, 10));
+
+        // position, padding, color, per vertex
+        float[] source = new float[7 * 20];
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Vector3f position = new Vector3f(i, i + 0.25f, i + 0.5f);
+            Vector3f color = new Vector3f(i / 20f, 0.5f, 1 - i / 20f);
+            source[i * 7] = position.x;
+            source[i * 7 + 1] = position.y;
+            source[i * 7 + 2] = position.z;
+            source[i * 7 + 4] = color.x;
+            source[i * 7 + 5] = color.y;
+            source[i * 7 + 6] = color.z;
+            vertices.add(new Vertex(position, color, transform));
+        }
+
+        expected.vertices.set(5, vertices);
+        actual.vertices.setFloats(5, source, 0, 4, 7, transform, 20);
+        assertSameContents();
+        assertEquals(25, actual.vertices.getSize());
+
+        expected.vertices.append(vertices);
+        actual.vertices.appendFloats(source, 0, 4, 7, transform, 20);
+        assertSameContents();
+    }
+
+    @Test
+    void rejectedTransformLeavesEveryAttributeBufferAtItsOldSize() {
+        DirectDataBuffer positions = new DirectDataBuffer();
+        DirectDataBuffer colors = new DirectDataBuffer();
+        DirectDataBuffer transforms = new DirectDataBuffer();
+        try {
+            WritableVertexBuffer vertices =
+                    new WritableVertexBuffer(new WritableVector3fBuffer(positions), new WritableVector3fBuffer(colors),
+                            new WritableAffineMatrix4fBuffer(transforms));
+            vertices.append(unique.subList(0, 3));
+
+            Matrix4f projective = new Matrix4f().perspective(1, 1, 0.1f, 10);
+            float[] source = new float[6 * 8];
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> vertices.appendFloats(source, 0, 3, 6, projective, 8));
+            assertThrows(IllegalArgumentException.class,
+                    () -> vertices.setFloats(2, source, 0, 3, 6, projective, 8));
+
+            assertEquals(3, vertices.getSize());
+            assertEquals(3 * 12, positions.getSize());
+            assertEquals(3 * 12, colors.getSize());
+            assertEquals(3 * 48, transforms.getSize());
+        } finally {
+            positions.close();
+            colors.close();
+            transforms.close();
+        }
+    }
+
+    @Test
+    void colorIndexIsCheckedBeforeAnythingIsWritten() {
+        float[] source = new float[12];
+
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> actual.vertices.appendFloats(source, 0, 4, 6, new Matrix4f(), 2));
+        assertEquals(0, actual.positions.getSize());
+    }
+
+    private List<Vertex> gather(int start, int end) {
+        return Arrays.stream(indices, start, end).mapToObj(unique::get).collect(Collectors.toList());
+    }
+
+    private List<Vertex> pick(int... positions) {
+        return Arrays.stream(positions).mapToObj(unique::get).collect(Collectors.toList());
+    }
+
+    private Integer[] boxed(int start, int end) {
+        return Arrays.stream(indices, start, end).boxed().toArray(Integer[]::new);
+    }
+
+    private void assertSameContents() {
+        assertEquals(expected.vertices.getSize(), actual.vertices.getSize());
+        assertSameData(expected.positions, actual.positions);
+        assertSameData(expected.colors, actual.colors);
+        assertSameData(expected.transforms, actual.transforms);
+    }
+
+    private void assertAttributes(List<Vertex> model) {
+        assertEquals(model.size(), actual.vertices.getSize());
+        assertEquals(model.size() * 12L, actual.positions.getSize());
+        assertEquals(model.size() * 12L, actual.colors.getSize());
+        assertEquals(model.size() * 64L, actual.transforms.getSize());
+
+        float[] matrix = new float[16];
+        for (int i = 0; i < model.size(); i++) {
+            Vertex vertex = model.get(i);
+            assertVector(vertex.getPosition(), actual.positions, i * 12L);
+            assertVector(vertex.getColor(), actual.colors, i * 12L);
+
+            vertex.getTransform().get(matrix);
+            for (int j = 0; j < 16; j++) {
+                assertEquals(matrix[j], actual.transforms.readFloat(i * 64L + j * 4), "transform of vertex " + i);
+            }
+        }
+    }
+
+    private static void assertVector(Vector3fc expected, DirectDataBuffer data, long offset) {
+        assertEquals(expected.x(), data.readFloat(offset));
+        assertEquals(expected.y(), data.readFloat(offset + 4));
+        assertEquals(expected.z(), data.readFloat(offset + 8));
+    }
+
+    private static void assertSameData(DirectDataBuffer expected, DirectDataBuffer actual) {
+        assertEquals(expected.getSize(), actual.getSize());
+        for (long offset = 0; offset < expected.getSize(); offset += 4) {
+            assertEquals(expected.readInt(offset), actual.readInt(offset), "difference at byte " + offset);
+        }
+    }
+
+    private static class Buffers {
+        private final DirectDataBuffer positions = new DirectDataBuffer();
+        private final DirectDataBuffer colors = new DirectDataBuffer();
+        private final DirectDataBuffer transforms = new DirectDataBuffer();
+        private final WritableVertexBuffer vertices =
+                new WritableVertexBuffer(new WritableVector3fBuffer(positions), new WritableVector3fBuffer(colors),
+                        new WritableMatrix4fBuffer(transforms));
+
+        private void close() {
+            positions.close();
+            colors.close();
+            transforms.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.kneelawk.klinesjava.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionUtilsTest {
+    private static final List<String> ELEMENTS = List.of("a", "b", "c", "d", "e");
+
+    @Test
+    void gatherMatchesMappingEveryIndex() {
+        List<Integer> indices = List.of(4, 0, 0, 2, 3, 1, 4);
+        IntBuffer buffer = IntBuffer.wrap(indices.stream().mapToInt(Integer::intValue).toArray());
+
+        List<String> expected = indices.stream().map(ELEMENTS::get).collect(Collectors.toList());
+        assertEquals(expected, CollectionUtils.gather(ELEMENTS, buffer));
+        assertEquals(expected, new ArrayList<>(CollectionUtils.gather(ELEMENTS, buffer)));
+    }
+
+    @Test
+    void gatherOnlyReadsFromThePositionToTheLimit() {
+        // the indices outside the window are out of range, so reading them would throw
+        IntBuffer buffer = IntBuffer.wrap(new int[]{-1, -1, 3, 1, 3, 99}, 2, 3);
+
+        List<String> gathered = CollectionUtils.gather(ELEMENTS, buffer);
+
+        assertEquals(List.of("d", "b", "d"), gathered);
+        assertEquals(2, buffer.position());
+        assertEquals(5, buffer.limit());
+    }
+
+    @Test
+    void gatherChecksItsOwnBounds() {
+        List<String> gathered = CollectionUtils.gather(ELEMENTS, IntBuffer.wrap(new int[]{0, 1, 2, 3}, 1, 2));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> gathered.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> gathered.get(2));
+    }
+
+    @Test
+    void gatherOfAnEmptyBufferIsEmpty() {
+        assertTrue(CollectionUtils.gather(ELEMENTS, IntBuffer.allocate(0)).isEmpty());
+    }
+}
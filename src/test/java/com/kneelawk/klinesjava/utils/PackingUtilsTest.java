@@ -0,0 +1,167 @@
+package com.kneelawk.klinesjava.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackingUtilsTest {
+    private static final float SMALLEST_SUBNORMAL = 0x1p-24f;
+    private static final float SMALLEST_NORMAL = 0x1p-14f;
+
+    @Test
+    void signedZeros() {
+        assertHalf(0x0000, 0f);
+        assertHalf(0x8000, -0f);
+    }
+
+    @Test
+    void subnormals() {
+        assertHalf(0x0001, SMALLEST_SUBNORMAL);
+        assertHalf(0x8001, -SMALLEST_SUBNORMAL);
+        assertHalf(0x03FF, SMALLEST_NORMAL - SMALLEST_SUBNORMAL);
+        assertHalf(0x0400, SMALLEST_NORMAL);
+        assertHalf(0x0200, 0x1p-15f);
+
+        // half of the smallest subnormal is a tie that rounds to zero, anything above it rounds up
+        assertHalf(0x0000, SMALLEST_SUBNORMAL / 2);
+        assertHalf(0x0001, Math.nextUp(SMALLEST_SUBNORMAL / 2));
+        assertHalf(0x0000, Float.MIN_VALUE);
+        assertHalf(0x8000, -Float.MIN_NORMAL);
+
+        // the largest subnormal rounds up into the smallest normal
+        assertHalf(0x0400, SMALLEST_NORMAL - SMALLEST_SUBNORMAL / 2);
+    }
+
+    @Test
+    void overflowBecomesInfinity() {
+        assertHalf(0x7BFF, 65504f);
+        assertHalf(0x7BFF, Math.nextDown(65520f));
+        assertHalf(0x7C00, 65520f);
+        assertHalf(0xFC00, -65520f);
+        assertHalf(0x7C00, Float.MAX_VALUE);
+        assertHalf(0x7C00, Float.POSITIVE_INFINITY);
+        assertHalf(0xFC00, Float.NEGATIVE_INFINITY);
+    }
+
+    @Test
+    void tiesRoundToEven() {
+        float step = 0x1p-10f;
+
+        // ties between 1 and the next half round down to the even mantissa, the next tie rounds up to it
+        assertHalf(0x3C00, 1 + step / 2);
+        assertHalf(0x3C01, Math.nextUp(1 + step / 2));
+        assertHalf(0x3C02, 1 + step * 3 / 2);
+        assertHalf(0x3C01, Math.nextDown(1 + step * 3 / 2));
+
+        // subnormal ties
+        assertHalf(0x0002, SMALLEST_SUBNORMAL * 3 / 2);
+        assertHalf(0x0002, SMALLEST_SUBNORMAL * 5 / 2);
+
+        // a tie that carries out of the mantissa bumps the exponent
+        assertHalf(0x4000, 2 - step / 2);
+    }
+
+    @Test
+    void nanStaysNan() {
+        int[] nans = {0x7FC00000, 0x7F800001, 0x7FFFFFFF, 0xFFC00000, 0xFF800001};
+        for (int bits : nans) {
+            int half = PackingUtils.toHalf(Float.intBitsToFloat(bits)) & 0xFFFF;
+            assertEquals(0x7C00, half & 0x7C00, "Exponent of " + Integer.toHexString(bits));
+            assertNotEquals(0, half & 0x3FF, "Mantissa of " + Integer.toHexString(bits));
+            assertEquals(bits >>> 31, half >>> 15, "Sign of " + Integer.toHexString(bits));
+        }
+    }
+
+    @Test
+    void matchesNearestHalf() {
+        // every finite half, the midpoints between them and the floats either side of each midpoint
+        for (int half = 0; half < 0x7C00; half++) {
+            float value = halfToFloat(half);
+            assertHalf(half, value);
+            assertHalf(half | 0x8000, -value);
+
+            float next = halfToFloat(half + 1);
+            float midpoint = (value + next) / 2;
+            assertHalf(half, Math.nextDown(midpoint));
+            assertHalf(half + 1, Math.nextUp(midpoint));
+            assertHalf((half & 1) == 0 ? half : half + 1, midpoint);
+        }
+
+        // and a sweep over the floats in between, checked against rounding in double precision
+        for (long bits = 0; bits < 0x477FF000L; bits += 997) {
+            float value = Float.intBitsToFloat((int) bits);
+            assertHalf(nearestHalf(value), value);
+        }
+    }
+
+    @Test
+    void snorm16() {
+        assertEquals(0, PackingUtils.toSnorm16(0f));
+        assertEquals(0, PackingUtils.toSnorm16(-0f));
+        assertEquals(32767, PackingUtils.toSnorm16(1f));
+        assertEquals(-32767, PackingUtils.toSnorm16(-1f));
+        assertEquals(16384, PackingUtils.toSnorm16(0.5f));
+
+        // out of range values and infinities are clamped
+        assertEquals(32767, PackingUtils.toSnorm16(2f));
+        assertEquals(-32767, PackingUtils.toSnorm16(-2f));
+        assertEquals(32767, PackingUtils.toSnorm16(Float.POSITIVE_INFINITY));
+        assertEquals(-32767, PackingUtils.toSnorm16(Float.NEGATIVE_INFINITY));
+
+        // subnormal floats are far below one step
+        assertEquals(0, PackingUtils.toSnorm16(Float.MIN_VALUE));
+        assertEquals(0, PackingUtils.toSnorm16(-Float.MIN_NORMAL));
+
+        assertEquals(0, PackingUtils.toSnorm16(Float.NaN));
+    }
+
+    @Test
+    void snorm16IsWithinHalfAStep() {
+        for (int i = -100000; i <= 100000; i++) {
+            float value = i / 100000f;
+            short snorm = PackingUtils.toSnorm16(value);
+            assertEquals(value, snorm / 32767f, 0.5f / 32767f + Math.ulp(value), "Value " + value);
+        }
+    }
+
+    private static void assertHalf(int expected, float value) {
+        assertEquals((short) expected, PackingUtils.toHalf(value),
+                () -> "toHalf(" + value + ") expected " + Integer.toHexString(expected) + " but was " +
+                        Integer.toHexString(PackingUtils.toHalf(value) & 0xFFFF));
+    }
+
+    private static float halfToFloat(int half) {
+        int exponent = (half >>> 10) & 0x1F;
+        int mantissa = half & 0x3FF;
+        float magnitude = exponent == 0 ? mantissa * SMALLEST_SUBNORMAL :
+                (1 + mantissa / 1024f) * (float) Math.pow(2, exponent - 15);
+        return (half & 0x8000) != 0 ? -magnitude : magnitude;
+    }
+
+    /**
+     * Finds the nearest finite half to a non-negative float below 65520 by comparing distances in double precision.
+     */
+    private static int nearestHalf(float value) {
+        int low = 0;
+        int high = 0x7BFF;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (halfToFloat(mid) <= value) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (low == 0x7BFF) {
+            return low;
+        }
+
+        double below = value - (double) halfToFloat(low);
+        double above = (double) halfToFloat(low + 1) - value;
+        if (below < above || (below == above && (low & 1) == 0)) {
+            return low;
+        }
+        return low + 1;
+    }
+}